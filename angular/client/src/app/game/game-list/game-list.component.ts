@@ -1,8 +1,10 @@
 import { Component, OnInit } from '@angular/core';
 import { MatDialog } from '@angular/material/dialog';
+import { MatPaginatorModule, PageEvent } from '@angular/material/paginator';
 import { GameEditComponent } from '../game-edit/game-edit.component';
 import { GameService } from '../game.service';
 import { Game } from '../model/Game';
+import { Pageable } from '../../core/model/page/Pageable';
 import { CategoryService } from '../../../category/category.service';
 import { Category } from '../../../category/model/Category';
 import { CommonModule } from '@angular/common';
@@ -22,6 +24,7 @@ import { GameItemComponent } from './game-item/game-item.component';
         MatButtonModule,
         MatIconModule,
         MatTableModule,
+        MatPaginatorModule,
         CommonModule,
         FormsModule,
         MatFormFieldModule,
@@ -38,6 +41,10 @@ export class GameListComponent implements OnInit {
     filterCategory: Category;
     filterTitle: string;
 
+    pageNumber: number = 0;
+    pageSize: number = 20;
+    totalElements: number = 0;
+
     constructor(
         private gameService: GameService,
         private categoryService: CategoryService,
@@ -45,7 +52,7 @@ export class GameListComponent implements OnInit {
     ) {}
 
     ngOnInit(): void {
-        this.gameService.getGames().subscribe((games) => (this.games = games));
+        this.loadPage();
 
         this.categoryService
             .getCategories()
@@ -59,13 +66,39 @@ export class GameListComponent implements OnInit {
     }
 
     onSearch(): void {
+        this.pageNumber = 0;
+        this.loadPage();
+    }
+
+    loadPage(event?: PageEvent): void {
+        const pageable: Pageable = {
+            pageNumber: this.pageNumber,
+            pageSize: this.pageSize,
+            sort: [
+                {
+                    property: 'title',
+                    direction: 'ASC',
+                },
+            ],
+        };
+
+        if (event != null) {
+            pageable.pageSize = event.pageSize;
+            pageable.pageNumber = event.pageIndex;
+        }
+
         const title = this.filterTitle;
         const categoryId =
             this.filterCategory != null ? this.filterCategory.id : null;
 
         this.gameService
-            .getGames(title, categoryId)
-            .subscribe((games) => (this.games = games));
+            .searchGames(pageable, title, categoryId)
+            .subscribe((data) => {
+                this.games = data.content;
+                this.pageNumber = data.pageable.pageNumber;
+                this.pageSize = data.pageable.pageSize;
+                this.totalElements = data.totalElements;
+            });
     }
 
     createGame() {
@@ -74,7 +107,7 @@ export class GameListComponent implements OnInit {
         });
 
         dialogRef.afterClosed().subscribe((result) => {
-            this.ngOnInit();
+            this.loadPage();
         });
     }
 
@@ -84,7 +117,7 @@ export class GameListComponent implements OnInit {
         });
 
         dialogRef.afterClosed().subscribe((result) => {
-            this.onSearch();
+            this.loadPage();
         });
     }
 }
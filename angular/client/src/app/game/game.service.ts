@@ -1,6 +1,8 @@
 import { Injectable } from '@angular/core';
 import { Observable, of } from 'rxjs';
 import { Game } from './model/Game';
+import { GamePage } from './model/GamePage';
+import { Pageable } from '../core/model/page/Pageable';
 import { HttpClient } from '@angular/common/http';
 
 @Injectable({
@@ -17,6 +19,10 @@ export class GameService {
         return this.http.get<Game[]>(this.composeFindUrl(title, categoryId));
     }
 
+    searchGames(pageable: Pageable, title?: string, categoryId?: number): Observable<GamePage> {
+        return this.http.post<GamePage>(`${this.baseUrl}/search`, { title: title, categoryId: categoryId, pageable: pageable });
+    }
+
     saveGame(game: Game): Observable<void> {
         const { id } = game;
         const url = id ? `${this.baseUrl}/${id}` : this.baseUrl;
@@ -0,0 +1,8 @@
+import { Pageable } from "../../core/model/page/Pageable";
+import { Game } from "./Game";
+
+export class GamePage {
+    content: Game[];
+    pageable: Pageable;
+    totalElements: number;
+}
@@ -3,13 +3,14 @@ package com.ccsw.tutorial.author;
 import com.ccsw.tutorial.author.model.Author;
 import com.ccsw.tutorial.author.model.AuthorDto;
 import com.ccsw.tutorial.author.model.AuthorSearchDto;
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.config.ResponsePage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,6 +28,9 @@ public class AuthorController {
     @Autowired
     AuthorService authorService;
 
+    @Autowired
+    AuthorListVersion listVersion;
+
     @Autowired
     ModelMapper mapper;
 
@@ -34,15 +38,27 @@ public class AuthorController {
      * Método para recuperar un listado paginado de {@link Author}
      *
      * @param dto dto de búsqueda
-     * @return {@link Page} de {@link AuthorDto}
+     * @return {@link ResponsePage} de {@link AuthorDto}
      */
     @Operation(summary = "Find Page", description = "Method that return a page of Authors")
     @RequestMapping(path = "", method = RequestMethod.POST)
-    public Page<AuthorDto> findPage(@RequestBody AuthorSearchDto dto) {
+    public ResponsePage<AuthorDto> findPage(@RequestBody AuthorSearchDto dto) {
+
+        return this.authorService.findPage(dto);
+    }
 
-        Page<Author> page = this.authorService.findPage(dto);
+    /**
+     * Método para recuperar un listado paginado por cursor de {@link Author}
+     *
+     * @param dto dto de búsqueda, con el cursor devuelto en la página anterior
+     * @return {@link KeysetPage} de {@link AuthorDto}
+     * @throws Exception si la ordenación o el cursor no son válidos
+     */
+    @Operation(summary = "Find Keyset Page", description = "Method that return a cursor-based page of Authors")
+    @RequestMapping(path = "/keyset", method = RequestMethod.POST)
+    public KeysetPage<AuthorDto> findKeysetPage(@RequestBody AuthorSearchDto dto) throws Exception {
 
-        return new PageImpl<>(page.getContent().stream().map(e -> mapper.map(e, AuthorDto.class)).collect(Collectors.toList()), page.getPageable(), page.getTotalElements());
+        return this.authorService.findKeysetPage(dto).map(e -> mapper.map(e, AuthorDto.class));
     }
 
     /**
@@ -73,11 +89,16 @@ public class AuthorController {
     /**
      * Recupera un listado de autores {@link Author}
      *
-     * @return {@link List} de {@link AuthorDto}
+     * @param request petición, con el If-None-Match del cliente
+     * @return {@link List} de {@link AuthorDto}, nada con 304 si no ha cambiado
      */
     @Operation(summary = "Find", description = "Method that return a list of Authors")
     @RequestMapping(path = "", method = RequestMethod.GET)
-    public List<AuthorDto> findAll() {
+    public List<AuthorDto> findAll(WebRequest request) {
+
+        if (request.checkNotModified(this.listVersion.etag())) {
+            return null;
+        }
 
         List<Author> authors = this.authorService.findAll();
 
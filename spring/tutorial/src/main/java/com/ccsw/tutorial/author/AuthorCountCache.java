@@ -0,0 +1,47 @@
+package com.ccsw.tutorial.author;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.CountCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Total del listado paginado de autores. El listado no tiene filtros, así que hay una
+ * única entrada, que se invalida con cada autor creado, modificado o borrado una vez
+ * confirmada la transacción.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class AuthorCountCache extends CountCache {
+
+    /**
+     * Clave del listado completo: la paginación y la ordenación no cambian el total
+     */
+    public static final String KEY = "all";
+
+    private static final int MAX_ENTRIES = 1;
+
+    public AuthorCountCache(@Value("${author.count-cache.ttl-seconds:30}") long ttlSeconds) {
+
+        super(Duration.ofSeconds(ttlSeconds), MAX_ENTRIES);
+    }
+
+    /**
+     * Invalida el total al cambiar cualquier autor
+     *
+     * @param event cambio del catálogo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        if (event.getType() == Author.class) {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ccsw.tutorial.author;
+
+import com.ccsw.tutorial.common.version.ListVersion;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versión del listado de los autores, que sube AuthorServiceImpl al guardar o borrar
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class AuthorListVersion extends ListVersion {
+}
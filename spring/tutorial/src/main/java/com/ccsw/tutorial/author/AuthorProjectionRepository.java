@@ -0,0 +1,24 @@
+package com.ccsw.tutorial.author;
+
+import com.ccsw.tutorial.author.model.AuthorDto;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+public interface AuthorProjectionRepository {
+
+    /**
+     * Recupera filas del listado de autores con una proyección a constructor
+     *
+     * @param sort ordenación
+     * @param offset primera fila
+     * @param limit número máximo de filas
+     * @return {@link List} de {@link AuthorDto}
+     */
+    List<AuthorDto> findList(Sort sort, long offset, int limit);
+
+}
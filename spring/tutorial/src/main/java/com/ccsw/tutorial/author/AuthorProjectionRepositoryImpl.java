@@ -0,0 +1,36 @@
+package com.ccsw.tutorial.author;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.author.model.AuthorDto;
+import com.ccsw.tutorial.common.criteria.ProjectionQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+public class AuthorProjectionRepositoryImpl implements AuthorProjectionRepository {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AuthorDto> findList(Sort sort, long offset, int limit) {
+
+        return ProjectionQuery.list(this.entityManager, Author.class, AuthorDto.class, null, sort, offset, limit, AuthorProjectionRepositoryImpl::columns);
+    }
+
+    private static Selection<?>[] columns(Root<Author> root) {
+
+        return new Selection<?>[] { root.get("id"), root.get("name"), root.get("nationality") };
+    }
+}
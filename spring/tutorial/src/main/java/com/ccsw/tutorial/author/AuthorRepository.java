@@ -1,22 +1,13 @@
 package com.ccsw.tutorial.author;
 
 import com.ccsw.tutorial.author.model.Author;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 
 /**
  * @author ccsw
  *
  */
-public interface AuthorRepository extends CrudRepository<Author, Long> {
-
-    /**
-     * Método para recuperar un listado paginado de {@link Author}
-     *
-     * @param pageable pageable
-     * @return {@link Page} de {@link Author}
-     */
-    Page<Author> findAll(Pageable pageable);
+public interface AuthorRepository extends CrudRepository<Author, Long>, JpaSpecificationExecutor<Author>, AuthorProjectionRepository {
 
 }
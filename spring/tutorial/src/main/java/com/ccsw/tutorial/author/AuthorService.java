@@ -3,7 +3,8 @@ package com.ccsw.tutorial.author;
 import com.ccsw.tutorial.author.model.Author;
 import com.ccsw.tutorial.author.model.AuthorDto;
 import com.ccsw.tutorial.author.model.AuthorSearchDto;
-import org.springframework.data.domain.Page;
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.config.ResponsePage;
 
 import java.util.List;
 
@@ -24,10 +25,19 @@ public interface AuthorService {
     /**
      * Método para recuperar un listado paginado de {@link Author}
      *
-     * @param dto dto de búsqueda
-     * @return {@link Page} de {@link Author}
+     * @param dto dto de búsqueda, con el modo de obtener el total en el pageable
+     * @return {@link ResponsePage} de {@link AuthorDto}
      */
-    Page<Author> findPage(AuthorSearchDto dto);
+    ResponsePage<AuthorDto> findPage(AuthorSearchDto dto);
+
+    /**
+     * Método para recuperar un listado paginado por cursor de {@link Author}
+     *
+     * @param dto dto de búsqueda, con el cursor de la página anterior en el pageable
+     * @return {@link KeysetPage} de {@link Author}
+     * @throws Exception si la ordenación o el cursor no son válidos
+     */
+    KeysetPage<Author> findKeysetPage(AuthorSearchDto dto) throws Exception;
 
     /**
      * Método para crear o actualizar un {@link Author}
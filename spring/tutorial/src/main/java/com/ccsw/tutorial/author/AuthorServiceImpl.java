@@ -3,13 +3,24 @@ package com.ccsw.tutorial.author;
 import com.ccsw.tutorial.author.model.Author;
 import com.ccsw.tutorial.author.model.AuthorDto;
 import com.ccsw.tutorial.author.model.AuthorSearchDto;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.KeysetPagination;
+import com.ccsw.tutorial.common.pagination.PageQuery;
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.config.ResponsePage;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * @author ccsw
@@ -19,9 +30,20 @@ import java.util.List;
 @Transactional
 public class AuthorServiceImpl implements AuthorService {
 
+    private static final KeysetPagination<Author> KEYSET = new KeysetPagination<>(Map.<String, Function<String, Comparable<?>>> of("id", Long::valueOf, "name", value -> value));
+
     @Autowired
     AuthorRepository authorRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    AuthorListVersion listVersion;
+
+    @Autowired
+    AuthorCountCache countCache;
+
     /**
      * {@inheritDoc}
      */
@@ -35,9 +57,26 @@ public class AuthorServiceImpl implements AuthorService {
      * {@inheritDoc}
      */
     @Override
-    public Page<Author> findPage(AuthorSearchDto dto) {
+    public ResponsePage<AuthorDto> findPage(AuthorSearchDto dto) {
+
+        PageableRequest request = dto.getPageable() != null ? dto.getPageable() : new PageableRequest(0, 10);
+        Pageable pageable = request.getPageable();
+
+        // Desempate por PK para que las páginas no repitan ni salten autores
+        if (pageable.getSort().getOrderFor("id") == null) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().and(Sort.by("id")));
+        }
 
-        return this.authorRepository.findAll(dto.getPageable().getPageable());
+        return PageQuery.find(this.authorRepository, null, pageable, request.getTotal(), this.countCache, AuthorCountCache.KEY, this.authorRepository::findList);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeysetPage<Author> findKeysetPage(AuthorSearchDto dto) throws Exception {
+
+        return KEYSET.find(this.authorRepository, null, dto.getPageable());
     }
 
     /**
@@ -57,6 +96,9 @@ public class AuthorServiceImpl implements AuthorService {
         BeanUtils.copyProperties(data, author, "id");
 
         this.authorRepository.save(author);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Author.class, author.getId()));
     }
 
     /**
@@ -70,6 +112,9 @@ public class AuthorServiceImpl implements AuthorService {
         }
 
         this.authorRepository.deleteById(id);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Author.class, id));
     }
 
     /**
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,17 +25,26 @@ public class CategoryController {
     @Autowired
     CategoryService categoryService;
 
+    @Autowired
+    CategoryListVersion listVersion;
+
     @Autowired
     ModelMapper mapper;
 
     /**
      * Método para recuperar todas las {@link Category}
      *
-     * @return {@link List} de {@link CategoryDto}
+     * @param request petición, con el If-None-Match del cliente
+     * @return {@link List} de {@link CategoryDto}, nada con 304 si no ha cambiado
      */
     @Operation(summary = "Find", description = "Method that return a list of Categories")
     @RequestMapping(path = "", method = RequestMethod.GET)
-    public List<CategoryDto> findAll() {
+    public List<CategoryDto> findAll(WebRequest request) {
+
+        // Se compara solo la versión, antes de consultar y mapear
+        if (request.checkNotModified(this.listVersion.etag())) {
+            return null;
+        }
 
         List<Category> categories = this.categoryService.findAll();
 
@@ -0,0 +1,14 @@
+package com.ccsw.tutorial.category;
+
+import com.ccsw.tutorial.common.version.ListVersion;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versión del listado de las categorías, que sube CategoryServiceImpl al guardar o borrar
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class CategoryListVersion extends ListVersion {
+}
@@ -2,8 +2,10 @@ package com.ccsw.tutorial.category;
 
 import com.ccsw.tutorial.category.model.Category;
 import com.ccsw.tutorial.category.model.CategoryDto;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +21,12 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    CategoryListVersion listVersion;
+
     /**
      * {@inheritDoc}
      */
@@ -54,6 +62,9 @@ public class CategoryServiceImpl implements CategoryService {
         category.setName(dto.getName());
 
         this.categoryRepository.save(category);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Category.class, category.getId()));
     }
 
     /**
@@ -67,6 +78,9 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         this.categoryRepository.deleteById(id);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Category.class, id));
     }
 
 }
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,17 +25,25 @@ public class ClientController {
     @Autowired
     ClientService clientService;
 
+    @Autowired
+    ClientListVersion listVersion;
+
     @Autowired
     ModelMapper mapper;
 
     /**
      * Método para recuperar todos los {@link Client}
      *
-     * @return {@link List} de {@link ClientDto}
+     * @param request petición, con el If-None-Match del cliente
+     * @return {@link List} de {@link ClientDto}, nada con 304 si no ha cambiado
      */
     @Operation(summary = "Find", description = "Method that return a list of Clients")
     @RequestMapping(path = "", method = RequestMethod.GET)
-    public List<ClientDto> findAll() {
+    public List<ClientDto> findAll(WebRequest request) {
+
+        if (request.checkNotModified(this.listVersion.etag())) {
+            return null;
+        }
 
         List<Client> clients = this.clientService.findAll();
 
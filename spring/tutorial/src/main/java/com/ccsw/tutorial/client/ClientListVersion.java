@@ -0,0 +1,14 @@
+package com.ccsw.tutorial.client;
+
+import com.ccsw.tutorial.common.version.ListVersion;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versión del listado de los clientes, que sube ClientServiceImpl al guardar o borrar
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class ClientListVersion extends ListVersion {
+}
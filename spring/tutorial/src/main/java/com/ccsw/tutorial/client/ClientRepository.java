@@ -1,7 +1,12 @@
 package com.ccsw.tutorial.client;
 
 import com.ccsw.tutorial.client.model.Client;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author ccsw
@@ -17,5 +22,14 @@ public interface ClientRepository extends CrudRepository<Client, Long> {
      */
     Client findByName(String name);
 
+    /**
+     * Recupera de una sola vez cuáles de los IDs indicados existen
+     *
+     * @param ids PKs a comprobar
+     * @return {@link List} de PKs existentes
+     */
+    @Query("SELECT c.id FROM Client c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
 }
 
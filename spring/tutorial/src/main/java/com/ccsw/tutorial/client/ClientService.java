@@ -3,6 +3,7 @@ package com.ccsw.tutorial.client;
 import com.ccsw.tutorial.client.model.Client;
 import com.ccsw.tutorial.client.model.ClientDto;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,5 +42,13 @@ public interface ClientService {
      */
     void delete(Long id) throws Exception;
 
+    /**
+     * Recupera en una sola consulta cuáles de los IDs indicados corresponden a un {@link Client}
+     *
+     * @param ids PKs a comprobar
+     * @return {@link List} de PKs existentes
+     */
+    List<Long> findExistingIds(Collection<Long> ids);
+
 }
 
@@ -2,10 +2,13 @@ package com.ccsw.tutorial.client;
 
 import com.ccsw.tutorial.client.model.Client;
 import com.ccsw.tutorial.client.model.ClientDto;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +22,12 @@ public class ClientServiceImpl implements ClientService {
     @Autowired
     ClientRepository clientRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    ClientListVersion listVersion;
+
     /**
      * {@inheritDoc}
      */
@@ -64,6 +73,9 @@ public class ClientServiceImpl implements ClientService {
         client.setName(dto.getName());
 
         this.clientRepository.save(client);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Client.class, client.getId()));
     }
 
     /**
@@ -77,6 +89,18 @@ public class ClientServiceImpl implements ClientService {
         }
 
         this.clientRepository.deleteById(id);
+
+        this.listVersion.bump();
+        this.eventPublisher.publishEvent(new CatalogChangeEvent(Client.class, id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+
+        return this.clientRepository.findExistingIds(ids);
     }
 
 }
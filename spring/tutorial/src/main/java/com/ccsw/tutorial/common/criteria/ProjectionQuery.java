@@ -0,0 +1,127 @@
+package com.ccsw.tutorial.common.criteria;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Consultas con proyección a constructor: seleccionan solo las columnas indicadas y
+ * construyen el DTO en la propia consulta, aplicando los mismos {@link Specification}
+ * que las búsquedas sobre entidades. Los resultados no son entidades gestionadas.
+ */
+public final class ProjectionQuery {
+
+    private ProjectionQuery() {
+
+    }
+
+    /**
+     * @param entityManager entity manager
+     * @param domain entidad raíz de la consulta
+     * @param projection clase con un constructor que recibe las columnas en orden
+     * @param spec filtros, puede ser nulo
+     * @param sort ordenación sobre propiedades de la entidad
+     * @param offset primera fila
+     * @param limit número máximo de filas, 0 para todas
+     * @param columns joins y columnas a seleccionar a partir de la raíz
+     * @return {@link List} de proyecciones
+     */
+    public static <T, R> List<R> list(EntityManager entityManager, Class<T> domain, Class<R> projection, Specification<T> spec, Sort sort, long offset, int limit, Function<Root<T>, Selection<?>[]> columns) {
+
+        return list(entityManager, domain, projection, spec, sort, offset, limit, columns, Map.of());
+    }
+
+    /**
+     * Igual que {@link #list(EntityManager, Class, Class, Specification, Sort, long, int, Function)}
+     * pero ordenando algunas propiedades por una expresión en lugar de por la columna,
+     * por ejemplo un texto que guarda un número.
+     *
+     * @param entityManager entity manager
+     * @param domain entidad raíz de la consulta
+     * @param projection clase con un constructor que recibe las columnas en orden
+     * @param spec filtros, puede ser nulo
+     * @param sort ordenación sobre propiedades de la entidad
+     * @param offset primera fila
+     * @param limit número máximo de filas, 0 para todas
+     * @param columns joins y columnas a seleccionar a partir de la raíz
+     * @param sortExpressions expresión por la que ordenar cada propiedad que no se ordena por su columna
+     * @return {@link List} de proyecciones
+     */
+    public static <T, R> List<R> list(EntityManager entityManager, Class<T> domain, Class<R> projection, Specification<T> spec, Sort sort, long offset, int limit, Function<Root<T>, Selection<?>[]> columns,
+            Map<String, Function<Root<T>, Expression<?>>> sortExpressions) {
+
+        TypedQuery<R> query = build(entityManager, domain, projection, spec, sort, columns, sortExpressions).setFirstResult((int) offset);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+
+        return query.getResultList();
+    }
+
+    /**
+     * Recorre el resultado sin cargarlo entero en memoria: las filas se leen de la BBDD
+     * en bloques de fetchSize a medida que se consume el {@link Stream}, que debe
+     * cerrarse y consumirse dentro de la transacción.
+     *
+     * @param entityManager entity manager
+     * @param domain entidad raíz de la consulta
+     * @param projection clase con un constructor que recibe las columnas en orden
+     * @param spec filtros, puede ser nulo
+     * @param sort ordenación sobre propiedades de la entidad
+     * @param fetchSize filas a leer por cada viaje a la BBDD
+     * @param columns joins y columnas a seleccionar a partir de la raíz
+     * @return {@link Stream} de proyecciones
+     */
+    public static <T, R> Stream<R> stream(EntityManager entityManager, Class<T> domain, Class<R> projection, Specification<T> spec, Sort sort, int fetchSize, Function<Root<T>, Selection<?>[]> columns) {
+
+        return build(entityManager, domain, projection, spec, sort, columns, Map.of()).setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize).setHint(HibernateHints.HINT_READ_ONLY, true).getResultStream();
+    }
+
+    private static <T, R> TypedQuery<R> build(EntityManager entityManager, Class<T> domain, Class<R> projection, Specification<T> spec, Sort sort, Function<Root<T>, Selection<?>[]> columns,
+            Map<String, Function<Root<T>, Expression<?>>> sortExpressions) {
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = builder.createQuery(projection);
+        Root<T> root = query.from(domain);
+
+        query.select(builder.construct(projection, columns.apply(root)));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        if (sort != null && sort.isSorted()) {
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Function<Root<T>, Expression<?>> expression = sortExpressions.get(order.getProperty());
+                if (expression == null) {
+                    orders.addAll(QueryUtils.toOrders(Sort.by(order), root, builder));
+                } else {
+                    orders.add(order.isAscending() ? builder.asc(expression.apply(root)) : builder.desc(expression.apply(root)));
+                }
+            }
+            query.orderBy(orders);
+        }
+
+        return entityManager.createQuery(query);
+    }
+}
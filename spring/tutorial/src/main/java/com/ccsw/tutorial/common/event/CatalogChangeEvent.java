@@ -0,0 +1,35 @@
+package com.ccsw.tutorial.common.event;
+
+/**
+ * Alta, modificación o borrado de una entidad del catálogo (juego, categoría,
+ * autor o cliente), para que las cachés que muestran sus datos se invaliden
+ *
+ * @author ccsw
+ *
+ */
+public class CatalogChangeEvent {
+
+    private final Class<?> type;
+
+    private final Long id;
+
+    public CatalogChangeEvent(Class<?> type, Long id) {
+
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * @return type clase de la entidad modificada
+     */
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * @return id PK de la entidad modificada
+     */
+    public Long getId() {
+        return this.id;
+    }
+}
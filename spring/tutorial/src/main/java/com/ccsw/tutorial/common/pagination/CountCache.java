@@ -0,0 +1,110 @@
+package com.ccsw.tutorial.common.pagination;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché de totales de búsquedas paginadas, por clave de filtro normalizada. Cada
+ * entrada caduca tras un tiempo y todas quedan invalidadas al llamar a
+ * {@link #invalidate()}, aunque se conservan para servir estimaciones hasta que
+ * caducan.
+ */
+public class CountCache {
+
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // Reloj en milisegundos, sustituible en los tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    public CountCache(Duration ttl, int maxEntries) {
+
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Devuelve el total si sigue vigente o lo calcula y lo guarda
+     *
+     * @param key filtro normalizado
+     * @param counter consulta COUNT
+     * @return total exacto en el momento de calcularlo
+     */
+    public long get(String key, LongSupplier counter) {
+
+        long current = this.generation.get();
+        Entry entry = this.entries.get(key);
+
+        if (entry != null && entry.generation == current && entry.expiresAt > this.clock.getAsLong()) {
+            return entry.value;
+        }
+
+        return count(key, counter, current);
+    }
+
+    /**
+     * Devuelve el último total conocido aunque haya habido escrituras desde que se
+     * calculó, y lo vuelve a calcular si no hay ninguno o ya ha caducado
+     *
+     * @param key filtro normalizado
+     * @param counter consulta COUNT
+     * @return total aproximado, con una antigüedad máxima de la duración de la caché
+     */
+    public long estimate(String key, LongSupplier counter) {
+
+        Entry entry = this.entries.get(key);
+
+        if (entry != null && entry.expiresAt > this.clock.getAsLong()) {
+            return entry.value;
+        }
+
+        return count(key, counter, this.generation.get());
+    }
+
+    /**
+     * Invalida todos los totales guardados
+     */
+    public void invalidate() {
+
+        this.generation.incrementAndGet();
+    }
+
+    private long count(String key, LongSupplier counter, long generation) {
+
+        long value = counter.getAsLong();
+
+        if (this.entries.size() >= this.maxEntries && !this.entries.containsKey(key)) {
+            this.entries.clear();
+        }
+
+        // Si ha habido una escritura mientras se contaba, el valor se guarda ya invalidado
+        this.entries.put(key, new Entry(value, generation, this.clock.getAsLong() + this.ttlMillis));
+
+        return value;
+    }
+
+    private static final class Entry {
+
+        private final long value;
+
+        private final long generation;
+
+        private final long expiresAt;
+
+        private Entry(long value, long generation, long expiresAt) {
+
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.ccsw.tutorial.common.pagination;
+
+import jakarta.persistence.criteria.Path;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Paginación por clave (seek): en lugar de saltar pageNumber * pageSize filas, cada
+ * página continúa a partir del último valor de ordenación y PK devueltos, que
+ * viajan codificados en {@link PageableRequest#getCursor()}. No ejecuta COUNT y el
+ * coste de cada página no depende de su profundidad.
+ *
+ * Solo se permite ordenar por las propiedades indicadas en la lista blanca, que
+ * deben estar respaldadas por un índice, y el tamaño de página se limita a
+ * {@link #MAX_PAGE_SIZE}.
+ */
+public class KeysetPagination<T> {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+
+    private static final String ID = "id";
+
+    private static final String SEPARATOR = "|";
+
+    private final Map<String, Function<String, Comparable<?>>> sortable;
+
+    private final String[] fetch;
+
+    /**
+     * @param sortable propiedades por las que se puede ordenar y cómo leer su valor del cursor
+     * @param fetch relaciones a cargar junto con cada entidad
+     */
+    public KeysetPagination(Map<String, Function<String, Comparable<?>>> sortable, String... fetch) {
+
+        this.sortable = sortable;
+        this.fetch = fetch;
+    }
+
+    /**
+     * Recupera la página siguiente al cursor de la petición
+     *
+     * @param executor repositorio
+     * @param spec filtros de la búsqueda
+     * @param request paginación solicitada
+     * @return {@link KeysetPage}
+     * @throws Exception si la ordenación o el cursor no son válidos
+     */
+    public KeysetPage<T> find(JpaSpecificationExecutor<T> executor, Specification<T> spec, PageableRequest request) throws Exception {
+
+        PageableRequest pageable = request != null ? request : new PageableRequest(0, DEFAULT_PAGE_SIZE);
+        int size = Math.min(pageable.getPageSize() > 0 ? pageable.getPageSize() : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+
+        String property = ID;
+        Sort.Direction direction = Sort.Direction.ASC;
+
+        List<PageableRequest.SortRequest> sort = pageable.getSort();
+        if (sort != null && sort.size() > 1) {
+            throw new Exception("La paginación por cursor solo admite una propiedad de ordenación");
+        }
+        if (sort != null && sort.size() == 1) {
+            property = sort.get(0).getProperty();
+            direction = sort.get(0).getDirection() != null ? sort.get(0).getDirection() : Sort.Direction.ASC;
+        }
+        if (!this.sortable.containsKey(property)) {
+            throw new Exception("No se puede ordenar por " + property + " con paginación por cursor");
+        }
+
+        Specification<T> where = spec != null ? spec : Specification.unrestricted();
+        if (pageable.getCursor() != null && !pageable.getCursor().isEmpty()) {
+            where = Specification.allOf(where, after(property, direction, pageable.getCursor()));
+        }
+
+        Sort order = ID.equals(property) ? Sort.by(direction, ID) : Sort.by(direction, property).and(Sort.by(direction, ID));
+
+        // Se pide una fila más de las necesarias para saber si hay página siguiente sin contar
+        List<T> rows = executor.findBy(where, q -> {
+            FluentQuery.FetchableFluentQuery<T> query = q.sortBy(order).limit(size + 1);
+            return (this.fetch.length > 0 ? query.project(this.fetch) : query).all();
+        });
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = encode(property, direction, rows.get(size - 1));
+        }
+
+        return new KeysetPage<>(rows, size, nextCursor);
+    }
+
+    private Specification<T> after(String property, Sort.Direction direction, String cursor) throws Exception {
+
+        Long lastId;
+        Comparable<?> lastValue;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !parts[0].equals(property) || !parts[1].equals(direction.name())) {
+                throw new Exception("El cursor de paginación no corresponde a la ordenación solicitada");
+            }
+            lastId = Long.valueOf(parts[2]);
+            lastValue = this.sortable.get(property).apply(parts[3]);
+        } catch (RuntimeException e) {
+            throw new Exception("Cursor de paginación no válido");
+        }
+
+        boolean asc = direction.isAscending();
+
+        return (root, query, builder) -> {
+            Path<Long> id = root.get(ID);
+            if (ID.equals(property)) {
+                return asc ? builder.greaterThan(id, lastId) : builder.lessThan(id, lastId);
+            }
+
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            Path<Comparable> path = root.get(property);
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            Comparable value = lastValue;
+
+            return builder.or(asc ? builder.greaterThan(path, value) : builder.lessThan(path, value), builder.and(builder.equal(path, value), asc ? builder.greaterThan(id, lastId) : builder.lessThan(id, lastId)));
+        };
+    }
+
+    private String encode(String property, Sort.Direction direction, T last) {
+
+        Object id = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(ID);
+        Object value = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(property);
+
+        String token = property + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.ccsw.tutorial.common.pagination;
+
+import com.ccsw.tutorial.config.ResponsePage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Ejecuta una búsqueda paginada obteniendo el total según el {@link PageTotal} pedido.
+ * Salvo en {@link PageTotal#EXACT}, la página se lee como un slice (tamaño + 1 filas)
+ * y el COUNT se omite o se sirve desde una {@link CountCache}.
+ */
+public class PageQuery {
+
+    private PageQuery() {
+
+    }
+
+    /**
+     * Lectura de las filas de una página
+     */
+    @FunctionalInterface
+    public interface Rows<R> {
+
+        /**
+         * @param sort ordenación
+         * @param offset primera fila
+         * @param limit número máximo de filas
+         * @return filas leídas
+         */
+        List<R> fetch(Sort sort, long offset, int limit);
+    }
+
+    /**
+     * @param executor repositorio, usado para contar
+     * @param spec filtros de la búsqueda
+     * @param pageable página solicitada
+     * @param mode cómo obtener el total, nulo equivale a {@link PageTotal#EXACT}
+     * @param cache caché de totales del repositorio
+     * @param key filtro normalizado para la caché
+     * @param rows lectura de las filas con los mismos filtros
+     * @return {@link ResponsePage} indicando de dónde sale el total
+     */
+    public static <T, R> ResponsePage<R> find(JpaSpecificationExecutor<T> executor, Specification<T> spec, Pageable pageable, PageTotal mode, CountCache cache, String key, Rows<R> rows) {
+
+        Specification<T> where = spec != null ? spec : Specification.unrestricted();
+
+        return find(() -> executor.count(where), pageable, mode, cache, key, rows);
+    }
+
+    /**
+     * @param count total de filas con los filtros de la búsqueda
+     * @param pageable página solicitada
+     * @param mode cómo obtener el total, nulo equivale a {@link PageTotal#EXACT}
+     * @param cache caché de totales del repositorio
+     * @param key filtro normalizado para la caché
+     * @param rows lectura de las filas con los mismos filtros
+     * @return {@link ResponsePage} indicando de dónde sale el total
+     */
+    public static <R> ResponsePage<R> find(LongSupplier count, Pageable pageable, PageTotal mode, CountCache cache, String key, Rows<R> rows) {
+
+        if (mode == null || mode == PageTotal.EXACT) {
+            // Solo se cuenta si la página no permite deducir el total
+            List<R> content = rows.fetch(pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+            Page<R> page = PageableExecutionUtils.getPage(content, pageable, count);
+
+            return new ResponsePage<>(page, PageTotal.EXACT);
+        }
+
+        List<R> content = rows.fetch(pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+
+        long total;
+        if (mode == PageTotal.CACHED) {
+            total = cache.get(key, count::getAsLong);
+        } else if (mode == PageTotal.ESTIMATED) {
+            total = cache.estimate(key, count::getAsLong);
+        } else {
+            // Cota inferior: suficiente para que hasNext/last sean correctos
+            total = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+        }
+
+        return new ResponsePage<>(content, pageable, total, mode);
+    }
+
+    /**
+     * Une varias lecturas con los mismos filtros sobre tablas distintas (préstamos
+     * vigentes y archivados, por ejemplo) como si fueran una sola. Cada fuente lee
+     * desde el principio hasta offset + limit filas con la misma ordenación más el
+     * desempate indicado; las filas se mezclan en memoria y se devuelve el tramo
+     * pedido. El coste crece con la profundidad de la página, por lo que solo debe
+     * usarse cuando la búsqueda alcanza más de una fuente.
+     *
+     * @param tieBreak ordenación que desempata filas iguales, normalmente por PK
+     * @param sources lecturas de cada tabla
+     * @return lectura conjunta
+     */
+    public static <R> Rows<R> merge(Sort tieBreak, List<Rows<R>> sources) {
+
+        return (sort, offset, limit) -> {
+            Sort order = sort.and(tieBreak);
+            int depth = (int) Math.min(Integer.MAX_VALUE, offset + limit);
+
+            List<R> rows = new ArrayList<>();
+            for (Rows<R> source : sources) {
+                rows.addAll(source.fetch(order, 0, depth));
+            }
+            rows.sort(comparator(order));
+
+            return new ArrayList<>(rows.subList((int) Math.min(offset, rows.size()), Math.min(depth, rows.size())));
+        };
+    }
+
+    /**
+     * Comparador equivalente a una ordenación de la consulta sobre las filas ya
+     * leídas. Las propiedades anidadas (game.title) se leen por sus métodos de acceso,
+     * de record o getters, y los nulos van primero en orden ascendente como en H2.
+     */
+    private static <R> Comparator<R> comparator(Sort sort) {
+
+        Comparator<R> result = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Comparable<Object>> values = Comparator.nullsFirst(Comparator.naturalOrder());
+            Comparator<R> by = Comparator.comparing(row -> value(row, order), values);
+            result = result.thenComparing(order.isAscending() ? by : by.reversed());
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> value(Object row, Sort.Order order) {
+
+        Object value = row;
+        for (String name : order.getProperty().split("\\.")) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                Method accessor = value.getClass().isRecord() ? value.getClass().getMethod(name) : value.getClass().getMethod("get" + StringUtils.capitalize(name));
+                value = accessor.invoke(value);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("No se puede ordenar por " + order.getProperty(), e);
+            }
+        }
+
+        if (order.isIgnoreCase() && value instanceof String text) {
+            value = text.toLowerCase();
+        }
+
+        return (Comparable<Object>) value;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.ccsw.tutorial.common.pagination;
+
+/**
+ * Cómo se obtiene el total de elementos de una búsqueda paginada
+ */
+public enum PageTotal {
+
+    /**
+     * Sin total: se pide una fila más para saber si hay página siguiente y no se ejecuta COUNT.
+     * El total devuelto es solo una cota inferior.
+     */
+    NONE,
+
+    /**
+     * COUNT exacto en cada petición
+     */
+    EXACT,
+
+    /**
+     * COUNT guardado durante un tiempo corto e invalidado con cada escritura
+     */
+    CACHED,
+
+    /**
+     * Último COUNT conocido aunque haya caducado o se haya invalidado; solo se cuenta si no hay ninguno
+     */
+    ESTIMATED
+
+}
@@ -20,6 +20,10 @@ public class PageableRequest implements Serializable {
 
     private List<SortRequest> sort;
 
+    private String cursor;
+
+    private PageTotal total;
+
     public PageableRequest() {
 
         sort = new ArrayList<>();
@@ -64,6 +68,22 @@ public class PageableRequest implements Serializable {
         this.sort = sort;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public PageTotal getTotal() {
+        return total;
+    }
+
+    public void setTotal(PageTotal total) {
+        this.total = total;
+    }
+
     @JsonIgnore
     public Pageable getPageable() {
 
@@ -0,0 +1,213 @@
+package com.ccsw.tutorial.common.pagination;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché LRU de resultados de búsqueda con un máximo de entradas y, opcionalmente,
+ * de peso (por ejemplo filas guardadas entre todas las entradas). Las escrituras
+ * invalidan solo las entradas afectadas y, mientras hay alguna en curso (entre
+ * {@link #beginWrite()} y {@link #endWrite()}), o si ha habido alguna durante el
+ * cálculo, el resultado se devuelve sin guardarlo: así nunca se guarda un resultado
+ * leído antes de que se confirme una escritura que lo cambia.
+ */
+public class ResultCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long maxWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, V> entries;
+
+    private long weight;
+
+    private long generation;
+
+    private int writes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private final LongAdder discarded = new LongAdder();
+
+    public ResultCache(int maxEntries) {
+
+        this(maxEntries, Long.MAX_VALUE, value -> 1);
+    }
+
+    /**
+     * @param maxEntries máximo de entradas
+     * @param maxWeight máximo de peso entre todas las entradas; un resultado más pesado no se guarda
+     * @param weigher peso de un resultado
+     */
+    public ResultCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher) {
+
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+
+                if (size() > ResultCache.this.maxEntries) {
+                    ResultCache.this.weight -= ResultCache.this.weigher.applyAsLong(eldest.getValue());
+                    ResultCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el resultado guardado o lo calcula y, si no ha habido escrituras, lo guarda
+     *
+     * @param key búsqueda normalizada
+     * @param loader cálculo del resultado
+     * @return resultado
+     */
+    public V get(K key, Supplier<V> loader) {
+
+        long start;
+        synchronized (this) {
+            V value = this.entries.get(key);
+            if (value != null) {
+                this.hits.increment();
+                return value;
+            }
+            start = this.generation;
+        }
+
+        this.misses.increment();
+        V value = loader.get();
+
+        synchronized (this) {
+            if (unchangedSince(start)) {
+                put(key, value);
+            } else {
+                this.discarded.increment();
+            }
+        }
+
+        return value;
+    }
+
+    private void put(K key, V value) {
+
+        long added = this.weigher.applyAsLong(value);
+        if (added > this.maxWeight) {
+            this.discarded.increment();
+            return;
+        }
+
+        V previous = this.entries.put(key, value);
+        this.weight += added - (previous != null ? this.weigher.applyAsLong(previous) : 0);
+
+        // Las menos usadas primero; la recién guardada es la última
+        Iterator<V> it = this.entries.values().iterator();
+        while (this.weight > this.maxWeight) {
+            this.weight -= this.weigher.applyAsLong(it.next());
+            it.remove();
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * @return contador que cambia con cada escritura o invalidación
+     */
+    protected synchronized long generation() {
+
+        return this.generation;
+    }
+
+    /**
+     * Indica si se puede guardar algo leído a partir de {@link #generation()}: no hay
+     * escrituras en curso ni ha habido ninguna desde entonces. Debe llamarse
+     * sincronizando sobre la caché junto con lo que se guarde.
+     *
+     * @param since valor de {@link #generation()} antes de leer
+     * @return true si lo leído sigue vigente
+     */
+    protected boolean unchangedSince(long since) {
+
+        return this.writes == 0 && this.generation == since;
+    }
+
+    /**
+     * Marca el inicio de una escritura: hasta {@link #endWrite()} no se guardan resultados
+     */
+    public synchronized void beginWrite() {
+
+        this.writes++;
+        this.generation++;
+    }
+
+    /**
+     * Marca el final de una escritura, confirmada o no
+     */
+    public synchronized void endWrite() {
+
+        this.writes--;
+        this.generation++;
+    }
+
+    /**
+     * Elimina las entradas afectadas por un cambio
+     *
+     * @param affected indica si una entrada puede haber cambiado
+     */
+    public synchronized void invalidate(BiPredicate<K, V> affected) {
+
+        this.generation++;
+
+        Iterator<Map.Entry<K, V>> it = this.entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
+            if (affected.test(entry.getKey(), entry.getValue())) {
+                this.weight -= this.weigher.applyAsLong(entry.getValue());
+                it.remove();
+                this.invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque
+     *
+     * @return {@link ResultCacheStats}
+     */
+    public synchronized ResultCacheStats stats() {
+
+        long hit = this.hits.sum();
+        long miss = this.misses.sum();
+
+        ResultCacheStats stats = new ResultCacheStats();
+        stats.setSize(this.entries.size());
+        stats.setMaxEntries(this.maxEntries);
+        stats.setWeight(this.weight);
+        stats.setMaxWeight(this.maxWeight);
+        stats.setHits(hit);
+        stats.setMisses(miss);
+        stats.setHitRatio(hit + miss > 0 ? (double) hit / (hit + miss) : 0);
+        stats.setEvictions(this.evictions.sum());
+        stats.setInvalidations(this.invalidations.sum());
+        stats.setDiscarded(this.discarded.sum());
+
+        return stats;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ccsw.tutorial.common.pagination;
+
+/**
+ * Métricas de una {@link ResultCache}
+ */
+public class ResultCacheStats {
+
+    private int size;
+
+    private int maxEntries;
+
+    private long weight;
+
+    private long maxWeight;
+
+    private long hits;
+
+    private long misses;
+
+    private double hitRatio;
+
+    private long evictions;
+
+    private long invalidations;
+
+    private long discarded;
+
+    /**
+     * @return size entradas guardadas
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param size new value of {@link #getSize}.
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return maxEntries máximo de entradas, se descartan las menos usadas
+     */
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * @param maxEntries new value of {@link #getMaxEntries}.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return weight peso de las entradas guardadas
+     */
+    public long getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * @param weight new value of {@link #getWeight}.
+     */
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @return maxWeight máximo de peso, se descartan las menos usadas
+     */
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    /**
+     * @param maxWeight new value of {@link #getMaxWeight}.
+     */
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @return hits búsquedas servidas desde la caché
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @param hits new value of {@link #getHits}.
+     */
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    /**
+     * @return misses búsquedas calculadas
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @param misses new value of {@link #getMisses}.
+     */
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * @return hitRatio proporción de búsquedas servidas desde la caché
+     */
+    public double getHitRatio() {
+        return this.hitRatio;
+    }
+
+    /**
+     * @param hitRatio new value of {@link #getHitRatio}.
+     */
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    /**
+     * @return evictions entradas descartadas por tamaño
+     */
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * @param evictions new value of {@link #getEvictions}.
+     */
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    /**
+     * @return invalidations entradas eliminadas por escrituras
+     */
+    public long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * @param invalidations new value of {@link #getInvalidations}.
+     */
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * @return discarded resultados no guardados por coincidir con una escritura
+     */
+    public long getDiscarded() {
+        return this.discarded;
+    }
+
+    /**
+     * @param discarded new value of {@link #getDiscarded}.
+     */
+    public void setDiscarded(long discarded) {
+        this.discarded = discarded;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ccsw.tutorial.common.version;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de versión de un listado, que sube con cada alta, modificación o borrado,
+ * para responder con un ETag débil sin calcular el cuerpo ni compararlo. El ETag
+ * lleva además el instante de arranque, de modo que tras reiniciar no se confunde
+ * con uno anterior.
+ *
+ * Como en las cachés, el contador sube dentro de la transacción que escribe y
+ * vuelve a subir al terminar: un listado leído entre ambos momentos, con datos aún
+ * sin confirmar, no queda validado con el ETag definitivo.
+ */
+public class ListVersion {
+
+    private static final String START = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Sube la versión, ahora y otra vez al terminar la transacción en curso
+     */
+    public void bump() {
+
+        this.version.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return versión actual
+     */
+    public long get() {
+        return this.version.get();
+    }
+
+    /**
+     * @return ETag débil de la versión actual
+     */
+    public String etag() {
+        return etag(this);
+    }
+
+    /**
+     * ETag débil de un listado que muestra datos de varios módulos
+     *
+     * @param versions versiones de cada módulo
+     * @return ETag que cambia cuando cambia cualquiera de ellas
+     */
+    public static String etag(ListVersion... versions) {
+
+        StringBuilder etag = new StringBuilder("W/\"").append(START);
+        for (ListVersion version : versions) {
+            etag.append('-').append(version.get());
+        }
+
+        return etag.append('"').toString();
+    }
+}
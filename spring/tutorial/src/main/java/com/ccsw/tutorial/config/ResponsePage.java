@@ -1,38 +1,66 @@
 package com.ccsw.tutorial.config;
 
+import com.ccsw.tutorial.common.pagination.PageTotal;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ResponsePage<T> extends PageImpl<T> {
 
     private static final long serialVersionUID = 1L;
 
+    private final PageTotal totalType;
+
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public ResponsePage(@JsonProperty("content") List<T> content, @JsonProperty("number") int number, @JsonProperty("size") int size, @JsonProperty("totalElements") Long totalElements, @JsonProperty("pageable") JsonNode pageable,
-            @JsonProperty("last") boolean last, @JsonProperty("totalPages") int totalPages, @JsonProperty("sort") JsonNode sort, @JsonProperty("first") boolean first, @JsonProperty("numberOfElements") int numberOfElements) {
+            @JsonProperty("last") boolean last, @JsonProperty("totalPages") int totalPages, @JsonProperty("sort") JsonNode sort, @JsonProperty("first") boolean first, @JsonProperty("numberOfElements") int numberOfElements, @JsonProperty("totalType") PageTotal totalType) {
 
         super(content, PageRequest.of(number, size == 0 ? 1 : size), totalElements);
+        this.totalType = totalType != null ? totalType : PageTotal.EXACT;
     }
 
     public ResponsePage(List<T> content, Pageable pageable, long total) {
+        this(content, pageable, total, PageTotal.EXACT);
+    }
+
+    public ResponsePage(List<T> content, Pageable pageable, long total, PageTotal totalType) {
         super(content, pageable, total);
+        this.totalType = totalType;
+    }
+
+    public ResponsePage(Page<T> page, PageTotal totalType) {
+        this(page.getContent(), page.getPageable(), page.getTotalElements(), totalType);
     }
 
     public ResponsePage(List<T> content) {
         super(content);
+        this.totalType = PageTotal.EXACT;
     }
 
     public ResponsePage() {
         super(new ArrayList<>());
+        this.totalType = PageTotal.EXACT;
+    }
+
+    @Override
+    public <U> ResponsePage<U> map(Function<? super T, ? extends U> converter) {
+
+        return new ResponsePage<>(getContent().stream().map(converter).collect(Collectors.toList()), getPageable(), getTotalElements(), totalType);
+    }
+
+    public PageTotal getTotalType() {
+        return totalType;
     }
 
 }
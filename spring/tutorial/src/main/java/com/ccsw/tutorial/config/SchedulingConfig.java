@@ -0,0 +1,17 @@
+package com.ccsw.tutorial.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Activa los procesos programados (@Scheduled), que se ejecutan en el planificador
+ * de Spring y no en los hilos de las peticiones
+ *
+ * @author ccsw
+ *
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
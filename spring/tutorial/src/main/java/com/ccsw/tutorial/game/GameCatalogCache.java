@@ -0,0 +1,223 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.category.model.Category;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.ResultCache;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameListDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Resultados del listado de juegos, por filtro de título, categoría y edad. Cada entrada
+ * guarda solo las PKs de los juegos encontrados; las filas ({@link GameListDto}) se
+ * guardan una sola vez por juego en un mapa por PK compartido por todas las entradas.
+ * El peso de una entrada es su número de juegos y el mapa de filas no pasa del peso
+ * máximo de la caché.
+ *
+ * Un cambio de autor o categoría no cambia qué juegos encuentra cada filtro, solo
+ * los datos que muestran: se descartan las filas de sus juegos y se vuelven a leer
+ * por PK la próxima vez que se necesiten. Un juego creado o modificado invalida las
+ * entradas que lo contenían y las que lo encontrarían con su título, categoría y
+ * edad nuevos, además de las búsquedas aproximadas, cuyo orden puede cambiar.
+ *
+ * Como en las búsquedas de préstamos, la invalidación se hace dentro de la
+ * transacción que escribe y se repite al terminar, y entre ambas no se guarda nada.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameCatalogCache extends ResultCache<GameCatalogCache.Key, long[]> {
+
+    private final Map<Long, GameListDto> rows = new ConcurrentHashMap<>();
+
+    private final long maxRows;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    public GameCatalogCache(@Value("${game.catalog-cache.max-entries:500}") int maxEntries, @Value("${game.catalog-cache.max-weight:100000}") long maxWeight) {
+
+        super(maxEntries, maxWeight, ids -> ids.length);
+        this.maxRows = maxWeight;
+    }
+
+    /**
+     * Clave normalizada de una búsqueda
+     *
+     * @param title título a buscar, puede ser nulo
+     * @param idCategory PK de la categoría, puede ser nula
+     * @param minAge edad mínima desde la que se busca, puede ser nula
+     * @param maxAge edad mínima hasta la que se busca, puede ser nula
+     * @param fuzzy true si se busca el título por parecido
+     * @return clave de la caché
+     */
+    public static Key keyOf(String title, Long idCategory, Integer minAge, Integer maxAge, boolean fuzzy) {
+
+        String normalized = title != null ? GameTitleIndex.normalize(title) : "";
+
+        return normalized.isEmpty() ? new Key(null, idCategory, minAge, maxAge, false) : new Key(normalized, idCategory, minAge, maxAge, fuzzy);
+    }
+
+    /**
+     * Devuelve el listado guardado o lo calcula y lo guarda
+     *
+     * @param key búsqueda normalizada
+     * @param loader cálculo del listado
+     * @param byIds lectura de filas por PK, para las descartadas por un cambio de autor o categoría
+     * @return {@link List} de {@link GameListDto} en el orden del listado
+     */
+    public List<GameListDto> find(Key key, Supplier<List<GameListDto>> loader, Function<Collection<Long>, List<GameListDto>> byIds) {
+
+        long start = generation();
+
+        List<List<GameListDto>> loaded = new ArrayList<>(1);
+        long[] ids = get(key, () -> {
+            List<GameListDto> games = loader.get();
+            loaded.add(games);
+            return games.stream().mapToLong(GameListDto::id).toArray();
+        });
+
+        if (!loaded.isEmpty()) {
+            keep(start, loaded.get(0));
+            return loaded.get(0);
+        }
+
+        GameListDto[] games = new GameListDto[ids.length];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            games[i] = this.rows.get(ids[i]);
+            if (games[i] == null) {
+                missing.add(ids[i]);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<GameListDto> found = byIds.apply(missing);
+            keep(start, found);
+
+            Map<Long, GameListDto> byId = found.stream().collect(Collectors.toMap(GameListDto::id, Function.identity()));
+            for (int i = 0; i < ids.length; i++) {
+                if (games[i] == null) {
+                    games[i] = byId.get(ids[i]);
+                }
+            }
+        }
+
+        // Un juego puede desaparecer entre la lectura de la entrada y la de sus filas
+        return Arrays.stream(games).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * @return número de filas guardadas en el mapa por PK
+     */
+    public int rows() {
+        return this.rows.size();
+    }
+
+    /**
+     * Invalida las entradas y filas afectadas por un cambio del catálogo, antes y
+     * después de confirmar la transacción
+     *
+     * @param event cambio del catálogo
+     */
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        if (event.getType() == Category.class) {
+            write(row -> Objects.equals(row.category().id(), event.getId()), (key, ids) -> false);
+        } else if (event.getType() == Author.class) {
+            write(row -> Objects.equals(row.author().id(), event.getId()), (key, ids) -> false);
+        } else if (event.getType() == Game.class && event.getId() != null) {
+            long id = event.getId();
+            Game game = this.gameRepository.findById(id).orElse(null);
+            String title = game != null ? GameTitleIndex.normalize(game.getTitle()) : null;
+            Long categoryId = game != null ? game.getCategory().getId() : null;
+            int minAge = game != null ? game.getMinAge() : 0;
+
+            write(row -> row.id() == id, (key, ids) -> key.fuzzy() || contains(ids, id)
+                    || game != null && (key.title() == null || title.contains(key.title())) && (key.idCategory() == null || key.idCategory().equals(categoryId))
+                            && (key.minAge() == null || minAge >= key.minAge()) && (key.maxAge() == null || minAge <= key.maxAge()));
+        }
+    }
+
+    private void write(Predicate<GameListDto> stale, BiPredicate<Key, long[]> affected) {
+
+        invalidate(stale, affected);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        beginWrite();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+
+                try {
+                    invalidate(stale, affected);
+                } finally {
+                    endWrite();
+                }
+            }
+        });
+    }
+
+    private synchronized void invalidate(Predicate<GameListDto> stale, BiPredicate<Key, long[]> affected) {
+
+        this.rows.values().removeIf(stale);
+        // También cambia la generación, para no guardar filas leídas antes del cambio
+        invalidate(affected);
+    }
+
+    private static boolean contains(long[] ids, long id) {
+
+        for (long e : ids) {
+            if (e == id) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void keep(long start, List<GameListDto> games) {
+
+        synchronized (this) {
+            if (!unchangedSince(start)) {
+                return;
+            }
+            // Sin contador de referencias: al llenarse se vacía y se vuelve a llenar por PK
+            if (this.rows.size() + games.size() > this.maxRows) {
+                this.rows.clear();
+            }
+            games.forEach(game -> this.rows.put(game.id(), game));
+        }
+    }
+
+    /**
+     * Búsqueda normalizada: el título sin mayúsculas ni acentos, nulo si no se filtra por título
+     */
+    public record Key(String title, Long idCategory, Integer minAge, Integer maxAge, boolean fuzzy) {
+    }
+}
@@ -1,15 +1,22 @@
 package com.ccsw.tutorial.game;
 
+import com.ccsw.tutorial.author.AuthorListVersion;
+import com.ccsw.tutorial.category.CategoryListVersion;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.common.version.ListVersion;
+import com.ccsw.tutorial.config.ResponsePage;
 import com.ccsw.tutorial.game.model.Game;
 import com.ccsw.tutorial.game.model.GameDto;
+import com.ccsw.tutorial.game.model.GameFacetsDto;
+import com.ccsw.tutorial.game.model.GameListDto;
+import com.ccsw.tutorial.game.model.GameSearchDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * @author ccsw
@@ -25,22 +32,78 @@ public class GameController {
     GameService gameService;
 
     @Autowired
-    ModelMapper mapper;
+    GameListVersion listVersion;
+
+    @Autowired
+    AuthorListVersion authorListVersion;
+
+    @Autowired
+    CategoryListVersion categoryListVersion;
 
     /**
      * Método para recuperar una lista de {@link Game}
      *
      * @param title título del juego
      * @param idCategory PK de la categoría
-     * @return {@link List} de {@link GameDto}
+     * @param minAge juegos a partir de esta edad mínima
+     * @param maxAge juegos hasta esta edad mínima
+     * @param fuzzy true para buscar el título por parecido, tolerando erratas
+     * @param request petición, con el If-None-Match del cliente
+     * @return {@link List} de {@link GameListDto}, nada con 304 si no ha cambiado
      */
     @Operation(summary = "Find", description = "Method that return a filtered list of Games")
     @RequestMapping(path = "", method = RequestMethod.GET)
-    public List<GameDto> find(@RequestParam(value = "title", required = false) String title, @RequestParam(value = "idCategory", required = false) Long idCategory) {
+    public List<GameListDto> find(@RequestParam(value = "title", required = false) String title, @RequestParam(value = "idCategory", required = false) Long idCategory,
+            @RequestParam(value = "minAge", required = false) Integer minAge, @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy, WebRequest request) {
+
+        // El listado muestra nombres de autores y categorías: cambia con cualquiera de las tres versiones
+        if (request.checkNotModified(ListVersion.etag(this.listVersion, this.authorListVersion, this.categoryListVersion))) {
+            return null;
+        }
+
+        return gameService.find(title, idCategory, minAge, maxAge, fuzzy);
+    }
+
+    /**
+     * Método para recuperar una lista de {@link Game} con el número de juegos por
+     * categoría y por autor
+     *
+     * @param title título del juego
+     * @param idCategory PK de la categoría
+     * @return {@link GameFacetsDto}
+     */
+    @Operation(summary = "Find with facets", description = "Method that return a filtered list of Games with the number of Games per Category and Author")
+    @RequestMapping(path = "/facets", method = RequestMethod.GET)
+    public GameFacetsDto findFacets(@RequestParam(value = "title", required = false) String title, @RequestParam(value = "idCategory", required = false) Long idCategory) {
+
+        return this.gameService.findFacets(title, idCategory);
+    }
+
+    /**
+     * Método para recuperar un listado paginado de {@link Game}
+     *
+     * @param dto dto de búsqueda
+     * @return {@link ResponsePage} de {@link GameListDto}
+     * @throws Exception si la página es demasiado grande o la ordenación no es válida
+     */
+    @Operation(summary = "Find Page", description = "Method that return a page of Games")
+    @RequestMapping(path = "/search", method = RequestMethod.POST)
+    public ResponsePage<GameListDto> findPage(@RequestBody GameSearchDto dto) throws Exception {
+
+        return this.gameService.findPage(dto);
+    }
 
-        List<Game> games = gameService.find(title, idCategory);
+    /**
+     * Métricas de la caché del listado de juegos
+     *
+     * @return {@link ResultCacheStats}
+     */
+    @Operation(summary = "Catalog cache stats", description = "Method that returns hit ratio, size, weight, evictions and invalidations of the Game list cache")
+    @RequestMapping(path = "/cache", method = RequestMethod.GET)
+    public ResultCacheStats getCatalogCacheStats() {
 
-        return games.stream().map(e -> mapper.map(e, GameDto.class)).collect(Collectors.toList());
+        return this.gameService.getCatalogCacheStats();
     }
 
     /**
@@ -0,0 +1,55 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.CountCache;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameSearchDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Totales de las búsquedas paginadas de juegos, por filtro de {@link GameSearchDto}.
+ * Se invalidan con cada juego creado o modificado una vez confirmada la transacción.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameCountCache extends CountCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    public GameCountCache(@Value("${game.count-cache.ttl-seconds:30}") long ttlSeconds) {
+
+        super(Duration.ofSeconds(ttlSeconds), MAX_ENTRIES);
+    }
+
+    /**
+     * Clave normalizada del filtro: la paginación y la ordenación no cambian el total
+     *
+     * @param dto dto de búsqueda
+     * @return clave de la caché
+     */
+    public static String keyOf(GameSearchDto dto) {
+
+        String title = dto.getTitle() != null ? GameTitleIndex.normalize(dto.getTitle()) : null;
+
+        return "title=" + title + "&category=" + dto.getCategoryId() + "&author=" + dto.getAuthorId() + "&minAge=" + dto.getMinAge() + "&maxAge=" + dto.getMaxAge();
+    }
+
+    /**
+     * Invalida los totales al cambiar cualquier juego
+     *
+     * @param event cambio del catálogo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        if (event.getType() == Game.class) {
+            invalidate();
+        }
+    }
+}
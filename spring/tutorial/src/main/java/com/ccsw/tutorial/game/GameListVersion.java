@@ -0,0 +1,15 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.common.version.ListVersion;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versión del listado de los juegos, que sube GameServiceImpl al guardar. El ETag del
+ * listado combina esta versión con las de autores y categorías, cuyos nombres muestra
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameListVersion extends ListVersion {
+}
@@ -0,0 +1,36 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameListDto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+public interface GameProjectionRepository {
+
+    /**
+     * Recupera el listado de juegos con una proyección a constructor
+     *
+     * @param spec filtros de la búsqueda
+     * @return {@link List} de {@link GameListDto}
+     */
+    List<GameListDto> findList(Specification<Game> spec);
+
+    /**
+     * Recupera filas del listado de juegos con una proyección a constructor. La edad
+     * se ordena como número.
+     *
+     * @param spec filtros de la búsqueda
+     * @param sort ordenación
+     * @param offset primera fila
+     * @param limit número máximo de filas
+     * @return {@link List} de {@link GameListDto}
+     */
+    List<GameListDto> findList(Specification<Game> spec, Sort sort, long offset, int limit);
+
+}
@@ -0,0 +1,58 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.category.model.Category;
+import com.ccsw.tutorial.common.criteria.ProjectionQuery;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameListDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @author ccsw
+ *
+ */
+public class GameProjectionRepositoryImpl implements GameProjectionRepository {
+
+    // La edad se guarda como texto, donde "12" iría antes que "8": se ordena por su columna numérica
+    private static final Map<String, Function<Root<Game>, Expression<?>>> SORT_EXPRESSIONS = Map.of("age", root -> root.get("minAge"));
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<GameListDto> findList(Specification<Game> spec) {
+
+        return findList(spec, Sort.unsorted(), 0, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<GameListDto> findList(Specification<Game> spec, Sort sort, long offset, int limit) {
+
+        return ProjectionQuery.list(this.entityManager, Game.class, GameListDto.class, spec, sort, offset, limit, GameProjectionRepositoryImpl::columns, SORT_EXPRESSIONS);
+    }
+
+    private static Selection<?>[] columns(Root<Game> root) {
+
+        Join<Game, Category> category = root.join("category");
+        Join<Game, Author> author = root.join("author");
+
+        return new Selection<?>[] { root.get("id"), root.get("title"), root.get("age"), category.get("id"), category.get("name"), author.get("id"), author.get("name"), author.get("nationality") };
+    }
+}
@@ -1,21 +1,51 @@
 package com.ccsw.tutorial.game;
 
 import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameTitle;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * @author ccsw
  *
  */
-public interface GameRepository extends CrudRepository<Game, Long>, JpaSpecificationExecutor<Game> {
+public interface GameRepository extends CrudRepository<Game, Long>, JpaSpecificationExecutor<Game>, GameProjectionRepository {
 
     @Override
     @EntityGraph(attributePaths = { "category", "author" })
     List<Game> findAll(Specification<Game> spec);
 
+    /**
+     * Recupera de una sola vez cuáles de los IDs indicados existen
+     *
+     * @param ids PKs a comprobar
+     * @return {@link List} de PKs existentes
+     */
+    @Query("SELECT g.id FROM Game g WHERE g.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recupera el título de todos los juegos, para construir el índice de títulos
+     *
+     * @return {@link List} de {@link GameTitle}
+     */
+    @Query("SELECT new com.ccsw.tutorial.game.model.GameTitle(g.id, g.title) FROM Game g")
+    List<GameTitle> findAllTitles();
+
+    /**
+     * Recupera el título de un juego
+     *
+     * @param id PK del juego
+     * @return {@link GameTitle}, nulo si no existe
+     */
+    @Query("SELECT new com.ccsw.tutorial.game.model.GameTitle(g.id, g.title) FROM Game g WHERE g.id = :id")
+    GameTitle findTitle(@Param("id") Long id);
+
 }
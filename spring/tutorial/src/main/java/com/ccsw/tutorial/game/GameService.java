@@ -1,8 +1,14 @@
 package com.ccsw.tutorial.game;
 
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
 import com.ccsw.tutorial.game.model.Game;
 import com.ccsw.tutorial.game.model.GameDto;
+import com.ccsw.tutorial.game.model.GameFacetsDto;
+import com.ccsw.tutorial.game.model.GameListDto;
+import com.ccsw.tutorial.game.model.GameSearchDto;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,13 +26,40 @@ public interface GameService {
     Game get(Long id);
 
     /**
-     * Recupera los juegos filtrando opcionalmente por título y/o categoría
+     * Recupera los juegos filtrando opcionalmente por título, categoría y/o rango de
+     * edad mínima. El título
+     * se busca como texto contenido sin distinguir mayúsculas ni acentos o, con
+     * fuzzy, por parecido, de más a menos parecido. Las búsquedas repetidas se sirven
+     * desde {@link GameCatalogCache} sin consultar la BBDD.
      *
      * @param title título del juego
      * @param idCategory PK de la categoría
-     * @return {@link List} de {@link Game}
+     * @param minAge juegos a partir de esta edad mínima
+     * @param maxAge juegos hasta esta edad mínima
+     * @param fuzzy true para tolerar erratas en el título
+     * @return {@link List} de {@link GameListDto}
      */
-    List<Game> find(String title, Long idCategory);
+    List<GameListDto> find(String title, Long idCategory, Integer minAge, Integer maxAge, boolean fuzzy);
+
+    /**
+     * Recupera los juegos igual que {@link #find(String, Long, Integer, Integer, boolean)} junto con
+     * cuántos hay de cada categoría y autor, con una sola búsqueda
+     *
+     * @param title título del juego
+     * @param idCategory PK de la categoría
+     * @return {@link GameFacetsDto}
+     */
+    GameFacetsDto findFacets(String title, Long idCategory);
+
+    /**
+     * Recupera una página de juegos filtrando opcionalmente por título, categoría,
+     * autor y/o rango de edad mínima, ordenada por título, edad o PK. Lee solo las filas de la página.
+     *
+     * @param dto dto de búsqueda
+     * @return {@link ResponsePage} de {@link GameListDto}
+     * @throws Exception si la página es demasiado grande o la ordenación no es válida
+     */
+    ResponsePage<GameListDto> findPage(GameSearchDto dto) throws Exception;
 
     /**
      * Guarda o modifica un juego, dependiendo de si el identificador está o no informado
@@ -36,4 +69,19 @@ public interface GameService {
      */
     void save(Long id, GameDto dto);
 
+    /**
+     * Métricas de la caché del listado de juegos
+     *
+     * @return {@link ResultCacheStats}
+     */
+    ResultCacheStats getCatalogCacheStats();
+
+    /**
+     * Recupera en una sola consulta cuáles de los IDs indicados corresponden a un {@link Game}
+     *
+     * @param ids PKs a comprobar
+     * @return {@link List} de PKs existentes
+     */
+    List<Long> findExistingIds(Collection<Long> ids);
+
 }
@@ -3,15 +3,35 @@ package com.ccsw.tutorial.game;
 import com.ccsw.tutorial.author.AuthorService;
 import com.ccsw.tutorial.category.CategoryService;
 import com.ccsw.tutorial.common.criteria.SearchCriteria;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.PageQuery;
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
 import com.ccsw.tutorial.game.model.Game;
 import com.ccsw.tutorial.game.model.GameDto;
+import com.ccsw.tutorial.game.model.GameFacetDto;
+import com.ccsw.tutorial.game.model.GameFacetsDto;
+import com.ccsw.tutorial.game.model.GameListDto;
+import com.ccsw.tutorial.game.model.GameSearchDto;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author ccsw
@@ -21,6 +41,12 @@ import java.util.List;
 @Transactional
 public class GameServiceImpl implements GameService {
 
+    // PKs por consulta al cargar los juegos encontrados por el índice de títulos, y máximo
+    // de PKs en el filtro de la búsqueda paginada
+    private static final int ID_CHUNK = 1000;
+
+    private static final Set<String> SORTABLE = Set.of("id", "title", "age");
+
     @Autowired
     GameRepository gameRepository;
 
@@ -30,6 +56,27 @@ public class GameServiceImpl implements GameService {
     @Autowired
     CategoryService categoryService;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    GameListVersion listVersion;
+
+    @Autowired
+    GameTitleIndex titleIndex;
+
+    @Value("${game.title-index.fuzzy-limit:50}")
+    int fuzzyLimit;
+
+    @Value("${game.search.max-page-size:100}")
+    int maxPageSize;
+
+    @Autowired
+    GameCountCache countCache;
+
+    @Autowired
+    GameCatalogCache catalogCache;
+
     /**
      * {@inheritDoc}
      */
@@ -42,14 +89,152 @@ public class GameServiceImpl implements GameService {
      * {@inheritDoc}
      */
     @Override
-    public List<Game> find(String title, Long idCategory) {
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<GameListDto> find(String title, Long idCategory, Integer minAge, Integer maxAge, boolean fuzzy) {
 
-        GameSpecification titleSpec = new GameSpecification(new SearchCriteria("title", ":", title));
-        GameSpecification categorySpec = new GameSpecification(new SearchCriteria("category.id", ":", idCategory));
+        // Sin el índice el título se busca con LIKE, que distingue mayúsculas: no se guarda
+        if (title != null && !this.titleIndex.isReady()) {
+            return load(title, idCategory, minAge, maxAge, fuzzy);
+        }
+
+        return this.catalogCache.find(GameCatalogCache.keyOf(title, idCategory, minAge, maxAge, fuzzy), () -> load(title, idCategory, minAge, maxAge, fuzzy),
+                ids -> findByIds(ids, Specification.unrestricted()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public GameFacetsDto findFacets(String title, Long idCategory) {
+
+        // Una sola pasada sobre la búsqueda por título, que normalmente sale de la caché
+        Map<Long, Facet> categories = new HashMap<>();
+        Map<Long, Facet> authors = new HashMap<>();
+        List<GameListDto> games = new ArrayList<>();
+
+        for (GameListDto game : find(title, null, null, null, false)) {
+            categories.computeIfAbsent(game.category().id(), id -> new Facet(id, game.category().name())).count++;
+            if (idCategory == null || idCategory.equals(game.category().id())) {
+                authors.computeIfAbsent(game.author().id(), id -> new Facet(id, game.author().name())).count++;
+                games.add(game);
+            }
+        }
+
+        return new GameFacetsDto(games, Facet.sorted(categories), Facet.sorted(authors));
+    }
+
+    private List<GameListDto> load(String title, Long idCategory, Integer minAge, Integer maxAge, boolean fuzzy) {
+
+        Specification<Game> categorySpec = Specification.allOf(new GameSpecification(new SearchCriteria("category.id", ":", idCategory)), ageSpecification(minAge, maxAge));
+
+        if (title == null || !this.titleIndex.isReady()) {
+            GameSpecification titleSpec = new GameSpecification(new SearchCriteria("title", ":", title));
+
+            return this.gameRepository.findList(Specification.allOf(titleSpec, categorySpec));
+        }
+
+        if (GameTitleIndex.normalize(title).isEmpty()) {
+            return this.gameRepository.findList(categorySpec);
+        }
+
+        // El índice de títulos da los candidatos y la BBDD solo se consulta por PK
+        List<Long> ids = fuzzy ? this.titleIndex.rank(title, this.fuzzyLimit) : this.titleIndex.find(title);
+        List<GameListDto> games = findByIds(ids, categorySpec);
+
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            order.put(ids.get(i), i);
+        }
+        games.sort(Comparator.comparing(game -> order.get(game.id())));
+
+        return games;
+    }
+
+    private static Specification<Game> ageSpecification(Integer minAge, Integer maxAge) {
+
+        // Sobre la columna numérica min_age, con índice, y no sobre la edad en texto
+        GameSpecification minAgeSpec = new GameSpecification(new SearchCriteria("minAge", ">=", minAge));
+        GameSpecification maxAgeSpec = new GameSpecification(new SearchCriteria("minAge", "<=", maxAge));
+
+        return Specification.allOf(minAgeSpec, maxAgeSpec);
+    }
+
+    private List<GameListDto> findByIds(Collection<Long> ids, Specification<Game> spec) {
+
+        List<Long> list = new ArrayList<>(ids);
+        List<GameListDto> games = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += ID_CHUNK) {
+            GameSpecification idSpec = new GameSpecification(new SearchCriteria("id", "in", list.subList(from, Math.min(from + ID_CHUNK, list.size()))));
+            games.addAll(this.gameRepository.findList(Specification.allOf(idSpec, spec)));
+        }
+
+        return games;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultCacheStats getCatalogCacheStats() {
+
+        return this.catalogCache.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponsePage<GameListDto> findPage(GameSearchDto dto) throws Exception {
+
+        // Si no hay pageable, usar valores por defecto
+        PageableRequest request = dto.getPageable() != null ? dto.getPageable() : new PageableRequest(0, 10);
+        if (request.getPageSize() > this.maxPageSize) {
+            throw new Exception("No se pueden pedir más de " + this.maxPageSize + " juegos por página");
+        }
+
+        Pageable pageable = request.getPageable();
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new Exception("No se pueden ordenar los juegos por " + order.getProperty());
+            }
+        }
 
-        Specification<Game> spec = Specification.allOf(titleSpec, categorySpec);
+        // Desempate por PK para que las páginas no repitan ni salten juegos
+        if (pageable.getSort().getOrderFor("id") == null) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().and(Sort.by("id")));
+        }
+
+        Specification<Game> spec = buildSpecification(dto);
 
-        return this.gameRepository.findAll(spec);
+        return PageQuery.find(this.gameRepository, spec, pageable, request.getTotal(), this.countCache, GameCountCache.keyOf(dto), (sort, offset, limit) -> this.gameRepository.findList(spec, sort, offset, limit));
+    }
+
+    private Specification<Game> buildSpecification(GameSearchDto dto) {
+
+        GameSpecification categorySpec = new GameSpecification(new SearchCriteria("category.id", ":", dto.getCategoryId()));
+        GameSpecification authorSpec = new GameSpecification(new SearchCriteria("author.id", ":", dto.getAuthorId()));
+        Specification<Game> ageSpec = ageSpecification(dto.getMinAge(), dto.getMaxAge());
+
+        String title = dto.getTitle();
+        if (title != null && this.titleIndex.isReady()) {
+            if (GameTitleIndex.normalize(title).isEmpty()) {
+                return Specification.allOf(categorySpec, authorSpec, ageSpec);
+            }
+
+            // Los candidatos del índice de títulos filtran por PK dentro de la misma consulta paginada,
+            // salvo que sean más de ID_CHUNK: un fragmento corto y común daría un IN sin límite
+            List<Long> ids = this.titleIndex.find(title);
+            if (ids.size() <= ID_CHUNK) {
+                GameSpecification idSpec = new GameSpecification(new SearchCriteria("id", "in", ids));
+
+                return Specification.allOf(idSpec, categorySpec, authorSpec, ageSpec);
+            }
+        }
+
+        GameSpecification titleSpec = new GameSpecification(new SearchCriteria("title", ":", title));
+
+        return Specification.allOf(titleSpec, categorySpec, authorSpec, ageSpec);
     }
 
     /**
@@ -71,9 +256,62 @@ public class GameServiceImpl implements GameService {
 
             game.setAuthor(authorService.get(dto.getAuthor().getId()));
             game.setCategory(categoryService.get(dto.getCategory().getId()));
+            game.setMinAge(minAgeOf(dto.getAge()));
 
             this.gameRepository.save(game);
+
+            this.listVersion.bump();
+            this.eventPublisher.publishEvent(new CatalogChangeEvent(Game.class, game.getId()));
         }
     }
 
+    /**
+     * Edad mínima de una edad en texto ("8", "10+"): los dígitos del principio, 0 si
+     * no hay, igual que la migración de data.sql
+     */
+    static int minAgeOf(String age) {
+
+        String text = age != null ? age.strip() : "";
+        int end = 0;
+        while (end < text.length() && end < 9 && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+
+        return end > 0 ? Integer.parseInt(text.substring(0, end)) : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+
+        return this.gameRepository.findExistingIds(ids);
+    }
+
+    /**
+     * Contador de una faceta mientras se recorre la búsqueda
+     */
+    private static final class Facet {
+
+        private final Long id;
+
+        private final String name;
+
+        private int count;
+
+        private Facet(Long id, String name) {
+
+            this.id = id;
+            this.name = name;
+        }
+
+        /**
+         * @return facetas de más a menos juegos y, a igualdad, por nombre
+         */
+        private static List<GameFacetDto> sorted(Map<Long, Facet> facets) {
+
+            return facets.values().stream().sorted(Comparator.<Facet> comparingInt(e -> -e.count).thenComparing(e -> e.name)).map(e -> new GameFacetDto(e.id, e.name, e.count)).toList();
+        }
+    }
 }
@@ -5,6 +5,8 @@ import com.ccsw.tutorial.game.model.Game;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public class GameSpecification implements Specification<Game> {
 
     private static final long serialVersionUID = 1L;
@@ -18,6 +20,15 @@ public class GameSpecification implements Specification<Game> {
 
     @Override
     public Predicate toPredicate(Root<Game> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        if (criteria.getOperation().equalsIgnoreCase("in") && criteria.getValue() != null) {
+            return getPath(root).in((Collection<?>) criteria.getValue());
+        }
+        if (criteria.getOperation().equals(">=") && criteria.getValue() != null) {
+            return builder.greaterThanOrEqualTo(this.<Integer> getPath(root), (Integer) criteria.getValue());
+        }
+        if (criteria.getOperation().equals("<=") && criteria.getValue() != null) {
+            return builder.lessThanOrEqualTo(this.<Integer> getPath(root), (Integer) criteria.getValue());
+        }
         if (criteria.getOperation().equalsIgnoreCase(":") && criteria.getValue() != null) {
             Path<String> path = getPath(root);
             if (path.getJavaType() == String.class) {
@@ -29,11 +40,11 @@ public class GameSpecification implements Specification<Game> {
         return null;
     }
 
-    private Path<String> getPath(Root<Game> root) {
+    private <Y> Path<Y> getPath(Root<Game> root) {
         String key = criteria.getKey();
         String[] split = key.split("[.]", 0);
 
-        Path<String> expression = root.get(split[0]);
+        Path<Y> expression = root.get(split[0]);
         for (int i = 1; i < split.length; i++) {
             expression = expression.get(split[i]);
         }
@@ -0,0 +1,376 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameTitle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas sobre los títulos de los juegos, para resolver en
+ * memoria el filtro por título que en BBDD sería un LIKE '%x%' sin índice posible.
+ *
+ * Los títulos se normalizan (minúsculas, sin acentos y con los signos de puntuación
+ * reducidos a un espacio) y se trocean en trigramas con un espacio a cada lado, de
+ * modo que "aventureros" encuentra "Aventureros al tren". Una búsqueda por
+ * contenido recorre solo la lista del trigrama menos frecuente de la consulta y
+ * confirma cada candidato contra su título; una búsqueda aproximada ordena los
+ * títulos por trigramas compartidos (similitud de Jaccard), lo que tolera erratas.
+ *
+ * Se construye al arrancar y se mantiene con los {@link CatalogChangeEvent} de
+ * juegos una vez confirmada la transacción. Como el servidor ya acepta escrituras
+ * mientras se leen los títulos, los cambios aplicados durante una reconstrucción se
+ * repiten sobre el índice nuevo antes de publicarlo.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameTitleIndex {
+
+    // Las consultas más cortas que un trigrama se resuelven recorriendo los títulos
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, String> titles = new HashMap<>();
+
+    private final Map<Long, Integer> gramCounts = new HashMap<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private final double minSimilarity;
+
+    private volatile boolean ready;
+
+    // Títulos leídos por los cambios aplicados desde beginRebuild, nulo si no hay una
+    // reconstrucción en curso; un valor nulo es un juego borrado
+    private Map<Long, GameTitle> pending;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    public GameTitleIndex(@Value("${game.title-index.min-similarity:0.3}") double minSimilarity) {
+
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Reconstruye el índice con los títulos de la BBDD
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        beginRebuild();
+        rebuild(this.gameRepository.findAllTitles());
+    }
+
+    /**
+     * Empieza a guardar los cambios que se apliquen a partir de ahora, para repetirlos
+     * en {@link #rebuild(Collection)}. Debe llamarse antes de leer los títulos con los
+     * que se va a reconstruir.
+     */
+    public void beginRebuild() {
+
+        this.lock.writeLock().lock();
+        try {
+            this.pending = new LinkedHashMap<>();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el índice con los títulos indicados y repite los cambios aplicados
+     * desde {@link #beginRebuild()}
+     *
+     * @param games títulos a indexar
+     */
+    public void rebuild(Collection<GameTitle> games) {
+
+        this.lock.writeLock().lock();
+        try {
+            this.titles.clear();
+            this.gramCounts.clear();
+            this.postings.clear();
+            for (GameTitle game : games) {
+                add(game.id(), game.title());
+            }
+
+            // Repetir un cambio que ya estaba en la lectura deja el mismo índice
+            if (this.pending != null) {
+                this.pending.forEach(this::apply);
+                this.pending = null;
+            }
+
+            this.ready = true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica al índice el alta, modificación o borrado de un juego una vez confirmada
+     * la transacción
+     *
+     * @param event cambio del catálogo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        if (event.getType() != Game.class || event.getId() == null) {
+            return;
+        }
+
+        GameTitle game = this.gameRepository.findTitle(event.getId());
+
+        this.lock.writeLock().lock();
+        try {
+            apply(event.getId(), game);
+
+            if (this.pending != null) {
+                this.pending.put(event.getId(), game);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el índice está construido y puede consultarse
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Juegos cuyo título contiene el texto indicado, sin distinguir mayúsculas ni acentos
+     *
+     * @param text texto a buscar, no vacío una vez normalizado
+     * @return PKs de los juegos, ordenadas
+     */
+    public List<Long> find(String text) {
+
+        String query = normalize(text);
+        List<Long> result = new ArrayList<>();
+
+        this.lock.readLock().lock();
+        try {
+            if (query.length() < GRAM) {
+                this.titles.forEach((id, title) -> {
+                    if (title.contains(query)) {
+                        result.add(id);
+                    }
+                });
+            } else {
+                Postings rarest = null;
+                for (long gram : grams(query, false)) {
+                    Postings candidates = this.postings.get(gram);
+                    if (candidates == null) {
+                        return result;
+                    }
+                    if (rarest == null || candidates.size < rarest.size) {
+                        rarest = candidates;
+                    }
+                }
+                for (int i = 0; i < rarest.size; i++) {
+                    if (this.titles.get(rarest.ids[i]).contains(query)) {
+                        result.add(rarest.ids[i]);
+                    }
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        result.sort(Comparator.naturalOrder());
+
+        return result;
+    }
+
+    /**
+     * Juegos con un título parecido al texto indicado, de más a menos parecido
+     *
+     * @param text texto a buscar
+     * @param limit máximo de juegos a devolver
+     * @return PKs de los juegos cuya similitud llega a game.title-index.min-similarity
+     */
+    public List<Long> rank(String text, int limit) {
+
+        long[] query = grams(normalize(text), true);
+        Map<Long, Integer> shared = new HashMap<>();
+
+        this.lock.readLock().lock();
+        try {
+            for (long gram : query) {
+                Postings candidates = this.postings.get(gram);
+                if (candidates != null) {
+                    for (int i = 0; i < candidates.size; i++) {
+                        shared.merge(candidates.ids[i], 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<Long, Double>> scored = new ArrayList<>();
+            shared.forEach((id, count) -> {
+                double similarity = (double) count / (query.length + this.gramCounts.get(id) - count);
+                if (similarity >= this.minSimilarity) {
+                    scored.add(Map.entry(id, similarity));
+                }
+            });
+
+            return scored.stream().sorted(Map.Entry.<Long, Double> comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey())).limit(limit).map(Map.Entry::getKey).toList();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return número de títulos indexados
+     */
+    public int size() {
+
+        this.lock.readLock().lock();
+        try {
+            return this.titles.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pasa un texto a minúsculas, quita los acentos y reduce cualquier secuencia de
+     * caracteres que no sean letras o dígitos a un espacio
+     *
+     * @param text texto original
+     * @return texto normalizado, sin espacios al principio ni al final
+     */
+    public static String normalize(String text) {
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+
+        int length = normalized.length();
+        return space && length > 0 ? normalized.substring(0, length - 1) : normalized.toString();
+    }
+
+    /**
+     * Trigramas distintos de un texto normalizado, cada uno empaquetado en un long
+     *
+     * @param text texto normalizado
+     * @param padded true para añadir un espacio al principio y al final, como en los títulos indexados
+     * @return trigramas sin repetir
+     */
+    static long[] grams(String text, boolean padded) {
+
+        String source = padded ? " " + text + " " : text;
+        if (source.length() < GRAM) {
+            return new long[0];
+        }
+
+        long[] grams = new long[source.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) source.charAt(i) << 32) | ((long) source.charAt(i + 1) << 16) | source.charAt(i + 2);
+        }
+
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private void apply(Long id, GameTitle game) {
+
+        remove(id);
+        if (game != null) {
+            add(game.id(), game.title());
+        }
+    }
+
+    private void add(Long id, String title) {
+
+        String normalized = normalize(title);
+        long[] grams = grams(normalized, true);
+
+        this.titles.put(id, normalized);
+        this.gramCounts.put(id, grams.length);
+        for (long gram : grams) {
+            this.postings.computeIfAbsent(gram, k -> new Postings()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+
+        String normalized = this.titles.remove(id);
+        if (normalized == null) {
+            return;
+        }
+
+        this.gramCounts.remove(id);
+        for (long gram : grams(normalized, true)) {
+            Postings ids = this.postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                this.postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Lista de PKs de un trigrama, sin orden y sin cajas
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        private void add(long id) {
+
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+
+        private boolean remove(long id) {
+
+            // Las modificaciones de títulos son raras: se busca y se sustituye por el último
+            for (int i = 0; i < this.size; i++) {
+                if (this.ids[i] == id) {
+                    this.ids[i] = this.ids[--this.size];
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
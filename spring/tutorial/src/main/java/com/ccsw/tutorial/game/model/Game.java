@@ -23,6 +23,9 @@ public class Game {
     @Column(name = "age", nullable = false)
     private String age;
 
+    @Column(name = "min_age", nullable = false)
+    private int minAge;
+
     @ManyToOne
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
@@ -79,6 +82,22 @@ public class Game {
         this.age = age;
     }
 
+    /**
+     * @return minAge edad mínima de {@link #getAge} como número, para filtrar y ordenar
+     */
+    public int getMinAge() {
+
+        return this.minAge;
+    }
+
+    /**
+     * @param minAge new value of {@link #getMinAge}.
+     */
+    public void setMinAge(int minAge) {
+
+        this.minAge = minAge;
+    }
+
     /**
      * @return category
      */
@@ -0,0 +1,11 @@
+package com.ccsw.tutorial.game.model;
+
+/**
+ * Valor de una faceta del catálogo: una categoría o un autor y cuántos juegos de la
+ * búsqueda tiene
+ *
+ * @author ccsw
+ *
+ */
+public record GameFacetDto(Long id, String name, int count) {
+}
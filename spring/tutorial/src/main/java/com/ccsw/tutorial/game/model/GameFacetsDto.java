@@ -0,0 +1,15 @@
+package com.ccsw.tutorial.game.model;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda de juegos junto con el número de juegos por categoría y
+ * por autor. Las categorías cuentan los juegos que encuentra el título, sin aplicar
+ * el filtro de categoría, para poder cambiar de categoría; los autores cuentan los
+ * juegos de la búsqueda completa.
+ *
+ * @author ccsw
+ *
+ */
+public record GameFacetsDto(List<GameListDto> games, List<GameFacetDto> categories, List<GameFacetDto> authors) {
+}
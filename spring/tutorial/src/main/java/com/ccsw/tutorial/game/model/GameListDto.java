@@ -0,0 +1,25 @@
+package com.ccsw.tutorial.game.model;
+
+/**
+ * Fila del listado de juegos construida directamente por la consulta, sin cargar
+ * la entidad {@link Game} ni mapearla. Se serializa igual que {@link GameDto}.
+ *
+ * @author ccsw
+ *
+ */
+public record GameListDto(Long id, String title, String age, Category category, Author author) {
+
+    /**
+     * Constructor plano usado por la proyección de la consulta
+     */
+    public GameListDto(Long id, String title, String age, Long categoryId, String categoryName, Long authorId, String authorName, String authorNationality) {
+
+        this(id, title, age, new Category(categoryId, categoryName), new Author(authorId, authorName, authorNationality));
+    }
+
+    public record Category(Long id, String name) {
+    }
+
+    public record Author(Long id, String name, String nationality) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.ccsw.tutorial.game.model;
+
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+
+/**
+ * @author ccsw
+ *
+ */
+public class GameSearchDto {
+
+    private String title;
+
+    private Long categoryId;
+
+    private Long authorId;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    private PageableRequest pageable;
+
+    /**
+     * @return title texto contenido en el título, sin distinguir mayúsculas ni acentos
+     */
+    public String getTitle() {
+        return this.title;
+    }
+
+    /**
+     * @param title new value of {@link #getTitle}.
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * @return categoryId
+     */
+    public Long getCategoryId() {
+        return this.categoryId;
+    }
+
+    /**
+     * @param categoryId new value of {@link #getCategoryId}.
+     */
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    /**
+     * @return authorId
+     */
+    public Long getAuthorId() {
+        return this.authorId;
+    }
+
+    /**
+     * @param authorId new value of {@link #getAuthorId}.
+     */
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    /**
+     * @return minAge juegos a partir de esta edad mínima
+     */
+    public Integer getMinAge() {
+        return this.minAge;
+    }
+
+    /**
+     * @param minAge new value of {@link #getMinAge}.
+     */
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    /**
+     * @return maxAge juegos hasta esta edad mínima
+     */
+    public Integer getMaxAge() {
+        return this.maxAge;
+    }
+
+    /**
+     * @param maxAge new value of {@link #getMaxAge}.
+     */
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return pageable
+     */
+    public PageableRequest getPageable() {
+        return this.pageable;
+    }
+
+    /**
+     * @param pageable new value of {@link #getPageable}.
+     */
+    public void setPageable(PageableRequest pageable) {
+        this.pageable = pageable;
+    }
+}
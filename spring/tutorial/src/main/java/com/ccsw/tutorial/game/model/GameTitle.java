@@ -0,0 +1,10 @@
+package com.ccsw.tutorial.game.model;
+
+/**
+ * Identificador y título de un {@link Game}, sin cargar la entidad ni sus relaciones
+ *
+ * @author ccsw
+ *
+ */
+public record GameTitle(Long id, String title) {
+}
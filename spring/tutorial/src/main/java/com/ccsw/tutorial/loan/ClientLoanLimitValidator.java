@@ -0,0 +1,50 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Un mismo cliente no puede tener prestados más de 2 juegos en un mismo día. Se
+ * excluye el préstamo actual (si se está editando) y solo se rechaza si algún día
+ * del nuevo rango ya coinciden 2 o más préstamos del cliente.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class ClientLoanLimitValidator implements LoanValidator {
+
+    private static final int MAX_CLIENT_LOANS_PER_DAY = 2;
+
+    @Autowired
+    ClientOccupancyEngine occupancyEngine;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        return COST_STORED_LOANS + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        LoanPeriod candidate = validation.getCandidate();
+
+        int concurrent;
+        if (validation.usesIndexes() && this.occupancyEngine.isReady()) {
+            concurrent = this.occupancyEngine.maxConcurrentLoans(candidate.getClientId(), candidate.getStartDate(), candidate.getEndDate(), candidate.getId());
+        } else {
+            concurrent = validation.clientLoans().maxConcurrent(candidate.getStartDate().toEpochDay(), candidate.getEndDate().toEpochDay(), candidate.getId());
+        }
+
+        if (concurrent >= MAX_CLIENT_LOANS_PER_DAY) {
+            throw new Exception("El cliente ya tiene 2 juegos prestados en ese periodo de fechas");
+        }
+    }
+}
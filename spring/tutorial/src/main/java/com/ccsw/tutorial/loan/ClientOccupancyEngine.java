@@ -0,0 +1,43 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Índice en memoria de los periodos de préstamo de cada cliente, usado para
+ * saber cuántos juegos tiene prestados a la vez en cada día de un rango sin
+ * cargar entidades de BBDD.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class ClientOccupancyEngine extends LoanIntervalIndex {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Long ownerOf(LoanPeriod period) {
+        return period.getClientId();
+    }
+
+    /**
+     * Calcula el máximo de préstamos simultáneos de un cliente en un mismo día
+     * dentro del rango de fechas. Solo debe consultarse con el índice construido.
+     *
+     * @param clientId PK del cliente
+     * @param startDate fecha de inicio del rango
+     * @param endDate fecha de fin del rango
+     * @param excludeLoanId PK del préstamo a excluir (para actualización)
+     * @return máximo de préstamos simultáneos en un día
+     */
+    public int maxConcurrentLoans(Long clientId, LocalDate startDate, LocalDate endDate, Long excludeLoanId) {
+
+        LoanIntervalSet intervals = intervalsOf(clientId);
+
+        return intervals == null ? 0 : intervals.maxConcurrent(startDate.toEpochDay(), endDate.toEpochDay(), excludeLoanId);
+    }
+}
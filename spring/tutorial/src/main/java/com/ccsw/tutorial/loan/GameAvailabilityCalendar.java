@@ -0,0 +1,191 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.DateRangeDto;
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calendario en memoria con un {@link BitSet} por juego en el que cada bit es un
+ * día (epoch day) con el juego prestado. Como las reglas de préstamo impiden que
+ * un juego tenga dos préstamos el mismo día, al borrar un préstamo basta con
+ * limpiar sus días.
+ *
+ * Los cambios que llegan mientras se reconstruye (entre la lectura de los préstamos
+ * y la sustitución del calendario) se guardan y se vuelven a aplicar sobre el
+ * calendario nuevo, para no perderlos. Hasta la primera construcción los días se
+ * calculan con los préstamos del juego en la BBDD.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameAvailabilityCalendar {
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    private volatile Map<Long, BitSet> byGame = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    // Cambios aplicados desde beginRebuild, nulo si no hay una reconstrucción en curso
+    private List<LoanChangeEvent> pending;
+
+    /**
+     * Reconstruye el calendario completo a partir de la tabla loan
+     */
+    public void rebuild() {
+
+        beginRebuild();
+        rebuild(this.loanRepository.findAllPeriods());
+    }
+
+    /**
+     * Empieza a guardar los cambios que se apliquen a partir de ahora, para repetirlos
+     * en {@link #rebuild(Collection)}. Debe llamarse antes de leer los préstamos con
+     * los que se va a reconstruir.
+     */
+    public synchronized void beginRebuild() {
+
+        this.pending = new ArrayList<>();
+    }
+
+    /**
+     * Reconstruye el calendario completo a partir de los periodos indicados y repite
+     * los cambios aplicados desde {@link #beginRebuild()}
+     *
+     * @param periods todos los préstamos vigentes
+     */
+    public synchronized void rebuild(Collection<LoanPeriod> periods) {
+
+        Map<Long, BitSet> calendar = new ConcurrentHashMap<>();
+
+        for (LoanPeriod period : periods) {
+            mark(calendar, period, true);
+        }
+
+        // Repetir un cambio que ya estaba en la lectura deja el mismo calendario
+        if (this.pending != null) {
+            this.pending.forEach(event -> apply(calendar, event));
+            this.pending = null;
+        }
+
+        this.byGame = calendar;
+        this.ready = true;
+    }
+
+    /**
+     * @return true si el calendario está construido y puede consultarse
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Aplica al calendario un cambio de préstamo una vez confirmada la transacción
+     *
+     * @param event cambio del préstamo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLoanChange(LoanChangeEvent event) {
+
+        apply(this.byGame, event);
+
+        if (this.pending != null) {
+            this.pending.add(event);
+        }
+    }
+
+    /**
+     * Calcula los días libres y ocupados de un juego en un rango de fechas
+     *
+     * @param gameId PK del juego
+     * @param from primer día del rango
+     * @param to último día del rango
+     * @return {@link GameAvailabilityDto}
+     */
+    public GameAvailabilityDto availability(Long gameId, LocalDate from, LocalDate to) {
+
+        int first = dayIndex(from);
+        int days = dayIndex(to) - first + 1;
+
+        BitSet window;
+        BitSet bits = this.ready ? this.byGame.get(gameId) : load(gameId);
+        if (bits == null) {
+            window = new BitSet();
+        } else {
+            synchronized (bits) {
+                window = bits.get(first, first + days);
+            }
+        }
+
+        List<DateRangeDto> busy = new ArrayList<>();
+        List<DateRangeDto> free = new ArrayList<>();
+
+        int day = 0;
+        while (day < days) {
+            boolean loaned = window.get(day);
+            int next = loaned ? window.nextClearBit(day) : window.nextSetBit(day);
+            int end = (next < 0 || next > days ? days : next) - 1;
+
+            (loaned ? busy : free).add(new DateRangeDto(from.plusDays(day), from.plusDays(end)));
+            day = end + 1;
+        }
+
+        GameAvailabilityDto dto = new GameAvailabilityDto();
+        dto.setGameId(gameId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setBusy(busy);
+        dto.setFree(free);
+        dto.setNextFree(free.isEmpty() ? null : free.get(0));
+
+        return dto;
+    }
+
+    private BitSet load(Long gameId) {
+
+        Map<Long, BitSet> calendar = new HashMap<>();
+        this.loanRepository.findPeriodsByGameId(gameId).forEach(period -> mark(calendar, period, true));
+
+        return calendar.get(gameId);
+    }
+
+    private void apply(Map<Long, BitSet> calendar, LoanChangeEvent event) {
+
+        if (event.getPrevious() != null) {
+            mark(calendar, event.getPrevious(), false);
+        }
+        if (event.getCurrent() != null) {
+            mark(calendar, event.getCurrent(), true);
+        }
+    }
+
+    private void mark(Map<Long, BitSet> calendar, LoanPeriod period, boolean loaned) {
+
+        BitSet bits = calendar.computeIfAbsent(period.getGameId(), k -> new BitSet());
+
+        synchronized (bits) {
+            bits.set(dayIndex(period.getStartDate()), dayIndex(period.getEndDate()) + 1, loaned);
+        }
+    }
+
+    private static int dayIndex(LocalDate date) {
+
+        // Los préstamos anteriores a 1970 no existen, se acotan para no generar índices negativos
+        return (int) Math.max(0, date.toEpochDay());
+    }
+}
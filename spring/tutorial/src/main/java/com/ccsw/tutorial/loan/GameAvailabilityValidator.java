@@ -0,0 +1,48 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * El mismo juego no puede estar prestado a dos clientes distintos en un mismo día.
+ * Se resuelve contra el índice en memoria y, mientras se construye o con bloqueos
+ * de reserva en BBDD, con los préstamos solapados de la BBDD.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class GameAvailabilityValidator implements LoanValidator {
+
+    @Autowired
+    LoanAvailabilityIndex availabilityIndex;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        return COST_STORED_LOANS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        LoanPeriod candidate = validation.getCandidate();
+
+        boolean loaned;
+        if (validation.usesIndexes() && this.availabilityIndex.isReady()) {
+            loaned = this.availabilityIndex.isGameLoaned(candidate.getGameId(), candidate.getStartDate(), candidate.getEndDate(), candidate.getId());
+        } else {
+            loaned = validation.gameLoans().overlaps(candidate.getStartDate().toEpochDay(), candidate.getEndDate().toEpochDay(), candidate.getId());
+        }
+
+        if (loaned) {
+            throw new Exception("El juego ya está prestado en ese periodo de fechas");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanArchive;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author ccsw
+ *
+ */
+public interface LoanArchiveProjectionRepository {
+
+    /**
+     * Recupera filas del listado de préstamos archivados con la misma proyección que
+     * {@link LoanProjectionRepository#findList}
+     *
+     * @param spec filtros de la búsqueda
+     * @param sort ordenación
+     * @param offset primera fila
+     * @param limit número máximo de filas
+     * @return {@link List} de {@link LoanListDto}
+     */
+    List<LoanListDto> findList(Specification<LoanArchive> spec, Sort sort, long offset, int limit);
+
+    /**
+     * Recorre las filas del listado de préstamos archivados leyéndolas de la BBDD por bloques
+     *
+     * @param spec filtros de la búsqueda
+     * @param sort ordenación
+     * @param fetchSize filas a leer por cada viaje a la BBDD
+     * @return {@link Stream} de {@link LoanListDto}, a cerrar dentro de la transacción
+     */
+    Stream<LoanListDto> streamList(Specification<LoanArchive> spec, Sort sort, int fetchSize);
+
+}
@@ -0,0 +1,40 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.common.criteria.ProjectionQuery;
+import com.ccsw.tutorial.loan.model.LoanArchive;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author ccsw
+ *
+ */
+public class LoanArchiveProjectionRepositoryImpl implements LoanArchiveProjectionRepository {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LoanListDto> findList(Specification<LoanArchive> spec, Sort sort, long offset, int limit) {
+
+        return ProjectionQuery.list(this.entityManager, LoanArchive.class, LoanListDto.class, spec, sort, offset, limit, LoanProjectionRepositoryImpl::columns);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<LoanListDto> streamList(Specification<LoanArchive> spec, Sort sort, int fetchSize) {
+
+        return ProjectionQuery.stream(this.entityManager, LoanArchive.class, LoanListDto.class, spec, sort, fetchSize, LoanProjectionRepositoryImpl::columns);
+    }
+}
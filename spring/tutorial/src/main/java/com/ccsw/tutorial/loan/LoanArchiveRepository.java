@@ -0,0 +1,13 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanArchive;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * @author ccsw
+ *
+ */
+public interface LoanArchiveRepository extends CrudRepository<LoanArchive, Long>, JpaSpecificationExecutor<LoanArchive>, LoanArchiveProjectionRepository {
+
+}
@@ -0,0 +1,42 @@
+package com.ccsw.tutorial.loan;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Un préstamo no puede empezar en o antes de la última fecha archivada: los
+ * préstamos archivados ya no están en los índices ni en la tabla loan, así que no
+ * se podrían comprobar los solapes con ellos
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanArchiveValidator implements LoanValidator {
+
+    @Autowired
+    LoanArchiver archiver;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        // Una lectura en memoria, pero después de las comprobaciones de fechas del propio préstamo
+        return COST_REQUEST + 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        LocalDate archivedUntil = this.archiver.archivedUntil();
+        if (archivedUntil != null && !validation.getCandidate().getStartDate().isAfter(archivedUntil)) {
+            throw new Exception("La fecha de inicio debe ser posterior a la de los préstamos archivados (" + archivedUntil + ")");
+        }
+    }
+}
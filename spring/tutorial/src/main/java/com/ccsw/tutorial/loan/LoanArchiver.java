@@ -0,0 +1,290 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanArchiveStats;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proceso programado que mueve a loan_archive los préstamos cuya fecha de fin es
+ * anterior a hoy menos loan.archive.horizon-days, para que la tabla loan y sus
+ * índices contengan solo los préstamos vigentes y recientes. Recorre la tabla por
+ * bloques ordenados por (end_date, id) con el índice ix_loan_end_date; cada bloque
+ * se copia y se borra en una sola transacción, con su propio pool de conexiones
+ * como {@link LoanOverdueScanner}.
+ *
+ * Cada préstamo movido se publica como {@link LoanChangeEvent#archived}, de modo que
+ * sale de los índices en memoria y del diario pero sigue contando en los acumulados
+ * de uso. {@link #archivedUntil()} es la mayor fecha de fin archivada: una búsqueda
+ * por una fecha posterior no puede encontrar nada en el archivo.
+ *
+ * La ejecución programada está desactivada por defecto (loan.archive.enabled), como
+ * el diario: una vez archivado, un préstamo ya no puede modificarse ni puede darse de
+ * alta otro que empiece en o antes de la marca de agua. POST /loan/archive archiva
+ * igualmente aunque esté desactivada.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanArchiver {
+
+    static final String ARCHIVED_UNTIL = "SELECT MAX(end_date) FROM loan_archive";
+
+    // Los préstamos leídos quedan bloqueados hasta el commit para que una petición no los modifique entre la copia y el borrado
+    private static final String SELECT_CHUNK = "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE end_date < ? ORDER BY end_date, id LIMIT ? FOR UPDATE";
+
+    private static final String COPY = "INSERT INTO loan_archive(id, game_id, client_id, start_date, end_date, overdue, archived_at) SELECT id, game_id, client_id, start_date, end_date, overdue, ? FROM loan WHERE id = ?";
+
+    private static final String DELETE = "DELETE FROM loan WHERE id = ?";
+
+    private static final String COUNTS = "SELECT (SELECT COUNT(*) FROM loan), (SELECT COUNT(*) FROM loan_archive)";
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    private final int horizonDays;
+
+    private final int chunkSize;
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder runs = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder archived = new LongAdder();
+
+    private final Object watermarkLock = new Object();
+
+    private volatile boolean loaded;
+
+    private volatile LocalDate archivedUntil;
+
+    private volatile LastRun lastRun;
+
+    public LoanArchiver(DataSourceProperties dataSourceProperties, @Value("${loan.archive.enabled:false}") boolean enabled, @Value("${loan.archive.horizon-days:365}") int horizonDays,
+            @Value("${loan.archive.chunk-size:500}") int chunkSize, @Value("${loan.archive.pool-size:1}") int poolSize) {
+
+        this.enabled = enabled;
+        this.horizonDays = Math.max(1, horizonDays);
+        this.chunkSize = Math.max(1, chunkSize);
+
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("loan-archive");
+        this.dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        this.dataSource.setMinimumIdle(0);
+
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+    }
+
+    /**
+     * Ejecución programada, cada loan.archive.interval-ms desde el final de la anterior
+     */
+    @Scheduled(initialDelayString = "${loan.archive.initial-delay-ms:120000}", fixedDelayString = "${loan.archive.interval-ms:86400000}")
+    public void scheduledArchive() {
+
+        if (this.enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archiva los préstamos que han superado el horizonte configurado
+     *
+     * @return {@link LoanArchiveStats} tras la ejecución
+     */
+    public LoanArchiveStats archive() {
+
+        return archive(LocalDate.now().minusDays(this.horizonDays), this.chunkSize);
+    }
+
+    /**
+     * Archiva los préstamos que terminan antes de la fecha indicada. La fecha no puede
+     * superar la del horizonte configurado: archivar préstamos aún en curso los sacaría
+     * de la validación y adelantaría la marca de agua de las búsquedas.
+     *
+     * @param before fecha de corte, excluida
+     * @return {@link LoanArchiveStats} tras la ejecución
+     * @throws Exception si la fecha es posterior a hoy menos el horizonte
+     */
+    public LoanArchiveStats archive(LocalDate before) throws Exception {
+
+        LocalDate limit = LocalDate.now().minusDays(this.horizonDays);
+        if (before.isAfter(limit)) {
+            throw new Exception("La fecha de corte del archivado no puede ser posterior al " + limit);
+        }
+
+        return archive(before, this.chunkSize);
+    }
+
+    /**
+     * Archiva los préstamos que terminan antes de la fecha indicada en bloques del tamaño indicado. Las ejecuciones
+     * no se solapan: una petición manual espera a que termine la programada.
+     *
+     * @param before fecha de corte, excluida
+     * @param size préstamos por bloque
+     * @return {@link LoanArchiveStats} tras la ejecución
+     */
+    synchronized LoanArchiveStats archive(LocalDate before, int size) {
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        long runChunks = 0;
+        long runArchived = 0;
+        int moved;
+
+        try {
+            do {
+                moved = this.transactionTemplate.execute(status -> moveChunk(before, size, Timestamp.valueOf(startedAt)));
+
+                runChunks++;
+                runArchived += moved;
+                this.archived.add(moved);
+            } while (moved == size);
+        } catch (RuntimeException e) {
+            this.failures.increment();
+            throw e;
+        }
+
+        this.runs.increment();
+        this.lastRun = new LastRun(startedAt, before, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), runChunks, runArchived);
+
+        return stats();
+    }
+
+    /**
+     * Lee al arrancar la mayor fecha de fin archivada
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWatermark() {
+
+        if (!this.loaded) {
+            synchronized (this.watermarkLock) {
+                if (!this.loaded) {
+                    Date until = this.jdbcTemplate.queryForObject(ARCHIVED_UNTIL, Date.class);
+                    this.archivedUntil = until != null ? until.toLocalDate() : null;
+                    this.loaded = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mayor fecha de fin de los préstamos archivados, leída al arrancar y actualizada
+     * con cada bloque movido
+     *
+     * @return fecha, nula si no hay ningún préstamo archivado
+     */
+    public LocalDate archivedUntil() {
+
+        // Una consulta anterior al arranque completo la lee en el momento
+        loadWatermark();
+
+        return this.archivedUntil;
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque y de la última ejecución
+     *
+     * @return {@link LoanArchiveStats}
+     */
+    public LoanArchiveStats stats() {
+
+        LoanArchiveStats stats = new LoanArchiveStats();
+        stats.setEnabled(this.enabled);
+        stats.setHorizonDays(this.horizonDays);
+        stats.setChunkSize(this.chunkSize);
+        stats.setRuns(this.runs.sum());
+        stats.setFailures(this.failures.sum());
+        stats.setArchived(this.archived.sum());
+        stats.setArchivedUntil(archivedUntil());
+
+        this.jdbcTemplate.query(COUNTS, rs -> {
+            stats.setHotLoans(rs.getLong(1));
+            stats.setArchivedLoans(rs.getLong(2));
+        });
+
+        LastRun last = this.lastRun;
+        if (last != null) {
+            stats.setLastRunAt(last.startedAt());
+            stats.setLastRunBefore(last.before());
+            stats.setLastRunMillis(last.millis());
+            stats.setLastRunChunks(last.chunks());
+            stats.setLastRunArchived(last.archived());
+        }
+
+        return stats;
+    }
+
+    @PreDestroy
+    void close() {
+
+        this.dataSource.close();
+    }
+
+    private int moveChunk(LocalDate before, int size, Timestamp archivedAt) {
+
+        List<LoanPeriod> periods = this.jdbcTemplate.query(SELECT_CHUNK,
+                (rs, i) -> new LoanPeriod(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDate(4).toLocalDate(), rs.getDate(5).toLocalDate()), Date.valueOf(before), size);
+
+        if (periods.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> copies = new ArrayList<>();
+        List<Object[]> ids = new ArrayList<>();
+        for (LoanPeriod period : periods) {
+            copies.add(new Object[] { archivedAt, period.getId() });
+            ids.add(new Object[] { period.getId() });
+        }
+
+        this.jdbcTemplate.batchUpdate(COPY, copies);
+        this.jdbcTemplate.batchUpdate(DELETE, ids);
+
+        // Antes del commit: mientras tanto las búsquedas ya consultan también el archivo
+        LocalDate last = periods.get(periods.size() - 1).getEndDate();
+        loadWatermark();
+        synchronized (this.watermarkLock) {
+            if (this.archivedUntil == null || last.isAfter(this.archivedUntil)) {
+                this.archivedUntil = last;
+            }
+        }
+
+        periods.forEach(period -> this.eventPublisher.publishEvent(LoanChangeEvent.archived(period)));
+
+        return periods.size();
+    }
+
+    private record LastRun(LocalDateTime startedAt, LocalDate before, long millis, long chunks, long archived) {
+    }
+}
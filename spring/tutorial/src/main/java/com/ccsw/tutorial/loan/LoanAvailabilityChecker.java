@@ -0,0 +1,254 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.client.ClientService;
+import com.ccsw.tutorial.game.GameService;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityCheckDto;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityVerdictDto;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Comprueba de una vez si se podría reservar cada línea de una cesta de préstamos,
+ * sin guardar nada. Pasa cada línea por la misma {@link LoanValidationChain} que el
+ * alta, con los intervalos de los índices en memoria, o de una sola consulta
+ * agrupada si aún se están construyendo, y además comprueba las líneas entre sí:
+ * dos líneas del mismo juego que se solapan chocan entre sí, y las líneas del mismo
+ * cliente se añaden a sus intervalos para que cuenten en su límite diario.
+ *
+ * A diferencia de {@link LoanBulkImporter} la comprobación es simétrica: una línea
+ * choca con cualquier otra de la cesta, no solo con las anteriores, porque se
+ * reservarían todas juntas.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanAvailabilityChecker {
+
+    static final int MAX_LINES = 1000;
+
+    // Cada rama usa su índice compuesto (ix_loan_game_dates / ix_loan_client_dates)
+    static final String OVERLAPPING_GAMES = "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE game_id IN (%s) AND start_date <= ? AND end_date >= ?";
+
+    static final String OVERLAPPING_CLIENTS = "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE client_id IN (%s) AND start_date <= ? AND end_date >= ?";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    ClientService clientService;
+
+    @Autowired
+    LoanAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    ClientOccupancyEngine occupancyEngine;
+
+    @Autowired
+    LoanValidationChain validationChain;
+
+    /**
+     * Comprueba las líneas de una cesta
+     *
+     * @param lines líneas a comprobar
+     * @return veredicto de cada línea, en el mismo orden que la entrada
+     * @throws Exception si la cesta supera {@link #MAX_LINES} líneas
+     */
+    public List<LoanAvailabilityVerdictDto> check(List<LoanAvailabilityCheckDto> lines) throws Exception {
+
+        if (lines.size() > MAX_LINES) {
+            throw new Exception("No se pueden comprobar más de " + MAX_LINES + " préstamos a la vez");
+        }
+
+        Set<Long> gameIds = lines.stream().map(LoanAvailabilityCheckDto::getGameId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> clientIds = lines.stream().map(LoanAvailabilityCheckDto::getClientId).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        Set<Long> games = gameIds.isEmpty() ? gameIds : new HashSet<>(this.gameService.findExistingIds(gameIds));
+        Set<Long> clients = clientIds.isEmpty() ? clientIds : new HashSet<>(this.clientService.findExistingIds(clientIds));
+
+        LoanAvailabilityVerdictDto[] verdicts = new LoanAvailabilityVerdictDto[lines.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        for (int row = 0; row < lines.size(); row++) {
+            String error = validate(lines.get(row), games, clients);
+            if (error != null) {
+                verdicts[row] = new LoanAvailabilityVerdictDto(row, false, false, error, List.of());
+            } else {
+                valid.add(row);
+            }
+        }
+
+        if (valid.isEmpty()) {
+            return List.of(verdicts);
+        }
+
+        Function<Long, LoanIntervalSet> storedGames;
+        Function<Long, LoanIntervalSet> storedClients;
+        if (this.availabilityIndex.isReady() && this.occupancyEngine.isReady()) {
+            storedGames = this.availabilityIndex::snapshotOf;
+            storedClients = this.occupancyEngine::snapshotOf;
+        } else {
+            Map<Long, LoanIntervalSet> byGame = new HashMap<>();
+            Map<Long, LoanIntervalSet> byClient = new HashMap<>();
+            for (LoanPeriod period : findOverlapping(lines, valid)) {
+                byGame.computeIfAbsent(period.getGameId(), k -> new LoanIntervalSet()).put(period.getId(), period.getStartDate().toEpochDay(), period.getEndDate().toEpochDay());
+                byClient.computeIfAbsent(period.getClientId(), k -> new LoanIntervalSet()).put(period.getId(), period.getStartDate().toEpochDay(), period.getEndDate().toEpochDay());
+            }
+            storedGames = gameId -> byGame.getOrDefault(gameId, new LoanIntervalSet());
+            storedClients = clientId -> byClient.getOrDefault(clientId, new LoanIntervalSet());
+        }
+
+        Map<Long, List<Integer>> rowsByGame = new HashMap<>();
+        Map<Long, List<Integer>> rowsByClient = new HashMap<>();
+        for (Integer row : valid) {
+            rowsByGame.computeIfAbsent(lines.get(row).getGameId(), k -> new ArrayList<>()).add(row);
+            if (lines.get(row).getClientId() != null) {
+                rowsByClient.computeIfAbsent(lines.get(row).getClientId(), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        Map<Long, LoanIntervalSet> gameIntervals = new HashMap<>();
+        Map<Long, LoanIntervalSet> clientIntervals = new HashMap<>();
+        Map<Long, LoanIntervalSet> clientBasketIntervals = new HashMap<>();
+
+        // Las líneas de la cesta se identifican con un id negativo para no chocar con los de BBDD
+        for (Map.Entry<Long, List<Integer>> entry : rowsByClient.entrySet()) {
+            LoanIntervalSet stored = storedClients.apply(entry.getKey());
+            LoanIntervalSet withBasket = stored.copy();
+            for (Integer row : entry.getValue()) {
+                withBasket.put(-(row + 1L), lines.get(row).getStartDate().toEpochDay(), lines.get(row).getEndDate().toEpochDay());
+            }
+            clientIntervals.put(entry.getKey(), stored);
+            clientBasketIntervals.put(entry.getKey(), withBasket);
+        }
+
+        for (Integer row : valid) {
+            LoanAvailabilityCheckDto line = lines.get(row);
+            LoanPeriod candidate = candidateOf(line, row);
+
+            // Se valida contra los préstamos guardados del juego y, para el límite diario, también contra el resto de la cesta del cliente
+            LoanIntervalSet clientSet = line.getClientId() != null ? clientBasketIntervals.get(line.getClientId()) : new LoanIntervalSet();
+            Map<Class<? extends LoanValidator>, String> rejections = this.validationChain.findStoredLoanRejections(candidate, gameIntervals.computeIfAbsent(line.getGameId(), storedGames), clientSet);
+
+            List<Integer> conflicting = new ArrayList<>(overlappingRows(lines, rowsByGame.get(line.getGameId()), row));
+
+            boolean clientAvailable = !rejections.containsKey(ClientLoanLimitValidator.class);
+            boolean gameAvailable = conflicting.isEmpty() && rejections.keySet().stream().allMatch(ClientLoanLimitValidator.class::equals);
+
+            String error = rejections.isEmpty() ? null : rejections.values().iterator().next();
+            if (error == null && !conflicting.isEmpty()) {
+                error = "El juego está repetido en la cesta en fechas que se solapan";
+            }
+
+            // Si los préstamos guardados bastan para llenar el día, el resto de la cesta no influye
+            if (!clientAvailable && !this.validationChain.findStoredLoanRejections(candidate, new LoanIntervalSet(), clientIntervals.get(line.getClientId())).containsKey(ClientLoanLimitValidator.class)) {
+                if (error.equals(rejections.get(ClientLoanLimitValidator.class))) {
+                    error = "El cliente superaría 2 juegos prestados en un mismo día con otras líneas de la cesta";
+                }
+                overlappingRows(lines, rowsByClient.get(line.getClientId()), row).stream().filter(e -> !conflicting.contains(e)).forEach(conflicting::add);
+            }
+
+            Collections.sort(conflicting);
+            verdicts[row] = new LoanAvailabilityVerdictDto(row, gameAvailable, clientAvailable, error, conflicting);
+        }
+
+        return List.of(verdicts);
+    }
+
+    private String validate(LoanAvailabilityCheckDto line, Set<Long> games, Set<Long> clients) {
+
+        if (line.getGameId() == null || line.getStartDate() == null || line.getEndDate() == null) {
+            return "Faltan datos del préstamo";
+        }
+
+        try {
+            this.validationChain.validateRequest(new LoanPeriod(null, line.getGameId(), line.getClientId(), line.getStartDate(), line.getEndDate()));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+
+        if (!games.contains(line.getGameId())) {
+            return "No existe el juego " + line.getGameId();
+        }
+
+        if (line.getClientId() != null && !clients.contains(line.getClientId())) {
+            return "No existe el cliente " + line.getClientId();
+        }
+
+        return null;
+    }
+
+    /**
+     * Las líneas de la cesta se identifican con un id negativo para no chocar con los de BBDD
+     */
+    private static LoanPeriod candidateOf(LoanAvailabilityCheckDto line, int row) {
+
+        return new LoanPeriod(-(row + 1L), line.getGameId(), line.getClientId(), line.getStartDate(), line.getEndDate());
+    }
+
+    private static List<Integer> overlappingRows(List<LoanAvailabilityCheckDto> lines, List<Integer> rows, int row) {
+
+        LoanAvailabilityCheckDto line = lines.get(row);
+        List<Integer> result = new ArrayList<>();
+
+        for (Integer other : rows) {
+            LoanAvailabilityCheckDto candidate = lines.get(other);
+            if (other != row && !candidate.getStartDate().isAfter(line.getEndDate()) && !candidate.getEndDate().isBefore(line.getStartDate())) {
+                result.add(other);
+            }
+        }
+
+        return result;
+    }
+
+    private List<LoanPeriod> findOverlapping(List<LoanAvailabilityCheckDto> lines, List<Integer> valid) {
+
+        List<Long> gameIds = valid.stream().map(row -> lines.get(row).getGameId()).distinct().toList();
+        List<Long> clientIds = valid.stream().map(row -> lines.get(row).getClientId()).filter(Objects::nonNull).distinct().toList();
+
+        Date from = Date.valueOf(valid.stream().map(row -> lines.get(row).getStartDate()).min(LocalDate::compareTo).get());
+        Date to = Date.valueOf(valid.stream().map(row -> lines.get(row).getEndDate()).max(LocalDate::compareTo).get());
+
+        String sql = String.format(OVERLAPPING_GAMES, placeholders(gameIds.size()));
+        List<Object> params = new ArrayList<>(gameIds);
+        params.add(to);
+        params.add(from);
+
+        // Un préstamo del mismo juego y cliente sale en las dos ramas; al indexarlo por PK se queda una vez
+        if (!clientIds.isEmpty()) {
+            sql += " UNION ALL " + String.format(OVERLAPPING_CLIENTS, placeholders(clientIds.size()));
+            params.addAll(clientIds);
+            params.add(to);
+            params.add(from);
+        }
+
+        return this.jdbcTemplate.query(sql,
+                (rs, i) -> new LoanPeriod(rs.getLong("id"), rs.getLong("game_id"), rs.getLong("client_id"), rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate()),
+                params.toArray());
+    }
+
+    private static String placeholders(int count) {
+
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Índice en memoria de los periodos de préstamo de cada juego, de forma que
+ * comprobar si un juego está prestado en un rango de fechas no necesita ir a BBDD.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanAvailabilityIndex extends LoanIntervalIndex {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Long ownerOf(LoanPeriod period) {
+        return period.getGameId();
+    }
+
+    /**
+     * Indica si un juego tiene algún préstamo que se solape con el rango de fechas.
+     * Solo debe consultarse con el índice construido.
+     *
+     * @param gameId PK del juego
+     * @param startDate fecha de inicio del rango
+     * @param endDate fecha de fin del rango
+     * @param excludeLoanId PK del préstamo a excluir (para actualización)
+     * @return true si el juego ya está prestado
+     */
+    public boolean isGameLoaned(Long gameId, LocalDate startDate, LocalDate endDate, Long excludeLoanId) {
+
+        LoanIntervalSet intervals = intervalsOf(gameId);
+
+        return intervals != null && intervals.overlaps(startDate.toEpochDay(), endDate.toEpochDay(), excludeLoanId);
+    }
+}
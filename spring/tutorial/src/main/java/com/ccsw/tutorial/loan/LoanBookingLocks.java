@@ -0,0 +1,251 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanLockStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Bloqueos de reserva para la sección comprobar-y-guardar de los préstamos. Cada
+ * juego y cada cliente se asigna a uno de un número fijo de bloqueos (stripes), de
+ * modo que las escrituras de juegos y clientes distintos avanzan en paralelo y las
+ * que comparten juego o cliente se serializan. Los bloqueos se toman siempre en
+ * orden de stripe para evitar interbloqueos.
+ *
+ * Dentro de una transacción se mantienen hasta que termina, después de que los
+ * índices en memoria hayan aplicado el cambio confirmado. Con
+ * loan.locks.database=true se bloquean además las filas de game y client con
+ * SELECT ... FOR UPDATE para varias instancias compartiendo BBDD, y las reglas que
+ * dependen de los préstamos guardados se comprueban en la BBDD en lugar de en los
+ * índices de esta instancia. Fuera de una transacción real (la carga masiva) no se
+ * bloquean filas: en autocommit el FOR UPDATE se liberaría en la misma sentencia, así
+ * que la carga solo se serializa con las escrituras de esta instancia.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanBookingLocks {
+
+    private final ReentrantLock[] stripes;
+
+    private final long timeoutMillis;
+
+    private final boolean databaseLocks;
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder contended = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public LoanBookingLocks(@Value("${loan.locks.stripes:64}") int stripes, @Value("${loan.locks.timeout-ms:5000}") long timeoutMillis, @Value("${loan.locks.database:false}") boolean databaseLocks) {
+
+        // Potencia de dos para repartir con una máscara
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.databaseLocks = databaseLocks;
+    }
+
+    /**
+     * Reserva los juegos y clientes indicados. La {@link Lease} se cierra al terminar
+     * la escritura, después de publicar sus eventos.
+     *
+     * @param gameIds juegos afectados por la escritura
+     * @param clientIds clientes afectados por la escritura
+     * @return {@link Lease} a cerrar al terminar la escritura
+     * @throws Exception si no se consigue la reserva en el tiempo de espera
+     */
+    public Lease acquire(Collection<Long> gameIds, Collection<Long> clientIds) throws Exception {
+
+        TreeSet<Integer> indexes = new TreeSet<>();
+        gameIds.stream().filter(Objects::nonNull).forEach(id -> indexes.add(stripeOf(id * 2)));
+        clientIds.stream().filter(Objects::nonNull).forEach(id -> indexes.add(stripeOf(id * 2 + 1)));
+
+        Lease lease = lock(indexes);
+
+        // Con NOT_SUPPORTED hay sincronización pero no transacción: el bloqueo no duraría
+        if (this.databaseLocks && TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                lockRows("game", gameIds);
+                lockRows("client", clientIds);
+            } catch (RuntimeException e) {
+                lease.release();
+                throw e;
+            }
+        }
+
+        return lease;
+    }
+
+    /**
+     * Reserva todos los juegos y clientes, esperando a que terminen las escrituras en
+     * curso de esta instancia y bloqueando las nuevas hasta cerrar la {@link Lease}.
+     * Para operaciones que recorren todos los préstamos y deben ver un estado estable.
+     * No bloquea filas en BBDD.
+     *
+     * @return {@link Lease} a cerrar al terminar
+     * @throws Exception si no se consigue la reserva en el tiempo de espera
+     */
+    public Lease acquireAll() throws Exception {
+
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (int i = 0; i < this.stripes.length; i++) {
+            indexes.add(i);
+        }
+
+        return lock(indexes);
+    }
+
+    /**
+     * @return true si las reservas bloquean también las filas en BBDD, de modo que
+     * otras instancias pueden guardar préstamos que los índices de esta no tienen
+     */
+    public boolean isDatabaseLocks() {
+        return this.databaseLocks;
+    }
+
+    private Lease lock(TreeSet<Integer> indexes) throws Exception {
+
+        Lease lease = new Lease();
+        long start = System.nanoTime();
+        boolean waited = false;
+
+        try {
+            for (Integer index : indexes) {
+                ReentrantLock lock = this.stripes[index];
+                if (!lock.tryLock()) {
+                    waited = true;
+                    if (!lock.tryLock(this.timeoutMillis, TimeUnit.MILLISECONDS)) {
+                        this.timeouts.increment();
+                        throw new Exception("El juego o el cliente del préstamo se está modificando en otra petición, inténtelo de nuevo");
+                    }
+                }
+                lease.locks.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lease.release();
+            throw new Exception("Se ha interrumpido la reserva del préstamo");
+        } catch (Exception e) {
+            lease.release();
+            throw e;
+        }
+
+        long waitedNanos = System.nanoTime() - start;
+        this.acquisitions.increment();
+        if (waited) {
+            this.contended.increment();
+            this.waitNanos.add(waitedNanos);
+            this.maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+        }
+
+        return lease;
+    }
+
+    /**
+     * Métricas de contención acumuladas desde el arranque
+     *
+     * @return {@link LoanLockStats}
+     */
+    public LoanLockStats stats() {
+
+        LoanLockStats stats = new LoanLockStats();
+        stats.setStripes(this.stripes.length);
+        stats.setDatabaseLocks(this.databaseLocks);
+        stats.setAcquisitions(this.acquisitions.sum());
+        stats.setContended(this.contended.sum());
+        stats.setTimeouts(this.timeouts.sum());
+        stats.setWaitMillis(TimeUnit.NANOSECONDS.toMillis(this.waitNanos.sum()));
+        stats.setMaxWaitMillis(TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos.get()));
+
+        return stats;
+    }
+
+    private void lockRows(String table, Collection<Long> ids) {
+
+        List<Long> sorted = ids.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+        if (sorted.isEmpty()) {
+            return;
+        }
+
+        String in = sorted.stream().map(e -> "?").collect(Collectors.joining(", "));
+        this.jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN (" + in + ") ORDER BY id FOR UPDATE", Long.class, sorted.toArray());
+    }
+
+    private int stripeOf(long key) {
+
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32)) & (this.stripes.length - 1);
+    }
+
+    /**
+     * Reserva concedida. Cerrarla fuera de una transacción libera los bloqueos; dentro
+     * de una transacción los libera al terminar esta.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final List<ReentrantLock> locks = new ArrayList<>();
+
+        @Override
+        public void close() {
+
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                release();
+                return;
+            }
+
+            // Los listeners AFTER_COMMIT también se ejecutan en afterCompletion: registrando la
+            // liberación al cerrar, después de publicar el evento, y con la menor precedencia,
+            // los índices en memoria ya tienen el cambio cuando otra escritura toma el bloqueo
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public int getOrder() {
+                    return Ordered.LOWEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    release();
+                }
+            });
+        }
+
+        private void release() {
+
+            for (int i = this.locks.size() - 1; i >= 0; i--) {
+                this.locks.get(i).unlock();
+            }
+            this.locks.clear();
+        }
+    }
+}
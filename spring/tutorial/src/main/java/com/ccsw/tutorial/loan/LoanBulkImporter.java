@@ -0,0 +1,255 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.client.ClientService;
+import com.ccsw.tutorial.game.GameService;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de préstamos. Valida cada fila con los mismos
+ * {@link LoanValidator} que un alta individual, pasándoles como préstamos guardados
+ * los intervalos de los índices de juegos y clientes más las filas ya aceptadas del
+ * propio lote. Resuelve las referencias a juegos y clientes con una consulta IN por
+ * tipo e inserta las filas aceptadas con batches JDBC, en una transacción por bloque.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanBulkImporter {
+
+    private static final String INSERT_SQL = "INSERT INTO loan(game_id, client_id, start_date, end_date) VALUES (?, ?, ?, ?)";
+
+    @Value("${loan.bulk.chunk-size:500}")
+    int chunkSize;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    ClientService clientService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    ClientOccupancyEngine occupancyEngine;
+
+    @Autowired
+    LoanBookingLocks bookingLocks;
+
+    @Autowired
+    LoanValidationChain validationChain;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Valida y guarda un lote de préstamos nuevos
+     *
+     * @param dtos préstamos a crear
+     * @return resultado de cada fila, en el mismo orden que la entrada
+     */
+    public List<LoanBulkResultDto> importAll(List<LoanDto> dtos) {
+
+        Set<Long> gameIds = dtos.stream().map(e -> e.getGame() == null ? null : e.getGame().getId()).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> clientIds = dtos.stream().map(e -> e.getClient() == null ? null : e.getClient().getId()).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        // El lote se valida contra los índices y se inserta sin que otra escritura toque sus juegos o clientes
+        LoanBookingLocks.Lease lease;
+        try {
+            lease = this.bookingLocks.acquire(gameIds, clientIds);
+        } catch (Exception e) {
+            // Sin la reserva no se ha validado ni guardado nada: todas las filas fallan por el mismo motivo
+            List<LoanBulkResultDto> results = new ArrayList<>();
+            for (int row = 0; row < dtos.size(); row++) {
+                results.add(new LoanBulkResultDto(row, null, e.getMessage()));
+            }
+            return results;
+        }
+
+        try (lease) {
+            return importLocked(dtos, gameIds, clientIds);
+        }
+    }
+
+    private List<LoanBulkResultDto> importLocked(List<LoanDto> dtos, Set<Long> gameIds, Set<Long> clientIds) {
+
+        LoanBulkResultDto[] results = new LoanBulkResultDto[dtos.size()];
+
+        Set<Long> games = existing(gameIds, true);
+        Set<Long> clients = existing(clientIds, false);
+
+        // Intervalos ocupados de cada juego y cliente del lote: los ya guardados más los aceptados del propio lote
+        Map<Long, LoanIntervalSet> gameIntervals = new HashMap<>();
+        Map<Long, LoanIntervalSet> clientIntervals = new HashMap<>();
+
+        List<Integer> accepted = new ArrayList<>();
+
+        for (int row = 0; row < dtos.size(); row++) {
+            LoanDto dto = dtos.get(row);
+            String error = validate(dto, games, clients, gameIntervals, clientIntervals);
+
+            if (error != null) {
+                results[row] = new LoanBulkResultDto(row, null, error);
+                continue;
+            }
+
+            // Las filas aún no guardadas se identifican con un id negativo para no chocar con los de BBDD
+            long start = dto.getStartDate().toEpochDay();
+            long end = dto.getEndDate().toEpochDay();
+            gameIntervals.get(dto.getGame().getId()).put(-(row + 1L), start, end);
+            clientIntervals.get(dto.getClient().getId()).put(-(row + 1L), start, end);
+            accepted.add(row);
+        }
+
+        for (int from = 0; from < accepted.size(); from += this.chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + this.chunkSize, accepted.size()));
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> insert(dtos, chunk, results));
+            } catch (DataAccessException e) {
+                for (Integer row : chunk) {
+                    results[row] = new LoanBulkResultDto(row, null, "No se ha podido guardar el préstamo: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private Set<Long> existing(Set<Long> ids, boolean games) {
+
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        return new HashSet<>(games ? this.gameService.findExistingIds(ids) : this.clientService.findExistingIds(ids));
+    }
+
+    private String validate(LoanDto dto, Set<Long> games, Set<Long> clients, Map<Long, LoanIntervalSet> gameIntervals, Map<Long, LoanIntervalSet> clientIntervals) {
+
+        if (dto.getGame() == null || dto.getClient() == null || dto.getStartDate() == null || dto.getEndDate() == null) {
+            return "Faltan datos del préstamo";
+        }
+
+        LoanPeriod candidate = new LoanPeriod(null, dto.getGame().getId(), dto.getClient().getId(), dto.getStartDate(), dto.getEndDate());
+
+        try {
+            this.validationChain.validateRequest(candidate);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+
+        if (!games.contains(dto.getGame().getId())) {
+            return "No existe el juego " + dto.getGame().getId();
+        }
+
+        if (!clients.contains(dto.getClient().getId())) {
+            return "No existe el cliente " + dto.getClient().getId();
+        }
+
+        LoanIntervalSet gameSet = gameIntervals.computeIfAbsent(dto.getGame().getId(), gameId -> storedIntervals(this.availabilityIndex, gameId, this.loanRepository::findPeriodsByGameId));
+        LoanIntervalSet clientSet = clientIntervals.computeIfAbsent(dto.getClient().getId(), clientId -> storedIntervals(this.occupancyEngine, clientId, this.loanRepository::findPeriodsByClientId));
+
+        try {
+            this.validationChain.validateStoredLoans(candidate, gameSet, clientSet);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+
+        return null;
+    }
+
+    /**
+     * Intervalos guardados de un juego o cliente: del índice si está construido y, si
+     * no (antes de la primera construcción o durante una reconstrucción), de la BBDD.
+     * Con bloqueos en BBDD también escriben otras instancias, cuyos préstamos el índice
+     * local no ve, así que se leen siempre de la BBDD.
+     */
+    private LoanIntervalSet storedIntervals(LoanIntervalIndex index, Long ownerId, Function<Long, List<LoanPeriod>> loader) {
+
+        if (!this.bookingLocks.isDatabaseLocks() && index.isReady()) {
+            return index.snapshotOf(ownerId);
+        }
+
+        LoanIntervalSet intervals = new LoanIntervalSet();
+        for (LoanPeriod period : loader.apply(ownerId)) {
+            intervals.put(period.getId(), period.getStartDate().toEpochDay(), period.getEndDate().toEpochDay());
+        }
+
+        return intervals;
+    }
+
+    private void insert(List<LoanDto> dtos, List<Integer> chunk, LoanBulkResultDto[] results) {
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        this.jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }), new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+
+                LoanDto dto = dtos.get(chunk.get(i));
+                ps.setLong(1, dto.getGame().getId());
+                ps.setLong(2, dto.getClient().getId());
+                ps.setDate(3, Date.valueOf(dto.getStartDate()));
+                ps.setDate(4, Date.valueOf(dto.getEndDate()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            int row = chunk.get(i);
+            LoanDto dto = dtos.get(row);
+            Long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+
+            results[row] = new LoanBulkResultDto(row, id, null);
+            this.eventPublisher.publishEvent(new LoanChangeEvent(null, new LoanPeriod(id, dto.getGame().getId(), dto.getClient().getId(), dto.getStartDate(), dto.getEndDate())));
+        }
+    }
+}
@@ -1,17 +1,46 @@
 package com.ccsw.tutorial.loan;
 
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.GameUtilizationDto;
 import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanArchiveStats;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityCheckDto;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityVerdictDto;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
 import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanHoldDto;
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanIndexReport;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanLockStats;
+import com.ccsw.tutorial.loan.model.LoanOverdueStats;
 import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.ccsw.tutorial.loan.model.LoanUtilizationReport;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.modelmapper.ModelMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.stream.Collectors;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author ccsw
@@ -29,6 +58,12 @@ public class LoanController {
     @Autowired
     ModelMapper mapper;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${loan.bulk.chunk-size:500}")
+    int chunkSize;
+
     /**
      * Método para recuperar un listado paginado de {@link Loan}
      *
@@ -36,11 +71,11 @@ public class LoanController {
      * @param idGame filtro de juego (de la URL)
      * @param idClient filtro de cliente (de la URL)
      * @param date filtro de fecha (de la URL)
-     * @return {@link Page} de {@link LoanDto}
+     * @return {@link ResponsePage} de {@link LoanListDto}, indicando si el total es exacto, cacheado o estimado
      */
     @Operation(summary = "Find Page", description = "Method that returns a page of Loans")
     @RequestMapping(path = "", method = RequestMethod.POST)
-    public Page<LoanDto> findPage(@RequestBody LoanSearchDto dto, @RequestParam(value = "idGame", required = false) Long idGame, @RequestParam(value = "idClient", required = false) Long idClient,
+    public ResponsePage<LoanListDto> findPage(@RequestBody LoanSearchDto dto, @RequestParam(value = "idGame", required = false) Long idGame, @RequestParam(value = "idClient", required = false) Long idClient,
             @RequestParam(value = "date", required = false) String date) {
 
         // Si los parámetros vienen en la URL, sobrescribir los del DTO
@@ -54,9 +89,126 @@ public class LoanController {
             dto.setDate(java.time.LocalDate.parse(date));
         }
 
-        Page<Loan> page = this.loanService.findPage(dto);
+        return this.loanService.findPage(dto);
+    }
+
+    /**
+     * Método para recuperar un listado paginado por cursor de {@link Loan}. Admite los mismos
+     * filtros que {@link #findPage} y el cursor devuelto en la página anterior, pero no
+     * recorre los préstamos archivados: la fecha, obligatoria si hay archivo, debe ser
+     * posterior a su marca de agua.
+     *
+     * @param dto dto de búsqueda
+     * @return {@link KeysetPage} de {@link LoanDto}
+     * @throws Exception si la ordenación o el cursor no son válidos o la búsqueda alcanza el archivo
+     */
+    @Operation(summary = "Find Keyset Page", description = "Method that returns a cursor-based page of Loans")
+    @RequestMapping(path = "/keyset", method = RequestMethod.POST)
+    public KeysetPage<LoanDto> findKeysetPage(@RequestBody LoanSearchDto dto) throws Exception {
+
+        return this.loanService.findKeysetPage(dto).map(e -> mapper.map(e, LoanDto.class));
+    }
+
+    /**
+     * Método para recuperar los días libres y ocupados de uno o varios juegos
+     *
+     * @param gameIds PKs de los juegos
+     * @param from primer día del rango
+     * @param to último día del rango
+     * @return {@link List} de {@link GameAvailabilityDto}, uno por juego
+     * @throws Exception si el rango de fechas no es válido
+     */
+    @Operation(summary = "Availability", description = "Method that returns the free and busy days of one or more Games")
+    @RequestMapping(path = "/availability", method = RequestMethod.GET)
+    public List<GameAvailabilityDto> findAvailability(@RequestParam("gameId") List<Long> gameIds, @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws Exception {
+
+        return this.loanService.findAvailability(gameIds, from, to);
+    }
+
+    /**
+     * Método para comprobar de una vez si se podría reservar cada línea de una cesta
+     *
+     * @param lines líneas de la cesta
+     * @return {@link List} de {@link LoanAvailabilityVerdictDto}, uno por línea
+     * @throws Exception si la cesta es demasiado grande
+     */
+    @Operation(summary = "Availability check", description = "Method that checks whether each (Game, dates, Client) line of a basket could be booked, including conflicts between the lines")
+    @RequestMapping(path = "/availability/check", method = RequestMethod.POST)
+    public List<LoanAvailabilityVerdictDto> checkAvailability(@RequestBody List<LoanAvailabilityCheckDto> lines) throws Exception {
 
-        return new PageImpl<>(page.getContent().stream().map(e -> mapper.map(e, LoanDto.class)).collect(Collectors.toList()), page.getPageable(), page.getTotalElements());
+        return this.loanService.checkAvailability(lines);
+    }
+
+    /**
+     * Método para reservar temporalmente un juego mientras el cliente confirma el préstamo
+     *
+     * @param dto juego, cliente, fechas y duración opcional en segundos
+     * @return reserva creada, con su PK y caducidad
+     * @throws Exception si el préstamo no se podría guardar ahora
+     */
+    @Operation(summary = "Hold", description = "Method that holds a Game for a Client for a few seconds, without writing to the database")
+    @RequestMapping(path = "/hold", method = RequestMethod.POST)
+    public LoanHoldDto hold(@RequestBody LoanHoldDto dto) throws Exception {
+
+        return this.loanService.hold(dto);
+    }
+
+    /**
+     * Método para soltar una reserva temporal
+     *
+     * @param id PK de la reserva
+     * @throws Exception si no existe o ya ha caducado
+     */
+    @Operation(summary = "Release hold", description = "Method that releases a Game hold before it expires")
+    @RequestMapping(path = "/hold/{id}", method = RequestMethod.DELETE)
+    public void releaseHold(@PathVariable("id") Long id) throws Exception {
+
+        this.loanService.releaseHold(id);
+    }
+
+    /**
+     * Método para consultar las métricas de las reservas temporales
+     *
+     * @return {@link LoanHoldStats}
+     */
+    @Operation(summary = "Hold stats", description = "Method that returns active, consumed, released and expired Game holds")
+    @RequestMapping(path = "/hold", method = RequestMethod.GET)
+    public LoanHoldStats getHoldStats() {
+
+        return this.loanService.getHoldStats();
+    }
+
+    /**
+     * Método para exportar préstamos en streaming, sin paginar y con memoria constante
+     *
+     * @param format csv o ndjson
+     * @param from primer día del rango, opcional
+     * @param to último día del rango, opcional
+     * @param idGame filtro de juego
+     * @param idClient filtro de cliente
+     * @param date filtro de préstamos activos en una fecha
+     * @param gzip descargar un fichero .gz (application/gzip) en lugar del texto
+     * @param response respuesta en la que se escriben las filas
+     * @throws Exception si el formato o el rango de fechas no son válidos
+     */
+    @Operation(summary = "Export", description = "Method that streams the filtered Loans as CSV or NDJSON, optionally gzip-compressed")
+    @RequestMapping(path = "/export", method = RequestMethod.GET)
+    public void export(@RequestParam(value = "format", defaultValue = "csv") String format, @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to, @RequestParam(value = "idGame", required = false) Long idGame,
+            @RequestParam(value = "idClient", required = false) Long idClient, @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip, HttpServletResponse response) throws Exception {
+
+        LoanExportWriter.Format exportFormat = LoanExportWriter.Format.of(format);
+
+        LoanSearchDto dto = new LoanSearchDto();
+        dto.setGameId(idGame);
+        dto.setClientId(idClient);
+        dto.setDate(date);
+
+        LoanExportWriter writer = new LoanExportWriter(exportFormat, gzip, response, this.objectMapper);
+        this.loanService.export(dto, from, to, writer);
+        writer.finish();
     }
 
     /**
@@ -73,6 +225,89 @@ public class LoanController {
         this.loanService.save(id, dto);
     }
 
+    /**
+     * Método para crear un lote de {@link Loan}
+     *
+     * @param dtos datos de los préstamos
+     * @return {@link List} con el resultado de cada fila
+     */
+    @Operation(summary = "Bulk save", description = "Method that validates and saves a batch of new Loans, returning the result of each row")
+    @RequestMapping(path = "/bulk", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<LoanBulkResultDto> saveAll(@RequestBody List<LoanDto> dtos) {
+
+        return this.loanService.saveAll(dtos);
+    }
+
+    /**
+     * Método para crear {@link Loan} a partir de un flujo NDJSON (un préstamo por línea).
+     * Se procesa por bloques y el resultado de cada fila se escribe también en NDJSON,
+     * de modo que la memoria usada no depende del tamaño de la carga.
+     *
+     * @param request petición con el cuerpo NDJSON
+     * @param response respuesta con un {@link LoanBulkResultDto} por línea
+     * @throws IOException si falla la lectura o escritura
+     */
+    @Operation(summary = "Bulk save (stream)", description = "Method that validates and saves a NDJSON stream of new Loans, streaming back the result of each row")
+    @RequestMapping(path = "/bulk", method = RequestMethod.POST, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void saveAllStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        BufferedReader reader = request.getReader();
+        Writer writer = response.getWriter();
+
+        List<LoanDto> chunk = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        int row = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                chunk.add(this.objectMapper.readValue(line, LoanDto.class));
+                rows.add(row);
+            } catch (JsonProcessingException e) {
+                writeLine(writer, new LoanBulkResultDto(row, null, "Línea no válida: " + e.getOriginalMessage()));
+            }
+            row++;
+
+            if (chunk.size() >= this.chunkSize) {
+                flushChunk(writer, chunk, rows);
+            }
+        }
+
+        flushChunk(writer, chunk, rows);
+        writer.flush();
+    }
+
+    private void flushChunk(Writer writer, List<LoanDto> chunk, List<Integer> rows) throws IOException {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<LoanBulkResultDto> results = this.loanService.saveAll(chunk);
+        for (int i = 0; i < results.size(); i++) {
+            LoanBulkResultDto result = results.get(i);
+            result.setRow(rows.get(i));
+            writeLine(writer, result);
+        }
+
+        chunk.clear();
+        rows.clear();
+        writer.flush();
+    }
+
+    private void writeLine(Writer writer, LoanBulkResultDto result) throws IOException {
+
+        writer.write(this.objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
     /**
      * Método para borrar un {@link Loan}
      *
@@ -85,4 +320,169 @@ public class LoanController {
 
         this.loanService.delete(id);
     }
+
+    /**
+     * Método para reconstruir el índice en memoria de disponibilidad de juegos
+     *
+     * @return {@link LoanIndexReport} con el estado del índice reconstruido
+     */
+    @Operation(summary = "Rebuild index", description = "Method that rebuilds the in-memory game availability index from the database")
+    @RequestMapping(path = "/index/rebuild", method = RequestMethod.POST)
+    public LoanIndexReport rebuildIndex() {
+
+        return this.loanService.rebuildIndex();
+    }
+
+    /**
+     * Método para comprobar que el índice en memoria coincide con la BBDD
+     *
+     * @return {@link LoanIndexReport}
+     */
+    @Operation(summary = "Check index", description = "Method that checks the in-memory game availability index against the database")
+    @RequestMapping(path = "/index/check", method = RequestMethod.GET)
+    public LoanIndexReport checkIndex() {
+
+        return this.loanService.checkIndex();
+    }
+
+    /**
+     * Método para recuperar el uso de los juegos por mes
+     *
+     * @param from primer mes (yyyy-MM)
+     * @param to último mes (yyyy-MM)
+     * @param gameId PK del juego, opcional
+     * @return {@link List} de {@link GameUtilizationDto}
+     * @throws Exception si los meses no son válidos
+     */
+    @Operation(summary = "Utilization", description = "Method that returns loaned days, loan count and distinct clients per Game and month")
+    @RequestMapping(path = "/stats/utilization", method = RequestMethod.GET)
+    public List<GameUtilizationDto> findUtilization(@RequestParam("from") String from, @RequestParam("to") String to, @RequestParam(value = "gameId", required = false) Long gameId) throws Exception {
+
+        return this.loanService.findUtilization(gameId, from, to);
+    }
+
+    /**
+     * Método para recalcular los acumulados de uso y compararlos con los incrementales
+     *
+     * @param repair sustituir los acumulados si no coinciden
+     * @return {@link LoanUtilizationReport}
+     * @throws Exception si hay escrituras de préstamos que no terminan en el tiempo de espera
+     */
+    @Operation(summary = "Rebuild utilization", description = "Method that recomputes the Game utilization rollups in parallel and checks them against the incremental ones")
+    @RequestMapping(path = "/stats/utilization/rebuild", method = RequestMethod.POST)
+    public LoanUtilizationReport rebuildUtilization(@RequestParam(value = "repair", defaultValue = "false") boolean repair) throws Exception {
+
+        return this.loanService.rebuildUtilization(repair);
+    }
+
+    /**
+     * Método para consultar la contención de los bloqueos de reserva de préstamos
+     *
+     * @return {@link LoanLockStats}
+     */
+    @Operation(summary = "Lock stats", description = "Method that returns contention metrics of the per-game and per-client booking locks")
+    @RequestMapping(path = "/locks", method = RequestMethod.GET)
+    public LoanLockStats getLockStats() {
+
+        return this.loanService.getLockStats();
+    }
+
+    /**
+     * Método para marcar ahora los préstamos vencidos
+     *
+     * @return {@link LoanOverdueStats}
+     */
+    @Operation(summary = "Scan overdue", description = "Method that flags the Loans whose end date has passed, in chunks, without waiting for the scheduled run")
+    @RequestMapping(path = "/overdue/scan", method = RequestMethod.POST)
+    public LoanOverdueStats scanOverdue() {
+
+        return this.loanService.scanOverdue();
+    }
+
+    /**
+     * Método para consultar las métricas del proceso de préstamos vencidos
+     *
+     * @return {@link LoanOverdueStats}
+     */
+    @Operation(summary = "Overdue stats", description = "Method that returns throughput and lag metrics of the overdue Loan scanner")
+    @RequestMapping(path = "/overdue/stats", method = RequestMethod.GET)
+    public LoanOverdueStats getOverdueStats() {
+
+        return this.loanService.getOverdueStats();
+    }
+
+    /**
+     * Método para consultar ejecuciones, rechazos y tiempo de cada validador de préstamos
+     *
+     * @return {@link List} de {@link LoanValidatorStats}, en orden de ejecución
+     */
+    @Operation(summary = "Validator stats", description = "Method that returns invocation, rejection and timing metrics of each Loan validator")
+    @RequestMapping(path = "/validators", method = RequestMethod.GET)
+    public List<LoanValidatorStats> getValidatorStats() {
+
+        return this.loanService.getValidatorStats();
+    }
+
+    /**
+     * Método para consultar aciertos, fallos y tamaño de la caché de búsquedas paginadas
+     *
+     * @return {@link ResultCacheStats}
+     */
+    @Operation(summary = "Page cache stats", description = "Method that returns hit ratio, size, evictions and invalidations of the Loan search result cache")
+    @RequestMapping(path = "/cache", method = RequestMethod.GET)
+    public ResultCacheStats getPageCacheStats() {
+
+        return this.loanService.getPageCacheStats();
+    }
+
+    /**
+     * Método para consultar el estado del diario de préstamos
+     *
+     * @return {@link LoanJournalStats}
+     */
+    @Operation(summary = "Journal stats", description = "Method that returns size, sequence, snapshot and startup recovery metrics of the Loan journal")
+    @RequestMapping(path = "/journal", method = RequestMethod.GET)
+    public LoanJournalStats getJournalStats() {
+
+        return this.loanService.getJournalStats();
+    }
+
+    /**
+     * Método para compactar ahora el diario de préstamos en un snapshot
+     *
+     * @return {@link LoanJournalStats}
+     * @throws Exception si el diario no está activado o no se puede escribir
+     */
+    @Operation(summary = "Journal snapshot", description = "Method that compacts the Loan journal into a snapshot without waiting for the scheduled run")
+    @RequestMapping(path = "/journal/snapshot", method = RequestMethod.POST)
+    public LoanJournalStats snapshotJournal() throws Exception {
+
+        return this.loanService.snapshotJournal();
+    }
+
+    /**
+     * Método para consultar el estado del archivado de préstamos
+     *
+     * @return {@link LoanArchiveStats}
+     */
+    @Operation(summary = "Archive stats", description = "Method that returns the watermark, table sizes and run metrics of the Loan archive")
+    @RequestMapping(path = "/archive", method = RequestMethod.GET)
+    public LoanArchiveStats getArchiveStats() {
+
+        return this.loanService.getArchiveStats();
+    }
+
+    /**
+     * Método para archivar ahora los préstamos antiguos
+     *
+     * @param before fecha de corte, excluida; por defecto hoy menos el horizonte configurado
+     * @return {@link LoanArchiveStats}
+     * @throws Exception si la fecha de corte es posterior a hoy menos el horizonte
+     */
+    @Operation(summary = "Archive", description = "Method that moves the Loans ended before a date to the archive table without waiting for the scheduled run")
+    @RequestMapping(path = "/archive", method = RequestMethod.POST)
+    public LoanArchiveStats archive(@RequestParam(value = "before", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) throws Exception {
+
+        return this.loanService.archive(before);
+    }
 }
@@ -0,0 +1,54 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.common.pagination.CountCache;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Totales de las búsquedas paginadas de préstamos, por filtro de {@link LoanSearchDto}.
+ * Se invalidan con cada préstamo creado, modificado o borrado una vez confirmada la
+ * transacción.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanCountCache extends CountCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    public LoanCountCache(@Value("${loan.count-cache.ttl-seconds:30}") long ttlSeconds) {
+
+        super(Duration.ofSeconds(ttlSeconds), MAX_ENTRIES);
+    }
+
+    /**
+     * Clave normalizada del filtro: la paginación y la ordenación no cambian el total
+     *
+     * @param dto dto de búsqueda
+     * @return clave de la caché
+     */
+    public static String keyOf(LoanSearchDto dto) {
+
+        return "game=" + dto.getGameId() + "&client=" + dto.getClientId() + "&date=" + dto.getDate();
+    }
+
+    /**
+     * Invalida los totales al cambiar cualquier préstamo. Archivar no los cambia: las
+     * búsquedas que alcanzan el archivo suman ambas tablas.
+     *
+     * @param event cambio del préstamo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanChange(LoanChangeEvent event) {
+
+        if (!event.isArchived()) {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ccsw.tutorial.loan;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * La fecha de fin no puede ser anterior a la fecha de inicio
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanDateOrderValidator implements LoanValidator {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        return COST_REQUEST;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        if (validation.getCandidate().getEndDate().isBefore(validation.getCandidate().getStartDate())) {
+            throw new Exception("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ccsw.tutorial.loan;
+
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * El periodo de préstamo máximo solo puede ser de 14 días
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanDurationValidator implements LoanValidator {
+
+    private static final int MAX_LOAN_DAYS = 14;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        return COST_REQUEST + 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        if (ChronoUnit.DAYS.between(validation.getCandidate().getStartDate(), validation.getCandidate().getEndDate()) > MAX_LOAN_DAYS) {
+            throw new Exception("El periodo de préstamo no puede ser superior a 14 días");
+        }
+    }
+}
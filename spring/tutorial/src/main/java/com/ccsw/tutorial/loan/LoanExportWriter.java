@@ -0,0 +1,175 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe la exportación de préstamos en la respuesta a medida que llegan las filas.
+ * Las cabeceras se fijan con la primera fila (o en {@link #finish()} si no hay
+ * ninguna), de modo que un error de validación previo aún puede devolverse como
+ * JSON normal.
+ *
+ * @author ccsw
+ *
+ */
+public class LoanExportWriter implements Consumer<LoanListDto> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private static final String CSV_HEADER = "id,gameId,gameTitle,clientId,clientName,startDate,endDate";
+
+    /**
+     * Formatos de exportación admitidos
+     */
+    public enum Format {
+
+        CSV("text/csv", "csv"), NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * @param value formato pedido, sin distinguir mayúsculas
+         * @return {@link Format}
+         * @throws Exception si el formato no existe
+         */
+        public static Format of(String value) throws Exception {
+
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+
+            throw new Exception("Formato de exportación de préstamos no válido: " + value);
+        }
+    }
+
+    private final Format format;
+
+    private final boolean gzip;
+
+    private final HttpServletResponse response;
+
+    private final ObjectMapper objectMapper;
+
+    private GZIPOutputStream compressed;
+
+    private Writer writer;
+
+    public LoanExportWriter(Format format, boolean gzip, HttpServletResponse response, ObjectMapper objectMapper) {
+
+        this.format = format;
+        this.gzip = gzip;
+        this.response = response;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void accept(LoanListDto loan) {
+
+        try {
+            start();
+
+            if (this.format == Format.CSV) {
+                this.writer.write(String.valueOf(loan.id()));
+                this.writer.write(',');
+                this.writer.write(String.valueOf(loan.game().id()));
+                this.writer.write(',');
+                this.writer.write(csv(loan.game().title()));
+                this.writer.write(',');
+                this.writer.write(String.valueOf(loan.client().id()));
+                this.writer.write(',');
+                this.writer.write(csv(loan.client().name()));
+                this.writer.write(',');
+                this.writer.write(loan.startDate().toString());
+                this.writer.write(',');
+                this.writer.write(loan.endDate().toString());
+            } else {
+                this.writer.write(this.objectMapper.writeValueAsString(loan));
+            }
+            this.writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Completa la exportación
+     *
+     * @throws IOException si falla la escritura
+     */
+    public void finish() throws IOException {
+
+        start();
+
+        this.writer.flush();
+        if (this.compressed != null) {
+            this.compressed.finish();
+        }
+    }
+
+    private void start() throws IOException {
+
+        if (this.writer != null) {
+            return;
+        }
+
+        // Comprimido se descarga un fichero .gz: con Content-Encoding el cliente HTTP lo
+        // descomprimiría y guardaría texto con la extensión .gz
+        if (this.gzip) {
+            this.response.setContentType(GZIP_CONTENT_TYPE);
+        } else {
+            this.response.setContentType(this.format.contentType);
+            this.response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        this.response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"loans." + this.format.extension + (this.gzip ? ".gz" : "") + "\"");
+
+        OutputStream out = this.response.getOutputStream();
+        if (this.gzip) {
+            this.compressed = new GZIPOutputStream(out, BUFFER_SIZE);
+            out = this.compressed;
+        }
+
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (this.format == Format.CSV) {
+            this.writer.write(CSV_HEADER);
+            this.writer.write('\n');
+        }
+    }
+
+    private static String csv(String value) {
+
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
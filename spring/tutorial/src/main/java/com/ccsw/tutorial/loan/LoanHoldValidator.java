@@ -0,0 +1,41 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Un juego reservado temporalmente solo puede prestarse al cliente de la reserva.
+ * Se comprueba después de los préstamos guardados: si el juego ya está prestado
+ * ese motivo es más útil que la reserva.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanHoldValidator implements LoanValidator {
+
+    @Autowired
+    LoanHolds holds;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCost() {
+        return COST_STORED_LOANS + 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(LoanValidation validation) throws Exception {
+
+        LoanPeriod candidate = validation.getCandidate();
+
+        if (this.holds.isHeld(candidate.getGameId(), candidate.getStartDate(), candidate.getEndDate(), candidate.getClientId())) {
+            throw new Exception("El juego está reservado por otro cliente en ese periodo de fechas");
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Reservas temporales de juegos mientras el cliente confirma el préstamo. Viven solo
+ * en memoria: crear o soltar una reserva no escribe en la BBDD.
+ *
+ * Las reservas caducan con una rueda de tiempo (hashed timing wheel) de
+ * loan.hold.wheel-slots huecos de loan.hold.tick-ms: cada reserva se apunta en el
+ * hueco de su tick de caducidad y, cuando el reloj pasa por ese tick, se descartan
+ * las de ese hueco que ya han vencido. No hay un hilo que recorra todas las
+ * reservas: la rueda avanza al consultarla, solo por los ticks transcurridos desde
+ * la última vez. Aun así la consulta comprueba la caducidad de cada reserva, así que
+ * una reserva vencida nunca ocupa un juego aunque la rueda aún no la haya descartado.
+ *
+ * Un préstamo solo consume los días que cubre: el resto de la reserva sigue vigente,
+ * con su misma PK y caducidad, aunque quede partida en dos tramos.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanHolds {
+
+    private final long tickMillis;
+
+    private final int defaultTtlSeconds;
+
+    private final int maxTtlSeconds;
+
+    private final Queue<Hold>[] wheel;
+
+    private final int mask;
+
+    // Tramos vigentes de cada reserva, todos con la PK y la caducidad de la original
+    private final Map<Long, List<Hold>> byId = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Hold>> byGame = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ReentrantLock advanceLock = new ReentrantLock();
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder consumed = new LongAdder();
+
+    private final LongAdder released = new LongAdder();
+
+    private final LongAdder expired = new LongAdder();
+
+    // Reloj en milisegundos, sustituible en los tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    private long lastTick = -1;
+
+    @SuppressWarnings("unchecked")
+    public LoanHolds(@Value("${loan.hold.tick-ms:1000}") long tickMillis, @Value("${loan.hold.wheel-slots:512}") int wheelSlots, @Value("${loan.hold.ttl-seconds:300}") int defaultTtlSeconds,
+            @Value("${loan.hold.max-ttl-seconds:1800}") int maxTtlSeconds) {
+
+        // Potencia de dos para repartir con una máscara
+        int size = Integer.highestOneBit(Math.max(1, wheelSlots - 1)) << 1;
+
+        this.tickMillis = Math.max(1, tickMillis);
+        this.defaultTtlSeconds = Math.max(1, defaultTtlSeconds);
+        this.maxTtlSeconds = Math.max(this.defaultTtlSeconds, maxTtlSeconds);
+        this.wheel = new Queue[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Reserva un juego para un cliente. Debe llamarse con los bloqueos de reserva del
+     * juego tomados y después de comprobar que el juego está libre.
+     *
+     * @param period juego, cliente y fechas a reservar
+     * @param ttlSeconds duración de la reserva, nula para la configurada por defecto
+     * @return reserva creada
+     * @throws Exception si la duración no es válida
+     */
+    public Hold hold(LoanPeriod period, Integer ttlSeconds) throws Exception {
+
+        int ttl = ttlSeconds != null ? ttlSeconds : this.defaultTtlSeconds;
+        if (ttl < 1 || ttl > this.maxTtlSeconds) {
+            throw new Exception("La reserva del juego debe durar entre 1 y " + this.maxTtlSeconds + " segundos");
+        }
+
+        long now = this.clock.getAsLong();
+        advance(now);
+
+        // Caduca en el primer tick a partir de su TTL
+        long deadlineTick = Math.floorDiv(now + ttl * 1000L + this.tickMillis - 1, this.tickMillis);
+        Hold hold = new Hold(this.sequence.incrementAndGet(), period.getGameId(), period.getClientId(), period.getStartDate(), period.getEndDate(), deadlineTick, deadlineTick * this.tickMillis);
+
+        this.byId.put(hold.id(), List.of(hold));
+        addToGame(hold);
+        this.wheel[(int) (deadlineTick & this.mask)].add(hold);
+        this.created.increment();
+
+        return hold;
+    }
+
+    /**
+     * Indica si una reserva vigente de otro cliente ocupa el juego algún día de
+     * [startDate, endDate]
+     *
+     * @param gameId PK del juego
+     * @param startDate primer día
+     * @param endDate último día
+     * @param clientId cliente que consulta, sus reservas no cuentan; puede ser nulo
+     * @return true si el juego está reservado por otro
+     */
+    public boolean isHeld(Long gameId, LocalDate startDate, LocalDate endDate, Long clientId) {
+
+        long now = this.clock.getAsLong();
+        advance(now);
+
+        Set<Hold> holds = this.byGame.get(gameId);
+        if (holds == null) {
+            return false;
+        }
+
+        for (Hold hold : holds) {
+            if (hold.expiresAt() > now && !hold.clientId().equals(clientId) && !hold.startDate().isAfter(endDate) && !hold.endDate().isBefore(startDate)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Descuenta de las reservas del cliente sobre el juego los días del préstamo que
+     * se está guardando, cuando su transacción confirma. Si la transacción se deshace
+     * las reservas siguen intactas.
+     *
+     * @param period préstamo guardado
+     */
+    public void consumeOnCommit(LoanPeriod period) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consume(period);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                consume(period);
+            }
+        });
+    }
+
+    /**
+     * Descuenta de las reservas del cliente sobre el juego los días del préstamo que
+     * acaba de guardar. Cada reserva conserva los días que el préstamo no cubre y se
+     * suelta solo si el préstamo la cubre entera.
+     *
+     * @param period préstamo guardado
+     */
+    public void consume(LoanPeriod period) {
+
+        Set<Hold> holds = this.byGame.get(period.getGameId());
+        if (holds == null) {
+            return;
+        }
+
+        for (Hold hold : holds) {
+            if (!hold.clientId().equals(period.getClientId()) || hold.startDate().isAfter(period.getEndDate()) || hold.endDate().isBefore(period.getStartDate())) {
+                continue;
+            }
+
+            List<Hold> rest = new ArrayList<>(2);
+            if (hold.startDate().isBefore(period.getStartDate())) {
+                rest.add(hold.between(hold.startDate(), period.getStartDate().minusDays(1)));
+            }
+            if (hold.endDate().isAfter(period.getEndDate())) {
+                rest.add(hold.between(period.getEndDate().plusDays(1), hold.endDate()));
+            }
+
+            if (replace(hold, rest) && rest.isEmpty()) {
+                this.consumed.increment();
+            }
+        }
+    }
+
+    /**
+     * Suelta una reserva que el cliente ya no necesita
+     *
+     * @param holdId PK de la reserva
+     * @return true si la reserva existía y seguía vigente
+     */
+    public boolean release(Long holdId) {
+
+        long now = this.clock.getAsLong();
+        advance(now);
+
+        List<Hold> pieces = remove(holdId);
+        if (pieces == null) {
+            return false;
+        }
+
+        // Vencida pero aún pendiente de pasar por la rueda
+        if (pieces.get(0).expiresAt() <= now) {
+            this.expired.increment();
+            return false;
+        }
+
+        this.released.increment();
+        return true;
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque
+     *
+     * @return {@link LoanHoldStats}
+     */
+    public LoanHoldStats stats() {
+
+        advance(this.clock.getAsLong());
+
+        LoanHoldStats stats = new LoanHoldStats();
+        stats.setActive(this.byId.size());
+        stats.setCreated(this.created.sum());
+        stats.setConsumed(this.consumed.sum());
+        stats.setReleased(this.released.sum());
+        stats.setExpired(this.expired.sum());
+        stats.setTickMillis(this.tickMillis);
+        stats.setWheelSlots(this.wheel.length);
+
+        return stats;
+    }
+
+    /**
+     * Descarta las reservas vencidas de los huecos por los que ha pasado el reloj
+     * desde la última llamada. Si otro hilo ya está avanzando la rueda no espera: la
+     * caducidad se comprueba igualmente al consultar.
+     */
+    private void advance(long now) {
+
+        if (!this.advanceLock.tryLock()) {
+            return;
+        }
+
+        try {
+            long tick = Math.floorDiv(now, this.tickMillis);
+            if (this.lastTick < 0) {
+                this.lastTick = tick;
+                return;
+            }
+
+            // Tras una vuelta completa todos los huecos ya se han visitado una vez
+            long last = Math.min(tick, this.lastTick + this.wheel.length);
+            for (long t = this.lastTick + 1; t <= last; t++) {
+                expireSlot(this.wheel[(int) (t & this.mask)], tick);
+            }
+            this.lastTick = Math.max(this.lastTick, tick);
+        } finally {
+            this.advanceLock.unlock();
+        }
+    }
+
+    private void expireSlot(Queue<Hold> slot, long tick) {
+
+        for (Iterator<Hold> it = slot.iterator(); it.hasNext();) {
+            Hold hold = it.next();
+            // Las de vueltas posteriores de la rueda se quedan en el hueco
+            if (hold.deadlineTick() <= tick) {
+                it.remove();
+                // Los tramos que deja un préstamo comparten PK y caducidad con esta entrada
+                if (remove(hold.id()) != null) {
+                    this.expired.increment();
+                }
+            }
+        }
+    }
+
+    private List<Hold> remove(Long holdId) {
+
+        // La entrada en la rueda se descarta cuando pase su tick
+        List<Hold> pieces = holdId != null ? this.byId.remove(holdId) : null;
+        if (pieces != null) {
+            pieces.forEach(this::removeFromGame);
+        }
+
+        return pieces;
+    }
+
+    /**
+     * Sustituye un tramo de una reserva por lo que queda de él. Se hace dentro del
+     * compute de la reserva para que una caducidad o una liberación simultánea no
+     * deje tramos huérfanos en el índice por juego.
+     *
+     * @return true si el tramo seguía vigente
+     */
+    private boolean replace(Hold hold, List<Hold> rest) {
+
+        boolean[] replaced = new boolean[1];
+
+        this.byId.computeIfPresent(hold.id(), (k, pieces) -> {
+            if (!pieces.contains(hold)) {
+                return pieces;
+            }
+            replaced[0] = true;
+
+            // Primero los tramos nuevos, para que el juego no parezca libre entre medias
+            rest.forEach(this::addToGame);
+            removeFromGame(hold);
+
+            List<Hold> result = new ArrayList<>(pieces);
+            result.remove(hold);
+            result.addAll(rest);
+            return result.isEmpty() ? null : List.copyOf(result);
+        });
+
+        return replaced[0];
+    }
+
+    private void addToGame(Hold hold) {
+
+        // Dentro de compute para no añadir a un conjunto que una caducidad acaba de quitar por vacío
+        this.byGame.compute(hold.gameId(), (k, holds) -> {
+            Set<Hold> result = holds != null ? holds : ConcurrentHashMap.newKeySet();
+            result.add(hold);
+            return result;
+        });
+    }
+
+    private void removeFromGame(Hold hold) {
+
+        this.byGame.computeIfPresent(hold.gameId(), (k, holds) -> {
+            holds.remove(hold);
+            return holds.isEmpty() ? null : holds;
+        });
+    }
+
+    /**
+     * Reserva de un juego para un cliente
+     *
+     * @param id PK de la reserva
+     * @param gameId PK del juego
+     * @param clientId PK del cliente
+     * @param startDate primer día reservado
+     * @param endDate último día reservado
+     * @param deadlineTick tick de la rueda en que caduca
+     * @param expiresAt instante de caducidad en milisegundos
+     */
+    public record Hold(Long id, Long gameId, Long clientId, LocalDate startDate, LocalDate endDate, long deadlineTick, long expiresAt) {
+
+        /**
+         * @param startDate primer día del tramo
+         * @param endDate último día del tramo
+         * @return tramo de esta reserva entre las fechas indicadas
+         */
+        Hold between(LocalDate startDate, LocalDate endDate) {
+            return new Hold(this.id, this.gameId, this.clientId, startDate, endDate, this.deadlineTick, this.expiresAt);
+        }
+    }
+}
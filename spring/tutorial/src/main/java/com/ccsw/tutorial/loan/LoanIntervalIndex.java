@@ -0,0 +1,195 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanIndexReport;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base de los índices en memoria que agrupan los periodos de préstamo por un
+ * propietario (juego, cliente...). Se construye al arrancar ({@link LoanStateRecovery})
+ * y se actualiza tras el commit de cada alta, modificación o borrado.
+ *
+ * @author ccsw
+ *
+ */
+public abstract class LoanIntervalIndex {
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    private final Map<Long, LoanIntervalSet> byOwner = new ConcurrentHashMap<>();
+
+    private final Map<Long, LoanPeriod> byLoan = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    // Cambios aplicados desde beginRebuild, nulo si no hay una reconstrucción en curso
+    private List<LoanChangeEvent> pending;
+
+    /**
+     * Devuelve la clave por la que se agrupa un periodo de préstamo
+     *
+     * @param period periodo de préstamo
+     * @return PK del propietario
+     */
+    protected abstract Long ownerOf(LoanPeriod period);
+
+    /**
+     * Reconstruye el índice completo a partir de la tabla loan
+     *
+     * @return {@link LoanIndexReport} con el estado tras la reconstrucción
+     */
+    public synchronized LoanIndexReport rebuild() {
+
+        rebuild(this.loanRepository.findAllPeriods());
+
+        return check();
+    }
+
+    /**
+     * Empieza a guardar los cambios que se apliquen a partir de ahora, para repetirlos
+     * en {@link #rebuild(Collection)}. Debe llamarse antes de leer los préstamos con
+     * los que se va a reconstruir.
+     */
+    public synchronized void beginRebuild() {
+
+        this.pending = new ArrayList<>();
+    }
+
+    /**
+     * Reconstruye el índice completo a partir de los periodos indicados y repite los
+     * cambios aplicados desde {@link #beginRebuild()}
+     *
+     * @param periods todos los préstamos vigentes
+     */
+    public synchronized void rebuild(Collection<LoanPeriod> periods) {
+
+        this.ready = false;
+        this.byOwner.clear();
+        this.byLoan.clear();
+
+        for (LoanPeriod period : periods) {
+            add(period);
+        }
+
+        // Repetir un cambio que ya estaba en la lectura deja el mismo índice
+        if (this.pending != null) {
+            this.pending.forEach(this::apply);
+            this.pending = null;
+        }
+
+        this.ready = true;
+    }
+
+    /**
+     * Compara el contenido del índice con la tabla loan
+     *
+     * @return {@link LoanIndexReport}
+     */
+    public LoanIndexReport check() {
+
+        List<LoanPeriod> persisted = this.loanRepository.findAllPeriods();
+        Map<Long, LoanPeriod> indexed = new HashMap<>(this.byLoan);
+
+        long missing = 0;
+        long stale = 0;
+
+        for (LoanPeriod period : persisted) {
+            LoanPeriod current = indexed.remove(period.getId());
+            if (current == null) {
+                missing++;
+            } else if (!current.sameAs(period)) {
+                stale++;
+            }
+        }
+        stale += indexed.size();
+
+        LoanIndexReport report = new LoanIndexReport();
+        report.setPersisted(persisted.size());
+        report.setIndexed(this.byLoan.size());
+        report.setMissing(missing);
+        report.setStale(stale);
+
+        return report;
+    }
+
+    /**
+     * Aplica al índice un cambio de préstamo una vez confirmada la transacción
+     *
+     * @param event cambio del préstamo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLoanChange(LoanChangeEvent event) {
+
+        apply(event);
+
+        if (this.pending != null) {
+            this.pending.add(event);
+        }
+    }
+
+    /**
+     * @return true si el índice está construido y puede consultarse
+     */
+    protected boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * @param ownerId PK del propietario
+     * @return intervalos del propietario o null si no tiene ninguno
+     */
+    protected LoanIntervalSet intervalsOf(Long ownerId) {
+        return this.byOwner.get(ownerId);
+    }
+
+    /**
+     * Devuelve una copia de los intervalos de un propietario que puede modificarse
+     * libremente, por ejemplo para validar un lote de préstamos antes de guardarlo.
+     * Si el índice se está reconstruyendo espera a que termine.
+     *
+     * @param ownerId PK del propietario
+     * @return copia de los intervalos, vacía si no tiene ninguno
+     */
+    synchronized LoanIntervalSet snapshotOf(Long ownerId) {
+
+        LoanIntervalSet intervals = this.byOwner.get(ownerId);
+
+        return intervals == null ? new LoanIntervalSet() : intervals.copy();
+    }
+
+    private void apply(LoanChangeEvent event) {
+
+        if (event.getPrevious() != null) {
+            remove(event.getPrevious().getId());
+        }
+        if (event.getCurrent() != null) {
+            add(event.getCurrent());
+        }
+    }
+
+    private void add(LoanPeriod period) {
+
+        remove(period.getId());
+
+        this.byLoan.put(period.getId(), period);
+        this.byOwner.computeIfAbsent(ownerOf(period), k -> new LoanIntervalSet()).put(period.getId(), period.getStartDate().toEpochDay(), period.getEndDate().toEpochDay());
+    }
+
+    private void remove(Long loanId) {
+
+        LoanPeriod period = this.byLoan.remove(loanId);
+        if (period != null) {
+            this.byOwner.get(ownerOf(period)).remove(loanId);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ccsw.tutorial.loan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Conjunto de intervalos de días (epoch day, ambos extremos incluidos) ordenado
+ * por fecha de inicio. Guarda la duración máxima vista para acotar la búsqueda
+ * de solapes a los intervalos que empiezan en [inicio - duración, fin], de modo
+ * que cada consulta es O(log n + k) aunque existan solapes entre intervalos.
+ *
+ * @author ccsw
+ *
+ */
+class LoanIntervalSet {
+
+    private static final Comparator<Interval> ORDER = Comparator.comparingLong((Interval i) -> i.start).thenComparingLong(i -> i.loanId);
+
+    private final NavigableSet<Interval> intervals = new TreeSet<>(ORDER);
+
+    private final Map<Long, Interval> byLoan = new HashMap<>();
+
+    private long maxSpan;
+
+    /**
+     * Añade o reemplaza el intervalo de un préstamo
+     *
+     * @param loanId PK del préstamo
+     * @param start día de inicio
+     * @param end día de fin
+     */
+    synchronized void put(long loanId, long start, long end) {
+
+        remove(loanId);
+
+        Interval interval = new Interval(loanId, start, end);
+        this.intervals.add(interval);
+        this.byLoan.put(loanId, interval);
+        this.maxSpan = Math.max(this.maxSpan, end - start);
+    }
+
+    /**
+     * Elimina el intervalo de un préstamo si existe
+     *
+     * @param loanId PK del préstamo
+     */
+    synchronized void remove(long loanId) {
+
+        Interval interval = this.byLoan.remove(loanId);
+        if (interval != null) {
+            this.intervals.remove(interval);
+        }
+    }
+
+    /**
+     * Indica si algún intervalo, salvo el del préstamo excluido, se solapa con [start, end]
+     *
+     * @param start día de inicio
+     * @param end día de fin
+     * @param excludeLoanId PK del préstamo a ignorar, puede ser nulo
+     * @return true si hay solape
+     */
+    synchronized boolean overlaps(long start, long end, Long excludeLoanId) {
+
+        for (Interval interval : candidates(start, end)) {
+            if (interval.end >= start && (excludeLoanId == null || interval.loanId != excludeLoanId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Calcula el número máximo de intervalos que coinciden en un mismo día dentro
+     * de [start, end], ignorando el del préstamo excluido. Barre los extremos de
+     * los intervalos candidatos recortados al rango: +1 al empezar, -1 al día
+     * siguiente de terminar.
+     *
+     * @param start día de inicio
+     * @param end día de fin
+     * @param excludeLoanId PK del préstamo a ignorar, puede ser nulo
+     * @return máximo de intervalos simultáneos en un día
+     */
+    synchronized int maxConcurrent(long start, long end, Long excludeLoanId) {
+
+        List<long[]> events = new ArrayList<>();
+
+        for (Interval interval : candidates(start, end)) {
+            if (interval.end >= start && (excludeLoanId == null || interval.loanId != excludeLoanId)) {
+                events.add(new long[] { Math.max(interval.start, start), 1 });
+                events.add(new long[] { Math.min(interval.end, end) + 1, -1 });
+            }
+        }
+
+        // A igualdad de día se procesan antes las salidas que las entradas
+        events.sort(Comparator.<long[]> comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+
+        int current = 0;
+        int max = 0;
+        for (long[] event : events) {
+            current += (int) event[1];
+            max = Math.max(max, current);
+        }
+
+        return max;
+    }
+
+    /**
+     * @return copia independiente del conjunto
+     */
+    synchronized LoanIntervalSet copy() {
+
+        LoanIntervalSet copy = new LoanIntervalSet();
+        copy.intervals.addAll(this.intervals);
+        copy.byLoan.putAll(this.byLoan);
+        copy.maxSpan = this.maxSpan;
+
+        return copy;
+    }
+
+    /**
+     * @return número de intervalos
+     */
+    synchronized int size() {
+        return this.byLoan.size();
+    }
+
+    private NavigableSet<Interval> candidates(long start, long end) {
+
+        Interval from = new Interval(Long.MIN_VALUE, start - this.maxSpan, 0);
+        Interval to = new Interval(Long.MAX_VALUE, end, 0);
+
+        return this.intervals.subSet(from, true, to, true);
+    }
+
+    private static final class Interval {
+
+        private final long loanId;
+
+        private final long start;
+
+        private final long end;
+
+        private Interval(long loanId, long start, long end) {
+
+            this.loanId = loanId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diario binario de solo escritura con cada alta, modificación y borrado de
+ * préstamos confirmado, en segmentos de tamaño fijo proyectados en memoria
+ * ({@link LoanJournalFormat}). Periódicamente se compacta en un snapshot con los
+ * préstamos vigentes, de modo que al arrancar basta con leer el último snapshot y
+ * reproducir los segmentos posteriores para reconstruir los índices en memoria.
+ *
+ * El diario no es la fuente de verdad: lo recuperado se compara con una huella de
+ * la tabla loan (número de préstamos y sumas de sus campos) y, si no coincide por
+ * un registro perdido o corrupto, se carga la tabla y se reinicia el diario a
+ * partir de ella.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanJournal {
+
+    static final String FINGERPRINT = "SELECT COUNT(*), SUM(id + game_id * 3 + client_id * 5 + DATEDIFF(DAY, DATE '1970-01-01', start_date) * 7 + DATEDIFF(DAY, DATE '1970-01-01', end_date) * 11), "
+            + "SUM(id * DATEDIFF(DAY, DATE '1970-01-01', end_date)), SUM(game_id * DATEDIFF(DAY, DATE '1970-01-01', start_date) + client_id * DATEDIFF(DAY, DATE '1970-01-01', end_date)) FROM loan";
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private final Path dir;
+
+    private final int segmentBytes;
+
+    private final boolean sync;
+
+    private final byte[] scratch = new byte[LoanJournalFormat.RECORD_BYTES];
+
+    private final Object snapshotLock = new Object();
+
+    private final LongAdder appended = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder snapshots = new LongAdder();
+
+    private MappedByteBuffer segment;
+
+    private long segmentFirstSeq;
+
+    private long nextSeq = 1;
+
+    private volatile boolean failed;
+
+    private volatile LastSnapshot lastSnapshot;
+
+    private volatile Recovery recovery;
+
+    public LoanJournal(@Value("${loan.journal.enabled:false}") boolean enabled, @Value("${loan.journal.dir:${java.io.tmpdir}/tutorial-loan-journal}") String dir,
+            @Value("${loan.journal.segment-bytes:67108864}") int segmentBytes, @Value("${loan.journal.sync:false}") boolean sync) {
+
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = Math.max(LoanJournalFormat.SEGMENT_HEADER_BYTES + LoanJournalFormat.RECORD_BYTES, segmentBytes);
+        this.sync = sync;
+    }
+
+    /**
+     * @return true si el diario está activado
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Añade al diario un cambio de préstamo una vez confirmada la transacción. Hasta
+     * que {@link #recover()} abre el diario los cambios se descartan: la huella de la
+     * recuperación detecta que faltan y se recarga la tabla.
+     *
+     * @param event cambio del préstamo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanChange(LoanChangeEvent event) {
+
+        if (!this.enabled) {
+            return;
+        }
+
+        if (event.getCurrent() != null) {
+            append(LoanJournalFormat.PUT, event.getCurrent().getId(), event.getCurrent());
+        } else if (event.getPrevious() != null) {
+            append(LoanJournalFormat.REMOVE, event.getPrevious().getId(), null);
+        }
+    }
+
+    /**
+     * Recupera los préstamos vigentes a partir del último snapshot y los segmentos
+     * posteriores y abre el diario para seguir escribiendo. Si lo recuperado no
+     * coincide con la tabla loan, los carga de la tabla y reinicia el diario.
+     *
+     * @return préstamos vigentes
+     */
+    public synchronized Collection<LoanPeriod> recover() {
+
+        long start = System.nanoTime();
+        String reason;
+
+        try {
+            Files.createDirectories(this.dir);
+            Replay replay = replay(LoanJournalFormat.segments(this.dir));
+
+            if (!replay.gap() && Fingerprint.of(replay.loans().values()).equals(databaseFingerprint())) {
+                open(replay.lastSeq());
+                this.recovery = new Recovery("journal", null, replay.loans().size(), replay.records(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), replay.torn());
+                return replay.loans().values();
+            }
+
+            reason = replay.gap() ? "Faltan registros entre segmentos" : "La huella no coincide con la tabla loan";
+        } catch (IOException | RuntimeException e) {
+            reason = e.getMessage();
+        }
+
+        List<LoanPeriod> loans = this.loanRepository.findAllPeriods();
+        reset(loans);
+        this.recovery = new Recovery("database", reason, loans.size(), 0, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false);
+
+        return loans;
+    }
+
+    /**
+     * Ejecución programada del snapshot, solo si hay registros nuevos
+     */
+    @Scheduled(initialDelayString = "${loan.journal.snapshot-interval-ms:600000}", fixedDelayString = "${loan.journal.snapshot-interval-ms:600000}")
+    public void scheduledSnapshot() {
+
+        LastSnapshot last = this.lastSnapshot;
+        if (!this.enabled || this.recovery == null || last != null && last.seq() == lastSeq()) {
+            return;
+        }
+
+        try {
+            snapshot();
+        } catch (Exception e) {
+            // Ya contabilizado en failures; se reintenta en la siguiente ejecución
+        }
+    }
+
+    /**
+     * Compacta el último snapshot y los segmentos cerrados en un nuevo snapshot y
+     * borra los ficheros que deja obsoletos. Solo bloquea las escrituras mientras se
+     * cierra el segmento actual. Si el diario está detenido por un fallo de
+     * escritura, lo reinicia desde la tabla loan.
+     *
+     * @return {@link LoanJournalStats} tras el snapshot
+     * @throws Exception si el diario no está activado o no se puede escribir
+     */
+    public LoanJournalStats snapshot() throws Exception {
+
+        if (!this.enabled) {
+            throw new Exception("El diario de préstamos no está activado");
+        }
+
+        synchronized (this.snapshotLock) {
+            long start = System.nanoTime();
+
+            List<Path> sealed = new ArrayList<>();
+            synchronized (this) {
+                if (this.segment == null || this.failed) {
+                    reset(this.loanRepository.findAllPeriods());
+                    if (this.failed) {
+                        throw new Exception("No se ha podido reiniciar el diario en " + this.dir);
+                    }
+                    return stats();
+                }
+
+                if (this.nextSeq > this.segmentFirstSeq) {
+                    roll();
+                }
+                for (Path file : LoanJournalFormat.segments(this.dir)) {
+                    if (!file.equals(LoanJournalFormat.segmentPath(this.dir, this.segmentFirstSeq))) {
+                        sealed.add(file);
+                    }
+                }
+            }
+
+            try {
+                List<Path> previous = LoanJournalFormat.snapshots(this.dir);
+                Replay replay = replay(sealed);
+                if (replay.gap()) {
+                    throw new IOException("Faltan registros entre los segmentos de " + this.dir);
+                }
+
+                Path written = LoanJournalFormat.writeSnapshot(this.dir, replay.lastSeq(), replay.loans().values());
+                for (Path file : previous) {
+                    if (!file.equals(written)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                for (Path file : sealed) {
+                    Files.deleteIfExists(file);
+                }
+
+                this.snapshots.increment();
+                this.lastSnapshot = new LastSnapshot(replay.lastSeq(), LocalDateTime.now(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), replay.loans().size());
+            } catch (IOException e) {
+                this.failures.increment();
+                throw new Exception("No se ha podido generar el snapshot del diario: " + e.getMessage());
+            }
+        }
+
+        return stats();
+    }
+
+    /**
+     * Métricas del diario y de la recuperación al arrancar
+     *
+     * @return {@link LoanJournalStats}
+     */
+    public LoanJournalStats stats() {
+
+        LoanJournalStats stats = new LoanJournalStats();
+        stats.setEnabled(this.enabled);
+        stats.setDirectory(this.dir.toString());
+        stats.setSegmentBytes(this.segmentBytes);
+        stats.setSync(this.sync);
+        stats.setFailed(this.failed);
+        stats.setLastSeq(lastSeq());
+        stats.setAppended(this.appended.sum());
+        stats.setFailures(this.failures.sum());
+        stats.setSnapshots(this.snapshots.sum());
+
+        if (this.enabled) {
+            try {
+                List<Path> segments = LoanJournalFormat.segments(this.dir);
+                long bytes = 0;
+                for (Path file : segments) {
+                    bytes += Files.size(file);
+                }
+                for (Path file : LoanJournalFormat.snapshots(this.dir)) {
+                    bytes += Files.size(file);
+                }
+                stats.setSegments(segments.size());
+                stats.setJournalBytes(bytes);
+            } catch (IOException e) {
+                // El directorio puede no existir todavía
+            }
+        }
+
+        LastSnapshot last = this.lastSnapshot;
+        if (last != null) {
+            stats.setLastSnapshotSeq(last.seq());
+            stats.setLastSnapshotAt(last.at());
+            stats.setLastSnapshotMillis(last.millis());
+            stats.setLastSnapshotLoans(last.loans());
+        }
+
+        Recovery recovered = this.recovery;
+        if (recovered != null) {
+            stats.setRecoverySource(recovered.source());
+            stats.setRecoveryReason(recovered.reason());
+            stats.setRecoveredLoans(recovered.loans());
+            stats.setReplayedRecords(recovered.records());
+            stats.setRecoveryMillis(recovered.millis());
+            stats.setTornTail(recovered.torn());
+        }
+
+        return stats;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+
+        if (this.segment != null) {
+            this.segment.force();
+            this.segment = null;
+        }
+    }
+
+    /**
+     * Reconstruye los préstamos vigentes a partir del último snapshot y los segmentos
+     * indicados. Un segmento puede terminar en un registro interrumpido siempre que el
+     * siguiente continúe la secuencia.
+     *
+     * @param segments segmentos a reproducir, ordenados
+     * @return {@link Replay}
+     * @throws IOException si no se puede leer un fichero o el snapshot está corrupto
+     */
+    Replay replay(List<Path> segments) throws IOException {
+
+        Map<Long, LoanPeriod> loans = new HashMap<>();
+
+        List<Path> snapshotFiles = LoanJournalFormat.snapshots(this.dir);
+        long lastSeq = snapshotFiles.isEmpty() ? 0 : LoanJournalFormat.readSnapshot(snapshotFiles.get(snapshotFiles.size() - 1), p -> loans.put(p.getId(), p)).lastSeq();
+
+        long[] applied = { lastSeq, 0 };
+        boolean torn = false;
+        boolean gap = false;
+
+        for (Path file : segments) {
+            LoanJournalFormat.SegmentScan scan = LoanJournalFormat.scanSegment(file, record -> {
+                if (record.seq() != applied[0] + 1) {
+                    return;
+                }
+                if (record.type() == LoanJournalFormat.PUT) {
+                    loans.put(record.loanId(), record.toPeriod());
+                } else {
+                    loans.remove(record.loanId());
+                }
+                applied[0] = record.seq();
+                applied[1]++;
+            });
+
+            torn |= scan.torn();
+            if (scan.records() > 0 && scan.firstSeq() > lastSeq + 1) {
+                gap = true;
+                break;
+            }
+            lastSeq = Math.max(lastSeq, scan.lastSeq());
+        }
+
+        return new Replay(loans, lastSeq, applied[1], torn, gap);
+    }
+
+    private synchronized void append(byte type, long loanId, LoanPeriod period) {
+
+        if (this.segment == null || this.failed) {
+            return;
+        }
+
+        try {
+            if (this.segment.remaining() < LoanJournalFormat.RECORD_BYTES) {
+                roll();
+            }
+
+            LoanJournalFormat.writeRecord(this.segment, type, this.nextSeq, loanId, period, this.scratch);
+            this.nextSeq++;
+            if (this.sync) {
+                this.segment.force();
+            }
+
+            this.appended.increment();
+        } catch (IOException | RuntimeException e) {
+            // Se deja de escribir: la recuperación o el próximo snapshot reinician el diario desde la tabla
+            this.failed = true;
+            this.failures.increment();
+        }
+    }
+
+    private synchronized long lastSeq() {
+        return this.nextSeq - 1;
+    }
+
+    private void open(long lastSeq) throws IOException {
+
+        this.nextSeq = lastSeq + 1;
+        this.failed = false;
+        roll();
+    }
+
+    private void roll() throws IOException {
+
+        if (this.segment != null) {
+            this.segment.force();
+        }
+
+        this.segment = LoanJournalFormat.createSegment(this.dir, this.nextSeq, this.segmentBytes);
+        this.segmentFirstSeq = this.nextSeq;
+    }
+
+    private synchronized void reset(Collection<LoanPeriod> loans) {
+
+        this.segment = null;
+
+        try {
+            Files.createDirectories(this.dir);
+
+            long lastSeq = lastSeq();
+            Path written = LoanJournalFormat.writeSnapshot(this.dir, lastSeq, loans);
+            for (Path file : LoanJournalFormat.snapshots(this.dir)) {
+                if (!file.equals(written)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            for (Path file : LoanJournalFormat.segments(this.dir)) {
+                Files.deleteIfExists(file);
+            }
+
+            open(lastSeq);
+        } catch (IOException e) {
+            this.failed = true;
+            this.failures.increment();
+        }
+    }
+
+    Fingerprint databaseFingerprint() {
+
+        return this.jdbcTemplate.queryForObject(FINGERPRINT,
+                (rs, i) -> new Fingerprint(rs.getLong(1), longValue(rs.getBigDecimal(2)), longValue(rs.getBigDecimal(3)), longValue(rs.getBigDecimal(4))));
+    }
+
+    private static long longValue(BigDecimal value) {
+
+        // Las sumas se comparan módulo 2^64, igual que se acumulan en Java
+        return value != null ? value.toBigInteger().longValue() : 0;
+    }
+
+    /**
+     * Huella de un conjunto de préstamos, calculada igual que {@link #FINGERPRINT}
+     */
+    record Fingerprint(long count, long fields, long idByEnd, long ownersByDay) {
+
+        static Fingerprint of(Collection<LoanPeriod> loans) {
+
+            long fields = 0;
+            long idByEnd = 0;
+            long ownersByDay = 0;
+            for (LoanPeriod period : loans) {
+                long start = period.getStartDate().toEpochDay();
+                long end = period.getEndDate().toEpochDay();
+                fields += period.getId() + period.getGameId() * 3 + period.getClientId() * 5 + start * 7 + end * 11;
+                idByEnd += period.getId() * end;
+                ownersByDay += period.getGameId() * start + period.getClientId() * end;
+            }
+
+            return new Fingerprint(loans.size(), fields, idByEnd, ownersByDay);
+        }
+    }
+
+    /**
+     * Estado reconstruido a partir del diario
+     *
+     * @param loans préstamos vigentes por PK
+     * @param lastSeq secuencia del último registro aplicado
+     * @param records registros reproducidos tras el snapshot
+     * @param torn true si algún segmento terminaba en un registro interrumpido
+     * @param gap true si falta algún registro entre segmentos
+     */
+    record Replay(Map<Long, LoanPeriod> loans, long lastSeq, long records, boolean torn, boolean gap) {
+    }
+
+    private record LastSnapshot(long seq, LocalDateTime at, long millis, long loans) {
+    }
+
+    private record Recovery(String source, String reason, long loans, long records, long millis, boolean torn) {
+    }
+}
@@ -0,0 +1,358 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario de los ficheros del diario de préstamos, compartido por
+ * {@link LoanJournal} y {@link LoanJournalInspector}.
+ *
+ * Segmento (segment-{primera secuencia}.log): cabecera de {@link #SEGMENT_HEADER_BYTES}
+ * bytes (magic, versión, primera secuencia) seguida de registros de tamaño fijo
+ * {@link #RECORD_BYTES}: tipo, secuencia, préstamo, juego, cliente, día de inicio,
+ * día de fin (epoch day) y CRC32C de todo lo anterior. El resto del fichero está a
+ * cero; un registro a cero marca el final y uno que no cuadra con su CRC, una
+ * escritura interrumpida.
+ *
+ * Snapshot (snapshot-{última secuencia}.snap): cabecera (magic, versión, última
+ * secuencia incluida, número de préstamos), un bloque de {@link #SNAPSHOT_ENTRY_BYTES}
+ * bytes por préstamo y el CRC32C del fichero completo al final.
+ *
+ * @author ccsw
+ *
+ */
+final class LoanJournalFormat {
+
+    static final byte PUT = 1;
+
+    static final byte REMOVE = 2;
+
+    static final int SEGMENT_HEADER_BYTES = 16;
+
+    static final int RECORD_BYTES = 45;
+
+    static final int SNAPSHOT_ENTRY_BYTES = 32;
+
+    private static final int SEGMENT_MAGIC = 0x4C4A4E4C;
+
+    private static final int SNAPSHOT_MAGIC = 0x4C534E50;
+
+    private static final short VERSION = 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private LoanJournalFormat() {
+    }
+
+    /**
+     * @param dir directorio del diario
+     * @param firstSeq secuencia del primer registro del segmento
+     * @return ruta del segmento
+     */
+    static Path segmentPath(Path dir, long firstSeq) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @param dir directorio del diario
+     * @param lastSeq secuencia del último registro incluido en el snapshot
+     * @return ruta del snapshot
+     */
+    static Path snapshotPath(Path dir, long lastSeq) {
+        return dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lastSeq, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * @param dir directorio del diario
+     * @return segmentos ordenados por su primera secuencia
+     * @throws IOException si no se puede leer el directorio
+     */
+    static List<Path> segments(Path dir) throws IOException {
+        return list(dir, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @param dir directorio del diario
+     * @return snapshots ordenados por su última secuencia
+     * @throws IOException si no se puede leer el directorio
+     */
+    static List<Path> snapshots(Path dir) throws IOException {
+        return list(dir, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Crea un segmento vacío de tamaño fijo y lo proyecta en memoria. Si ya existe
+     * uno con la misma primera secuencia no tiene registros válidos y se sustituye.
+     *
+     * @param dir directorio del diario
+     * @param firstSeq secuencia del primer registro
+     * @param bytes tamaño del segmento
+     * @return segmento proyectado, posicionado tras la cabecera
+     * @throws IOException si no se puede crear
+     */
+    static MappedByteBuffer createSegment(Path dir, long firstSeq, int bytes) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(segmentPath(dir, firstSeq), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.putInt(SEGMENT_MAGIC).putShort(VERSION).putShort((short) 0).putLong(firstSeq);
+            return buffer;
+        }
+    }
+
+    /**
+     * Escribe un registro en la posición actual del segmento
+     *
+     * @param segment segmento proyectado
+     * @param type {@link #PUT} o {@link #REMOVE}
+     * @param seq secuencia del registro
+     * @param loanId PK del préstamo
+     * @param period periodo del préstamo, nulo en un {@link #REMOVE}
+     * @param scratch buffer de {@link #RECORD_BYTES} bytes
+     */
+    static void writeRecord(MappedByteBuffer segment, byte type, long seq, long loanId, LoanPeriod period, byte[] scratch) {
+
+        ByteBuffer record = ByteBuffer.wrap(scratch);
+        record.put(type).putLong(seq).putLong(loanId);
+        if (period != null) {
+            record.putLong(period.getGameId()).putLong(period.getClientId()).putInt((int) period.getStartDate().toEpochDay()).putInt((int) period.getEndDate().toEpochDay());
+        } else {
+            record.putLong(0).putLong(0).putInt(0).putInt(0);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(scratch, 0, RECORD_BYTES - 4);
+        record.putInt((int) crc.getValue());
+
+        segment.put(scratch);
+    }
+
+    /**
+     * Recorre los registros válidos de un segmento
+     *
+     * @param file segmento
+     * @param consumer recibe cada registro en orden
+     * @return {@link SegmentScan}
+     * @throws IOException si no se puede leer o la cabecera no es válida
+     */
+    static SegmentScan scanSegment(Path file, Consumer<Record> consumer) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < SEGMENT_HEADER_BYTES || buffer.getInt() != SEGMENT_MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Cabecera de segmento no válida: " + file);
+            }
+            buffer.getShort();
+            long firstSeq = buffer.getLong();
+
+            byte[] scratch = new byte[RECORD_BYTES];
+            CRC32C crc = new CRC32C();
+            long records = 0;
+            long lastSeq = firstSeq - 1;
+            boolean torn = false;
+
+            while (buffer.remaining() >= RECORD_BYTES) {
+                buffer.get(scratch);
+                if (isZero(scratch)) {
+                    break;
+                }
+
+                Record record = decode(scratch, crc);
+                if (record == null || record.seq() != lastSeq + 1) {
+                    torn = true;
+                    break;
+                }
+
+                consumer.accept(record);
+                lastSeq = record.seq();
+                records++;
+            }
+
+            return new SegmentScan(firstSeq, lastSeq, records, SEGMENT_HEADER_BYTES + records * RECORD_BYTES, channel.size(), torn);
+        }
+    }
+
+    /**
+     * Escribe un snapshot en un fichero temporal y lo renombra, de modo que nunca
+     * queda a medias
+     *
+     * @param dir directorio del diario
+     * @param lastSeq secuencia del último registro incluido
+     * @param loans préstamos vigentes
+     * @return ruta del snapshot
+     * @throws IOException si no se puede escribir
+     */
+    static Path writeSnapshot(Path dir, long lastSeq, Collection<LoanPeriod> loans) throws IOException {
+
+        Path target = snapshotPath(dir, lastSeq);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(tmp); CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc);
+                DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(lastSeq);
+            out.writeLong(loans.size());
+            for (LoanPeriod period : loans) {
+                out.writeLong(period.getId());
+                out.writeLong(period.getGameId());
+                out.writeLong(period.getClientId());
+                out.writeInt((int) period.getStartDate().toEpochDay());
+                out.writeInt((int) period.getEndDate().toEpochDay());
+            }
+            out.flush();
+            // El CRC no se incluye a sí mismo
+            int checksum = (int) crc.getValue();
+            out.writeInt(checksum);
+        }
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        return Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee un snapshot completo comprobando su CRC
+     *
+     * @param file snapshot
+     * @param consumer recibe cada préstamo
+     * @return {@link SnapshotScan}
+     * @throws IOException si no se puede leer o está corrupto
+     */
+    static SnapshotScan readSnapshot(Path file, Consumer<LoanPeriod> consumer) throws IOException {
+
+        CRC32C crc = new CRC32C();
+        try (InputStream in = Files.newInputStream(file); CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in, 1 << 16), crc);
+                DataInputStream data = new DataInputStream(checked)) {
+            if (data.readInt() != SNAPSHOT_MAGIC || data.readShort() != VERSION) {
+                throw new IOException("Cabecera de snapshot no válida: " + file);
+            }
+            data.readShort();
+            long lastSeq = data.readLong();
+            long count = data.readLong();
+
+            for (long i = 0; i < count; i++) {
+                consumer.accept(new LoanPeriod(data.readLong(), data.readLong(), data.readLong(), LocalDate.ofEpochDay(data.readInt()), LocalDate.ofEpochDay(data.readInt())));
+            }
+
+            int expected = (int) crc.getValue();
+            if (data.readInt() != expected) {
+                throw new IOException("CRC de snapshot no válido: " + file);
+            }
+
+            return new SnapshotScan(lastSeq, count);
+        } catch (EOFException e) {
+            throw new IOException("Snapshot incompleto: " + file, e);
+        }
+    }
+
+    private static Record decode(byte[] scratch, CRC32C crc) {
+
+        crc.reset();
+        crc.update(scratch, 0, RECORD_BYTES - 4);
+
+        ByteBuffer buffer = ByteBuffer.wrap(scratch);
+        if (buffer.getInt(RECORD_BYTES - 4) != (int) crc.getValue()) {
+            return null;
+        }
+
+        byte type = buffer.get();
+        if (type != PUT && type != REMOVE) {
+            return null;
+        }
+
+        return new Record(type, buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getInt());
+    }
+
+    private static boolean isZero(byte[] bytes) {
+
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Path> list(Path dir, String prefix, String suffix) throws IOException {
+
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Registro del diario
+     */
+    record Record(byte type, long seq, long loanId, long gameId, long clientId, int startDay, int endDay) {
+
+        /**
+         * @return periodo del préstamo de un {@link LoanJournalFormat#PUT}
+         */
+        LoanPeriod toPeriod() {
+            return new LoanPeriod(this.loanId, this.gameId, this.clientId, LocalDate.ofEpochDay(this.startDay), LocalDate.ofEpochDay(this.endDay));
+        }
+    }
+
+    /**
+     * Resultado de recorrer un segmento
+     *
+     * @param firstSeq secuencia indicada en la cabecera
+     * @param lastSeq secuencia del último registro válido, firstSeq - 1 si no tiene
+     * @param records registros válidos
+     * @param usedBytes bytes ocupados por la cabecera y los registros válidos
+     * @param fileBytes tamaño del fichero
+     * @param torn true si termina en un registro interrumpido o corrupto
+     */
+    record SegmentScan(long firstSeq, long lastSeq, long records, long usedBytes, long fileBytes, boolean torn) {
+    }
+
+    /**
+     * Resultado de leer un snapshot
+     *
+     * @param lastSeq secuencia del último registro incluido
+     * @param loans préstamos que contiene
+     */
+    record SnapshotScan(long lastSeq, long loans) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Herramienta de línea de comandos que describe el contenido de un directorio del
+ * diario de préstamos sin arrancar la aplicación: snapshots, segmentos, rangos de
+ * secuencia, registros y si alguno termina en una escritura interrumpida.
+ *
+ * java -cp target/classes com.ccsw.tutorial.loan.LoanJournalInspector {directorio} [--records]
+ *
+ * @author ccsw
+ *
+ */
+public class LoanJournalInspector {
+
+    private LoanJournalInspector() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length == 0) {
+            System.err.println("Uso: LoanJournalInspector <directorio> [--records]");
+            System.exit(2);
+        }
+
+        boolean ok = inspect(Paths.get(args[0]), args.length > 1 && "--records".equals(args[1]), System.out);
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Describe el contenido de un directorio del diario
+     *
+     * @param dir directorio del diario
+     * @param records listar también cada registro
+     * @param out salida
+     * @return true si todos los ficheros son legibles y las secuencias son continuas
+     * @throws IOException si no se puede leer el directorio
+     */
+    static boolean inspect(Path dir, boolean records, PrintStream out) throws IOException {
+
+        if (!Files.isDirectory(dir)) {
+            out.printf("%s no es un directorio%n", dir);
+            return false;
+        }
+
+        boolean ok = true;
+        long lastSeq = 0;
+
+        for (Path file : LoanJournalFormat.snapshots(dir)) {
+            try {
+                long[] days = { Long.MAX_VALUE, Long.MIN_VALUE };
+                LoanJournalFormat.SnapshotScan scan = LoanJournalFormat.readSnapshot(file, p -> {
+                    days[0] = Math.min(days[0], p.getStartDate().toEpochDay());
+                    days[1] = Math.max(days[1], p.getEndDate().toEpochDay());
+                });
+                out.printf("%s  %,d bytes  lastSeq=%d  loans=%,d  fechas=%s..%s  CRC ok%n", file.getFileName(), Files.size(file), scan.lastSeq(), scan.loans(),
+                        scan.loans() > 0 ? LocalDate.ofEpochDay(days[0]) : "-", scan.loans() > 0 ? LocalDate.ofEpochDay(days[1]) : "-");
+                lastSeq = scan.lastSeq();
+            } catch (IOException e) {
+                out.printf("%s  ERROR %s%n", file.getFileName(), e.getMessage());
+                ok = false;
+            }
+        }
+
+        for (Path file : LoanJournalFormat.segments(dir)) {
+            long[] counts = new long[2];
+            LoanJournalFormat.SegmentScan scan;
+            try {
+                scan = LoanJournalFormat.scanSegment(file, record -> {
+                    counts[record.type() == LoanJournalFormat.PUT ? 0 : 1]++;
+                    if (records) {
+                        out.println("  " + describe(record));
+                    }
+                });
+            } catch (IOException e) {
+                out.printf("%s  ERROR %s%n", file.getFileName(), e.getMessage());
+                ok = false;
+                continue;
+            }
+
+            String continuity = "";
+            if (scan.records() > 0 && scan.firstSeq() > lastSeq + 1) {
+                continuity = "  HUECO desde " + (lastSeq + 1);
+                ok = false;
+            }
+            lastSeq = Math.max(lastSeq, scan.lastSeq());
+
+            out.printf("%s  %,d/%,d bytes  seq=%d..%d  put=%,d  remove=%,d%s%s%n", file.getFileName(), scan.usedBytes(), scan.fileBytes(), scan.firstSeq(), scan.lastSeq(), counts[0], counts[1],
+                    scan.torn() ? "  INTERRUMPIDO" : "", continuity);
+        }
+
+        out.printf("Última secuencia: %d%n", lastSeq);
+
+        return ok;
+    }
+
+    private static String describe(LoanJournalFormat.Record record) {
+
+        if (record.type() == LoanJournalFormat.REMOVE) {
+            return String.format("%d REMOVE loan=%d", record.seq(), record.loanId());
+        }
+
+        LoanPeriod period = record.toPeriod();
+
+        return String.format("%d PUT loan=%d game=%d client=%d %s..%s", record.seq(), period.getId(), period.getGameId(), period.getClientId(), period.getStartDate(), period.getEndDate());
+    }
+}
@@ -0,0 +1,241 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanOverdueStats;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proceso programado que marca como vencidos (loan.overdue) los préstamos cuya fecha
+ * de fin ya ha pasado. Recorre solo los préstamos sin marcar, por bloques ordenados
+ * por (end_date, id) con el índice ix_loan_overdue_end_date, continuando cada bloque
+ * a partir de la última clave del anterior, y los marca con un batch de UPDATE.
+ *
+ * Cada bloque es una transacción, de modo que nunca se mantiene una abierta más de un
+ * bloque, y el proceso usa su propio pool de conexiones acotado (loan.overdue.pool-size)
+ * para no competir con las peticiones. Opcionalmente se espera loan.overdue.pause-ms
+ * entre bloques para limitar la carga sobre la BBDD.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanOverdueScanner {
+
+    private static final String SELECT_FIRST_CHUNK = "SELECT id, end_date FROM loan WHERE overdue = FALSE AND end_date < ? ORDER BY end_date, id LIMIT ?";
+
+    static final String SELECT_NEXT_CHUNK = "SELECT id, end_date FROM loan WHERE overdue = FALSE AND end_date < ? AND (end_date > ? OR (end_date = ? AND id > ?)) ORDER BY end_date, id LIMIT ?";
+
+    // Se repite la condición por si una petición ha cambiado el préstamo después de leer el bloque
+    private static final String FLAG = "UPDATE loan SET overdue = TRUE WHERE id = ? AND overdue = FALSE AND end_date < ?";
+
+    private static final String PENDING = "SELECT COUNT(*), MIN(end_date) FROM loan WHERE overdue = FALSE AND end_date < ?";
+
+    private final boolean enabled;
+
+    private final int chunkSize;
+
+    private final long pauseMillis;
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder runs = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder chunks = new LongAdder();
+
+    private final LongAdder flagged = new LongAdder();
+
+    private volatile LastRun lastRun;
+
+    @Autowired
+    LoanPageCache pageCache;
+
+    public LoanOverdueScanner(DataSourceProperties dataSourceProperties, @Value("${loan.overdue.enabled:true}") boolean enabled, @Value("${loan.overdue.chunk-size:500}") int chunkSize,
+            @Value("${loan.overdue.pool-size:1}") int poolSize, @Value("${loan.overdue.pause-ms:0}") long pauseMillis) {
+
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("loan-overdue");
+        this.dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        this.dataSource.setMinimumIdle(0);
+
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+    }
+
+    /**
+     * Ejecución programada, cada loan.overdue.interval-ms desde el final de la anterior
+     */
+    @Scheduled(initialDelayString = "${loan.overdue.initial-delay-ms:60000}", fixedDelayString = "${loan.overdue.interval-ms:3600000}")
+    public void scheduledScan() {
+
+        if (this.enabled) {
+            scan();
+        }
+    }
+
+    /**
+     * Marca los préstamos vencidos con el tamaño de bloque configurado
+     *
+     * @return {@link LoanOverdueStats} tras la ejecución
+     */
+    public LoanOverdueStats scan() {
+
+        return scan(this.chunkSize);
+    }
+
+    /**
+     * Marca los préstamos vencidos con el tamaño de bloque indicado. Las ejecuciones
+     * no se solapan: una petición manual espera a que termine la programada.
+     *
+     * @param size préstamos por bloque
+     * @return {@link LoanOverdueStats} tras la ejecución
+     */
+    synchronized LoanOverdueStats scan(int size) {
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        long runChunks = 0;
+        long runFlagged = 0;
+        Chunk chunk = new Chunk(0, 0, null, 0L);
+
+        try {
+            do {
+                Chunk previous = chunk;
+                chunk = this.transactionTemplate.execute(status -> flagChunk(today, previous, size));
+
+                runChunks++;
+                runFlagged += chunk.flagged();
+                this.chunks.increment();
+                this.flagged.add(chunk.flagged());
+
+                if (chunk.read() == size && this.pauseMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(this.pauseMillis);
+                }
+            } while (chunk.read() == size);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.increment();
+            return stats();
+        } catch (RuntimeException e) {
+            this.failures.increment();
+            throw e;
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long[] pending = new long[2];
+        this.jdbcTemplate.query(PENDING, rs -> {
+            Date oldest = rs.getDate(2);
+            pending[0] = rs.getLong(1);
+            pending[1] = oldest != null ? ChronoUnit.DAYS.between(oldest.toLocalDate(), today) : 0;
+        }, Date.valueOf(today));
+
+        this.runs.increment();
+        this.lastRun = new LastRun(startedAt, millis, runChunks, runFlagged, pending[0], pending[1]);
+
+        return stats();
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque y de la última ejecución
+     *
+     * @return {@link LoanOverdueStats}
+     */
+    public LoanOverdueStats stats() {
+
+        LoanOverdueStats stats = new LoanOverdueStats();
+        stats.setEnabled(this.enabled);
+        stats.setChunkSize(this.chunkSize);
+        stats.setPoolSize(this.dataSource.getMaximumPoolSize());
+        stats.setRuns(this.runs.sum());
+        stats.setFailures(this.failures.sum());
+        stats.setChunks(this.chunks.sum());
+        stats.setFlagged(this.flagged.sum());
+
+        LastRun last = this.lastRun;
+        if (last != null) {
+            stats.setLastRunAt(last.startedAt());
+            stats.setLastRunMillis(last.millis());
+            stats.setLastRunChunks(last.chunks());
+            stats.setLastRunFlagged(last.flagged());
+            stats.setLastRunRowsPerSecond(last.millis() > 0 ? last.flagged() * 1000.0 / last.millis() : last.flagged());
+            stats.setPending(last.pending());
+            stats.setLagDays(last.lagDays());
+        }
+
+        return stats;
+    }
+
+    @PreDestroy
+    void close() {
+
+        this.dataSource.close();
+    }
+
+    private Chunk flagChunk(LocalDate today, Chunk previous, int size) {
+
+        Date before = Date.valueOf(today);
+
+        List<Object[]> rows = previous.lastEndDate() == null ? this.jdbcTemplate.query(SELECT_FIRST_CHUNK, (rs, i) -> new Object[] { rs.getLong(1), rs.getDate(2) }, before, size)
+                : this.jdbcTemplate.query(SELECT_NEXT_CHUNK, (rs, i) -> new Object[] { rs.getLong(1), rs.getDate(2) }, before, previous.lastEndDate(), previous.lastEndDate(), previous.lastId(), size);
+
+        if (rows.isEmpty()) {
+            return new Chunk(0, 0, previous.lastEndDate(), previous.lastId());
+        }
+
+        int[] counts = this.jdbcTemplate.batchUpdate(FLAG, rows.stream().map(e -> new Object[] { e[0], before }).toList());
+
+        int updated = 0;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO || counts[i] > 0) {
+                updated++;
+                ids.add((Long) rows.get(i)[0]);
+            }
+        }
+
+        // Los listados muestran la marca de vencido
+        if (!ids.isEmpty()) {
+            this.pageCache.onOverdue(ids);
+        }
+
+        Object[] last = rows.get(rows.size() - 1);
+
+        return new Chunk(rows.size(), updated, (Date) last[1], (Long) last[0]);
+    }
+
+    private record Chunk(int read, int flagged, Date lastEndDate, Long lastId) {
+    }
+
+    private record LastRun(LocalDateTime startedAt, long millis, long chunks, long flagged, long pending, long lagDays) {
+    }
+}
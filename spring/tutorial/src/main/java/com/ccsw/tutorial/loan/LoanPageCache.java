@@ -0,0 +1,165 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.category.model.Category;
+import com.ccsw.tutorial.client.model.Client;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.PageTotal;
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.common.pagination.ResultCache;
+import com.ccsw.tutorial.config.ResponsePage;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Resultados de las búsquedas paginadas de préstamos, por filtro, página, orden y
+ * tipo de total. Cada préstamo creado, modificado o borrado invalida solo las
+ * búsquedas cuyo filtro podría incluir su rango anterior o nuevo, y cada cambio de
+ * juego, categoría, autor o cliente las páginas que lo muestran.
+ *
+ * La invalidación se hace dentro de la transacción que escribe y se repite al
+ * terminar; entre ambas la caché no guarda resultados, de modo que una búsqueda
+ * nunca devuelve datos anteriores a una escritura ya confirmada.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanPageCache extends ResultCache<LoanPageCache.Key, ResponsePage<LoanListDto>> {
+
+    public LoanPageCache(@Value("${loan.page-cache.max-entries:500}") int maxEntries) {
+
+        super(maxEntries);
+    }
+
+    /**
+     * Clave normalizada de una búsqueda
+     *
+     * @param dto dto de búsqueda
+     * @return clave de la caché
+     */
+    public static Key keyOf(LoanSearchDto dto) {
+
+        PageableRequest pageable = dto.getPageable() != null ? dto.getPageable() : new PageableRequest(0, 10);
+
+        return new Key(dto.getGameId(), dto.getClientId(), dto.getDate(), pageable.getPageNumber(), pageable.getPageSize(), pageable.getPageable().getSort().toString(), pageable.getTotal());
+    }
+
+    /**
+     * Invalida las búsquedas que pueden incluir el préstamo, antes y después de confirmar
+     * la transacción. Archivar no cambia ningún resultado: las búsquedas que alcanzan
+     * el archivo leen ambas tablas.
+     *
+     * @param event cambio del préstamo
+     */
+    @EventListener
+    public void onLoanChange(LoanChangeEvent event) {
+
+        if (event.isArchived()) {
+            return;
+        }
+
+        write((key, page) -> key.matches(event.getPrevious()) || key.matches(event.getCurrent()));
+    }
+
+    /**
+     * Invalida las páginas que muestran la entidad modificada
+     *
+     * @param event cambio del catálogo
+     */
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        Predicate<LoanListDto> shows;
+        if (event.getType() == Game.class) {
+            shows = e -> Objects.equals(e.game().id(), event.getId());
+        } else if (event.getType() == Category.class) {
+            shows = e -> Objects.equals(e.game().category().id(), event.getId());
+        } else if (event.getType() == Author.class) {
+            shows = e -> Objects.equals(e.game().author().id(), event.getId());
+        } else if (event.getType() == Client.class) {
+            shows = e -> Objects.equals(e.client().id(), event.getId());
+        } else {
+            return;
+        }
+
+        write((key, page) -> page.getContent().stream().anyMatch(shows));
+    }
+
+    /**
+     * Invalida las páginas que muestran préstamos recién marcados como vencidos, dentro
+     * de la transacción que los marca y al terminarla
+     *
+     * @param loanIds PK de los préstamos marcados
+     */
+    public void onOverdue(Collection<Long> loanIds) {
+
+        write((key, page) -> page.getContent().stream().anyMatch(e -> loanIds.contains(e.id())));
+    }
+
+    private void write(BiPredicate<Key, ResponsePage<LoanListDto>> affected) {
+
+        invalidate(affected);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        // Una sola sincronización por transacción aunque escriba muchos préstamos (importación masiva)
+        @SuppressWarnings("unchecked")
+        List<BiPredicate<Key, ResponsePage<LoanListDto>>> pending = (List<BiPredicate<Key, ResponsePage<LoanListDto>>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<BiPredicate<Key, ResponsePage<LoanListDto>>> writes = new ArrayList<>();
+            pending = writes;
+            TransactionSynchronizationManager.bindResource(this, writes);
+            beginWrite();
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LoanPageCache.this);
+                    try {
+                        writes.forEach(LoanPageCache.this::invalidate);
+                    } finally {
+                        endWrite();
+                    }
+                }
+            });
+        }
+        pending.add(affected);
+    }
+
+    /**
+     * Búsqueda normalizada
+     */
+    public record Key(Long gameId, Long clientId, LocalDate date, int pageNumber, int pageSize, String sort, PageTotal total) {
+
+        /**
+         * @param period periodo de un préstamo, puede ser nulo
+         * @return true si el filtro de la búsqueda incluye el préstamo
+         */
+        boolean matches(LoanPeriod period) {
+
+            return period != null && (this.gameId == null || this.gameId.equals(period.getGameId())) && (this.clientId == null || this.clientId.equals(period.getClientId()))
+                    && (this.date == null || !this.date.isBefore(period.getStartDate()) && !this.date.isAfter(period.getEndDate()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.category.model.Category;
+import com.ccsw.tutorial.client.model.Client;
+import com.ccsw.tutorial.common.criteria.ProjectionQuery;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author ccsw
+ *
+ */
+public class LoanProjectionRepositoryImpl implements LoanProjectionRepository {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LoanListDto> findList(Specification<Loan> spec, Sort sort, long offset, int limit) {
+
+        return ProjectionQuery.list(this.entityManager, Loan.class, LoanListDto.class, spec, sort, offset, limit, LoanProjectionRepositoryImpl::columns);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<LoanListDto> streamList(Specification<Loan> spec, Sort sort, int fetchSize) {
+
+        return ProjectionQuery.stream(this.entityManager, Loan.class, LoanListDto.class, spec, sort, fetchSize, LoanProjectionRepositoryImpl::columns);
+    }
+
+    /**
+     * Columnas de {@link LoanListDto}, comunes a {@link Loan} y
+     * {@link com.ccsw.tutorial.loan.model.LoanArchive}
+     *
+     * @param root raíz de la consulta
+     * @return columnas en el orden del constructor
+     */
+    static <T> Selection<?>[] columns(Root<T> root) {
+
+        Join<T, Game> game = root.join("game");
+        Join<Game, Category> category = game.join("category");
+        Join<Game, Author> author = game.join("author");
+        Join<T, Client> client = root.join("client");
+
+        return new Selection<?>[] { root.get("id"), game.get("id"), game.get("title"), game.get("age"), category.get("id"), category.get("name"), author.get("id"), author.get("name"), author.get("nationality"), client.get("id"),
+                client.get("name"), root.get("startDate"), root.get("endDate"), root.get("overdue") };
+    }
+}
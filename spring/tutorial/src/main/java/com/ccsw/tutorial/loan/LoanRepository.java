@@ -1,6 +1,7 @@
 package com.ccsw.tutorial.loan;
 
 import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,14 +11,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
 import java.util.List;
 
 /**
  * @author ccsw
  *
  */
-public interface LoanRepository extends CrudRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
+public interface LoanRepository extends CrudRepository<Loan, Long>, JpaSpecificationExecutor<Loan>, LoanProjectionRepository {
 
     @Override
     @EntityGraph(attributePaths = { "game", "game.category", "game.author", "client" })
@@ -28,26 +28,28 @@ public interface LoanRepository extends CrudRepository<Loan, Long>, JpaSpecifica
     Page<Loan> findAll(Specification<Loan> spec, Pageable pageable);
 
     /**
-     * Encuentra préstamos de un juego que se solapen con un rango de fechas
+     * Recupera los periodos de todos los préstamos sin cargar juego ni cliente
      *
-     * @param gameId ID del juego
-     * @param startDate fecha de inicio del rango
-     * @param endDate fecha de fin del rango
-     * @param loanId ID del préstamo a excluir (para actualización)
-     * @return lista de préstamos
+     * @return lista de {@link LoanPeriod}
      */
-    @Query("SELECT l FROM Loan l WHERE l.game.id = :gameId " + "AND l.startDate <= :endDate AND l.endDate >= :startDate " + "AND (:loanId IS NULL OR l.id != :loanId)")
-    List<Loan> findGameLoansInDateRange(@Param("gameId") Long gameId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("loanId") Long loanId);
+    @Query("SELECT new com.ccsw.tutorial.loan.model.LoanPeriod(l.id, l.game.id, l.client.id, l.startDate, l.endDate) FROM Loan l")
+    List<LoanPeriod> findAllPeriods();
 
     /**
-     * Encuentra préstamos de un cliente que se solapen con un rango de fechas
+     * Recupera los periodos de los préstamos de un juego, para validar sin el índice en memoria
      *
-     * @param clientId ID del cliente
-     * @param startDate fecha de inicio del rango
-     * @param endDate fecha de fin del rango
-     * @param loanId ID del préstamo a excluir (para actualización)
-     * @return lista de préstamos
+     * @param gameId PK del juego
+     * @return lista de {@link LoanPeriod}
      */
-    @Query("SELECT l FROM Loan l WHERE l.client.id = :clientId " + "AND l.startDate <= :endDate AND l.endDate >= :startDate " + "AND (:loanId IS NULL OR l.id != :loanId)")
-    List<Loan> findClientLoansInDateRange(@Param("clientId") Long clientId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("loanId") Long loanId);
+    @Query("SELECT new com.ccsw.tutorial.loan.model.LoanPeriod(l.id, l.game.id, l.client.id, l.startDate, l.endDate) FROM Loan l WHERE l.game.id = :gameId")
+    List<LoanPeriod> findPeriodsByGameId(@Param("gameId") Long gameId);
+
+    /**
+     * Recupera los periodos de los préstamos de un cliente, para validar sin el índice en memoria
+     *
+     * @param clientId PK del cliente
+     * @return lista de {@link LoanPeriod}
+     */
+    @Query("SELECT new com.ccsw.tutorial.loan.model.LoanPeriod(l.id, l.game.id, l.client.id, l.startDate, l.endDate) FROM Loan l WHERE l.client.id = :clientId")
+    List<LoanPeriod> findPeriodsByClientId(@Param("clientId") Long clientId);
 }
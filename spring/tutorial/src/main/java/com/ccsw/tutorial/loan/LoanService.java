@@ -1,9 +1,30 @@
 package com.ccsw.tutorial.loan;
 
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.GameUtilizationDto;
 import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanArchiveStats;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityCheckDto;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityVerdictDto;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
 import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanHoldDto;
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanIndexReport;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanLockStats;
+import com.ccsw.tutorial.loan.model.LoanOverdueStats;
 import com.ccsw.tutorial.loan.model.LoanSearchDto;
-import org.springframework.data.domain.Page;
+import com.ccsw.tutorial.loan.model.LoanUtilizationReport;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author ccsw
@@ -20,12 +41,27 @@ public interface LoanService {
     Loan get(Long id);
 
     /**
-     * Método para recuperar un listado paginado de {@link Loan}
+     * Método para recuperar un listado paginado de {@link Loan}. Según
+     * {@link com.ccsw.tutorial.common.pagination.PageableRequest#getTotal()} el total
+     * se cuenta, se sirve de caché, se estima o se omite.
      *
      * @param dto dto de búsqueda
-     * @return {@link Page} de {@link Loan}
+     * @return {@link ResponsePage} de {@link LoanListDto}
+     */
+    ResponsePage<LoanListDto> findPage(LoanSearchDto dto);
+
+    /**
+     * Método para recuperar un listado paginado por cursor de {@link Loan}
+     *
+     * Solo recorre la tabla loan: si la búsqueda alcanza préstamos archivados, por no
+     * filtrar por fecha o por hacerlo en o antes de la marca de agua del archivo, se
+     * rechaza en lugar de devolver un listado incompleto.
+     *
+     * @param dto dto de búsqueda, con el cursor de la página anterior en el pageable
+     * @return {@link KeysetPage} de {@link Loan}
+     * @throws Exception si la ordenación o el cursor no son válidos o la búsqueda alcanza el archivo
      */
-    Page<Loan> findPage(LoanSearchDto dto);
+    KeysetPage<Loan> findKeysetPage(LoanSearchDto dto) throws Exception;
 
     /**
      * Método para crear o actualizar un {@link Loan}
@@ -43,4 +79,173 @@ public interface LoanService {
      * @throws Exception si hay algún problema al borrar
      */
     void delete(Long id) throws Exception;
+
+    /**
+     * Método para crear un lote de {@link Loan} validando todas las filas a la vez.
+     * Las filas aceptadas se guardan en bloques, cada uno en su propia transacción.
+     *
+     * @param dtos datos de los préstamos
+     * @return {@link List} con el resultado de cada fila
+     */
+    List<LoanBulkResultDto> saveAll(List<LoanDto> dtos);
+
+    /**
+     * Método para recuperar los días libres y ocupados de uno o varios juegos
+     *
+     * @param gameIds PKs de los juegos
+     * @param from primer día del rango
+     * @param to último día del rango
+     * @return {@link List} de {@link GameAvailabilityDto}, uno por juego
+     * @throws Exception si el rango de fechas no es válido
+     */
+    List<GameAvailabilityDto> findAvailability(List<Long> gameIds, LocalDate from, LocalDate to) throws Exception;
+
+    /**
+     * Método para comprobar sin guardar nada si se podría reservar cada línea de una
+     * cesta, teniendo en cuenta también el resto de líneas
+     *
+     * @param lines líneas de la cesta
+     * @return {@link List} de {@link LoanAvailabilityVerdictDto}, uno por línea
+     * @throws Exception si la cesta es demasiado grande
+     */
+    List<LoanAvailabilityVerdictDto> checkAvailability(List<LoanAvailabilityCheckDto> lines) throws Exception;
+
+    /**
+     * Método para reservar temporalmente un juego a un cliente mientras confirma el
+     * préstamo. Hasta que caduca, el juego queda ocupado esos días para el resto de
+     * clientes; al guardar el préstamo la reserva se consume.
+     *
+     * @param dto juego, cliente, fechas y duración de la reserva
+     * @return reserva creada, con su PK y caducidad
+     * @throws Exception si el préstamo no se podría guardar ahora
+     */
+    LoanHoldDto hold(LoanHoldDto dto) throws Exception;
+
+    /**
+     * Método para soltar una reserva temporal antes de que caduque
+     *
+     * @param id PK de la reserva
+     * @throws Exception si no existe o ya ha caducado
+     */
+    void releaseHold(Long id) throws Exception;
+
+    /**
+     * Métricas de las reservas temporales
+     *
+     * @return {@link LoanHoldStats}
+     */
+    LoanHoldStats getHoldStats();
+
+    /**
+     * Reconstruye los índices en memoria de préstamos (disponibilidad y calendario de juegos, ocupación de clientes) a partir de la BBDD
+     *
+     * @return {@link LoanIndexReport} con el estado del índice reconstruido
+     */
+    LoanIndexReport rebuildIndex();
+
+    /**
+     * Compara el índice en memoria de disponibilidad de juegos con la BBDD
+     *
+     * @return {@link LoanIndexReport}
+     */
+    LoanIndexReport checkIndex();
+
+    /**
+     * Métricas de contención de los bloqueos de reserva de juegos y clientes
+     *
+     * @return {@link LoanLockStats}
+     */
+    LoanLockStats getLockStats();
+
+    /**
+     * Recorre los préstamos que cumplen los filtros de búsqueda y se solapan con el
+     * rango indicado, ordenados por PK, leyéndolos de la BBDD por bloques. Si el rango
+     * alcanza el archivo, intercala por PK los préstamos archivados.
+     *
+     * @param dto filtros de búsqueda, sin paginación
+     * @param from primer día del rango, opcional
+     * @param to último día del rango, opcional
+     * @param consumer destino de cada fila
+     * @throws Exception si el rango de fechas no es válido
+     */
+    void export(LoanSearchDto dto, LocalDate from, LocalDate to, Consumer<LoanListDto> consumer) throws Exception;
+
+    /**
+     * Recupera los días prestados, préstamos y clientes distintos por juego y mes
+     *
+     * @param gameId PK del juego, opcional
+     * @param from primer mes (yyyy-MM)
+     * @param to último mes (yyyy-MM)
+     * @return {@link List} de {@link GameUtilizationDto}
+     * @throws Exception si los meses no son válidos
+     */
+    List<GameUtilizationDto> findUtilization(Long gameId, String from, String to) throws Exception;
+
+    /**
+     * Recalcula en paralelo los acumulados de uso por juego y mes y los compara con los incrementales
+     *
+     * @param repair sustituir los acumulados si no coinciden
+     * @return {@link LoanUtilizationReport}
+     * @throws Exception si hay escrituras de préstamos que no terminan en el tiempo de espera
+     */
+    LoanUtilizationReport rebuildUtilization(boolean repair) throws Exception;
+
+    /**
+     * Marca ahora los préstamos vencidos, sin esperar a la ejecución programada
+     *
+     * @return {@link LoanOverdueStats}
+     */
+    LoanOverdueStats scanOverdue();
+
+    /**
+     * Métricas del proceso que marca los préstamos vencidos
+     *
+     * @return {@link LoanOverdueStats}
+     */
+    LoanOverdueStats getOverdueStats();
+
+    /**
+     * Métricas de los validadores de préstamos, en orden de ejecución
+     *
+     * @return {@link List} de {@link LoanValidatorStats}
+     */
+    List<LoanValidatorStats> getValidatorStats();
+
+    /**
+     * Métricas de la caché de búsquedas paginadas
+     *
+     * @return {@link ResultCacheStats}
+     */
+    ResultCacheStats getPageCacheStats();
+
+    /**
+     * Métricas del diario de préstamos y de la recuperación al arrancar
+     *
+     * @return {@link LoanJournalStats}
+     */
+    LoanJournalStats getJournalStats();
+
+    /**
+     * Compacta ahora el diario de préstamos en un snapshot
+     *
+     * @return {@link LoanJournalStats}
+     * @throws Exception si el diario no está activado o no se puede escribir
+     */
+    LoanJournalStats snapshotJournal() throws Exception;
+
+    /**
+     * Mueve a loan_archive los préstamos que terminan antes de la fecha indicada
+     *
+     * @param before fecha de corte, excluida; si es nula, hoy menos el horizonte configurado
+     * @return {@link LoanArchiveStats} tras la ejecución
+     * @throws Exception si la fecha de corte es posterior a hoy menos el horizonte
+     */
+    LoanArchiveStats archive(LocalDate before) throws Exception;
+
+    /**
+     * Métricas del archivado de préstamos
+     *
+     * @return {@link LoanArchiveStats}
+     */
+    LoanArchiveStats getArchiveStats();
 }
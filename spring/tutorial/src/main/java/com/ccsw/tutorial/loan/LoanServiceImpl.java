@@ -2,19 +2,57 @@ package com.ccsw.tutorial.loan;
 
 import com.ccsw.tutorial.client.ClientService;
 import com.ccsw.tutorial.common.criteria.SearchCriteria;
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.KeysetPagination;
+import com.ccsw.tutorial.common.pagination.PageQuery;
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
 import com.ccsw.tutorial.game.GameService;
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.GameUtilizationDto;
 import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanArchive;
+import com.ccsw.tutorial.loan.model.LoanArchiveStats;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityCheckDto;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityVerdictDto;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
 import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanHoldDto;
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanIndexReport;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanLockStats;
+import com.ccsw.tutorial.loan.model.LoanOverdueStats;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
 import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.ccsw.tutorial.loan.model.LoanUtilizationReport;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author ccsw
@@ -24,6 +62,14 @@ import java.util.List;
 @Transactional
 public class LoanServiceImpl implements LoanService {
 
+    private static final int MAX_AVAILABILITY_DAYS = 731;
+
+    private static final KeysetPagination<Loan> KEYSET = new KeysetPagination<>(
+            Map.<String, Function<String, Comparable<?>>> of("id", Long::valueOf, "startDate", LocalDate::parse, "endDate", LocalDate::parse), "game", "game.category", "game.author", "client");
+
+    @Value("${loan.export.fetch-size:500}")
+    int exportFetchSize;
+
     @Autowired
     LoanRepository loanRepository;
 
@@ -33,6 +79,54 @@ public class LoanServiceImpl implements LoanService {
     @Autowired
     ClientService clientService;
 
+    @Autowired
+    LoanValidationChain validationChain;
+
+    @Autowired
+    LoanAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    ClientOccupancyEngine occupancyEngine;
+
+    @Autowired
+    LoanBulkImporter bulkImporter;
+
+    @Autowired
+    LoanAvailabilityChecker availabilityChecker;
+
+    @Autowired
+    LoanHolds holds;
+
+    @Autowired
+    GameAvailabilityCalendar availabilityCalendar;
+
+    @Autowired
+    LoanCountCache countCache;
+
+    @Autowired
+    LoanPageCache pageCache;
+
+    @Autowired
+    LoanBookingLocks bookingLocks;
+
+    @Autowired
+    LoanUtilizationRollup utilizationRollup;
+
+    @Autowired
+    LoanOverdueScanner overdueScanner;
+
+    @Autowired
+    LoanJournal journal;
+
+    @Autowired
+    LoanArchiveRepository archiveRepository;
+
+    @Autowired
+    LoanArchiver archiver;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     /**
      * {@inheritDoc}
      */
@@ -45,64 +139,86 @@ public class LoanServiceImpl implements LoanService {
      * {@inheritDoc}
      */
     @Override
-    public Page<Loan> findPage(LoanSearchDto dto) {
+    public ResponsePage<LoanListDto> findPage(LoanSearchDto dto) {
 
-        LoanSpecification gameSpec = new LoanSpecification(new SearchCriteria("game.id", ":", dto.getGameId()));
-        LoanSpecification clientSpec = new LoanSpecification(new SearchCriteria("client.id", ":", dto.getClientId()));
+        // Si no hay pageable, usar valores por defecto
+        PageableRequest pageable = dto.getPageable() != null ? dto.getPageable() : new PageableRequest(0, 10);
 
-        Specification<Loan> spec = Specification.allOf(gameSpec, clientSpec);
+        return this.pageCache.get(LoanPageCache.keyOf(dto), () -> reachesArchive(dto) ? findArchivePage(dto, pageable) : findHotPage(dto, pageable));
+    }
 
-        // Si hay una fecha, filtrar por préstamos activos en esa fecha
-        if (dto.getDate() != null) {
-            LoanSpecification startDateSpec = new LoanSpecification(new SearchCriteria("startDate", "<=", dto.getDate()));
-            LoanSpecification endDateSpec = new LoanSpecification(new SearchCriteria("endDate", ">=", dto.getDate()));
-            spec = Specification.allOf(spec, startDateSpec, endDateSpec);
-        }
+    /**
+     * Todos los préstamos archivados terminan en o antes de archivedUntil: si la fecha
+     * buscada es posterior basta con la tabla loan
+     */
+    private boolean reachesArchive(LoanSearchDto dto) {
 
-        // Si no hay pageable, usar valores por defecto
-        if (dto.getPageable() == null) {
-            return this.loanRepository.findAll(spec, org.springframework.data.domain.PageRequest.of(0, 10));
-        }
+        LocalDate archivedUntil = this.archiver.archivedUntil();
+
+        return archivedUntil != null && (dto.getDate() == null || !dto.getDate().isAfter(archivedUntil));
+    }
 
-        return this.loanRepository.findAll(spec, dto.getPageable().getPageable());
+    private ResponsePage<LoanListDto> findHotPage(LoanSearchDto dto, PageableRequest pageable) {
+
+        Specification<Loan> spec = buildSpecification(dto);
+
+        return PageQuery.find(this.loanRepository, spec, pageable.getPageable(), pageable.getTotal(), this.countCache, LoanCountCache.keyOf(dto), (sort, offset, limit) -> this.loanRepository.findList(spec, sort, offset, limit));
+    }
+
+    private ResponsePage<LoanListDto> findArchivePage(LoanSearchDto dto, PageableRequest pageable) {
+
+        Specification<Loan> spec = buildSpecification(dto);
+        Specification<LoanArchive> archiveSpec = buildSpecification(dto);
+
+        PageQuery.Rows<LoanListDto> rows = PageQuery.merge(Sort.by("id"),
+                List.of((sort, offset, limit) -> this.loanRepository.findList(spec, sort, offset, limit), (sort, offset, limit) -> this.archiveRepository.findList(archiveSpec, sort, offset, limit)));
+
+        return PageQuery.find(() -> this.loanRepository.count(spec) + this.archiveRepository.count(archiveSpec), pageable.getPageable(), pageable.getTotal(), this.countCache, LoanCountCache.keyOf(dto), rows);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void save(Long id, LoanDto dto) throws Exception {
+    public KeysetPage<Loan> findKeysetPage(LoanSearchDto dto) throws Exception {
 
-        // Validación 1: La fecha de fin NO puede ser anterior a la fecha de inicio
-        if (dto.getEndDate().isBefore(dto.getStartDate())) {
-            throw new Exception("La fecha de fin no puede ser anterior a la fecha de inicio");
+        if (reachesArchive(dto)) {
+            throw new Exception("La paginación por cursor no incluye préstamos archivados: indica una fecha posterior al " + this.archiver.archivedUntil());
         }
 
-        // Validación 2: El periodo de préstamo máximo solo puede ser de 14 días
-        long daysBetween = ChronoUnit.DAYS.between(dto.getStartDate(), dto.getEndDate());
-        if (daysBetween > 14) {
-            throw new Exception("El periodo de préstamo no puede ser superior a 14 días");
-        }
+        return KEYSET.find(this.loanRepository, buildSpecification(dto), dto.getPageable());
+    }
 
-        // Validación 3: El mismo juego no puede estar prestado a dos clientes distintos en un mismo día
-        List<Loan> gameLoans = loanRepository.findGameLoansInDateRange(dto.getGame().getId(), dto.getStartDate(), dto.getEndDate(), id);
+    private static <T> Specification<T> buildSpecification(LoanSearchDto dto) {
 
-        if (!gameLoans.isEmpty()) {
-            throw new Exception("El juego ya está prestado en ese periodo de fechas");
-        }
+        LoanSpecification<T> gameSpec = new LoanSpecification<>(new SearchCriteria("game.id", ":", dto.getGameId()));
+        LoanSpecification<T> clientSpec = new LoanSpecification<>(new SearchCriteria("client.id", ":", dto.getClientId()));
 
-        // Validación 4: Un mismo cliente no puede tener prestados más de 2 juegos en un mismo día
-        // La query ya excluye el préstamo actual (si estamos editando), por lo que si ya hay 2 o más
-        // préstamos que se solapan con el nuevo rango, no se puede guardar
-        List<Loan> clientLoans = loanRepository.findClientLoansInDateRange(dto.getClient().getId(), dto.getStartDate(), dto.getEndDate(), id);
+        Specification<T> spec = Specification.allOf(gameSpec, clientSpec);
 
-        // Si ya hay 2 o más préstamos, no se puede añadir/actualizar
-        if (clientLoans.size() >= 2) {
-            throw new Exception("El cliente ya tiene 2 juegos prestados en ese periodo de fechas");
+        // Si hay una fecha, filtrar por préstamos activos en esa fecha
+        if (dto.getDate() != null) {
+            LoanSpecification<T> startDateSpec = new LoanSpecification<>(new SearchCriteria("startDate", "<=", dto.getDate()));
+            LoanSpecification<T> endDateSpec = new LoanSpecification<>(new SearchCriteria("endDate", ">=", dto.getDate()));
+            spec = Specification.allOf(spec, startDateSpec, endDateSpec);
         }
 
-        // Si todas las validaciones pasan, guardar el préstamo
+        return spec;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(Long id, LoanDto dto) throws Exception {
+
+        LoanPeriod candidate = new LoanPeriod(id, dto.getGame() != null ? dto.getGame().getId() : null, dto.getClient() != null ? dto.getClient().getId() : null, dto.getStartDate(), dto.getEndDate());
+
+        // Las reglas que solo miran la petición (orden de fechas, 14 días) se comprueban antes de bloquear nada
+        this.validationChain.validateRequest(candidate);
+
         Loan loan;
+        LoanPeriod previous = null;
 
         if (id == null) {
             loan = new Loan();
@@ -111,14 +227,36 @@ public class LoanServiceImpl implements LoanService {
             if (loan == null) {
                 throw new Exception("No existe el préstamo");
             }
+            previous = LoanPeriod.of(loan);
         }
 
-        BeanUtils.copyProperties(dto, loan, "id", "game", "client");
+        // Desde aquí hasta que el préstamo está confirmado e indexado ninguna otra escritura
+        // puede tocar el mismo juego o cliente (incluidos los anteriores si estamos editando)
+        List<Long> games = previous == null ? List.of(dto.getGame().getId()) : List.of(dto.getGame().getId(), previous.getGameId());
+        List<Long> clients = previous == null ? List.of(dto.getClient().getId()) : List.of(dto.getClient().getId(), previous.getClientId());
+
+        try (LoanBookingLocks.Lease lease = this.bookingLocks.acquire(games, clients)) {
+
+            // Las reglas sobre los préstamos guardados (juego libre, máximo 2 por cliente y día)
+            // se resuelven contra los índices en memoria, sin consultar la BBDD
+            this.validationChain.validateStoredLoans(candidate);
+
+            // Si todas las validaciones pasan, guardar el préstamo
+            BeanUtils.copyProperties(dto, loan, "id", "game", "client", "overdue");
+
+            // Si la nueva fecha de fin ya ha pasado, el proceso de vencidos lo volverá a marcar
+            loan.setOverdue(false);
 
-        loan.setGame(gameService.get(dto.getGame().getId()));
-        loan.setClient(clientService.get(dto.getClient().getId()));
+            loan.setGame(gameService.get(dto.getGame().getId()));
+            loan.setClient(clientService.get(dto.getClient().getId()));
 
-        this.loanRepository.save(loan);
+            this.loanRepository.save(loan);
+
+            this.eventPublisher.publishEvent(new LoanChangeEvent(previous, LoanPeriod.of(loan)));
+
+            // El préstamo sustituye a las reservas del cliente sobre ese juego y fechas, si se confirma
+            this.holds.consumeOnCommit(LoanPeriod.of(loan));
+        }
     }
 
     /**
@@ -127,10 +265,302 @@ public class LoanServiceImpl implements LoanService {
     @Override
     public void delete(Long id) throws Exception {
 
-        if (this.loanRepository.findById(id).orElse(null) == null) {
+        Loan loan = this.loanRepository.findById(id).orElse(null);
+
+        if (loan == null) {
             throw new Exception("No existe el préstamo");
         }
 
-        this.loanRepository.deleteById(id);
+        LoanPeriod period = LoanPeriod.of(loan);
+
+        try (LoanBookingLocks.Lease lease = this.bookingLocks.acquire(List.of(period.getGameId()), List.of(period.getClientId()))) {
+
+            this.loanRepository.deleteById(id);
+
+            this.eventPublisher.publishEvent(new LoanChangeEvent(period, null));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void export(LoanSearchDto dto, LocalDate from, LocalDate to, Consumer<LoanListDto> consumer) throws Exception {
+
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new Exception("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+
+        Specification<Loan> spec = exportSpecification(dto, from, to);
+
+        // Los préstamos archivados terminan en o antes de archivedUntil, que una vez fijada solo avanza
+        boolean archived = reachesArchive(dto) && (from == null || !from.isAfter(this.archiver.archivedUntil()));
+
+        // Las filas son proyecciones, no entidades: el contexto de persistencia no crece con la exportación
+        try (Stream<LoanListDto> rows = this.loanRepository.streamList(spec, Sort.by("id"), this.exportFetchSize);
+                Stream<LoanListDto> archivedRows = archived ? this.archiveRepository.streamList(exportSpecification(dto, from, to), Sort.by("id"), this.exportFetchSize) : Stream.empty()) {
+            mergeById(rows.iterator(), archivedRows.iterator(), consumer);
+        }
+    }
+
+    private static <T> Specification<T> exportSpecification(LoanSearchDto dto, LocalDate from, LocalDate to) {
+
+        Specification<T> spec = buildSpecification(dto);
+        if (to != null) {
+            spec = spec.and(new LoanSpecification<>(new SearchCriteria("startDate", "<=", to)));
+        }
+        if (from != null) {
+            spec = spec.and(new LoanSpecification<>(new SearchCriteria("endDate", ">=", from)));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Intercala dos recorridos ordenados por PK sin cargar ninguno en memoria
+     */
+    private static void mergeById(Iterator<LoanListDto> hot, Iterator<LoanListDto> archived, Consumer<LoanListDto> consumer) {
+
+        LoanListDto nextHot = hot.hasNext() ? hot.next() : null;
+        LoanListDto nextArchived = archived.hasNext() ? archived.next() : null;
+
+        while (nextHot != null || nextArchived != null) {
+            if (nextArchived == null || (nextHot != null && nextHot.id() < nextArchived.id())) {
+                consumer.accept(nextHot);
+                nextHot = hot.hasNext() ? hot.next() : null;
+            } else {
+                consumer.accept(nextArchived);
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<GameUtilizationDto> findUtilization(Long gameId, String from, String to) throws Exception {
+
+        YearMonth first;
+        YearMonth last;
+        try {
+            first = YearMonth.parse(from);
+            last = YearMonth.parse(to);
+        } catch (DateTimeParseException e) {
+            throw new Exception("Los meses deben tener el formato yyyy-MM, por ejemplo 2024-01");
+        }
+
+        if (last.isBefore(first)) {
+            throw new Exception("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+
+        return this.utilizationRollup.find(gameId, first, last);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanUtilizationReport rebuildUtilization(boolean repair) throws Exception {
+
+        return this.utilizationRollup.rebuild(repair);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanLockStats getLockStats() {
+
+        return this.bookingLocks.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanOverdueStats scanOverdue() {
+
+        return this.overdueScanner.scan();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanOverdueStats getOverdueStats() {
+
+        return this.overdueScanner.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LoanValidatorStats> getValidatorStats() {
+
+        return this.validationChain.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultCacheStats getPageCacheStats() {
+
+        return this.pageCache.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanJournalStats getJournalStats() {
+
+        return this.journal.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanJournalStats snapshotJournal() throws Exception {
+
+        return this.journal.snapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanArchiveStats archive(LocalDate before) throws Exception {
+
+        return before != null ? this.archiver.archive(before) : this.archiver.archive();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanArchiveStats getArchiveStats() {
+
+        return this.archiver.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<LoanBulkResultDto> saveAll(List<LoanDto> dtos) {
+
+        return this.bulkImporter.importAll(dtos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<GameAvailabilityDto> findAvailability(List<Long> gameIds, LocalDate from, LocalDate to) throws Exception {
+
+        if (to.isBefore(from)) {
+            throw new Exception("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new Exception("El rango de fechas no puede superar " + MAX_AVAILABILITY_DAYS + " días");
+        }
+
+        return gameIds.stream().distinct().map(gameId -> this.availabilityCalendar.availability(gameId, from, to)).collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LoanAvailabilityVerdictDto> checkAvailability(List<LoanAvailabilityCheckDto> lines) throws Exception {
+
+        return this.availabilityChecker.check(lines);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanHoldDto hold(LoanHoldDto dto) throws Exception {
+
+        if (dto.getGameId() == null || dto.getClientId() == null || dto.getStartDate() == null || dto.getEndDate() == null) {
+            throw new Exception("Faltan datos de la reserva del juego");
+        }
+
+        LoanPeriod candidate = new LoanPeriod(null, dto.getGameId(), dto.getClientId(), dto.getStartDate(), dto.getEndDate());
+
+        // Se reserva solo lo que se podría guardar ahora mismo
+        this.validationChain.validateRequest(candidate);
+
+        if (this.gameService.get(dto.getGameId()) == null) {
+            throw new Exception("No existe el juego " + dto.getGameId());
+        }
+        if (this.clientService.get(dto.getClientId()) == null) {
+            throw new Exception("No existe el cliente " + dto.getClientId());
+        }
+
+        try (LoanBookingLocks.Lease lease = this.bookingLocks.acquire(List.of(dto.getGameId()), List.of(dto.getClientId()))) {
+
+            this.validationChain.validateStoredLoans(candidate);
+
+            LoanHolds.Hold hold = this.holds.hold(candidate, dto.getTtlSeconds());
+
+            LoanHoldDto result = new LoanHoldDto();
+            result.setId(hold.id());
+            result.setGameId(hold.gameId());
+            result.setClientId(hold.clientId());
+            result.setStartDate(hold.startDate());
+            result.setEndDate(hold.endDate());
+            result.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAt()), ZoneId.systemDefault()));
+
+            return result;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releaseHold(Long id) throws Exception {
+
+        if (!this.holds.release(id)) {
+            throw new Exception("No existe la reserva del juego o ya ha caducado");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanHoldStats getHoldStats() {
+
+        return this.holds.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanIndexReport rebuildIndex() {
+
+        this.occupancyEngine.rebuild();
+        this.availabilityCalendar.rebuild();
+
+        return this.availabilityIndex.rebuild();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LoanIndexReport checkIndex() {
+
+        return this.availabilityIndex.check();
     }
 }
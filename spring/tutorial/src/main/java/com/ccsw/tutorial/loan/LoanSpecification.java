@@ -1,7 +1,6 @@
 package com.ccsw.tutorial.loan;
 
 import com.ccsw.tutorial.common.criteria.SearchCriteria;
-import com.ccsw.tutorial.loan.model.Loan;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
@@ -9,10 +8,13 @@ import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 
 /**
+ * Filtro por una propiedad de {@link com.ccsw.tutorial.loan.model.Loan} o de
+ * {@link com.ccsw.tutorial.loan.model.LoanArchive}, que comparten sus nombres
+ *
  * @author ccsw
  *
  */
-public class LoanSpecification implements Specification<Loan> {
+public class LoanSpecification<T> implements Specification<T> {
 
     private static final long serialVersionUID = 1L;
 
@@ -23,7 +25,7 @@ public class LoanSpecification implements Specification<Loan> {
     }
 
     @Override
-    public Predicate toPredicate(Root<Loan> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
         if (criteria.getOperation().equalsIgnoreCase(":") && criteria.getValue() != null) {
             String[] keys = criteria.getKey().split("\\.");
 
@@ -0,0 +1,54 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Construye al arrancar los índices en memoria de préstamos con una única lectura
+ * de los préstamos vigentes: del {@link LoanJournal} si está activado o de la tabla
+ * loan en caso contrario.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanStateRecovery {
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    LoanJournal journal;
+
+    @Autowired
+    LoanAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    ClientOccupancyEngine occupancyEngine;
+
+    @Autowired
+    GameAvailabilityCalendar availabilityCalendar;
+
+    /**
+     * Recupera los préstamos vigentes y reconstruye los índices
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+
+        // Los cambios confirmados durante la lectura se repiten sobre cada índice al construirlo
+        this.availabilityIndex.beginRebuild();
+        this.occupancyEngine.beginRebuild();
+        this.availabilityCalendar.beginRebuild();
+
+        Collection<LoanPeriod> periods = this.journal.isEnabled() ? this.journal.recover() : this.loanRepository.findAllPeriods();
+
+        this.availabilityIndex.rebuild(periods);
+        this.occupancyEngine.rebuild(periods);
+        this.availabilityCalendar.rebuild(periods);
+    }
+}
@@ -0,0 +1,285 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.GameUtilizationDto;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import com.ccsw.tutorial.loan.model.LoanUtilizationReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Acumulados de uso por juego y mes (días prestado, préstamos y clientes distintos).
+ * Cada alta, modificación o borrado de un préstamo aplica en la misma transacción la
+ * diferencia entre su rango anterior y el nuevo, de modo que consultar el uso no
+ * recorre la tabla loan. Los clientes distintos se mantienen con una tabla auxiliar
+ * de préstamos por cliente para poder restar al borrar.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanUtilizationRollup {
+
+    private static final String MERGE_UTILIZATION = "MERGE INTO loan_utilization u USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT))) d(game_id, month_start, days, loans) "
+            + "ON u.game_id = d.game_id AND u.month_start = d.month_start " + "WHEN MATCHED THEN UPDATE SET loaned_days = u.loaned_days + d.days, loan_count = u.loan_count + d.loans "
+            + "WHEN NOT MATCHED THEN INSERT (game_id, month_start, loaned_days, loan_count, distinct_clients) VALUES (d.game_id, d.month_start, d.days, d.loans, 0)";
+
+    private static final String MERGE_CLIENT = "MERGE INTO loan_utilization_client c USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT))) d(game_id, month_start, client_id, loans) "
+            + "ON c.game_id = d.game_id AND c.month_start = d.month_start AND c.client_id = d.client_id " + "WHEN MATCHED THEN UPDATE SET loans = c.loans + d.loans "
+            + "WHEN NOT MATCHED THEN INSERT (game_id, month_start, client_id, loans) VALUES (d.game_id, d.month_start, d.client_id, d.loans)";
+
+    private static final String DELETE_EMPTY_CLIENTS = "DELETE FROM loan_utilization_client WHERE game_id = ? AND month_start = ? AND loans <= 0";
+
+    private static final String UPDATE_DISTINCT_CLIENTS = "UPDATE loan_utilization SET distinct_clients = (SELECT COUNT(*) FROM loan_utilization_client c WHERE c.game_id = ? AND c.month_start = ?) WHERE game_id = ? AND month_start = ?";
+
+    private static final String DELETE_EMPTY_MONTHS = "DELETE FROM loan_utilization WHERE game_id = ? AND month_start = ? AND loan_count <= 0";
+
+    // Los préstamos archivados siguen contando en los acumulados
+    private static final String SELECT_PARTITION = "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE MOD(game_id, ?) = ? "
+            + "UNION ALL SELECT id, game_id, client_id, start_date, end_date FROM loan_archive WHERE MOD(game_id, ?) = ?";
+
+    @Value("${loan.utilization.partitions:4}")
+    int partitions;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    LoanBookingLocks bookingLocks;
+
+    /**
+     * Aplica el cambio de un préstamo a los acumulados, dentro de la transacción que lo guarda
+     *
+     * @param event cambio del préstamo
+     */
+    @EventListener
+    public void onLoanChange(LoanChangeEvent event) {
+
+        // Un préstamo archivado sigue contando en el uso del juego
+        if (event.isArchived()) {
+            return;
+        }
+
+        Map<Cell, long[]> months = new HashMap<>();
+        Map<ClientCell, Long> clients = new HashMap<>();
+
+        accumulate(event.getPrevious(), -1, months, clients);
+        accumulate(event.getCurrent(), 1, months, clients);
+
+        months.values().removeIf(e -> e[0] == 0 && e[1] == 0);
+        clients.values().removeIf(e -> e == 0);
+
+        if (months.isEmpty() && clients.isEmpty()) {
+            return;
+        }
+
+        this.jdbcTemplate.batchUpdate(MERGE_UTILIZATION, months.entrySet().stream().map(e -> new Object[] { e.getKey().gameId, Date.valueOf(e.getKey().month), e.getValue()[0], e.getValue()[1] }).toList());
+        this.jdbcTemplate.batchUpdate(MERGE_CLIENT, clients.entrySet().stream().map(e -> new Object[] { e.getKey().gameId, Date.valueOf(e.getKey().month), e.getKey().clientId, e.getValue() }).toList());
+
+        Set<Cell> touched = new HashSet<>(months.keySet());
+        clients.keySet().forEach(e -> touched.add(new Cell(e.gameId, e.month)));
+
+        List<Object[]> cells = touched.stream().map(e -> new Object[] { e.gameId, Date.valueOf(e.month) }).toList();
+        this.jdbcTemplate.batchUpdate(DELETE_EMPTY_CLIENTS, cells);
+        this.jdbcTemplate.batchUpdate(UPDATE_DISTINCT_CLIENTS, touched.stream().map(e -> new Object[] { e.gameId, Date.valueOf(e.month), e.gameId, Date.valueOf(e.month) }).toList());
+        this.jdbcTemplate.batchUpdate(DELETE_EMPTY_MONTHS, cells);
+    }
+
+    /**
+     * Recupera el uso de los juegos entre dos meses
+     *
+     * @param gameId PK del juego, opcional
+     * @param from primer mes
+     * @param to último mes
+     * @return {@link List} de {@link GameUtilizationDto} ordenada por juego y mes
+     */
+    public List<GameUtilizationDto> find(Long gameId, YearMonth from, YearMonth to) {
+
+        String sql = "SELECT game_id, month_start, loaned_days, loan_count, distinct_clients FROM loan_utilization WHERE month_start BETWEEN ? AND ?" + (gameId != null ? " AND game_id = ?" : "") + " ORDER BY game_id, month_start";
+        Object[] args = gameId != null ? new Object[] { Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)), gameId } : new Object[] { Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)) };
+
+        return this.jdbcTemplate.query(sql, (rs, i) -> {
+            YearMonth month = YearMonth.from(rs.getDate("month_start").toLocalDate());
+
+            GameUtilizationDto dto = new GameUtilizationDto();
+            dto.setGameId(rs.getLong("game_id"));
+            dto.setMonth(month.toString());
+            dto.setLoanedDays(rs.getLong("loaned_days"));
+            dto.setLoanCount(rs.getLong("loan_count"));
+            dto.setDistinctClients(rs.getLong("distinct_clients"));
+            dto.setOccupancy((double) dto.getLoanedDays() / month.lengthOfMonth());
+            return dto;
+        }, args);
+    }
+
+    /**
+     * Rellena los acumulados al arrancar, ya que los préstamos iniciales se cargan sin pasar por el servicio
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() throws Exception {
+
+        rebuild(true);
+    }
+
+    /**
+     * Recalcula los acumulados desde la tabla loan repartiendo los juegos en particiones
+     * que se procesan en paralelo, y los compara con los mantenidos incrementalmente.
+     * Se reservan todos los juegos y clientes mientras dura: una escritura que aplicara
+     * su diferencia entre el recálculo y la comparación o la sustitución se contaría
+     * como discrepancia o se perdería al reparar.
+     *
+     * @param repair sustituir los acumulados por los recalculados si no coinciden
+     * @return {@link LoanUtilizationReport}
+     * @throws Exception si no se consigue la reserva en el tiempo de espera
+     */
+    public LoanUtilizationReport rebuild(boolean repair) throws Exception {
+
+        try (LoanBookingLocks.Lease lease = this.bookingLocks.acquireAll()) {
+            return rebuildLocked(repair);
+        }
+    }
+
+    private LoanUtilizationReport rebuildLocked(boolean repair) {
+
+        int size = Math.max(1, this.partitions);
+
+        Map<Cell, long[]> expected = new HashMap<>();
+        Map<ClientCell, Long> expectedClients = new HashMap<>();
+        long loans = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(size);
+        try {
+            List<Future<Partition>> futures = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int partition = i;
+                futures.add(executor.submit(() -> computePartition(size, partition)));
+            }
+
+            for (Future<Partition> future : futures) {
+                Partition result = future.get();
+                expected.putAll(result.months);
+                expectedClients.putAll(result.clients);
+                loans += result.loans;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se ha interrumpido el recálculo de acumulados de préstamos", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se han podido recalcular los acumulados de préstamos", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<Cell, Set<Long>> distinct = new HashMap<>();
+        expectedClients.keySet().forEach(e -> distinct.computeIfAbsent(new Cell(e.gameId, e.month), k -> new HashSet<>()).add(e.clientId));
+        expected.forEach((cell, values) -> values[2] = distinct.getOrDefault(cell, Set.of()).size());
+
+        Map<Cell, long[]> actual = new HashMap<>();
+        this.jdbcTemplate.query("SELECT game_id, month_start, loaned_days, loan_count, distinct_clients FROM loan_utilization", rs -> {
+            actual.put(new Cell(rs.getLong("game_id"), rs.getDate("month_start").toLocalDate()), new long[] { rs.getLong("loaned_days"), rs.getLong("loan_count"), rs.getLong("distinct_clients") });
+        });
+
+        Set<Cell> cells = new HashSet<>(expected.keySet());
+        cells.addAll(actual.keySet());
+        long mismatches = cells.stream().filter(e -> !Objects.deepEquals(expected.get(e), actual.get(e))).count();
+
+        LoanUtilizationReport report = new LoanUtilizationReport();
+        report.setPartitions(size);
+        report.setLoans(loans);
+        report.setRows(expected.size());
+        report.setMismatches(mismatches);
+
+        if (repair && mismatches > 0) {
+            this.transactionTemplate.executeWithoutResult(status -> replace(expected, expectedClients));
+            report.setRepaired(true);
+        }
+
+        return report;
+    }
+
+    private Partition computePartition(int partitions, int partition) {
+
+        Partition result = new Partition();
+
+        this.jdbcTemplate.query(SELECT_PARTITION, rs -> {
+            LoanPeriod period = new LoanPeriod(rs.getLong("id"), rs.getLong("game_id"), rs.getLong("client_id"), rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate());
+            accumulate(period, 1, result.months, result.clients);
+            result.loans++;
+        }, partitions, partition, partitions, partition);
+
+        return result;
+    }
+
+    private void replace(Map<Cell, long[]> months, Map<ClientCell, Long> clients) {
+
+        this.jdbcTemplate.update("DELETE FROM loan_utilization_client");
+        this.jdbcTemplate.update("DELETE FROM loan_utilization");
+
+        this.jdbcTemplate.batchUpdate("INSERT INTO loan_utilization(game_id, month_start, loaned_days, loan_count, distinct_clients) VALUES (?, ?, ?, ?, ?)",
+                months.entrySet().stream().map(e -> new Object[] { e.getKey().gameId, Date.valueOf(e.getKey().month), e.getValue()[0], e.getValue()[1], e.getValue()[2] }).toList());
+        this.jdbcTemplate.batchUpdate("INSERT INTO loan_utilization_client(game_id, month_start, client_id, loans) VALUES (?, ?, ?, ?)",
+                clients.entrySet().stream().map(e -> new Object[] { e.getKey().gameId, Date.valueOf(e.getKey().month), e.getKey().clientId, e.getValue() }).toList());
+    }
+
+    private static void accumulate(LoanPeriod period, int sign, Map<Cell, long[]> months, Map<ClientCell, Long> clients) {
+
+        if (period == null) {
+            return;
+        }
+
+        YearMonth month = YearMonth.from(period.getStartDate());
+        YearMonth last = YearMonth.from(period.getEndDate());
+
+        while (!month.isAfter(last)) {
+            LocalDate first = month.atDay(1);
+            LocalDate from = period.getStartDate().isAfter(first) ? period.getStartDate() : first;
+            LocalDate to = period.getEndDate().isBefore(month.atEndOfMonth()) ? period.getEndDate() : month.atEndOfMonth();
+
+            long[] values = months.computeIfAbsent(new Cell(period.getGameId(), first), k -> new long[3]);
+            values[0] += sign * (to.toEpochDay() - from.toEpochDay() + 1);
+            values[1] += sign;
+
+            clients.merge(new ClientCell(period.getGameId(), first, period.getClientId()), (long) sign, Long::sum);
+
+            month = month.plusMonths(1);
+        }
+    }
+
+    private record Cell(long gameId, LocalDate month) {
+    }
+
+    private record ClientCell(long gameId, LocalDate month, long clientId) {
+    }
+
+    private static final class Partition {
+
+        private final Map<Cell, long[]> months = new HashMap<>();
+
+        private final Map<ClientCell, Long> clients = new HashMap<>();
+
+        private long loans;
+    }
+}
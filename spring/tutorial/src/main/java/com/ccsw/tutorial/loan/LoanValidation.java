@@ -0,0 +1,114 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Préstamo en validación. Los periodos guardados que se solapan con él por juego
+ * o por cliente se cargan una sola vez, con una única consulta, la primera vez que
+ * un validador los necesita. Los validadores solo consultan los índices en memoria
+ * si {@link #usesIndexes()} lo permite.
+ *
+ * Quien valida muchos préstamos a la vez, como la importación masiva, puede pasar
+ * directamente los intervalos ocupados del juego y del cliente, incluidos los
+ * préstamos aún no guardados del propio lote.
+ *
+ * @author ccsw
+ *
+ */
+public class LoanValidation {
+
+    private final LoanPeriod candidate;
+
+    private final Function<LoanPeriod, List<LoanPeriod>> loader;
+
+    private final boolean indexes;
+
+    private List<LoanPeriod> overlapping;
+
+    private LoanIntervalSet gameLoans;
+
+    private LoanIntervalSet clientLoans;
+
+    public LoanValidation(LoanPeriod candidate, Function<LoanPeriod, List<LoanPeriod>> loader) {
+
+        this(candidate, loader, true);
+    }
+
+    public LoanValidation(LoanPeriod candidate, Function<LoanPeriod, List<LoanPeriod>> loader, boolean indexes) {
+
+        this.candidate = candidate;
+        this.loader = loader;
+        this.indexes = indexes;
+    }
+
+    public LoanValidation(LoanPeriod candidate, LoanIntervalSet gameLoans, LoanIntervalSet clientLoans) {
+
+        this(candidate, null, false);
+        this.gameLoans = gameLoans;
+        this.clientLoans = clientLoans;
+    }
+
+    /**
+     * @return préstamo a validar, con la PK nula si es un alta
+     */
+    public LoanPeriod getCandidate() {
+        return this.candidate;
+    }
+
+    /**
+     * @return true si los índices en memoria, una vez construidos, reflejan todos los
+     * préstamos guardados; false si deben usarse {@link #gameLoans()} y
+     * {@link #clientLoans()}
+     */
+    public boolean usesIndexes() {
+        return this.indexes;
+    }
+
+    /**
+     * @return préstamos guardados del mismo juego o del mismo cliente que se solapan
+     * con el candidato, sin incluir el propio préstamo
+     */
+    public List<LoanPeriod> overlapping() {
+
+        if (this.overlapping == null) {
+            this.overlapping = this.loader.apply(this.candidate);
+        }
+
+        return this.overlapping;
+    }
+
+    /**
+     * @return intervalos ocupados del juego del candidato, al menos los que se solapan con él
+     */
+    public LoanIntervalSet gameLoans() {
+
+        if (this.gameLoans == null) {
+            this.gameLoans = intervalsOf(overlapping().stream().filter(e -> e.getGameId().equals(this.candidate.getGameId())).toList());
+        }
+
+        return this.gameLoans;
+    }
+
+    /**
+     * @return intervalos ocupados del cliente del candidato, al menos los que se solapan con él
+     */
+    public LoanIntervalSet clientLoans() {
+
+        if (this.clientLoans == null) {
+            this.clientLoans = intervalsOf(overlapping().stream().filter(e -> e.getClientId().equals(this.candidate.getClientId())).toList());
+        }
+
+        return this.clientLoans;
+    }
+
+    private static LoanIntervalSet intervalsOf(List<LoanPeriod> periods) {
+
+        LoanIntervalSet intervals = new LoanIntervalSet();
+        periods.forEach(e -> intervals.put(e.getId(), e.getStartDate().toEpochDay(), e.getEndDate().toEpochDay()));
+
+        return intervals;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecuta los {@link LoanValidator} registrados de menor a mayor coste, deteniéndose
+ * en el primero que rechaza el préstamo, y acumula por validador ejecuciones,
+ * rechazos y tiempo.
+ *
+ * Las reglas que solo miran la petición se ejecutan antes de tomar los bloqueos de
+ * reserva y las que dependen de los préstamos guardados después. Si estas últimas
+ * necesitan la BBDD, los préstamos solapados por juego y por cliente se leen juntos
+ * con {@link #OVERLAPPING}. Con bloqueos de reserva en BBDD siempre la necesitan:
+ * los índices de esta instancia no ven lo que guardan las demás.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class LoanValidationChain {
+
+    // Cada rama usa su índice compuesto (ix_loan_game_dates / ix_loan_client_dates)
+    static final String OVERLAPPING = "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE game_id = ? AND start_date <= ? AND end_date >= ? AND id <> ? " + "UNION ALL "
+            + "SELECT id, game_id, client_id, start_date, end_date FROM loan WHERE client_id = ? AND start_date <= ? AND end_date >= ? AND id <> ?";
+
+    private final List<Entry> entries;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    LoanBookingLocks bookingLocks;
+
+    public LoanValidationChain(List<LoanValidator> validators) {
+
+        this.entries = validators.stream().sorted(Comparator.comparingInt(LoanValidator::getCost)).map(Entry::new).toList();
+    }
+
+    /**
+     * Ejecuta las reglas que solo dependen de los datos de la petición
+     *
+     * @param candidate préstamo a validar
+     * @throws Exception con el motivo del primer rechazo
+     */
+    public void validateRequest(LoanPeriod candidate) throws Exception {
+
+        run(new LoanValidation(candidate, this::findOverlapping), false);
+    }
+
+    /**
+     * Ejecuta las reglas que dependen de los préstamos guardados. Debe llamarse con
+     * los bloqueos de reserva del juego y el cliente tomados.
+     *
+     * @param candidate préstamo a validar
+     * @throws Exception con el motivo del primer rechazo
+     */
+    public void validateStoredLoans(LoanPeriod candidate) throws Exception {
+
+        run(new LoanValidation(candidate, this::findOverlapping, !this.bookingLocks.isDatabaseLocks()), true);
+    }
+
+    /**
+     * Ejecuta las reglas que dependen de los préstamos guardados contra los intervalos
+     * indicados en lugar de los índices o la BBDD, por ejemplo los de un lote que aún
+     * no se ha guardado
+     *
+     * @param candidate préstamo a validar
+     * @param gameLoans intervalos ocupados del juego del candidato
+     * @param clientLoans intervalos ocupados del cliente del candidato
+     * @throws Exception con el motivo del primer rechazo
+     */
+    public void validateStoredLoans(LoanPeriod candidate, LoanIntervalSet gameLoans, LoanIntervalSet clientLoans) throws Exception {
+
+        run(new LoanValidation(candidate, gameLoans, clientLoans), true);
+    }
+
+    /**
+     * Como {@link #validateStoredLoans(LoanPeriod, LoanIntervalSet, LoanIntervalSet)},
+     * pero sin detenerse en el primer rechazo, para saber todas las reglas que incumple
+     *
+     * @param candidate préstamo a validar
+     * @param gameLoans intervalos ocupados del juego del candidato
+     * @param clientLoans intervalos ocupados del cliente del candidato
+     * @return motivo de cada rechazo por tipo de validador, en orden de ejecución; vacío si el préstamo es válido
+     */
+    public Map<Class<? extends LoanValidator>, String> findStoredLoanRejections(LoanPeriod candidate, LoanIntervalSet gameLoans, LoanIntervalSet clientLoans) {
+
+        LoanValidation validation = new LoanValidation(candidate, gameLoans, clientLoans);
+        Map<Class<? extends LoanValidator>, String> rejections = new LinkedHashMap<>();
+
+        for (Entry entry : this.entries) {
+            if (entry.validator.dependsOnStoredLoans()) {
+                try {
+                    entry.validate(validation);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    rejections.put(entry.validator.getClass(), e.getMessage());
+                }
+            }
+        }
+
+        return rejections;
+    }
+
+    /**
+     * Métricas acumuladas desde el arranque, en orden de ejecución
+     *
+     * @return {@link List} de {@link LoanValidatorStats}
+     */
+    public List<LoanValidatorStats> stats() {
+
+        return this.entries.stream().map(Entry::stats).toList();
+    }
+
+    private void run(LoanValidation validation, boolean storedLoans) throws Exception {
+
+        for (Entry entry : this.entries) {
+            if (entry.validator.dependsOnStoredLoans() == storedLoans) {
+                entry.validate(validation);
+            }
+        }
+    }
+
+    private List<LoanPeriod> findOverlapping(LoanPeriod candidate) {
+
+        Date start = Date.valueOf(candidate.getStartDate());
+        Date end = Date.valueOf(candidate.getEndDate());
+        // Las PK empiezan en 1, un alta no excluye ningún préstamo
+        long exclude = candidate.getId() != null ? candidate.getId() : 0L;
+
+        return this.jdbcTemplate.query(OVERLAPPING,
+                (rs, i) -> new LoanPeriod(rs.getLong("id"), rs.getLong("game_id"), rs.getLong("client_id"), rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate()),
+                candidate.getGameId(), end, start, exclude, candidate.getClientId(), end, start, exclude);
+    }
+
+    private static final class Entry {
+
+        private final LoanValidator validator;
+
+        private final LongAdder invocations = new LongAdder();
+
+        private final LongAdder rejections = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Entry(LoanValidator validator) {
+
+            this.validator = validator;
+        }
+
+        private void validate(LoanValidation validation) throws Exception {
+
+            long start = System.nanoTime();
+            try {
+                this.validator.validate(validation);
+            } catch (Exception e) {
+                this.rejections.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                this.invocations.increment();
+                this.nanos.add(elapsed);
+                this.maxNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+
+        private LoanValidatorStats stats() {
+
+            LoanValidatorStats stats = new LoanValidatorStats();
+            stats.setName(this.validator.getName());
+            stats.setCost(this.validator.getCost());
+            stats.setInvocations(this.invocations.sum());
+            stats.setRejections(this.rejections.sum());
+            stats.setTotalMicros(TimeUnit.NANOSECONDS.toMicros(this.nanos.sum()));
+            stats.setMaxMicros(TimeUnit.NANOSECONDS.toMicros(this.maxNanos.get()));
+
+            return stats;
+        }
+    }
+}
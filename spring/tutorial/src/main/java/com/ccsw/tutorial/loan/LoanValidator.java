@@ -0,0 +1,51 @@
+package com.ccsw.tutorial.loan;
+
+/**
+ * Regla de validación de un préstamo antes de guardarlo. Los validadores se
+ * registran como beans y {@link LoanValidationChain} los ejecuta de menor a mayor
+ * coste, deteniéndose en el primero que rechaza el préstamo.
+ *
+ * @author ccsw
+ *
+ */
+public interface LoanValidator {
+
+    /**
+     * Coste de las reglas que solo miran los datos de la petición
+     */
+    int COST_REQUEST = 0;
+
+    /**
+     * Coste de las reglas que consultan los índices en memoria o, mientras se
+     * construyen, la BBDD
+     */
+    int COST_STORED_LOANS = 100;
+
+    /**
+     * @return nombre con el que se publican las métricas del validador
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * @return coste relativo, los validadores más baratos se ejecutan antes
+     */
+    int getCost();
+
+    /**
+     * @return true si la regla depende de los préstamos guardados y debe ejecutarse
+     * con los bloqueos de reserva tomados
+     */
+    default boolean dependsOnStoredLoans() {
+        return getCost() >= COST_STORED_LOANS;
+    }
+
+    /**
+     * Valida el préstamo
+     *
+     * @param validation préstamo a validar
+     * @throws Exception con el motivo si el préstamo no es válido
+     */
+    void validate(LoanValidation validation) throws Exception;
+}
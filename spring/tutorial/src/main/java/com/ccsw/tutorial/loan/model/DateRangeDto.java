@@ -0,0 +1,54 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+
+/**
+ * Rango de días consecutivos, ambos extremos incluidos
+ *
+ * @author ccsw
+ *
+ */
+public class DateRangeDto {
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    public DateRangeDto() {
+
+    }
+
+    public DateRangeDto(LocalDate startDate, LocalDate endDate) {
+
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * @return startDate
+     */
+    public LocalDate getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @param startDate new value of {@link #getStartDate}.
+     */
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * @return endDate
+     */
+    public LocalDate getEndDate() {
+        return this.endDate;
+    }
+
+    /**
+     * @param endDate new value of {@link #getEndDate}.
+     */
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Días libres y ocupados de un juego dentro de un rango de fechas
+ *
+ * @author ccsw
+ *
+ */
+public class GameAvailabilityDto {
+
+    private Long gameId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private List<DateRangeDto> busy;
+
+    private List<DateRangeDto> free;
+
+    private DateRangeDto nextFree;
+
+    /**
+     * @return gameId
+     */
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @param gameId new value of {@link #getGameId}.
+     */
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return from
+     */
+    public LocalDate getFrom() {
+        return this.from;
+    }
+
+    /**
+     * @param from new value of {@link #getFrom}.
+     */
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    /**
+     * @return to
+     */
+    public LocalDate getTo() {
+        return this.to;
+    }
+
+    /**
+     * @param to new value of {@link #getTo}.
+     */
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    /**
+     * @return busy rangos de días con el juego prestado
+     */
+    public List<DateRangeDto> getBusy() {
+        return this.busy;
+    }
+
+    /**
+     * @param busy new value of {@link #getBusy}.
+     */
+    public void setBusy(List<DateRangeDto> busy) {
+        this.busy = busy;
+    }
+
+    /**
+     * @return free rangos de días con el juego disponible
+     */
+    public List<DateRangeDto> getFree() {
+        return this.free;
+    }
+
+    /**
+     * @param free new value of {@link #getFree}.
+     */
+    public void setFree(List<DateRangeDto> free) {
+        this.free = free;
+    }
+
+    /**
+     * @return nextFree primer rango libre del periodo, nulo si no hay ninguno
+     */
+    public DateRangeDto getNextFree() {
+        return this.nextFree;
+    }
+
+    /**
+     * @param nextFree new value of {@link #getNextFree}.
+     */
+    public void setNextFree(DateRangeDto nextFree) {
+        this.nextFree = nextFree;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Uso de un juego en un mes
+ *
+ * @author ccsw
+ *
+ */
+public class GameUtilizationDto {
+
+    private Long gameId;
+
+    private String month;
+
+    private long loanedDays;
+
+    private long loanCount;
+
+    private long distinctClients;
+
+    private double occupancy;
+
+    /**
+     * @return gameId
+     */
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @param gameId new value of {@link #getGameId}.
+     */
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return month mes en formato yyyy-MM
+     */
+    public String getMonth() {
+        return this.month;
+    }
+
+    /**
+     * @param month new value of {@link #getMonth}.
+     */
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    /**
+     * @return loanedDays días del mes con el juego prestado
+     */
+    public long getLoanedDays() {
+        return this.loanedDays;
+    }
+
+    /**
+     * @param loanedDays new value of {@link #getLoanedDays}.
+     */
+    public void setLoanedDays(long loanedDays) {
+        this.loanedDays = loanedDays;
+    }
+
+    /**
+     * @return loanCount préstamos con algún día en el mes
+     */
+    public long getLoanCount() {
+        return this.loanCount;
+    }
+
+    /**
+     * @param loanCount new value of {@link #getLoanCount}.
+     */
+    public void setLoanCount(long loanCount) {
+        this.loanCount = loanCount;
+    }
+
+    /**
+     * @return distinctClients clientes distintos con el juego prestado en el mes
+     */
+    public long getDistinctClients() {
+        return this.distinctClients;
+    }
+
+    /**
+     * @param distinctClients new value of {@link #getDistinctClients}.
+     */
+    public void setDistinctClients(long distinctClients) {
+        this.distinctClients = distinctClients;
+    }
+
+    /**
+     * @return occupancy fracción de días del mes con el juego prestado
+     */
+    public double getOccupancy() {
+        return this.occupancy;
+    }
+
+    /**
+     * @param occupancy new value of {@link #getOccupancy}.
+     */
+    public void setOccupancy(double occupancy) {
+        this.occupancy = occupancy;
+    }
+}
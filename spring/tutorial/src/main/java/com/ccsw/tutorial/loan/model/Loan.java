@@ -33,6 +33,9 @@ public class Loan {
     @Column(name = "end_date", nullable = false)
     private LocalDate endDate;
 
+    @Column(name = "overdue", nullable = false)
+    private boolean overdue;
+
     /**
      * @return id
      */
@@ -102,4 +105,18 @@ public class Loan {
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
     }
+
+    /**
+     * @return overdue true si el proceso de préstamos vencidos lo ha marcado
+     */
+    public boolean isOverdue() {
+        return this.overdue;
+    }
+
+    /**
+     * @param overdue new value of {@link #isOverdue}.
+     */
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
 }
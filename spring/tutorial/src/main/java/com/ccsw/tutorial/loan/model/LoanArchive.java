@@ -0,0 +1,142 @@
+package com.ccsw.tutorial.loan.model;
+
+import com.ccsw.tutorial.client.model.Client;
+import com.ccsw.tutorial.game.model.Game;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Préstamo cerrado que {@link com.ccsw.tutorial.loan.LoanArchiver} ha movido fuera de
+ * la tabla loan. Conserva el id original y no se modifica.
+ *
+ * @author ccsw
+ *
+ */
+@Entity
+@Table(name = "loan_archive")
+public class LoanArchive {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "game_id", nullable = false)
+    private Game game;
+
+    @ManyToOne
+    @JoinColumn(name = "client_id", nullable = false)
+    private Client client;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "overdue", nullable = false)
+    private boolean overdue;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * @return id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * @param id new value of {@link #getId}.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return game
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * @param game new value of {@link #getGame}.
+     */
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * @return client
+     */
+    public Client getClient() {
+        return this.client;
+    }
+
+    /**
+     * @param client new value of {@link #getClient}.
+     */
+    public void setClient(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * @return startDate
+     */
+    public LocalDate getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @param startDate new value of {@link #getStartDate}.
+     */
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * @return endDate
+     */
+    public LocalDate getEndDate() {
+        return this.endDate;
+    }
+
+    /**
+     * @param endDate new value of {@link #getEndDate}.
+     */
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * @return overdue true si el proceso de préstamos vencidos lo ha marcado
+     */
+    public boolean isOverdue() {
+        return this.overdue;
+    }
+
+    /**
+     * @param overdue new value of {@link #isOverdue}.
+     */
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+
+    /**
+     * @return archivedAt fecha en la que se movió al archivo
+     */
+    public LocalDateTime getArchivedAt() {
+        return this.archivedAt;
+    }
+
+    /**
+     * @param archivedAt new value of {@link #getArchivedAt}.
+     */
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
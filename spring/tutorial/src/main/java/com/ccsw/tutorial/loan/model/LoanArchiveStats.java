@@ -0,0 +1,237 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Métricas del proceso que archiva los préstamos cerrados
+ *
+ * @author ccsw
+ *
+ */
+public class LoanArchiveStats {
+
+    private boolean enabled;
+
+    private int horizonDays;
+
+    private int chunkSize;
+
+    private long runs;
+
+    private long failures;
+
+    private long archived;
+
+    private LocalDate archivedUntil;
+
+    private LocalDateTime lastRunAt;
+
+    private LocalDate lastRunBefore;
+
+    private long lastRunMillis;
+
+    private long lastRunChunks;
+
+    private long lastRunArchived;
+
+    private long hotLoans;
+
+    private long archivedLoans;
+
+    /**
+     * @return enabled true si el proceso programado está activo
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @param enabled new value of {@link #isEnabled}.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return horizonDays días desde la fecha de fin a partir de los cuales se archiva un préstamo
+     */
+    public int getHorizonDays() {
+        return this.horizonDays;
+    }
+
+    /**
+     * @param horizonDays new value of {@link #getHorizonDays}.
+     */
+    public void setHorizonDays(int horizonDays) {
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * @return chunkSize préstamos movidos por transacción
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * @param chunkSize new value of {@link #getChunkSize}.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return runs ejecuciones completadas
+     */
+    public long getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * @param runs new value of {@link #getRuns}.
+     */
+    public void setRuns(long runs) {
+        this.runs = runs;
+    }
+
+    /**
+     * @return failures ejecuciones fallidas
+     */
+    public long getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @param failures new value of {@link #getFailures}.
+     */
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * @return archived préstamos archivados desde el arranque
+     */
+    public long getArchived() {
+        return this.archived;
+    }
+
+    /**
+     * @param archived new value of {@link #getArchived}.
+     */
+    public void setArchived(long archived) {
+        this.archived = archived;
+    }
+
+    /**
+     * @return archivedUntil mayor fecha de fin archivada; las búsquedas por fechas posteriores solo leen la tabla loan
+     */
+    public LocalDate getArchivedUntil() {
+        return this.archivedUntil;
+    }
+
+    /**
+     * @param archivedUntil new value of {@link #getArchivedUntil}.
+     */
+    public void setArchivedUntil(LocalDate archivedUntil) {
+        this.archivedUntil = archivedUntil;
+    }
+
+    /**
+     * @return lastRunAt inicio de la última ejecución
+     */
+    public LocalDateTime getLastRunAt() {
+        return this.lastRunAt;
+    }
+
+    /**
+     * @param lastRunAt new value of {@link #getLastRunAt}.
+     */
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    /**
+     * @return lastRunBefore fecha de corte de la última ejecución
+     */
+    public LocalDate getLastRunBefore() {
+        return this.lastRunBefore;
+    }
+
+    /**
+     * @param lastRunBefore new value of {@link #getLastRunBefore}.
+     */
+    public void setLastRunBefore(LocalDate lastRunBefore) {
+        this.lastRunBefore = lastRunBefore;
+    }
+
+    /**
+     * @return lastRunMillis duración de la última ejecución
+     */
+    public long getLastRunMillis() {
+        return this.lastRunMillis;
+    }
+
+    /**
+     * @param lastRunMillis new value of {@link #getLastRunMillis}.
+     */
+    public void setLastRunMillis(long lastRunMillis) {
+        this.lastRunMillis = lastRunMillis;
+    }
+
+    /**
+     * @return lastRunChunks bloques de la última ejecución
+     */
+    public long getLastRunChunks() {
+        return this.lastRunChunks;
+    }
+
+    /**
+     * @param lastRunChunks new value of {@link #getLastRunChunks}.
+     */
+    public void setLastRunChunks(long lastRunChunks) {
+        this.lastRunChunks = lastRunChunks;
+    }
+
+    /**
+     * @return lastRunArchived préstamos archivados en la última ejecución
+     */
+    public long getLastRunArchived() {
+        return this.lastRunArchived;
+    }
+
+    /**
+     * @param lastRunArchived new value of {@link #getLastRunArchived}.
+     */
+    public void setLastRunArchived(long lastRunArchived) {
+        this.lastRunArchived = lastRunArchived;
+    }
+
+    /**
+     * @return hotLoans préstamos en la tabla loan
+     */
+    public long getHotLoans() {
+        return this.hotLoans;
+    }
+
+    /**
+     * @param hotLoans new value of {@link #getHotLoans}.
+     */
+    public void setHotLoans(long hotLoans) {
+        this.hotLoans = hotLoans;
+    }
+
+    /**
+     * @return archivedLoans préstamos en la tabla loan_archive
+     */
+    public long getArchivedLoans() {
+        return this.archivedLoans;
+    }
+
+    /**
+     * @param archivedLoans new value of {@link #getArchivedLoans}.
+     */
+    public void setArchivedLoans(long archivedLoans) {
+        this.archivedLoans = archivedLoans;
+    }
+}
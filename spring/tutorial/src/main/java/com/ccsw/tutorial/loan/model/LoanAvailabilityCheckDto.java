@@ -0,0 +1,89 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+
+/**
+ * Préstamo que se quiere comprobar antes de reservarlo, como una línea de la cesta
+ * del quiosco
+ *
+ * @author ccsw
+ *
+ */
+public class LoanAvailabilityCheckDto {
+
+    private Long gameId;
+
+    private Long clientId;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    public LoanAvailabilityCheckDto() {
+
+    }
+
+    public LoanAvailabilityCheckDto(Long gameId, Long clientId, LocalDate startDate, LocalDate endDate) {
+
+        this.gameId = gameId;
+        this.clientId = clientId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * @return gameId
+     */
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @param gameId new value of {@link #getGameId}.
+     */
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return clientId PK del cliente, nulo para comprobar solo el juego
+     */
+    public Long getClientId() {
+        return this.clientId;
+    }
+
+    /**
+     * @param clientId new value of {@link #getClientId}.
+     */
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * @return startDate
+     */
+    public LocalDate getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @param startDate new value of {@link #getStartDate}.
+     */
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * @return endDate
+     */
+    public LocalDate getEndDate() {
+        return this.endDate;
+    }
+
+    /**
+     * @param endDate new value of {@link #getEndDate}.
+     */
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.util.List;
+
+/**
+ * Resultado de comprobar una línea de la cesta
+ *
+ * @author ccsw
+ *
+ */
+public class LoanAvailabilityVerdictDto {
+
+    private int row;
+
+    private boolean gameAvailable;
+
+    private boolean clientAvailable;
+
+    private String error;
+
+    private List<Integer> conflictingRows;
+
+    public LoanAvailabilityVerdictDto() {
+
+    }
+
+    public LoanAvailabilityVerdictDto(int row, boolean gameAvailable, boolean clientAvailable, String error, List<Integer> conflictingRows) {
+
+        this.row = row;
+        this.gameAvailable = gameAvailable;
+        this.clientAvailable = clientAvailable;
+        this.error = error;
+        this.conflictingRows = conflictingRows;
+    }
+
+    /**
+     * @return row posición de la línea en la cesta (empezando en 0)
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * @param row new value of {@link #getRow}.
+     */
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    /**
+     * @return gameAvailable true si el juego está libre esos días, contando el resto de la cesta
+     */
+    public boolean isGameAvailable() {
+        return this.gameAvailable;
+    }
+
+    /**
+     * @param gameAvailable new value of {@link #isGameAvailable}.
+     */
+    public void setGameAvailable(boolean gameAvailable) {
+        this.gameAvailable = gameAvailable;
+    }
+
+    /**
+     * @return clientAvailable true si el cliente no supera 2 juegos al día, contando el resto de la cesta; true si no se indica cliente
+     */
+    public boolean isClientAvailable() {
+        return this.clientAvailable;
+    }
+
+    /**
+     * @param clientAvailable new value of {@link #isClientAvailable}.
+     */
+    public void setClientAvailable(boolean clientAvailable) {
+        this.clientAvailable = clientAvailable;
+    }
+
+    /**
+     * @return error primer motivo por el que no se podría reservar, nulo si se puede
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * @param error new value of {@link #getError}.
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return conflictingRows otras líneas de la cesta con las que choca
+     */
+    public List<Integer> getConflictingRows() {
+        return this.conflictingRows;
+    }
+
+    /**
+     * @param conflictingRows new value of {@link #getConflictingRows}.
+     */
+    public void setConflictingRows(List<Integer> conflictingRows) {
+        this.conflictingRows = conflictingRows;
+    }
+
+    /**
+     * @return true si la línea se podría reservar tal cual
+     */
+    public boolean isAvailable() {
+        return this.error == null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Resultado de importar una fila de una carga masiva de préstamos
+ *
+ * @author ccsw
+ *
+ */
+public class LoanBulkResultDto {
+
+    private int row;
+
+    private Long id;
+
+    private String error;
+
+    public LoanBulkResultDto() {
+
+    }
+
+    public LoanBulkResultDto(int row, Long id, String error) {
+
+        this.row = row;
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * @return row posición de la fila en la carga (empezando en 0)
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * @param row new value of {@link #getRow}.
+     */
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    /**
+     * @return id PK del préstamo creado, nulo si se ha rechazado
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * @param id new value of {@link #getId}.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return error motivo del rechazo, nulo si se ha aceptado
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * @param error new value of {@link #getError}.
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return true si la fila se ha guardado
+     */
+    public boolean isAccepted() {
+        return this.error == null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Evento publicado al crear, modificar o borrar un {@link Loan}. El estado
+ * anterior es nulo en las altas y el actual es nulo en los borrados. Al archivar un
+ * préstamo se publica como un borrado marcado con {@link #isArchived()}: sale de la
+ * tabla loan pero sigue existiendo en loan_archive.
+ *
+ * @author ccsw
+ *
+ */
+public class LoanChangeEvent {
+
+    private final LoanPeriod previous;
+
+    private final LoanPeriod current;
+
+    private final boolean archived;
+
+    public LoanChangeEvent(LoanPeriod previous, LoanPeriod current) {
+
+        this(previous, current, false);
+    }
+
+    private LoanChangeEvent(LoanPeriod previous, LoanPeriod current, boolean archived) {
+
+        this.previous = previous;
+        this.current = current;
+        this.archived = archived;
+    }
+
+    /**
+     * @param period préstamo movido a loan_archive
+     * @return evento de archivado del préstamo
+     */
+    public static LoanChangeEvent archived(LoanPeriod period) {
+
+        return new LoanChangeEvent(period, null, true);
+    }
+
+    /**
+     * @return previous
+     */
+    public LoanPeriod getPrevious() {
+        return this.previous;
+    }
+
+    /**
+     * @return current
+     */
+    public LoanPeriod getCurrent() {
+        return this.current;
+    }
+
+    /**
+     * @return archived true si el préstamo se ha movido a loan_archive en lugar de borrarse
+     */
+    public boolean isArchived() {
+        return this.archived;
+    }
+}
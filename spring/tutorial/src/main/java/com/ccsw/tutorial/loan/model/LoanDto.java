@@ -21,6 +21,8 @@ public class LoanDto {
 
     private LocalDate endDate;
 
+    private boolean overdue;
+
     /**
      * @return id
      */
@@ -90,5 +92,18 @@ public class LoanDto {
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
     }
-}
 
+    /**
+     * @return overdue true si el préstamo ha vencido sin devolverse
+     */
+    public boolean isOverdue() {
+        return this.overdue;
+    }
+
+    /**
+     * @param overdue new value of {@link #isOverdue}.
+     */
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Reserva temporal de un juego para un cliente mientras confirma el préstamo
+ *
+ * @author ccsw
+ *
+ */
+public class LoanHoldDto {
+
+    private Long id;
+
+    private Long gameId;
+
+    private Long clientId;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private Integer ttlSeconds;
+
+    private LocalDateTime expiresAt;
+
+    /**
+     * @return id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * @param id new value of {@link #getId}.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return gameId
+     */
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @param gameId new value of {@link #getGameId}.
+     */
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return clientId
+     */
+    public Long getClientId() {
+        return this.clientId;
+    }
+
+    /**
+     * @param clientId new value of {@link #getClientId}.
+     */
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * @return startDate
+     */
+    public LocalDate getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @param startDate new value of {@link #getStartDate}.
+     */
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * @return endDate
+     */
+    public LocalDate getEndDate() {
+        return this.endDate;
+    }
+
+    /**
+     * @param endDate new value of {@link #getEndDate}.
+     */
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * @return ttlSeconds duración pedida en segundos, nula para la configurada por defecto
+     */
+    public Integer getTtlSeconds() {
+        return this.ttlSeconds;
+    }
+
+    /**
+     * @param ttlSeconds new value of {@link #getTtlSeconds}.
+     */
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * @return expiresAt momento en que caduca si no se usa
+     */
+    public LocalDateTime getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    /**
+     * @param expiresAt new value of {@link #getExpiresAt}.
+     */
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Métricas de las reservas temporales de juegos
+ *
+ * @author ccsw
+ *
+ */
+public class LoanHoldStats {
+
+    private long active;
+
+    private long created;
+
+    private long consumed;
+
+    private long released;
+
+    private long expired;
+
+    private long tickMillis;
+
+    private int wheelSlots;
+
+    /**
+     * @return active reservas vigentes
+     */
+    public long getActive() {
+        return this.active;
+    }
+
+    /**
+     * @param active new value of {@link #getActive}.
+     */
+    public void setActive(long active) {
+        this.active = active;
+    }
+
+    /**
+     * @return created reservas creadas desde el arranque
+     */
+    public long getCreated() {
+        return this.created;
+    }
+
+    /**
+     * @param created new value of {@link #getCreated}.
+     */
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    /**
+     * @return consumed reservas convertidas en préstamo
+     */
+    public long getConsumed() {
+        return this.consumed;
+    }
+
+    /**
+     * @param consumed new value of {@link #getConsumed}.
+     */
+    public void setConsumed(long consumed) {
+        this.consumed = consumed;
+    }
+
+    /**
+     * @return released reservas soltadas por el cliente
+     */
+    public long getReleased() {
+        return this.released;
+    }
+
+    /**
+     * @param released new value of {@link #getReleased}.
+     */
+    public void setReleased(long released) {
+        this.released = released;
+    }
+
+    /**
+     * @return expired reservas caducadas sin usar
+     */
+    public long getExpired() {
+        return this.expired;
+    }
+
+    /**
+     * @param expired new value of {@link #getExpired}.
+     */
+    public void setExpired(long expired) {
+        this.expired = expired;
+    }
+
+    /**
+     * @return tickMillis duración de cada tick de la rueda de caducidad
+     */
+    public long getTickMillis() {
+        return this.tickMillis;
+    }
+
+    /**
+     * @param tickMillis new value of {@link #getTickMillis}.
+     */
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * @return wheelSlots huecos de la rueda de caducidad
+     */
+    public int getWheelSlots() {
+        return this.wheelSlots;
+    }
+
+    /**
+     * @param wheelSlots new value of {@link #getWheelSlots}.
+     */
+    public void setWheelSlots(int wheelSlots) {
+        this.wheelSlots = wheelSlots;
+    }
+}
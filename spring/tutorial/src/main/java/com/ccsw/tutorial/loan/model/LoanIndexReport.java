@@ -0,0 +1,81 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Resultado de comparar un índice en memoria de préstamos con la tabla loan
+ *
+ * @author ccsw
+ *
+ */
+public class LoanIndexReport {
+
+    private long persisted;
+
+    private long indexed;
+
+    private long missing;
+
+    private long stale;
+
+    /**
+     * @return persisted
+     */
+    public long getPersisted() {
+        return this.persisted;
+    }
+
+    /**
+     * @param persisted new value of {@link #getPersisted}.
+     */
+    public void setPersisted(long persisted) {
+        this.persisted = persisted;
+    }
+
+    /**
+     * @return indexed
+     */
+    public long getIndexed() {
+        return this.indexed;
+    }
+
+    /**
+     * @param indexed new value of {@link #getIndexed}.
+     */
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    /**
+     * @return missing préstamos en BBDD que no están en el índice
+     */
+    public long getMissing() {
+        return this.missing;
+    }
+
+    /**
+     * @param missing new value of {@link #getMissing}.
+     */
+    public void setMissing(long missing) {
+        this.missing = missing;
+    }
+
+    /**
+     * @return stale préstamos del índice que no existen en BBDD o tienen datos distintos
+     */
+    public long getStale() {
+        return this.stale;
+    }
+
+    /**
+     * @param stale new value of {@link #getStale}.
+     */
+    public void setStale(long stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * @return true si el índice coincide con la BBDD
+     */
+    public boolean isConsistent() {
+        return this.missing == 0 && this.stale == 0 && this.persisted == this.indexed;
+    }
+}
@@ -0,0 +1,348 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métricas del diario de préstamos y de la última recuperación al arrancar
+ *
+ * @author ccsw
+ *
+ */
+public class LoanJournalStats {
+
+    private boolean enabled;
+
+    private String directory;
+
+    private int segmentBytes;
+
+    private boolean sync;
+
+    private boolean failed;
+
+    private long lastSeq;
+
+    private long segments;
+
+    private long journalBytes;
+
+    private long appended;
+
+    private long failures;
+
+    private long snapshots;
+
+    private long lastSnapshotSeq;
+
+    private LocalDateTime lastSnapshotAt;
+
+    private long lastSnapshotMillis;
+
+    private long lastSnapshotLoans;
+
+    private String recoverySource;
+
+    private String recoveryReason;
+
+    private long recoveredLoans;
+
+    private long replayedRecords;
+
+    private long recoveryMillis;
+
+    private boolean tornTail;
+
+    /**
+     * @return enabled true si el diario está activado
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @param enabled new value of {@link #isEnabled}.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return directory directorio de los segmentos y snapshots
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * @param directory new value of {@link #getDirectory}.
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return segmentBytes tamaño de cada segmento
+     */
+    public int getSegmentBytes() {
+        return this.segmentBytes;
+    }
+
+    /**
+     * @param segmentBytes new value of {@link #getSegmentBytes}.
+     */
+    public void setSegmentBytes(int segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * @return sync true si cada registro se fuerza a disco
+     */
+    public boolean isSync() {
+        return this.sync;
+    }
+
+    /**
+     * @param sync new value of {@link #isSync}.
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * @return failed true si una escritura ha fallado y el diario está detenido hasta el próximo snapshot
+     */
+    public boolean isFailed() {
+        return this.failed;
+    }
+
+    /**
+     * @param failed new value of {@link #isFailed}.
+     */
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * @return lastSeq secuencia del último registro escrito
+     */
+    public long getLastSeq() {
+        return this.lastSeq;
+    }
+
+    /**
+     * @param lastSeq new value of {@link #getLastSeq}.
+     */
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    /**
+     * @return segments segmentos en disco
+     */
+    public long getSegments() {
+        return this.segments;
+    }
+
+    /**
+     * @param segments new value of {@link #getSegments}.
+     */
+    public void setSegments(long segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * @return journalBytes bytes ocupados por los segmentos y snapshots
+     */
+    public long getJournalBytes() {
+        return this.journalBytes;
+    }
+
+    /**
+     * @param journalBytes new value of {@link #getJournalBytes}.
+     */
+    public void setJournalBytes(long journalBytes) {
+        this.journalBytes = journalBytes;
+    }
+
+    /**
+     * @return appended registros escritos desde el arranque
+     */
+    public long getAppended() {
+        return this.appended;
+    }
+
+    /**
+     * @param appended new value of {@link #getAppended}.
+     */
+    public void setAppended(long appended) {
+        this.appended = appended;
+    }
+
+    /**
+     * @return failures escrituras y snapshots fallidos desde el arranque
+     */
+    public long getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @param failures new value of {@link #getFailures}.
+     */
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * @return snapshots snapshots generados desde el arranque
+     */
+    public long getSnapshots() {
+        return this.snapshots;
+    }
+
+    /**
+     * @param snapshots new value of {@link #getSnapshots}.
+     */
+    public void setSnapshots(long snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @return lastSnapshotSeq secuencia incluida en el último snapshot
+     */
+    public long getLastSnapshotSeq() {
+        return this.lastSnapshotSeq;
+    }
+
+    /**
+     * @param lastSnapshotSeq new value of {@link #getLastSnapshotSeq}.
+     */
+    public void setLastSnapshotSeq(long lastSnapshotSeq) {
+        this.lastSnapshotSeq = lastSnapshotSeq;
+    }
+
+    /**
+     * @return lastSnapshotAt fecha del último snapshot
+     */
+    public LocalDateTime getLastSnapshotAt() {
+        return this.lastSnapshotAt;
+    }
+
+    /**
+     * @param lastSnapshotAt new value of {@link #getLastSnapshotAt}.
+     */
+    public void setLastSnapshotAt(LocalDateTime lastSnapshotAt) {
+        this.lastSnapshotAt = lastSnapshotAt;
+    }
+
+    /**
+     * @return lastSnapshotMillis duración del último snapshot
+     */
+    public long getLastSnapshotMillis() {
+        return this.lastSnapshotMillis;
+    }
+
+    /**
+     * @param lastSnapshotMillis new value of {@link #getLastSnapshotMillis}.
+     */
+    public void setLastSnapshotMillis(long lastSnapshotMillis) {
+        this.lastSnapshotMillis = lastSnapshotMillis;
+    }
+
+    /**
+     * @return lastSnapshotLoans préstamos del último snapshot
+     */
+    public long getLastSnapshotLoans() {
+        return this.lastSnapshotLoans;
+    }
+
+    /**
+     * @param lastSnapshotLoans new value of {@link #getLastSnapshotLoans}.
+     */
+    public void setLastSnapshotLoans(long lastSnapshotLoans) {
+        this.lastSnapshotLoans = lastSnapshotLoans;
+    }
+
+    /**
+     * @return recoverySource origen del estado al arrancar: journal o database
+     */
+    public String getRecoverySource() {
+        return this.recoverySource;
+    }
+
+    /**
+     * @param recoverySource new value of {@link #getRecoverySource}.
+     */
+    public void setRecoverySource(String recoverySource) {
+        this.recoverySource = recoverySource;
+    }
+
+    /**
+     * @return recoveryReason motivo por el que se recargó la tabla loan, nulo si se recuperó del diario
+     */
+    public String getRecoveryReason() {
+        return this.recoveryReason;
+    }
+
+    /**
+     * @param recoveryReason new value of {@link #getRecoveryReason}.
+     */
+    public void setRecoveryReason(String recoveryReason) {
+        this.recoveryReason = recoveryReason;
+    }
+
+    /**
+     * @return recoveredLoans préstamos recuperados al arrancar
+     */
+    public long getRecoveredLoans() {
+        return this.recoveredLoans;
+    }
+
+    /**
+     * @param recoveredLoans new value of {@link #getRecoveredLoans}.
+     */
+    public void setRecoveredLoans(long recoveredLoans) {
+        this.recoveredLoans = recoveredLoans;
+    }
+
+    /**
+     * @return replayedRecords registros reproducidos tras el snapshot al arrancar
+     */
+    public long getReplayedRecords() {
+        return this.replayedRecords;
+    }
+
+    /**
+     * @param replayedRecords new value of {@link #getReplayedRecords}.
+     */
+    public void setReplayedRecords(long replayedRecords) {
+        this.replayedRecords = replayedRecords;
+    }
+
+    /**
+     * @return recoveryMillis duración de la recuperación al arrancar
+     */
+    public long getRecoveryMillis() {
+        return this.recoveryMillis;
+    }
+
+    /**
+     * @param recoveryMillis new value of {@link #getRecoveryMillis}.
+     */
+    public void setRecoveryMillis(long recoveryMillis) {
+        this.recoveryMillis = recoveryMillis;
+    }
+
+    /**
+     * @return tornTail true si algún segmento terminaba en un registro interrumpido
+     */
+    public boolean isTornTail() {
+        return this.tornTail;
+    }
+
+    /**
+     * @param tornTail new value of {@link #isTornTail}.
+     */
+    public void setTornTail(boolean tornTail) {
+        this.tornTail = tornTail;
+    }
+}
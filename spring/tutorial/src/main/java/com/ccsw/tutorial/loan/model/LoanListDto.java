@@ -0,0 +1,28 @@
+package com.ccsw.tutorial.loan.model;
+
+import com.ccsw.tutorial.game.model.GameListDto;
+
+import java.time.LocalDate;
+
+/**
+ * Fila del listado de préstamos construida directamente por la consulta, sin cargar
+ * la entidad {@link Loan} ni mapearla. Se serializa igual que {@link LoanDto},
+ * incluida la marca de vencido.
+ *
+ * @author ccsw
+ *
+ */
+public record LoanListDto(Long id, GameListDto game, Client client, LocalDate startDate, LocalDate endDate, boolean overdue) {
+
+    /**
+     * Constructor plano usado por la proyección de la consulta
+     */
+    public LoanListDto(Long id, Long gameId, String gameTitle, String gameAge, Long categoryId, String categoryName, Long authorId, String authorName, String authorNationality, Long clientId, String clientName, LocalDate startDate,
+            LocalDate endDate, boolean overdue) {
+
+        this(id, new GameListDto(gameId, gameTitle, gameAge, categoryId, categoryName, authorId, authorName, authorNationality), new Client(clientId, clientName), startDate, endDate, overdue);
+    }
+
+    public record Client(Long id, String name) {
+    }
+}
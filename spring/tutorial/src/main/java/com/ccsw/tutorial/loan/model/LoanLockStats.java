@@ -0,0 +1,122 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Métricas de contención de los bloqueos de reserva de préstamos
+ *
+ * @author ccsw
+ *
+ */
+public class LoanLockStats {
+
+    private int stripes;
+
+    private boolean databaseLocks;
+
+    private long acquisitions;
+
+    private long contended;
+
+    private long timeouts;
+
+    private long waitMillis;
+
+    private long maxWaitMillis;
+
+    /**
+     * @return stripes número de bloqueos entre los que se reparten juegos y clientes
+     */
+    public int getStripes() {
+        return this.stripes;
+    }
+
+    /**
+     * @param stripes new value of {@link #getStripes}.
+     */
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * @return databaseLocks true si además se bloquean las filas de juego y cliente en BBDD
+     */
+    public boolean isDatabaseLocks() {
+        return this.databaseLocks;
+    }
+
+    /**
+     * @param databaseLocks new value of {@link #isDatabaseLocks}.
+     */
+    public void setDatabaseLocks(boolean databaseLocks) {
+        this.databaseLocks = databaseLocks;
+    }
+
+    /**
+     * @return acquisitions reservas concedidas
+     */
+    public long getAcquisitions() {
+        return this.acquisitions;
+    }
+
+    /**
+     * @param acquisitions new value of {@link #getAcquisitions}.
+     */
+    public void setAcquisitions(long acquisitions) {
+        this.acquisitions = acquisitions;
+    }
+
+    /**
+     * @return contended reservas que tuvieron que esperar a otra escritura
+     */
+    public long getContended() {
+        return this.contended;
+    }
+
+    /**
+     * @param contended new value of {@link #getContended}.
+     */
+    public void setContended(long contended) {
+        this.contended = contended;
+    }
+
+    /**
+     * @return timeouts reservas rechazadas por superar el tiempo de espera
+     */
+    public long getTimeouts() {
+        return this.timeouts;
+    }
+
+    /**
+     * @param timeouts new value of {@link #getTimeouts}.
+     */
+    public void setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @return waitMillis tiempo total de espera
+     */
+    public long getWaitMillis() {
+        return this.waitMillis;
+    }
+
+    /**
+     * @param waitMillis new value of {@link #getWaitMillis}.
+     */
+    public void setWaitMillis(long waitMillis) {
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * @return maxWaitMillis mayor espera registrada
+     */
+    public long getMaxWaitMillis() {
+        return this.maxWaitMillis;
+    }
+
+    /**
+     * @param maxWaitMillis new value of {@link #getMaxWaitMillis}.
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+}
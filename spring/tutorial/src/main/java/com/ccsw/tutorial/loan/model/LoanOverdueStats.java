@@ -0,0 +1,236 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métricas del proceso que marca los préstamos vencidos
+ *
+ * @author ccsw
+ *
+ */
+public class LoanOverdueStats {
+
+    private boolean enabled;
+
+    private int chunkSize;
+
+    private int poolSize;
+
+    private long runs;
+
+    private long failures;
+
+    private long chunks;
+
+    private long flagged;
+
+    private LocalDateTime lastRunAt;
+
+    private long lastRunMillis;
+
+    private long lastRunChunks;
+
+    private long lastRunFlagged;
+
+    private double lastRunRowsPerSecond;
+
+    private long pending;
+
+    private long lagDays;
+
+    /**
+     * @return enabled true si el proceso programado está activo
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @param enabled new value of {@link #isEnabled}.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return chunkSize préstamos marcados por transacción
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * @param chunkSize new value of {@link #getChunkSize}.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return poolSize conexiones del pool propio del proceso
+     */
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    /**
+     * @param poolSize new value of {@link #getPoolSize}.
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @return runs ejecuciones completadas
+     */
+    public long getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * @param runs new value of {@link #getRuns}.
+     */
+    public void setRuns(long runs) {
+        this.runs = runs;
+    }
+
+    /**
+     * @return failures ejecuciones interrumpidas por un error
+     */
+    public long getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @param failures new value of {@link #getFailures}.
+     */
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * @return chunks bloques procesados desde el arranque
+     */
+    public long getChunks() {
+        return this.chunks;
+    }
+
+    /**
+     * @param chunks new value of {@link #getChunks}.
+     */
+    public void setChunks(long chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * @return flagged préstamos marcados como vencidos desde el arranque
+     */
+    public long getFlagged() {
+        return this.flagged;
+    }
+
+    /**
+     * @param flagged new value of {@link #getFlagged}.
+     */
+    public void setFlagged(long flagged) {
+        this.flagged = flagged;
+    }
+
+    /**
+     * @return lastRunAt inicio de la última ejecución
+     */
+    public LocalDateTime getLastRunAt() {
+        return this.lastRunAt;
+    }
+
+    /**
+     * @param lastRunAt new value of {@link #getLastRunAt}.
+     */
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    /**
+     * @return lastRunMillis duración de la última ejecución
+     */
+    public long getLastRunMillis() {
+        return this.lastRunMillis;
+    }
+
+    /**
+     * @param lastRunMillis new value of {@link #getLastRunMillis}.
+     */
+    public void setLastRunMillis(long lastRunMillis) {
+        this.lastRunMillis = lastRunMillis;
+    }
+
+    /**
+     * @return lastRunChunks bloques de la última ejecución
+     */
+    public long getLastRunChunks() {
+        return this.lastRunChunks;
+    }
+
+    /**
+     * @param lastRunChunks new value of {@link #getLastRunChunks}.
+     */
+    public void setLastRunChunks(long lastRunChunks) {
+        this.lastRunChunks = lastRunChunks;
+    }
+
+    /**
+     * @return lastRunFlagged préstamos marcados en la última ejecución
+     */
+    public long getLastRunFlagged() {
+        return this.lastRunFlagged;
+    }
+
+    /**
+     * @param lastRunFlagged new value of {@link #getLastRunFlagged}.
+     */
+    public void setLastRunFlagged(long lastRunFlagged) {
+        this.lastRunFlagged = lastRunFlagged;
+    }
+
+    /**
+     * @return lastRunRowsPerSecond préstamos marcados por segundo en la última ejecución
+     */
+    public double getLastRunRowsPerSecond() {
+        return this.lastRunRowsPerSecond;
+    }
+
+    /**
+     * @param lastRunRowsPerSecond new value of {@link #getLastRunRowsPerSecond}.
+     */
+    public void setLastRunRowsPerSecond(double lastRunRowsPerSecond) {
+        this.lastRunRowsPerSecond = lastRunRowsPerSecond;
+    }
+
+    /**
+     * @return pending préstamos vencidos que quedaron sin marcar al terminar la última ejecución
+     */
+    public long getPending() {
+        return this.pending;
+    }
+
+    /**
+     * @param pending new value of {@link #getPending}.
+     */
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * @return lagDays días desde la fecha de fin del vencido más antiguo sin marcar, 0 si no queda ninguno
+     */
+    public long getLagDays() {
+        return this.lagDays;
+    }
+
+    /**
+     * @param lagDays new value of {@link #getLagDays}.
+     */
+    public void setLagDays(long lagDays) {
+        this.lagDays = lagDays;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ccsw.tutorial.loan.model;
+
+import java.time.LocalDate;
+
+/**
+ * Vista ligera de un {@link Loan} con los identificadores y el rango de fechas,
+ * sin cargar las entidades relacionadas
+ *
+ * @author ccsw
+ *
+ */
+public class LoanPeriod {
+
+    private final Long id;
+
+    private final Long gameId;
+
+    private final Long clientId;
+
+    private final LocalDate startDate;
+
+    private final LocalDate endDate;
+
+    public LoanPeriod(Long id, Long gameId, Long clientId, LocalDate startDate, LocalDate endDate) {
+
+        this.id = id;
+        this.gameId = gameId;
+        this.clientId = clientId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Crea un {@link LoanPeriod} a partir de una entidad {@link Loan}
+     *
+     * @param loan entidad
+     * @return {@link LoanPeriod}
+     */
+    public static LoanPeriod of(Loan loan) {
+
+        return new LoanPeriod(loan.getId(), loan.getGame().getId(), loan.getClient().getId(), loan.getStartDate(), loan.getEndDate());
+    }
+
+    /**
+     * @return id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * @return gameId
+     */
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    /**
+     * @return clientId
+     */
+    public Long getClientId() {
+        return this.clientId;
+    }
+
+    /**
+     * @return startDate
+     */
+    public LocalDate getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @return endDate
+     */
+    public LocalDate getEndDate() {
+        return this.endDate;
+    }
+
+    /**
+     * Compara dos periodos por todos sus campos
+     *
+     * @param other periodo a comparar
+     * @return true si representan el mismo préstamo con las mismas fechas
+     */
+    public boolean sameAs(LoanPeriod other) {
+
+        return other != null && this.id.equals(other.id) && this.gameId.equals(other.gameId) && this.clientId.equals(other.clientId) && this.startDate.equals(other.startDate) && this.endDate.equals(other.endDate);
+    }
+}
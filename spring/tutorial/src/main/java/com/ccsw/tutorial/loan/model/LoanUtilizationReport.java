@@ -0,0 +1,98 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Resultado de recalcular los acumulados de uso de juegos desde la tabla loan y
+ * compararlos con los mantenidos incrementalmente
+ *
+ * @author ccsw
+ *
+ */
+public class LoanUtilizationReport {
+
+    private int partitions;
+
+    private long loans;
+
+    private long rows;
+
+    private long mismatches;
+
+    private boolean repaired;
+
+    /**
+     * @return partitions particiones recalculadas en paralelo
+     */
+    public int getPartitions() {
+        return this.partitions;
+    }
+
+    /**
+     * @param partitions new value of {@link #getPartitions}.
+     */
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * @return loans préstamos leídos
+     */
+    public long getLoans() {
+        return this.loans;
+    }
+
+    /**
+     * @param loans new value of {@link #getLoans}.
+     */
+    public void setLoans(long loans) {
+        this.loans = loans;
+    }
+
+    /**
+     * @return rows filas juego-mes recalculadas
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @param rows new value of {@link #getRows}.
+     */
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @return mismatches filas juego-mes que faltan, sobran o difieren
+     */
+    public long getMismatches() {
+        return this.mismatches;
+    }
+
+    /**
+     * @param mismatches new value of {@link #getMismatches}.
+     */
+    public void setMismatches(long mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    /**
+     * @return repaired true si se han sustituido los acumulados por los recalculados
+     */
+    public boolean isRepaired() {
+        return this.repaired;
+    }
+
+    /**
+     * @param repaired new value of {@link #isRepaired}.
+     */
+    public void setRepaired(boolean repaired) {
+        this.repaired = repaired;
+    }
+
+    /**
+     * @return true si los acumulados incrementales coinciden con el recálculo
+     */
+    public boolean isConsistent() {
+        return this.mismatches == 0;
+    }
+}
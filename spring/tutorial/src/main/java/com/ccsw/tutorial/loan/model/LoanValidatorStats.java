@@ -0,0 +1,106 @@
+package com.ccsw.tutorial.loan.model;
+
+/**
+ * Métricas de un validador de préstamos
+ *
+ * @author ccsw
+ *
+ */
+public class LoanValidatorStats {
+
+    private String name;
+
+    private int cost;
+
+    private long invocations;
+
+    private long rejections;
+
+    private long totalMicros;
+
+    private long maxMicros;
+
+    /**
+     * @return name nombre del validador
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @param name new value of {@link #getName}.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return cost coste relativo, determina el orden de ejecución
+     */
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * @param cost new value of {@link #getCost}.
+     */
+    public void setCost(int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * @return invocations veces que se ha ejecutado
+     */
+    public long getInvocations() {
+        return this.invocations;
+    }
+
+    /**
+     * @param invocations new value of {@link #getInvocations}.
+     */
+    public void setInvocations(long invocations) {
+        this.invocations = invocations;
+    }
+
+    /**
+     * @return rejections préstamos rechazados
+     */
+    public long getRejections() {
+        return this.rejections;
+    }
+
+    /**
+     * @param rejections new value of {@link #getRejections}.
+     */
+    public void setRejections(long rejections) {
+        this.rejections = rejections;
+    }
+
+    /**
+     * @return totalMicros tiempo total de ejecución
+     */
+    public long getTotalMicros() {
+        return this.totalMicros;
+    }
+
+    /**
+     * @param totalMicros new value of {@link #getTotalMicros}.
+     */
+    public void setTotalMicros(long totalMicros) {
+        this.totalMicros = totalMicros;
+    }
+
+    /**
+     * @return maxMicros mayor tiempo de una ejecución
+     */
+    public long getMaxMicros() {
+        return this.maxMicros;
+    }
+
+    /**
+     * @param maxMicros new value of {@link #getMaxMicros}.
+     */
+    public void setMaxMicros(long maxMicros) {
+        this.maxMicros = maxMicros;
+    }
+}
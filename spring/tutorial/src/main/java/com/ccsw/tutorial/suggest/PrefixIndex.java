@@ -0,0 +1,199 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.game.GameTitleIndex;
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de prefijos sobre los textos de un tipo de entidad, como un array ordenado
+ * de claves normalizadas con la PK de cada una. Cada texto aporta una clave por
+ * palabra, desde esa palabra hasta el final, de modo que "polo" sugiere "Los viajes
+ * de Marco Polo". Una consulta es una búsqueda binaria del prefijo y un recorrido de
+ * las claves que empiezan por él hasta completar el límite.
+ *
+ * Las lecturas no bloquean: trabajan sobre el array vigente, que cada escritura
+ * sustituye por una copia con el cambio aplicado. Las escrituras son pocas (altas y
+ * modificaciones del catálogo) y cuestan una copia del array.
+ *
+ * @author ccsw
+ *
+ */
+class PrefixIndex {
+
+    private final Map<Long, String> labels = new ConcurrentHashMap<>();
+
+    private volatile Keys keys = new Keys(new String[0], new long[0]);
+
+    /**
+     * Sustituye todo el contenido del índice
+     *
+     * @param all texto de cada PK
+     */
+    synchronized void rebuild(Map<Long, String> all) {
+
+        List<Key> entries = new ArrayList<>();
+        all.forEach((id, label) -> entries.addAll(keysOf(id, label)));
+        entries.sort(Key.ORDER);
+
+        this.labels.clear();
+        this.labels.putAll(all);
+        this.keys = Keys.of(entries);
+    }
+
+    /**
+     * Da de alta o modifica el texto de una PK
+     *
+     * @param id PK de la entidad
+     * @param label texto a mostrar
+     */
+    synchronized void put(Long id, String label) {
+
+        List<Key> added = keysOf(id, label);
+        added.sort(Key.ORDER);
+
+        Keys current = this.keys;
+        List<Key> merged = new ArrayList<>(current.ids.length + added.size());
+
+        // Mezcla de dos listas ordenadas, quitando las claves del texto anterior
+        int j = 0;
+        for (int i = 0; i < current.ids.length; i++) {
+            if (current.ids[i] == id) {
+                continue;
+            }
+            Key key = new Key(current.keys[i], current.ids[i]);
+            while (j < added.size() && Key.ORDER.compare(added.get(j), key) < 0) {
+                merged.add(added.get(j++));
+            }
+            merged.add(key);
+        }
+        merged.addAll(added.subList(j, added.size()));
+
+        this.labels.put(id, label);
+        this.keys = Keys.of(merged);
+    }
+
+    /**
+     * Da de baja una PK
+     *
+     * @param id PK de la entidad
+     */
+    synchronized void remove(Long id) {
+
+        if (this.labels.remove(id) == null) {
+            return;
+        }
+
+        Keys current = this.keys;
+        List<Key> kept = new ArrayList<>(current.ids.length);
+        for (int i = 0; i < current.ids.length; i++) {
+            if (current.ids[i] != id) {
+                kept.add(new Key(current.keys[i], current.ids[i]));
+            }
+        }
+
+        this.keys = Keys.of(kept);
+    }
+
+    /**
+     * Textos con alguna palabra que empieza por el prefijo indicado, sin distinguir
+     * mayúsculas ni acentos
+     *
+     * @param prefix texto escrito hasta el momento
+     * @param limit máximo de sugerencias
+     * @return {@link List} de {@link SuggestionDto} en el orden de las claves
+     */
+    List<SuggestionDto> find(String prefix, int limit) {
+
+        String normalized = GameTitleIndex.normalize(prefix);
+        Keys current = this.keys;
+
+        List<SuggestionDto> result = new ArrayList<>(limit);
+        long[] seen = new long[limit];
+        for (int i = current.lowerBound(normalized); i < current.ids.length && result.size() < limit && current.keys[i].startsWith(normalized); i++) {
+            long id = current.ids[i];
+            // El límite es pequeño: basta con recorrer las ya elegidas
+            if (Arrays.stream(seen, 0, result.size()).anyMatch(e -> e == id)) {
+                continue;
+            }
+            String label = this.labels.get(id);
+            if (label != null) {
+                seen[result.size()] = id;
+                result.add(new SuggestionDto(id, label));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return número de textos indexados
+     */
+    int size() {
+        return this.labels.size();
+    }
+
+    private static List<Key> keysOf(Long id, String label) {
+
+        String normalized = GameTitleIndex.normalize(label);
+        List<Key> keys = new ArrayList<>();
+
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+
+        keys.add(new Key(normalized, id));
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(new Key(normalized.substring(i + 1), id));
+        }
+
+        return keys;
+    }
+
+    private record Key(String key, long id) {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::key).thenComparingLong(Key::id);
+    }
+
+    /**
+     * Claves ordenadas y PK de cada una, en arrays paralelos
+     */
+    private record Keys(String[] keys, long[] ids) {
+
+        private static Keys of(List<Key> entries) {
+
+            String[] keys = new String[entries.size()];
+            long[] ids = new long[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entries.get(i).key();
+                ids[i] = entries.get(i).id();
+            }
+
+            return new Keys(keys, ids);
+        }
+
+        /**
+         * @return posición de la primera clave mayor o igual que el prefijo
+         */
+        private int lowerBound(String prefix) {
+
+            int low = 0;
+            int high = this.keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+@Tag(name = "Suggest", description = "API of typeahead suggestions")
+@RequestMapping(value = "/suggest")
+@RestController
+@CrossOrigin(origins = "*")
+public class SuggestController {
+
+    @Autowired
+    SuggestService suggestService;
+
+    /**
+     * Método para recuperar sugerencias de juegos, autores o clientes mientras se escribe
+     *
+     * @param type game, author o client
+     * @param prefix texto escrito hasta el momento
+     * @param limit máximo de sugerencias
+     * @return {@link List} de {@link SuggestionDto}
+     * @throws Exception si el tipo no existe
+     */
+    @Operation(summary = "Suggest", description = "Method that returns the Games, Authors or Clients with a word starting with the prefix")
+    @RequestMapping(path = "", method = RequestMethod.GET)
+    public List<SuggestionDto> suggest(@RequestParam(value = "type") String type, @RequestParam(value = "prefix", required = false) String prefix, @RequestParam(value = "limit", defaultValue = "10") int limit)
+            throws Exception {
+
+        return this.suggestService.suggest(type, prefix, limit);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.author.AuthorRepository;
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.client.ClientRepository;
+import com.ccsw.tutorial.client.model.Client;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.game.GameRepository;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameTitle;
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices de prefijos de títulos de juegos, nombres de autores y nombres de
+ * clientes para los cuadros de búsqueda. Se construyen al arrancar y se mantienen
+ * con los {@link CatalogChangeEvent} que publican las altas, modificaciones y bajas
+ * una vez confirmada la transacción. Los cambios aplicados mientras se leen los datos
+ * de una reconstrucción se repiten sobre los índices nuevos antes de publicarlos.
+ *
+ * @author ccsw
+ *
+ */
+@Component
+public class SuggestIndex {
+
+    private final Map<SuggestType, PrefixIndex> indexes = new EnumMap<>(SuggestType.class);
+
+    private volatile boolean ready;
+
+    private final Object rebuildLock = new Object();
+
+    // Textos leídos por los cambios aplicados desde que empezó la reconstrucción en
+    // curso, nulo si no hay ninguna; un texto nulo es una baja
+    private Map<SuggestType, Map<Long, String>> pending;
+
+    @Autowired
+    GameRepository gameRepository;
+
+    @Autowired
+    AuthorRepository authorRepository;
+
+    @Autowired
+    ClientRepository clientRepository;
+
+    public SuggestIndex() {
+
+        for (SuggestType type : SuggestType.values()) {
+            this.indexes.put(type, new PrefixIndex());
+        }
+    }
+
+    /**
+     * Construye los índices si aún no lo están. Solo la primera llamada lee la BBDD:
+     * las simultáneas esperan a que termine y las posteriores no hacen nada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+
+        if (!this.ready) {
+            synchronized (this.rebuildLock) {
+                if (!this.ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruye los índices con los datos de la BBDD
+     */
+    public void rebuild() {
+
+        synchronized (this.rebuildLock) {
+            synchronized (this) {
+                this.pending = new EnumMap<>(SuggestType.class);
+            }
+
+            rebuild(read());
+        }
+    }
+
+    private Map<SuggestType, Map<Long, String>> read() {
+
+        Map<Long, String> games = new HashMap<>();
+        for (GameTitle game : this.gameRepository.findAllTitles()) {
+            games.put(game.id(), game.title());
+        }
+
+        Map<Long, String> authors = new HashMap<>();
+        this.authorRepository.findAll().forEach(author -> authors.put(author.getId(), author.getName()));
+
+        Map<Long, String> clients = new HashMap<>();
+        this.clientRepository.findAll().forEach(client -> clients.put(client.getId(), client.getName()));
+
+        Map<SuggestType, Map<Long, String>> all = new EnumMap<>(SuggestType.class);
+        all.put(SuggestType.GAME, games);
+        all.put(SuggestType.AUTHOR, authors);
+        all.put(SuggestType.CLIENT, clients);
+
+        return all;
+    }
+
+    private synchronized void rebuild(Map<SuggestType, Map<Long, String>> all) {
+
+        all.forEach((type, labels) -> this.indexes.get(type).rebuild(labels));
+
+        // Repetir un cambio que ya estaba en la lectura deja el mismo índice
+        this.pending.forEach((type, labels) -> labels.forEach((id, label) -> apply(type, id, label)));
+        this.pending = null;
+
+        this.ready = true;
+    }
+
+    /**
+     * Aplica a su índice el alta, modificación o baja de un juego, autor o cliente
+     * una vez confirmada la transacción
+     *
+     * @param event cambio del catálogo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+
+        if (event.getId() == null) {
+            return;
+        }
+
+        String label;
+        SuggestType type;
+        if (event.getType() == Game.class) {
+            type = SuggestType.GAME;
+            GameTitle game = this.gameRepository.findTitle(event.getId());
+            label = game != null ? game.title() : null;
+        } else if (event.getType() == Author.class) {
+            type = SuggestType.AUTHOR;
+            label = this.authorRepository.findById(event.getId()).map(Author::getName).orElse(null);
+        } else if (event.getType() == Client.class) {
+            type = SuggestType.CLIENT;
+            label = this.clientRepository.findById(event.getId()).map(Client::getName).orElse(null);
+        } else {
+            return;
+        }
+
+        synchronized (this) {
+            apply(type, event.getId(), label);
+
+            if (this.pending != null) {
+                this.pending.computeIfAbsent(type, k -> new HashMap<>()).put(event.getId(), label);
+            }
+        }
+    }
+
+    private void apply(SuggestType type, Long id, String label) {
+
+        if (label != null) {
+            this.indexes.get(type).put(id, label);
+        } else {
+            this.indexes.get(type).remove(id);
+        }
+    }
+
+    /**
+     * @return true si los índices están construidos
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Sugerencias de un tipo cuyo texto tiene alguna palabra que empieza por el prefijo
+     *
+     * @param type tipo de entidad
+     * @param prefix texto escrito hasta el momento
+     * @param limit máximo de sugerencias
+     * @return {@link List} de {@link SuggestionDto}
+     */
+    public List<SuggestionDto> find(SuggestType type, String prefix, int limit) {
+
+        return this.indexes.get(type).find(prefix, limit);
+    }
+}
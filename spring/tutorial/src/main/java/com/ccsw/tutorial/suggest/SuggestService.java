@@ -0,0 +1,26 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+public interface SuggestService {
+
+    /**
+     * Sugiere juegos, autores o clientes mientras se escribe: los que tienen alguna
+     * palabra que empieza por el prefijo, sin distinguir mayúsculas ni acentos. No
+     * consulta la BBDD.
+     *
+     * @param type game, author o client
+     * @param prefix texto escrito hasta el momento
+     * @param limit máximo de sugerencias, se ajusta a suggest.max-limit
+     * @return {@link List} de {@link SuggestionDto}
+     * @throws Exception si el tipo no existe
+     */
+    List<SuggestionDto> suggest(String type, String prefix, int limit) throws Exception;
+
+}
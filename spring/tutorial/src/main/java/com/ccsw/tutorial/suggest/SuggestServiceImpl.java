@@ -0,0 +1,38 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * @author ccsw
+ *
+ */
+@Service
+public class SuggestServiceImpl implements SuggestService {
+
+    @Autowired
+    SuggestIndex suggestIndex;
+
+    @Value("${suggest.max-limit:50}")
+    int maxLimit;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SuggestionDto> suggest(String type, String prefix, int limit) throws Exception {
+
+        SuggestType suggestType = SuggestType.of(type);
+
+        // Una petición anterior al arranque completo construye los índices en el momento,
+        // una sola vez aunque lleguen varias a la vez
+        this.suggestIndex.initialize();
+
+        return this.suggestIndex.find(suggestType, prefix != null ? prefix : "", Math.max(1, Math.min(limit, this.maxLimit)));
+    }
+
+}
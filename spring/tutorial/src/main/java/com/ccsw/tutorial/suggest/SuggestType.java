@@ -0,0 +1,41 @@
+package com.ccsw.tutorial.suggest;
+
+/**
+ * Entidades para las que se sugieren resultados mientras se escribe
+ *
+ * @author ccsw
+ *
+ */
+public enum SuggestType {
+
+    /**
+     * Título de los juegos
+     */
+    GAME,
+
+    /**
+     * Nombre de los autores
+     */
+    AUTHOR,
+
+    /**
+     * Nombre de los clientes
+     */
+    CLIENT;
+
+    /**
+     * @param type nombre del tipo, sin distinguir mayúsculas
+     * @return {@link SuggestType}
+     * @throws Exception si el tipo no existe
+     */
+    public static SuggestType of(String type) throws Exception {
+
+        for (SuggestType value : values()) {
+            if (value.name().equalsIgnoreCase(type)) {
+                return value;
+            }
+        }
+
+        throw new Exception("No se pueden sugerir resultados de tipo " + type + ": debe ser game (juego), author (autor) o client (cliente)");
+    }
+}
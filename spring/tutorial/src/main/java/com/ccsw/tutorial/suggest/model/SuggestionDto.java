@@ -0,0 +1,10 @@
+package com.ccsw.tutorial.suggest.model;
+
+/**
+ * Sugerencia de un cuadro de búsqueda: solo la PK y el texto a mostrar
+ *
+ * @author ccsw
+ *
+ */
+public record SuggestionDto(Long id, String label) {
+}
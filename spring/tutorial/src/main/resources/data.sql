@@ -15,6 +15,8 @@ INSERT INTO game(title, age, category_id, author_id) VALUES ('1920: Wall Street'
 INSERT INTO game(title, age, category_id, author_id) VALUES ('Barrage', '14', 1, 3);
 INSERT INTO game(title, age, category_id, author_id) VALUES ('Los viajes de Marco Polo', '12', 1, 3);
 INSERT INTO game(title, age, category_id, author_id) VALUES ('Azul', '8', 3, 5);
+-- Migración de la edad en texto ("8", "10+") a min_age: los dígitos del principio, 0 si no hay
+UPDATE game SET min_age = COALESCE(CAST(NULLIF(REGEXP_REPLACE(age, '^\s*([0-9]*).*$', '$1'), '') AS INT), 0);
 
 INSERT INTO client(name) VALUES ('Juan Pérez');
 INSERT INTO client(name) VALUES ('María García');
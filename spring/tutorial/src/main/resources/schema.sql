@@ -0,0 +1,117 @@
+-- Como hacía Hibernate con create-drop, se parte siempre de una BBDD vacía
+DROP TABLE IF EXISTS loan_utilization_client CASCADE;
+DROP TABLE IF EXISTS loan_utilization CASCADE;
+DROP TABLE IF EXISTS loan_archive CASCADE;
+DROP TABLE IF EXISTS loan CASCADE;
+DROP TABLE IF EXISTS game CASCADE;
+DROP TABLE IF EXISTS client CASCADE;
+DROP TABLE IF EXISTS author CASCADE;
+DROP TABLE IF EXISTS category CASCADE;
+
+CREATE TABLE category (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE author (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    nationality VARCHAR(255)
+);
+
+CREATE TABLE game (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    age VARCHAR(255) NOT NULL,
+    -- Edad mínima de age como número, para filtrar y ordenar por rango
+    min_age INT DEFAULT 0 NOT NULL,
+    category_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL
+);
+
+CREATE TABLE client (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE loan (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    game_id BIGINT NOT NULL,
+    client_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    overdue BOOLEAN DEFAULT FALSE NOT NULL
+);
+
+-- Préstamos cerrados hace más de loan.archive.horizon-days, movidos por LoanArchiver; conservan su id
+CREATE TABLE loan_archive (
+    id BIGINT PRIMARY KEY,
+    game_id BIGINT NOT NULL,
+    client_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    overdue BOOLEAN NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+-- Acumulados por juego y mes (día 1 del mes), mantenidos incrementalmente con cada préstamo
+CREATE TABLE loan_utilization (
+    game_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    loaned_days BIGINT NOT NULL,
+    loan_count BIGINT NOT NULL,
+    distinct_clients BIGINT NOT NULL,
+    PRIMARY KEY (game_id, month_start)
+);
+
+-- Préstamos de cada cliente por juego y mes, para mantener distinct_clients al borrar
+CREATE TABLE loan_utilization_client (
+    game_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    client_id BIGINT NOT NULL,
+    loans BIGINT NOT NULL,
+    PRIMARY KEY (game_id, month_start, client_id)
+);
+
+-- Filtros de GameSpecification por categoría y autor
+CREATE INDEX ix_game_category ON game(category_id);
+CREATE INDEX ix_game_author ON game(author_id);
+
+-- Filtros minAge/maxAge de GameSpecification y ordenación por edad de la búsqueda paginada
+CREATE INDEX ix_game_min_age ON game(min_age);
+
+-- ClientRepository.findByName
+CREATE INDEX ix_client_name ON client(name);
+
+-- Paginación por clave de autores ordenados por nombre (nombre y PK de desempate)
+CREATE INDEX ix_author_name ON author(name, id);
+
+-- LoanValidationChain.OVERLAPPING (rama del juego) y filtro de juego de la búsqueda paginada
+CREATE INDEX ix_loan_game_dates ON loan(game_id, start_date, end_date);
+
+-- LoanValidationChain.OVERLAPPING (rama del cliente) y filtro de cliente de la búsqueda paginada
+CREATE INDEX ix_loan_client_dates ON loan(client_id, start_date, end_date);
+
+-- Paginación por clave de préstamos ordenados por fecha de inicio (fecha y PK de desempate)
+CREATE INDEX ix_loan_start_date ON loan(start_date, id);
+
+-- LoanOverdueScanner recorre por end_date solo los préstamos aún no marcados
+CREATE INDEX ix_loan_overdue_end_date ON loan(overdue, end_date);
+
+-- LoanArchiver recorre por end_date los préstamos que han superado el horizonte, y paginación por clave ordenada por fecha de fin
+CREATE INDEX ix_loan_end_date ON loan(end_date, id);
+
+-- Filtros de juego y cliente de la búsqueda paginada cuando la fecha llega al archivo
+CREATE INDEX ix_loan_archive_game_dates ON loan_archive(game_id, start_date, end_date);
+CREATE INDEX ix_loan_archive_client_dates ON loan_archive(client_id, start_date, end_date);
+
+-- Búsqueda por fecha en el archivo y LoanArchiver.ARCHIVED_UNTIL
+CREATE INDEX ix_loan_archive_end_date ON loan_archive(end_date);
+
+-- H2 añade un índice de una sola columna por cada clave ajena; las consultas por rango de fechas usan los compuestos
+ALTER TABLE game ADD CONSTRAINT fk_game_category FOREIGN KEY (category_id) REFERENCES category(id);
+ALTER TABLE game ADD CONSTRAINT fk_game_author FOREIGN KEY (author_id) REFERENCES author(id);
+ALTER TABLE loan ADD CONSTRAINT fk_loan_game FOREIGN KEY (game_id) REFERENCES game(id);
+ALTER TABLE loan ADD CONSTRAINT fk_loan_client FOREIGN KEY (client_id) REFERENCES client(id);
+ALTER TABLE loan_archive ADD CONSTRAINT fk_loan_archive_game FOREIGN KEY (game_id) REFERENCES game(id);
+ALTER TABLE loan_archive ADD CONSTRAINT fk_loan_archive_client FOREIGN KEY (client_id) REFERENCES client(id);
@@ -0,0 +1,170 @@
+package com.ccsw.tutorial;
+
+import com.ccsw.tutorial.author.AuthorService;
+import com.ccsw.tutorial.author.model.AuthorSearchDto;
+import com.ccsw.tutorial.client.ClientRepository;
+import com.ccsw.tutorial.common.criteria.SearchCriteria;
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.game.GameRepository;
+import com.ccsw.tutorial.game.GameSpecification;
+import com.ccsw.tutorial.loan.LoanRepository;
+import com.ccsw.tutorial.loan.LoanService;
+import com.ccsw.tutorial.loan.LoanSpecification;
+import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que las consultas que genera Hibernate para los repositorios
+ * usan los índices de schema.sql. Las sentencias se capturan con {@link SqlCapture}
+ * al llamar a los repositorios y servicios reales.
+ */
+@SpringBootTest
+public class SchemaIndexIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Test
+    public void findPeriodsByGameIdShouldSeekByGame() {
+
+        assertSeeksOn(plan(() -> this.loanRepository.findPeriodsByGameId(1L)), "GAME_ID");
+    }
+
+    @Test
+    public void findPeriodsByClientIdShouldSeekByClient() {
+
+        assertSeeksOn(plan(() -> this.loanRepository.findPeriodsByClientId(1L)), "CLIENT_ID");
+    }
+
+    @Test
+    public void findLoanPageFilteringByGameShouldSeekByGame() {
+
+        assertSeeksOn(plan(() -> this.loanRepository.count(new LoanSpecification<>(new SearchCriteria("game.id", ":", 1L)))), "GAME_ID");
+    }
+
+    @Test
+    public void findLoanPageFilteringByClientShouldSeekByClient() {
+
+        assertSeeksOn(plan(() -> this.loanRepository.count(new LoanSpecification<>(new SearchCriteria("client.id", ":", 1L)))), "CLIENT_ID");
+    }
+
+    @Test
+    public void findGamesFilteringByCategoryShouldUseCategoryIndex() {
+
+        assertUsesIndex(plan(() -> this.gameRepository.findList(new GameSpecification(new SearchCriteria("category.id", ":", 1L)), Sort.by("id"), 0, 10)), "IX_GAME_CATEGORY");
+    }
+
+    @Test
+    public void findGamesFilteringByAuthorShouldUseAuthorIndex() {
+
+        assertUsesIndex(plan(() -> this.gameRepository.findList(new GameSpecification(new SearchCriteria("author.id", ":", 1L)), Sort.by("id"), 0, 10)), "IX_GAME_AUTHOR");
+    }
+
+    @Test
+    public void findExistingGameIdsShouldUsePrimaryKey() {
+
+        assertUsesIndex(plan(() -> this.gameRepository.findExistingIds(List.of(1L, 2L, 3L))), "PRIMARY_KEY");
+    }
+
+    @Test
+    public void findClientByNameShouldUseNameIndex() {
+
+        assertUsesIndex(plan(() -> this.clientRepository.findByName("Juan Pérez")), "IX_CLIENT_NAME");
+    }
+
+    @Test
+    public void findExistingClientIdsShouldUsePrimaryKey() {
+
+        assertUsesIndex(plan(() -> this.clientRepository.findExistingIds(List.of(1L, 2L, 3L))), "PRIMARY_KEY");
+    }
+
+    @Test
+    public void loanKeysetPageByStartDateShouldUseStartDateIndex() throws Exception {
+
+        LoanSearchDto dto = new LoanSearchDto();
+        dto.setPageable(pageable("startDate", "DESC"));
+        dto.getPageable().setCursor(this.loanService.findKeysetPage(dto).getNextCursor());
+
+        assertUsesIndex(plan(() -> {
+            try {
+                this.loanService.findKeysetPage(dto);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }), "IX_LOAN_START_DATE");
+    }
+
+    @Test
+    public void authorKeysetPageByNameShouldUseNameIndex() throws Exception {
+
+        AuthorSearchDto dto = new AuthorSearchDto();
+        dto.setPageable(pageable("name", "ASC"));
+        dto.getPageable().setCursor(this.authorService.findKeysetPage(dto).getNextCursor());
+
+        assertUsesIndex(plan(() -> {
+            try {
+                this.authorService.findKeysetPage(dto);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }), "IX_AUTHOR_NAME");
+    }
+
+    private PageableRequest pageable(String property, String direction) throws Exception {
+
+        // Los SortRequest solo se rellenan al deserializar la petición
+        String json = "{\"pageNumber\": 0, \"pageSize\": 2, \"sort\": [{\"property\": \"" + property + "\", \"direction\": \"" + direction + "\"}]}";
+
+        return new ObjectMapper().readValue(json, PageableRequest.class);
+    }
+
+    private String plan(Runnable action) {
+
+        List<String> statements = SqlCapture.during(action);
+        assertFalse(statements.isEmpty(), "La llamada no ha ejecutado ninguna consulta");
+
+        // Sin parámetros: H2 explica el plan que usará para cualquier valor
+        StringBuilder plans = new StringBuilder();
+        for (String sql : statements) {
+            plans.append(this.jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class)).append('\n');
+        }
+
+        return plans.toString().toUpperCase();
+    }
+
+    private void assertUsesIndex(String plan, String index) {
+
+        assertTrue(plan.contains(index), "Se esperaba el índice " + index + " en el plan:\n" + plan);
+    }
+
+    private void assertSeeksOn(String plan, String column) {
+
+        // Basta cualquier índice que empiece por la columna: el compuesto o el que H2 crea para la clave ajena
+        assertTrue(plan.contains(": " + column + " =") && !plan.contains("TABLESCAN"), "Se esperaba una búsqueda por índice sobre " + column + " en el plan:\n" + plan);
+    }
+}
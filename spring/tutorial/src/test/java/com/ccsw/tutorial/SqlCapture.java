@@ -0,0 +1,43 @@
+package com.ccsw.tutorial;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda las sentencias que genera Hibernate en el hilo actual mientras se ejecuta
+ * una acción, para comprobar su plan sin copiarlas a mano
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * @param action llamada a los repositorios
+     * @return sentencias generadas durante la llamada, en orden
+     */
+    public static List<String> during(Runnable action) {
+
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+
+        return sql;
+    }
+}
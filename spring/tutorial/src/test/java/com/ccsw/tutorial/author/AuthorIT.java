@@ -2,6 +2,8 @@ package com.ccsw.tutorial.author;
 
 import com.ccsw.tutorial.author.model.AuthorDto;
 import com.ccsw.tutorial.author.model.AuthorSearchDto;
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.PageTotal;
 import com.ccsw.tutorial.common.pagination.PageableRequest;
 import com.ccsw.tutorial.config.ResponsePage;
 import org.junit.jupiter.api.Test;
@@ -19,7 +21,9 @@ import org.springframework.test.annotation.DirtiesContext;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -73,6 +77,50 @@ public class AuthorIT {
         assertEquals(elementsCount, response.getBody().getContent().size());
     }
 
+    @Test
+    public void findPageWithoutTotalShouldReportNextPageWithoutCounting() {
+
+        AuthorSearchDto searchDto = new AuthorSearchDto();
+        searchDto.setPageable(new PageableRequest(0, PAGE_SIZE));
+        searchDto.getPageable().setTotal(PageTotal.NONE);
+
+        ResponseEntity<ResponsePage<AuthorDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(PageTotal.NONE, response.getBody().getTotalType());
+        assertEquals(PAGE_SIZE, response.getBody().getContent().size());
+        assertFalse(response.getBody().isLast());
+
+        searchDto.getPageable().setPageNumber(1);
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(TOTAL_AUTHORS - PAGE_SIZE, response.getBody().getContent().size());
+        assertTrue(response.getBody().isLast());
+        assertEquals(TOTAL_AUTHORS, response.getBody().getTotalElements());
+    }
+
+    @Test
+    public void findKeysetPagesShouldWalkAllResultsWithoutRepeating() {
+
+        ParameterizedTypeReference<KeysetPage<AuthorDto>> responseTypeKeyset = new ParameterizedTypeReference<KeysetPage<AuthorDto>>() {
+        };
+
+        AuthorSearchDto searchDto = new AuthorSearchDto();
+        searchDto.setPageable(new PageableRequest(0, PAGE_SIZE));
+
+        ResponseEntity<KeysetPage<AuthorDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(searchDto), responseTypeKeyset);
+
+        assertEquals(PAGE_SIZE, response.getBody().getContent().size());
+        assertTrue(response.getBody().isHasNext());
+        assertEquals(1L, response.getBody().getContent().get(0).getId());
+
+        searchDto.getPageable().setCursor(response.getBody().getNextCursor());
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(searchDto), responseTypeKeyset);
+
+        assertEquals(TOTAL_AUTHORS - PAGE_SIZE, response.getBody().getContent().size());
+        assertFalse(response.getBody().isHasNext());
+        assertEquals(6L, response.getBody().getContent().get(0).getId());
+    }
+
     @Test
     public void saveWithoutIdShouldCreateNewAuthor() {
 
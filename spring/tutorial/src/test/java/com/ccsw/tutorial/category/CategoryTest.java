@@ -7,7 +7,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +24,12 @@ public class CategoryTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CategoryListVersion listVersion = new CategoryListVersion();
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -81,6 +89,7 @@ public class CategoryTest {
         categoryService.delete(EXISTS_CATEGORY_ID);
 
         verify(categoryRepository).deleteById(EXISTS_CATEGORY_ID);
+        verify(listVersion).bump();
     }
 
     public static final Long NOT_EXISTS_CATEGORY_ID = 0L;
@@ -0,0 +1,51 @@
+package com.ccsw.tutorial.common.pagination;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountCacheTest {
+
+    private long now;
+
+    private AtomicLong rows;
+
+    private CountCache cache;
+
+    @BeforeEach
+    public void setUp() {
+
+        cache = new CountCache(Duration.ofSeconds(30), 10);
+        now = 1_000_000;
+        cache.clock = () -> now;
+        rows = new AtomicLong(5);
+    }
+
+    @Test
+    public void estimateShouldKeepValueAfterWriteUntilTtl() {
+
+        assertEquals(5, cache.estimate("all", rows::get));
+
+        rows.set(8);
+        cache.invalidate();
+
+        assertEquals(5, cache.estimate("all", rows::get));
+        assertEquals(8, cache.get("all", rows::get));
+    }
+
+    @Test
+    public void estimateShouldRecountAfterTtlAndWrite() {
+
+        assertEquals(5, cache.estimate("all", rows::get));
+
+        rows.set(8);
+        cache.invalidate();
+        now += 30_000;
+
+        assertEquals(8, cache.estimate("all", rows::get));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.author.model.Author;
+import com.ccsw.tutorial.category.model.Category;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameListDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GameCatalogCacheTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    private GameCatalogCache cache;
+
+    private final List<Collection<Long>> readByIds = new ArrayList<>();
+
+    private int loads;
+
+    @BeforeEach
+    public void setUp() {
+
+        cache = new GameCatalogCache(10, 5);
+        cache.gameRepository = gameRepository;
+    }
+
+    @Test
+    public void repeatedFindShouldNotCallLoader() {
+
+        List<GameListDto> games = List.of(game(2L, "Aventureros al tren", 3L, 1L, "Alan R. Moon"));
+
+        assertEquals(games, find("Aventuréros", null, games));
+        assertEquals(games, find("AVENTUREROS", null, games));
+
+        ResultCacheStats stats = cache.stats();
+        assertEquals(1, loads);
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getWeight());
+    }
+
+    @Test
+    public void findOverMaxWeightShouldEvictLeastRecentlyUsed() {
+
+        find(null, 1L, List.of(game(1L, "On Mars", 1L, 2L, "Vital Lacerda"), game(3L, "1920: Wall Street", 1L, 4L, "Martin Wallace"), game(4L, "Barrage", 1L, 3L, "Simone Luciani")));
+        find(null, 3L, List.of(game(2L, "Aventureros al tren", 3L, 1L, "Alan R. Moon"), game(6L, "Azul", 3L, 5L, "Michael Kiesling")));
+        find("azul", null, List.of(game(6L, "Azul", 3L, 5L, "Michael Kiesling")));
+
+        ResultCacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(3, stats.getWeight());
+        assertEquals(1, stats.getEvictions());
+
+        find(null, 1L, List.of());
+        assertEquals(4, loads);
+    }
+
+    @Test
+    public void authorChangeShouldReadOnlyItsRowsAgain() {
+
+        List<GameListDto> games = List.of(game(2L, "Aventureros al tren", 3L, 1L, "Alan R. Moon"), game(6L, "Azul", 3L, 5L, "Michael Kiesling"));
+        find(null, 3L, games);
+
+        cache.onCatalogChange(new CatalogChangeEvent(Author.class, 1L));
+
+        List<GameListDto> found = find(null, 3L, games);
+
+        assertEquals(1, loads);
+        assertEquals(List.of(List.of(2L)), readByIds);
+        assertEquals("Alan R. Moon (renamed)", found.get(0).author().name());
+        assertEquals("Michael Kiesling", found.get(1).author().name());
+    }
+
+    @Test
+    public void gameChangeShouldInvalidateSearchesThatFindIt() {
+
+        Game game = new Game();
+        game.setId(7L);
+        game.setTitle("Azul: Pabellón de verano");
+        game.setCategory(new Category());
+        game.getCategory().setId(3L);
+        when(gameRepository.findById(7L)).thenReturn(Optional.of(game));
+
+        find("azul", null, List.of(game(6L, "Azul", 3L, 5L, "Michael Kiesling")));
+        find("mars", null, List.of(game(1L, "On Mars", 1L, 2L, "Vital Lacerda")));
+
+        cache.onCatalogChange(new CatalogChangeEvent(Game.class, 7L));
+
+        assertEquals(1, cache.stats().getSize());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    private List<GameListDto> find(String title, Long idCategory, List<GameListDto> games) {
+
+        return cache.find(GameCatalogCache.keyOf(title, idCategory, null, null, false), () -> {
+            loads++;
+            return new ArrayList<>(games);
+        }, ids -> {
+            readByIds.add(List.copyOf(ids));
+            return games.stream().filter(e -> ids.contains(e.id())).map(e -> e.author().id() == 1L ? game(e.id(), e.title(), e.category().id(), 1L, "Alan R. Moon (renamed)") : e).toList();
+        });
+    }
+
+    private static GameListDto game(Long id, String title, Long categoryId, Long authorId, String authorName) {
+
+        return new GameListDto(id, title, "8", categoryId, "Categoría " + categoryId, authorId, authorName, "ES");
+    }
+}
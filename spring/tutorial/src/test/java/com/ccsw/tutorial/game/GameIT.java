@@ -2,7 +2,11 @@ package com.ccsw.tutorial.game;
 
 import com.ccsw.tutorial.author.model.AuthorDto;
 import com.ccsw.tutorial.category.model.CategoryDto;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
+import com.ccsw.tutorial.config.ResponsePage;
 import com.ccsw.tutorial.game.model.GameDto;
+import com.ccsw.tutorial.game.model.GameFacetDto;
+import com.ccsw.tutorial.game.model.GameFacetsDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,8 +14,10 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -21,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -50,6 +57,9 @@ public class GameIT {
     ParameterizedTypeReference<List<GameDto>> responseType = new ParameterizedTypeReference<List<GameDto>>() {
     };
 
+    ParameterizedTypeReference<ResponsePage<GameDto>> responseTypePage = new ParameterizedTypeReference<ResponsePage<GameDto>>() {
+    };
+
     private String getUrlWithParams() {
         return UriComponentsBuilder.fromHttpUrl(LOCALHOST + port + SERVICE_PATH).queryParam(TITLE_PARAM, "{" + TITLE_PARAM + "}").queryParam(CATEGORY_ID_PARAM, "{" + CATEGORY_ID_PARAM + "}").encode().toUriString();
     }
@@ -172,6 +182,35 @@ public class GameIT {
         assertEquals(GAMES_WITH_FILTER, response.getBody().size());
     }
 
+    @Test
+    public void findTitleShouldIgnoreCaseAndAccents() {
+
+        Map<String, Object> params = new HashMap<>();
+        params.put(TITLE_PARAM, "AVENTURÉROS al");
+        params.put(CATEGORY_ID_PARAM, null);
+
+        ResponseEntity<List<GameDto>> response = restTemplate.exchange(getUrlWithParams(), HttpMethod.GET, null, responseType, params);
+
+        assertNotNull(response);
+        assertEquals(1, response.getBody().size());
+        assertEquals("Aventureros al tren", response.getBody().get(0).getTitle());
+    }
+
+    @Test
+    public void findFuzzyTitleShouldTolerateTypos() {
+
+        String url = UriComponentsBuilder.fromHttpUrl(LOCALHOST + port + SERVICE_PATH).queryParam(TITLE_PARAM, "{" + TITLE_PARAM + "}").queryParam("fuzzy", true).encode().toUriString();
+
+        Map<String, Object> params = new HashMap<>();
+        params.put(TITLE_PARAM, "viajes de marko polo");
+
+        ResponseEntity<List<GameDto>> response = restTemplate.exchange(url, HttpMethod.GET, null, responseType, params);
+
+        assertNotNull(response);
+        assertFalse(response.getBody().isEmpty());
+        assertEquals("Los viajes de Marco Polo", response.getBody().get(0).getTitle());
+    }
+
     @Test
     public void saveWithoutIdShouldCreateNewGame() {
 
@@ -237,6 +276,140 @@ public class GameIT {
         assertEquals(EXISTS_GAME_ID, response.getBody().get(0).getId());
     }
 
+    @Test
+    public void repeatedFindShouldBeServedFromCacheAndShowRenamedAuthor() {
+
+        Map<String, Object> params = new HashMap<>();
+        params.put(TITLE_PARAM, EXISTS_TITLE);
+        params.put(CATEGORY_ID_PARAM, null);
+
+        restTemplate.exchange(getUrlWithParams(), HttpMethod.GET, null, responseType, params);
+        ResponseEntity<List<GameDto>> response = restTemplate.exchange(getUrlWithParams(), HttpMethod.GET, null, responseType, params);
+
+        ResultCacheStats stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/cache", ResultCacheStats.class);
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getHits());
+
+        AuthorDto author = new AuthorDto();
+        author.setName("Alan Moon");
+        author.setNationality(response.getBody().get(0).getAuthor().getNationality());
+        restTemplate.exchange(LOCALHOST + port + "/author/" + response.getBody().get(0).getAuthor().getId(), HttpMethod.PUT, new HttpEntity<>(author), Void.class);
+
+        response = restTemplate.exchange(getUrlWithParams(), HttpMethod.GET, null, responseType, params);
+
+        assertEquals(1, response.getBody().size());
+        assertEquals("Alan Moon", response.getBody().get(0).getAuthor().getName());
+        stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/cache", ResultCacheStats.class);
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    public void findFacetsShouldCountGamesPerCategoryAndAuthor() {
+
+        String url = UriComponentsBuilder.fromHttpUrl(LOCALHOST + port + SERVICE_PATH + "/facets").queryParam(TITLE_PARAM, "a").queryParam(CATEGORY_ID_PARAM, EXISTS_CATEGORY).toUriString();
+
+        ResponseEntity<GameFacetsDto> response = restTemplate.getForEntity(url, GameFacetsDto.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().games().size());
+        assertEquals(List.of(4, 2), response.getBody().categories().stream().map(GameFacetDto::count).toList());
+        assertEquals(List.of(1L, 3L), response.getBody().categories().stream().map(GameFacetDto::id).toList());
+        assertEquals(List.of(1L, 5L), response.getBody().authors().stream().map(GameFacetDto::id).sorted().toList());
+        assertEquals(List.of(1, 1), response.getBody().authors().stream().map(GameFacetDto::count).toList());
+    }
+
+    @Test
+    public void findWithEtagShouldReturnNotModifiedUntilAuthorIsRenamed() {
+
+        ResponseEntity<List<GameDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.GET, null, responseType);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(response.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class).getStatusCode());
+
+        AuthorDto author = new AuthorDto();
+        author.setName("Alan Moon");
+        author.setNationality("US");
+        restTemplate.exchange(LOCALHOST + port + "/author/1", HttpMethod.PUT, new HttpEntity<>(author), Void.class);
+
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.GET, new HttpEntity<>(headers), responseType);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(6, response.getBody().size());
+    }
+
+    @Test
+    public void findAgeRangeShouldFilterByNumericMinAge() {
+
+        String url = UriComponentsBuilder.fromHttpUrl(LOCALHOST + port + SERVICE_PATH).queryParam("minAge", 10).queryParam("maxAge", 12).toUriString();
+
+        ResponseEntity<List<GameDto>> response = restTemplate.exchange(url, HttpMethod.GET, null, responseType);
+
+        assertEquals(List.of(3L, 5L), response.getBody().stream().map(GameDto::getId).sorted().toList());
+
+        GameDto dto = new GameDto();
+        AuthorDto authorDto = new AuthorDto();
+        authorDto.setId(1L);
+        CategoryDto categoryDto = new CategoryDto();
+        categoryDto.setId(1L);
+        dto.setTitle(NEW_TITLE);
+        dto.setAge("10+");
+        dto.setAuthor(authorDto);
+        dto.setCategory(categoryDto);
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.PUT, new HttpEntity<>(dto), Void.class);
+
+        response = restTemplate.exchange(url, HttpMethod.GET, null, responseType);
+
+        assertEquals(3, response.getBody().size());
+        assertEquals(0, restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "?minAge=15", HttpMethod.GET, null, responseType).getBody().size());
+    }
+
+    @Test
+    public void searchSortedByAgeShouldReturnPagesInNumericOrder() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"pageable\":{\"pageNumber\":0,\"pageSize\":4,\"sort\":[{\"property\":\"age\",\"direction\":\"DESC\"}]}}";
+        ResponseEntity<ResponsePage<GameDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/search", HttpMethod.POST, new HttpEntity<>(body, headers), responseTypePage);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(6, response.getBody().getTotalElements());
+        assertEquals(List.of(1L, 4L, 3L, 5L), response.getBody().getContent().stream().map(GameDto::getId).toList());
+        assertNotNull(response.getBody().getContent().get(0).getCategory().getName());
+
+        body = "{\"pageable\":{\"pageNumber\":1,\"pageSize\":4,\"sort\":[{\"property\":\"age\",\"direction\":\"DESC\"}]}}";
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/search", HttpMethod.POST, new HttpEntity<>(body, headers), responseTypePage);
+
+        assertEquals(List.of(2L, 6L), response.getBody().getContent().stream().map(GameDto::getId).toList());
+    }
+
+    @Test
+    public void searchWithFiltersShouldReturnMatchingGamesSortedByTitle() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"title\":\"A\",\"categoryId\":1,\"authorId\":3,\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":[{\"property\":\"title\",\"direction\":\"ASC\"}]}}";
+        ResponseEntity<ResponsePage<GameDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/search", HttpMethod.POST, new HttpEntity<>(body, headers), responseTypePage);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getTotalElements());
+        assertEquals(List.of("Barrage", "Los viajes de Marco Polo"), response.getBody().getContent().stream().map(GameDto::getTitle).toList());
+    }
+
+    @Test
+    public void searchSortedByNotAllowedPropertyShouldFail() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"pageable\":{\"pageNumber\":0,\"pageSize\":10,\"sort\":[{\"property\":\"author.name\",\"direction\":\"ASC\"}]}}";
+        ResponseEntity<String> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/search", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     public void modifyWithNotExistIdShouldThrowException() {
 
@@ -0,0 +1,111 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.game.model.GameTitle;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara el filtro por título con LIKE '%x%' en H2 frente al índice de trigramas
+ * más la lectura por PK de los juegos encontrados, con 100k y 1M de títulos. No se
+ * ejecuta con el resto de tests:
+ * mvn test -Dtest=GameTitleBenchmark [-Dgame.title.benchmark.sizes=100000,1000000]
+ */
+public class GameTitleBenchmark {
+
+    private static final String SIZES = System.getProperty("game.title.benchmark.sizes", "100000,1000000");
+
+    private static final String[] WORDS = { "aventureros", "tren", "wall", "street", "barrage", "viajes", "marco", "polo", "azul", "marte", "castillos", "dragones", "piratas", "imperio",
+            "granja", "reinos", "colonos", "catan", "galaxia", "islas", "bosque", "montaña", "ciudad", "puerto", "mercaderes", "leyendas", "torre", "desierto", "río", "vikingos" };
+
+    private static final String[] QUERIES = { "aventureros", "marco polo", "dragones de", "xyz" };
+
+    private static final int WARMUP = 5;
+
+    private static final int ITERATIONS = 20;
+
+    private static final int ID_CHUNK = 1000;
+
+    @Test
+    public void compareLikeWithTitleIndex() {
+
+        for (String size : SIZES.split(",")) {
+            run(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private void run(int size) {
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:game-title-benchmark-" + size + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE game (id BIGINT PRIMARY KEY, title VARCHAR(250) NOT NULL)");
+
+        Random random = new Random(42);
+        List<GameTitle> titles = new ArrayList<>(size);
+        List<Object[]> rows = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " de " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            titles.add(new GameTitle(id, title));
+            rows.add(new Object[] { id, title });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO game(id, title) VALUES (?, ?)", rows);
+
+        long start = System.nanoTime();
+        GameTitleIndex index = new GameTitleIndex(0.3);
+        index.rebuild(titles);
+        long built = System.nanoTime() - start;
+
+        System.out.printf("%n%d títulos, índice construido en %d ms, media de %d iteraciones%n", size, built / 1_000_000, ITERATIONS);
+        System.out.printf("%-16s %10s %14s %14s%n", "consulta", "juegos", "LIKE (us)", "índice (us)");
+
+        for (String query : QUERIES) {
+            Supplier<List<Long>> like = () -> jdbcTemplate.queryForList("SELECT id FROM game WHERE LOWER(title) LIKE ? ORDER BY id", Long.class, "%" + query + "%");
+            Supplier<List<Long>> indexed = () -> fetch(jdbcTemplate, index.find(query));
+
+            // Ambos caminos deben devolver los mismos juegos
+            List<Long> expected = like.get();
+            assertEquals(expected, indexed.get());
+
+            System.out.printf("%-16s %10d %14d %14d%n", query, expected.size(), measure(like), measure(indexed));
+        }
+
+        jdbcTemplate.execute("DROP TABLE game");
+    }
+
+    private static List<Long> fetch(JdbcTemplate jdbcTemplate, List<Long> ids) {
+
+        List<Long> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK));
+            String sql = "SELECT id FROM game WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id";
+            result.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+
+        return result;
+    }
+
+    private static long measure(Supplier<List<Long>> search) {
+
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+
+        return Arrays.stream(nanos).sum() / ITERATIONS / 1000;
+    }
+}
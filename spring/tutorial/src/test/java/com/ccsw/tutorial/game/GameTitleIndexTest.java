@@ -0,0 +1,102 @@
+package com.ccsw.tutorial.game;
+
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameTitle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GameTitleIndexTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    private GameTitleIndex index;
+
+    @BeforeEach
+    public void setUp() {
+
+        index = new GameTitleIndex(0.3);
+        index.gameRepository = gameRepository;
+        index.rebuild(List.of(new GameTitle(1L, "On Mars"), new GameTitle(2L, "Aventureros al tren"), new GameTitle(3L, "1920: Wall Street"), new GameTitle(4L, "Barrage"),
+                new GameTitle(5L, "Los viajes de Marco Polo"), new GameTitle(6L, "Azul"), new GameTitle(7L, "Ciudadelas: Edición Clásica")));
+    }
+
+    @Test
+    public void normalizeShouldLowerCaseStripAccentsAndPunctuation() {
+
+        assertEquals("ciudadelas edicion clasica", GameTitleIndex.normalize("  Ciudadelas:  Edición  CLÁSICA!"));
+        assertEquals("1920 wall street", GameTitleIndex.normalize("1920: Wall Street"));
+        assertEquals("", GameTitleIndex.normalize(" ¡! "));
+    }
+
+    @Test
+    public void findShouldMatchContainedTextIgnoringCaseAndAccents() {
+
+        assertEquals(List.of(2L), index.find("aventureros"));
+        assertEquals(List.of(2L), index.find("AVENTURÉROS AL"));
+        assertEquals(List.of(7L), index.find("edicion clas"));
+        assertEquals(List.of(3L), index.find("1920 wall"));
+        assertEquals(List.of(), index.find("monopoly"));
+    }
+
+    @Test
+    public void findShorterThanTrigramShouldScanTitles() {
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), index.find("a"));
+        assertEquals(List.of(1L, 4L, 5L), index.find("ar"));
+    }
+
+    @Test
+    public void rankShouldTolerateTyposAndOrderBySimilarity() {
+
+        assertEquals(2L, index.rank("aventurros al tern", 10).get(0));
+        assertEquals(List.of(5L), index.rank("viajes marco pollo", 1));
+        assertTrue(index.rank("zzzz", 10).isEmpty());
+    }
+
+    @Test
+    public void catalogChangeShouldReindexOrRemoveTitle() {
+
+        when(gameRepository.findTitle(6L)).thenReturn(new GameTitle(6L, "Azul: Pabellón de verano"));
+        index.onCatalogChange(new CatalogChangeEvent(Game.class, 6L));
+
+        assertEquals(List.of(6L), index.find("pabellon"));
+        assertEquals(List.of(6L), index.find("azul"));
+
+        when(gameRepository.findTitle(4L)).thenReturn(null);
+        index.onCatalogChange(new CatalogChangeEvent(Game.class, 4L));
+
+        assertEquals(List.of(), index.find("barrage"));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    public void changeDuringRebuildShouldSurviveStaleRead() {
+
+        // La lectura de la reconstrucción es anterior al alta del juego 8 y al borrado del 1
+        when(gameRepository.findAllTitles()).thenAnswer(invocation -> {
+            when(gameRepository.findTitle(8L)).thenReturn(new GameTitle(8L, "Carcassonne"));
+            index.onCatalogChange(new CatalogChangeEvent(Game.class, 8L));
+            when(gameRepository.findTitle(1L)).thenReturn(null);
+            index.onCatalogChange(new CatalogChangeEvent(Game.class, 1L));
+
+            return List.of(new GameTitle(1L, "On Mars"), new GameTitle(2L, "Aventureros al tren"));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(8L), index.find("carcassonne"));
+        assertEquals(List.of(), index.find("on mars"));
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GameAvailabilityCalendarTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+
+    private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private GameAvailabilityCalendar calendar;
+
+    @BeforeEach
+    public void setUp() {
+
+        calendar = new GameAvailabilityCalendar();
+        calendar.loanRepository = loanRepository;
+    }
+
+    @Test
+    public void availabilityBeforeFirstBuildShouldReadGameLoansFromDatabase() {
+
+        when(loanRepository.findPeriodsByGameId(1L)).thenReturn(List.of(period(7L, 10, 12)));
+
+        GameAvailabilityDto availability = calendar.availability(1L, FROM, TO);
+
+        assertFalse(calendar.isReady());
+        assertEquals(1, availability.getBusy().size());
+        assertEquals(LocalDate.of(2024, 1, 10), availability.getBusy().get(0).getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 12), availability.getBusy().get(0).getEndDate());
+    }
+
+    @Test
+    public void changeDuringRebuildShouldBeReplayedOverSnapshot() {
+
+        calendar.beginRebuild();
+        List<LoanPeriod> snapshot = List.of(period(7L, 10, 12));
+
+        // Confirmado después de leer los préstamos y antes de sustituir el calendario
+        calendar.onLoanChange(new LoanChangeEvent(null, period(8L, 20, 21)));
+        calendar.rebuild(snapshot);
+
+        assertTrue(calendar.isReady());
+        assertEquals(2, calendar.availability(1L, FROM, TO).getBusy().size());
+    }
+
+    private static LoanPeriod period(Long id, int startDay, int endDay) {
+
+        return new LoanPeriod(id, 1L, 1L, LocalDate.of(2024, 1, startDay), LocalDate.of(2024, 1, endDay));
+    }
+}
@@ -0,0 +1,40 @@
+package com.ccsw.tutorial.loan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanBookingLocksTest {
+
+    @Test
+    public void acquireAllShouldBlockEveryWriterUntilClosed() throws Exception {
+
+        LoanBookingLocks locks = new LoanBookingLocks(8, 50, false);
+
+        try (LoanBookingLocks.Lease all = locks.acquireAll()) {
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                try (LoanBookingLocks.Lease lease = locks.acquire(List.of(1L), List.of(2L))) {
+                    // Sin reserva no debe llegar aquí
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage());
+                }
+            });
+
+            ExecutionException exception = assertThrows(ExecutionException.class, writer::get);
+            assertTrue(exception.getCause().getMessage().contains("se está modificando en otra petición"));
+        }
+
+        CompletableFuture.runAsync(() -> {
+            try (LoanBookingLocks.Lease lease = locks.acquire(List.of(1L), List.of(2L))) {
+                // Liberada la reserva completa, la escritura avanza
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+        assertEquals(1, locks.stats().getTimeouts());
+    }
+}
@@ -0,0 +1,177 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.client.ClientService;
+import com.ccsw.tutorial.client.model.ClientDto;
+import com.ccsw.tutorial.game.GameService;
+import com.ccsw.tutorial.game.model.GameDto;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
+import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanBulkImporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private GameService gameService;
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private LoanAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ClientOccupancyEngine occupancyEngine;
+
+    @Mock
+    private LoanBookingLocks bookingLocks;
+
+    @Mock
+    private LoanHolds holds;
+
+    @Mock
+    private LoanArchiver archiver;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LoanBulkImporter importer;
+
+    @BeforeEach
+    public void setUp() {
+
+        importer.chunkSize = 500;
+
+        GameAvailabilityValidator gameValidator = new GameAvailabilityValidator();
+        gameValidator.availabilityIndex = availabilityIndex;
+        ClientLoanLimitValidator clientValidator = new ClientLoanLimitValidator();
+        clientValidator.occupancyEngine = occupancyEngine;
+        LoanHoldValidator holdValidator = new LoanHoldValidator();
+        holdValidator.holds = holds;
+        LoanArchiveValidator archiveValidator = new LoanArchiveValidator();
+        archiveValidator.archiver = archiver;
+
+        LoanValidationChain chain = new LoanValidationChain(List.of(clientValidator, gameValidator, holdValidator, archiveValidator, new LoanDurationValidator(), new LoanDateOrderValidator()));
+        chain.bookingLocks = bookingLocks;
+        importer.validationChain = chain;
+
+        lenient().when(gameService.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        lenient().when(clientService.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+    }
+
+    @Test
+    public void importWithIndexesNotReadyShouldCheckStoredLoansInDatabase() throws Exception {
+
+        when(bookingLocks.acquire(anyCollection(), anyCollection())).thenReturn(new LoanBookingLocks.Lease());
+        when(availabilityIndex.isReady()).thenReturn(false);
+        when(loanRepository.findPeriodsByGameId(1L)).thenReturn(List.of(new LoanPeriod(7L, 1L, 2L, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6))));
+
+        List<LoanBulkResultDto> results = importer.importAll(List.of(loan(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10))));
+
+        assertEquals("El juego ya está prestado en ese periodo de fechas", results.get(0).getError());
+        verify(availabilityIndex, never()).snapshotOf(any());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    public void importWithDatabaseLocksShouldCheckStoredLoansInDatabase() throws Exception {
+
+        when(bookingLocks.acquire(anyCollection(), anyCollection())).thenReturn(new LoanBookingLocks.Lease());
+        when(bookingLocks.isDatabaseLocks()).thenReturn(true);
+        when(loanRepository.findPeriodsByGameId(1L)).thenReturn(List.of(new LoanPeriod(7L, 1L, 2L, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6))));
+
+        List<LoanBulkResultDto> results = importer.importAll(List.of(loan(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10))));
+
+        assertEquals("El juego ya está prestado en ese periodo de fechas", results.get(0).getError());
+        verify(availabilityIndex, never()).snapshotOf(any());
+        verify(occupancyEngine, never()).snapshotOf(any());
+        verify(loanRepository).findPeriodsByClientId(1L);
+    }
+
+    @Test
+    public void importShouldApplyValidatorChainToEachRow() throws Exception {
+
+        when(bookingLocks.acquire(anyCollection(), anyCollection())).thenReturn(new LoanBookingLocks.Lease());
+        when(archiver.archivedUntil()).thenReturn(LocalDate.of(2024, 1, 31));
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.snapshotOf(1L)).thenReturn(new LoanIntervalSet());
+        when(occupancyEngine.isReady()).thenReturn(true);
+        when(occupancyEngine.snapshotOf(1L)).thenReturn(new LoanIntervalSet());
+
+        List<LoanBulkResultDto> results = importer.importAll(List.of(loan(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 2)), loan(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 20)),
+                loan(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 5)), loan(LocalDate.of(2024, 2, 3), LocalDate.of(2024, 2, 4))));
+
+        assertTrue(results.get(0).getError().contains("préstamos archivados"));
+        assertEquals("El periodo de préstamo no puede ser superior a 14 días", results.get(1).getError());
+        // Solo se solapa con la fila anterior del lote, que aún no está guardada
+        assertEquals("El juego ya está prestado en ese periodo de fechas", results.get(3).getError());
+        verify(availabilityIndex, never()).isGameLoaned(any(), any(), any(), any());
+        // Solo se inserta la tercera fila
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    public void importWithoutBookingLocksShouldFailEveryRow() throws Exception {
+
+        when(bookingLocks.acquire(anyCollection(), anyCollection())).thenThrow(new Exception("El juego o el cliente del préstamo se está modificando en otra petición, inténtelo de nuevo"));
+
+        List<LoanBulkResultDto> results = importer.importAll(List.of(loan(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)), loan(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2))));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().noneMatch(LoanBulkResultDto::isAccepted));
+    }
+
+    @Test
+    public void importFailingAfterLockShouldNotReportRowsAsFailed() throws Exception {
+
+        when(bookingLocks.acquire(anyCollection(), anyCollection())).thenReturn(new LoanBookingLocks.Lease());
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.snapshotOf(1L)).thenThrow(new IllegalStateException("fallo inesperado"));
+
+        assertThrows(IllegalStateException.class, () -> importer.importAll(List.of(loan(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)))));
+    }
+
+    private static LoanDto loan(LocalDate startDate, LocalDate endDate) {
+
+        LoanDto dto = new LoanDto();
+        dto.setStartDate(startDate);
+        dto.setEndDate(endDate);
+
+        GameDto game = new GameDto();
+        game.setId(1L);
+        dto.setGame(game);
+
+        ClientDto client = new ClientDto();
+        client.setId(1L);
+        dto.setClient(client);
+
+        return dto;
+    }
+}
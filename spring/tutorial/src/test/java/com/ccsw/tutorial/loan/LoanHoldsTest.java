@@ -0,0 +1,176 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanHoldsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+
+    private static final LocalDate END = LocalDate.of(2024, 3, 5);
+
+    private long now;
+
+    private LoanHolds holds;
+
+    @BeforeEach
+    public void setUp() {
+
+        // Ticks de 1 s en una rueda de 8 huecos: una vuelta son 8 s
+        holds = new LoanHolds(1000, 8, 5, 60);
+        now = 1_000_000;
+        holds.clock = () -> now;
+    }
+
+    @Test
+    public void holdShouldOccupyGameForOtherClientsOnly() throws Exception {
+
+        holds.hold(new LoanPeriod(null, 1L, 1L, START, END), null);
+
+        assertTrue(holds.isHeld(1L, END, END.plusDays(2), 2L));
+        assertTrue(holds.isHeld(1L, START, END, null));
+        assertFalse(holds.isHeld(1L, START, END, 1L));
+        assertFalse(holds.isHeld(1L, END.plusDays(1), END.plusDays(3), 2L));
+        assertFalse(holds.isHeld(2L, START, END, 2L));
+    }
+
+    @Test
+    public void holdShouldExpireWhenWheelPassesItsTick() throws Exception {
+
+        holds.hold(new LoanPeriod(null, 1L, 1L, START, END), 3);
+
+        now += 2_999;
+        assertTrue(holds.isHeld(1L, START, END, 2L));
+
+        now += 1;
+        assertFalse(holds.isHeld(1L, START, END, 2L));
+
+        LoanHoldStats stats = holds.stats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getExpired());
+    }
+
+    @Test
+    public void holdLongerThanOneTurnShouldSurviveEarlierPasses() throws Exception {
+
+        // 20 s son más de dos vueltas de la rueda: su hueco se visita antes de que venza
+        holds.hold(new LoanPeriod(null, 1L, 1L, START, END), 20);
+
+        for (int second = 1; second < 20; second++) {
+            now += 1000;
+            assertTrue(holds.isHeld(1L, START, END, 2L), "Caducada en el segundo " + second);
+        }
+
+        now += 1000;
+        assertFalse(holds.isHeld(1L, START, END, 2L));
+        assertEquals(1, holds.stats().getExpired());
+    }
+
+    @Test
+    public void idleWheelShouldExpireEverythingInOneTurn() throws Exception {
+
+        for (long game = 1; game <= 50; game++) {
+            holds.hold(new LoanPeriod(null, game, 1L, START, END), (int) (game % 30) + 1);
+        }
+
+        now += 3_600_000;
+
+        LoanHoldStats stats = holds.stats();
+        assertEquals(0, stats.getActive());
+        assertEquals(50, stats.getExpired());
+    }
+
+    @Test
+    public void releaseAndConsumeShouldFreeGame() throws Exception {
+
+        LoanHolds.Hold first = holds.hold(new LoanPeriod(null, 1L, 1L, START, END), null);
+        holds.hold(new LoanPeriod(null, 2L, 1L, START, END), null);
+
+        assertTrue(holds.release(first.id()));
+        assertFalse(holds.release(first.id()));
+        assertFalse(holds.isHeld(1L, START, END, 2L));
+
+        holds.consume(new LoanPeriod(7L, 2L, 1L, START.minusDays(1), END.plusDays(2)));
+        assertFalse(holds.isHeld(2L, START, END, 2L));
+
+        // Al pasar su tick la rueda descarta las entradas ya soltadas sin contarlas como caducadas
+        now += 10_000;
+        LoanHoldStats stats = holds.stats();
+        assertEquals(1, stats.getReleased());
+        assertEquals(1, stats.getConsumed());
+        assertEquals(0, stats.getExpired());
+    }
+
+    @Test
+    public void consumeShouldKeepDaysNotCoveredByLoan() throws Exception {
+
+        LoanHolds.Hold hold = holds.hold(new LoanPeriod(null, 1L, 1L, START, START.plusDays(9)), null);
+
+        holds.consume(new LoanPeriod(7L, 1L, 1L, START.plusDays(3), START.plusDays(4)));
+
+        assertTrue(holds.isHeld(1L, START, START.plusDays(2), 2L));
+        assertFalse(holds.isHeld(1L, START.plusDays(3), START.plusDays(4), 2L));
+        assertTrue(holds.isHeld(1L, START.plusDays(5), START.plusDays(9), 2L));
+
+        LoanHoldStats stats = holds.stats();
+        assertEquals(1, stats.getActive());
+        assertEquals(0, stats.getConsumed());
+
+        // Soltar la reserva suelta sus dos tramos
+        assertTrue(holds.release(hold.id()));
+        assertFalse(holds.isHeld(1L, START, START.plusDays(9), 2L));
+    }
+
+    @Test
+    public void splitHoldShouldExpireWholeAtItsTick() throws Exception {
+
+        holds.hold(new LoanPeriod(null, 1L, 1L, START, START.plusDays(9)), 3);
+        holds.consume(new LoanPeriod(7L, 1L, 1L, START.plusDays(3), START.plusDays(4)));
+
+        now += 3_000;
+        assertFalse(holds.isHeld(1L, START, START.plusDays(9), 2L));
+
+        LoanHoldStats stats = holds.stats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getExpired());
+    }
+
+    @Test
+    public void consumeOnCommitShouldKeepHoldIfTransactionRollsBack() throws Exception {
+
+        holds.hold(new LoanPeriod(null, 1L, 1L, START, END), null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            holds.consumeOnCommit(new LoanPeriod(7L, 1L, 1L, START, END));
+            assertTrue(holds.isHeld(1L, START, END, 2L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(e -> e.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(holds.isHeld(1L, START, END, 2L));
+
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+
+            holds.consumeOnCommit(new LoanPeriod(7L, 1L, 1L, START, END));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertFalse(holds.isHeld(1L, START, END, 2L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void holdWithTtlOutOfRangeShouldFail() {
+
+        assertThrows(Exception.class, () -> holds.hold(new LoanPeriod(null, 1L, 1L, START, END), 61));
+        assertThrows(Exception.class, () -> holds.hold(new LoanPeriod(null, 1L, 1L, START, END), 0));
+    }
+}
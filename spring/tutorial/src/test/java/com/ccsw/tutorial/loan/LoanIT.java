@@ -1,9 +1,27 @@
 package com.ccsw.tutorial.loan;
 
+import com.ccsw.tutorial.common.pagination.KeysetPage;
+import com.ccsw.tutorial.common.pagination.PageTotal;
 import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.common.pagination.ResultCacheStats;
 import com.ccsw.tutorial.config.ResponsePage;
+import com.ccsw.tutorial.loan.model.GameAvailabilityDto;
+import com.ccsw.tutorial.loan.model.GameUtilizationDto;
+import com.ccsw.tutorial.loan.model.LoanArchiveStats;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityCheckDto;
+import com.ccsw.tutorial.loan.model.LoanAvailabilityVerdictDto;
+import com.ccsw.tutorial.loan.model.LoanBulkResultDto;
 import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanHoldDto;
+import com.ccsw.tutorial.loan.model.LoanHoldStats;
+import com.ccsw.tutorial.loan.model.LoanIndexReport;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanLockStats;
+import com.ccsw.tutorial.loan.model.LoanOverdueStats;
 import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.ccsw.tutorial.loan.model.LoanUtilizationReport;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,12 +29,23 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +62,21 @@ public class LoanIT {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanOverdueScanner overdueScanner;
+
+    @Autowired
+    private LoanJournal journal;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanArchiver archiver;
+
     ParameterizedTypeReference<ResponsePage<LoanDto>> responseTypePage = new ParameterizedTypeReference<ResponsePage<LoanDto>>() {
     };
 
@@ -87,6 +131,94 @@ public class LoanIT {
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    public void findPageWithoutTotalShouldReportNextPageWithoutCounting() {
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setPageable(new PageableRequest(0, 2));
+        searchDto.getPageable().setTotal(PageTotal.NONE);
+
+        ResponseEntity<ResponsePage<LoanDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(PageTotal.NONE, response.getBody().getTotalType());
+        assertEquals(2, response.getBody().getContent().size());
+        assertFalse(response.getBody().isLast());
+        assertNotNull(response.getBody().getContent().get(0).getGame().getTitle());
+
+        searchDto.getPageable().setPageNumber(1);
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(1, response.getBody().getContent().size());
+        assertTrue(response.getBody().isLast());
+        assertEquals(3, response.getBody().getTotalElements());
+    }
+
+    @Test
+    public void findPageWithCachedTotalShouldBeInvalidatedBySave() {
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setGameId(1L);
+        searchDto.setPageable(new PageableRequest(0, 5));
+        searchDto.getPageable().setTotal(PageTotal.CACHED);
+
+        ResponseEntity<ResponsePage<LoanDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(PageTotal.CACHED, response.getBody().getTotalType());
+        assertEquals(1, response.getBody().getTotalElements());
+
+        saveLoan(1L, 4L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(2, response.getBody().getTotalElements());
+    }
+
+    @Test
+    public void findPageShouldBeCachedUntilASaveMatchesItsFilter() {
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setClientId(1L);
+        searchDto.setPageable(new PageableRequest(0, 5));
+
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(1, findPageCacheStats().getHits());
+
+        // Préstamo de otro cliente: la búsqueda sigue en caché
+        saveLoan(2L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+        ResponseEntity<ResponsePage<LoanDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(2, findPageCacheStats().getHits());
+        assertEquals(1, response.getBody().getContent().size());
+
+        saveLoan(4L, 1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals(2, findPageCacheStats().getHits());
+        assertEquals(2, response.getBody().getContent().size());
+    }
+
+    @Test
+    public void findPageShouldNotServeCachedClientNameAfterRename() {
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setGameId(1L);
+        searchDto.setPageable(new PageableRequest(0, 5));
+
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        com.ccsw.tutorial.client.model.ClientDto client = new com.ccsw.tutorial.client.model.ClientDto();
+        client.setName("Juan Renombrado");
+        restTemplate.exchange(LOCALHOST + port + "/client/1", HttpMethod.PUT, new HttpEntity<>(client), Void.class);
+
+        ResponseEntity<ResponsePage<LoanDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+
+        assertEquals("Juan Renombrado", response.getBody().getContent().get(0).getClient().getName());
+        assertEquals(0, findPageCacheStats().getHits());
+    }
+
     @Test
     public void saveValidLoanShouldCreate() {
 
@@ -155,4 +287,608 @@ public class LoanIT {
         // Nota: Esto podría fallar si no hay datos de prueba, pero demuestra la funcionalidad
         assertTrue(response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    @Test
+    public void saveWithGameAlreadyLoanedShouldFail() {
+
+        LoanDto dto = new LoanDto();
+        dto.setGame(new com.ccsw.tutorial.game.model.GameDto());
+        dto.getGame().setId(1L);
+        dto.setClient(new com.ccsw.tutorial.client.model.ClientDto());
+        dto.getClient().setId(4L);
+        dto.setStartDate(LocalDate.of(2024, 1, 18));
+        dto.setEndDate(LocalDate.of(2024, 1, 22));
+
+        ResponseEntity<?> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.PUT, new HttpEntity<>(dto), Void.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void indexShouldStayConsistentAfterSave() {
+
+        LoanDto dto = new LoanDto();
+        dto.setGame(new com.ccsw.tutorial.game.model.GameDto());
+        dto.getGame().setId(4L);
+        dto.setClient(new com.ccsw.tutorial.client.model.ClientDto());
+        dto.getClient().setId(4L);
+        dto.setStartDate(LocalDate.of(2025, 10, 1));
+        dto.setEndDate(LocalDate.of(2025, 10, 5));
+
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.PUT, new HttpEntity<>(dto), Void.class);
+
+        ResponseEntity<LoanIndexReport> response = restTemplate.getForEntity(LOCALHOST + port + SERVICE_PATH + "/index/check", LoanIndexReport.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, response.getBody().getIndexed());
+        assertEquals(0, response.getBody().getMissing());
+        assertEquals(0, response.getBody().getStale());
+    }
+
+    @Test
+    public void saveOverlappingLoansThatNeverCoincideOnSameDayShouldCreate() {
+
+        assertEquals(HttpStatus.OK, saveLoan(4L, 5L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5)).getStatusCode());
+        assertEquals(HttpStatus.OK, saveLoan(5L, 5L, LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 14)).getStatusCode());
+
+        // Solapa con los dos préstamos anteriores pero nunca coinciden dos de ellos en el mismo día
+        assertEquals(HttpStatus.OK, saveLoan(6L, 5L, LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 12)).getStatusCode());
+
+        // El día 4 ya tiene dos préstamos
+        assertEquals(HttpStatus.BAD_REQUEST, saveLoan(2L, 5L, LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 4)).getStatusCode());
+    }
+
+    @Test
+    public void bulkSaveShouldReportEachRow() {
+
+        List<LoanDto> dtos = List.of(loanDto(4L, 4L, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 5)), loanDto(4L, 5L, LocalDate.of(2025, 5, 3), LocalDate.of(2025, 5, 8)),
+                loanDto(0L, 4L, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 2)), loanDto(5L, 4L, LocalDate.of(2025, 5, 6), LocalDate.of(2025, 5, 9)));
+
+        ResponseEntity<List<LoanBulkResultDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/bulk", HttpMethod.POST, new HttpEntity<>(dtos), new ParameterizedTypeReference<List<LoanBulkResultDto>>() {
+        });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, response.getBody().size());
+        assertTrue(response.getBody().get(0).isAccepted());
+        assertNotNull(response.getBody().get(0).getId());
+        // Solapa con la fila 0 del propio lote
+        assertFalse(response.getBody().get(1).isAccepted());
+        // No existe el juego
+        assertFalse(response.getBody().get(2).isAccepted());
+        assertTrue(response.getBody().get(3).isAccepted());
+
+        // Las filas guardadas se tienen en cuenta en las siguientes validaciones
+        assertEquals(HttpStatus.BAD_REQUEST, saveLoan(4L, 1L, LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 2)).getStatusCode());
+    }
+
+    @Test
+    public void bulkSaveStreamShouldReturnOneResultPerLine() {
+
+        String body = "{\"game\":{\"id\":4},\"client\":{\"id\":4},\"startDate\":\"2025-06-01\",\"endDate\":\"2025-06-05\"}\n" + "not json\n"
+                + "{\"game\":{\"id\":4},\"client\":{\"id\":5},\"startDate\":\"2025-06-02\",\"endDate\":\"2025-06-03\"}\n";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        ResponseEntity<String> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/bulk", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        String[] lines = response.getBody().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"row\":1") && lines[0].contains("\"accepted\":false"));
+        assertTrue(lines[1].contains("\"row\":0") && lines[1].contains("\"accepted\":true"));
+        assertTrue(lines[2].contains("\"row\":2") && lines[2].contains("\"accepted\":false"));
+    }
+
+    @Test
+    public void availabilityShouldReturnFreeAndBusyDaysPerGame() {
+
+        ResponseEntity<List<GameAvailabilityDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/availability?gameId=1,2&from=2024-01-01&to=2024-01-31", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<GameAvailabilityDto>>() {
+                });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+
+        GameAvailabilityDto game1 = response.getBody().get(0);
+        assertEquals(1, game1.getBusy().size());
+        assertEquals(LocalDate.of(2024, 1, 10), game1.getBusy().get(0).getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 20), game1.getBusy().get(0).getEndDate());
+        assertEquals(2, game1.getFree().size());
+        assertEquals(LocalDate.of(2024, 1, 1), game1.getNextFree().getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 9), game1.getNextFree().getEndDate());
+
+        // Tras guardar un préstamo el calendario se actualiza
+        saveLoan(2L, 4L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5));
+
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/availability?gameId=2&from=2024-01-01&to=2024-01-31", HttpMethod.GET, null, new ParameterizedTypeReference<List<GameAvailabilityDto>>() {
+        });
+
+        assertEquals(LocalDate.of(2024, 1, 6), response.getBody().get(0).getNextFree().getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 14), response.getBody().get(0).getNextFree().getEndDate());
+    }
+
+    @Test
+    public void availabilityCheckShouldReportStoredAndBasketConflicts() {
+
+        List<LoanAvailabilityCheckDto> basket = List.of(new LoanAvailabilityCheckDto(1L, 4L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17)),
+                new LoanAvailabilityCheckDto(4L, 4L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5)), new LoanAvailabilityCheckDto(4L, 5L, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 6)),
+                new LoanAvailabilityCheckDto(5L, 1L, LocalDate.of(2024, 1, 12), LocalDate.of(2024, 1, 14)), new LoanAvailabilityCheckDto(6L, 1L, LocalDate.of(2024, 1, 13), LocalDate.of(2024, 1, 13)),
+                new LoanAvailabilityCheckDto(5L, null, LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12)), new LoanAvailabilityCheckDto(99L, 1L, LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 12)));
+
+        ResponseEntity<List<LoanAvailabilityVerdictDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/availability/check", HttpMethod.POST, new HttpEntity<>(basket),
+                new ParameterizedTypeReference<List<LoanAvailabilityVerdictDto>>() {
+                });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<LoanAvailabilityVerdictDto> verdicts = response.getBody();
+        assertEquals(7, verdicts.size());
+
+        assertFalse(verdicts.get(0).isGameAvailable());
+        assertTrue(verdicts.get(0).isClientAvailable());
+        assertEquals("El juego ya está prestado en ese periodo de fechas", verdicts.get(0).getError());
+
+        assertFalse(verdicts.get(1).isGameAvailable());
+        assertEquals(List.of(2), verdicts.get(1).getConflictingRows());
+        assertEquals(List.of(1), verdicts.get(2).getConflictingRows());
+
+        // El cliente 1 ya tiene un préstamo esos días: con las dos líneas llegaría a 3
+        assertTrue(verdicts.get(3).isGameAvailable());
+        assertFalse(verdicts.get(3).isClientAvailable());
+        assertEquals(List.of(4), verdicts.get(3).getConflictingRows());
+        assertEquals(List.of(3), verdicts.get(4).getConflictingRows());
+
+        assertTrue(verdicts.get(5).isAvailable());
+        assertEquals("No existe el juego 99", verdicts.get(6).getError());
+    }
+
+    @Test
+    public void holdShouldBlockOtherClientsUntilOwnerSaves() {
+
+        LoanHoldDto request = new LoanHoldDto();
+        request.setGameId(4L);
+        request.setClientId(4L);
+        request.setStartDate(LocalDate.of(2024, 3, 1));
+        request.setEndDate(LocalDate.of(2024, 3, 5));
+
+        ResponseEntity<LoanHoldDto> response = restTemplate.postForEntity(LOCALHOST + port + SERVICE_PATH + "/hold", request, LoanHoldDto.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody().getId());
+        assertNotNull(response.getBody().getExpiresAt());
+
+        // Otro cliente no puede ni reservar ni guardar esos días
+        request.setClientId(5L);
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity(LOCALHOST + port + SERVICE_PATH + "/hold", request, LoanHoldDto.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, saveLoan(4L, 5L, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 6)).getStatusCode());
+
+        assertEquals(HttpStatus.OK, saveLoan(4L, 4L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5)).getStatusCode());
+
+        LoanHoldStats stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/hold", LoanHoldStats.class);
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getCreated());
+        assertEquals(1, stats.getConsumed());
+    }
+
+    @Test
+    public void releaseHoldShouldFreeGame() {
+
+        LoanHoldDto request = new LoanHoldDto();
+        request.setGameId(4L);
+        request.setClientId(4L);
+        request.setStartDate(LocalDate.of(2024, 3, 1));
+        request.setEndDate(LocalDate.of(2024, 3, 5));
+
+        Long id = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/hold", request, LoanHoldDto.class).getId();
+
+        ResponseEntity<?> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/hold/" + id, HttpMethod.DELETE, null, Void.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        assertEquals(HttpStatus.OK, saveLoan(4L, 5L, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 6)).getStatusCode());
+
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/hold/" + id, HttpMethod.DELETE, null, Void.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void findKeysetPageSortedByStartDateShouldFollowCursor() {
+
+        ParameterizedTypeReference<KeysetPage<LoanDto>> responseTypeKeyset = new ParameterizedTypeReference<KeysetPage<LoanDto>>() {
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"pageable\":{\"pageSize\":2,\"sort\":[{\"property\":\"startDate\",\"direction\":\"DESC\"}]}}";
+        ResponseEntity<KeysetPage<LoanDto>> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(body, headers), responseTypeKeyset);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getContent().size());
+        assertEquals(LocalDate.of(2024, 2, 1), response.getBody().getContent().get(0).getStartDate());
+        assertNotNull(response.getBody().getContent().get(0).getGame().getTitle());
+        assertTrue(response.getBody().isHasNext());
+
+        body = "{\"pageable\":{\"pageSize\":2,\"cursor\":\"" + response.getBody().getNextCursor() + "\",\"sort\":[{\"property\":\"startDate\",\"direction\":\"DESC\"}]}}";
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(body, headers), responseTypeKeyset);
+
+        assertEquals(1, response.getBody().getContent().size());
+        assertEquals(LocalDate.of(2024, 1, 10), response.getBody().getContent().get(0).getStartDate());
+        assertFalse(response.getBody().isHasNext());
+    }
+
+    @Test
+    public void findKeysetPageSortedByNotIndexedPropertyShouldFail() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"pageable\":{\"pageSize\":2,\"sort\":[{\"property\":\"client.name\",\"direction\":\"ASC\"}]}}";
+        ResponseEntity<String> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+
+        assertFalse(response.getStatusCode().is2xxSuccessful());
+    }
+
+    @Test
+    public void concurrentSavesOfSameGameShouldCreateOnlyOneLoan() throws Exception {
+
+        int requests = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<Callable<ResponseEntity<?>>> tasks = new ArrayList<>();
+        for (long clientId = 1; clientId <= requests; clientId++) {
+            long client = clientId;
+            tasks.add(() -> saveLoan(6L, client, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 5)));
+        }
+
+        int created = 0;
+        try {
+            for (Future<ResponseEntity<?>> result : executor.invokeAll(tasks)) {
+                if (result.get().getStatusCode() == HttpStatus.OK) {
+                    created++;
+                } else {
+                    assertEquals(HttpStatus.BAD_REQUEST, result.get().getStatusCode());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, created);
+
+        LoanLockStats stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/locks", LoanLockStats.class);
+        assertTrue(stats.getAcquisitions() >= requests);
+        assertEquals(0, stats.getTimeouts());
+    }
+
+    @Test
+    public void exportCsvShouldStreamLoansOverlappingRange() {
+
+        ResponseEntity<String> response = restTemplate.getForEntity(LOCALHOST + port + SERVICE_PATH + "/export?format=csv&from=2024-01-18&to=2024-01-31", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+
+        String[] lines = response.getBody().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,gameId,gameTitle,clientId,clientName,startDate,endDate", lines[0]);
+        assertTrue(lines[1].startsWith("1,1,On Mars,1,"));
+        assertTrue(lines[1].endsWith(",2024-01-10,2024-01-20"));
+        assertTrue(lines[2].startsWith("2,2,Aventureros al tren,2,"));
+    }
+
+    @Test
+    public void exportNdjsonWithGzipShouldCompressFilteredLoans() throws Exception {
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(LOCALHOST + port + SERVICE_PATH + "/export?format=ndjson&idClient=2&gzip=true", byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/gzip", response.getHeaders().getContentType().toString());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("loans.ndjson.gz"));
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+
+        LoanDto loan = objectMapper.readValue(lines[0], LoanDto.class);
+        assertEquals(2L, loan.getClient().getId());
+        assertEquals("Aventureros al tren", loan.getGame().getTitle());
+    }
+
+    @Test
+    public void exportWithNotExistingFormatShouldFail() {
+
+        ResponseEntity<String> response = restTemplate.getForEntity(LOCALHOST + port + SERVICE_PATH + "/export?format=xml", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void utilizationShouldReturnSeededLoansPerGameAndMonth() {
+
+        List<GameUtilizationDto> utilization = findUtilization("2024-01", "2024-02", null);
+
+        assertEquals(3, utilization.size());
+        assertEquals(1L, utilization.get(0).getGameId());
+        assertEquals("2024-01", utilization.get(0).getMonth());
+        assertEquals(11, utilization.get(0).getLoanedDays());
+        assertEquals(1, utilization.get(0).getLoanCount());
+        assertEquals(1, utilization.get(0).getDistinctClients());
+    }
+
+    @Test
+    public void utilizationShouldFollowSaveAndDeleteAcrossMonths() {
+
+        saveLoan(1L, 2L, LocalDate.of(2024, 1, 25), LocalDate.of(2024, 2, 3));
+
+        List<GameUtilizationDto> utilization = findUtilization("2024-01", "2024-02", 1L);
+
+        assertEquals(2, utilization.size());
+        assertEquals(11 + 7, utilization.get(0).getLoanedDays());
+        assertEquals(2, utilization.get(0).getLoanCount());
+        assertEquals(2, utilization.get(0).getDistinctClients());
+        assertEquals("2024-02", utilization.get(1).getMonth());
+        assertEquals(3, utilization.get(1).getLoanedDays());
+
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/4", HttpMethod.DELETE, null, Void.class);
+
+        utilization = findUtilization("2024-01", "2024-02", 1L);
+
+        assertEquals(1, utilization.size());
+        assertEquals(11, utilization.get(0).getLoanedDays());
+        assertEquals(1, utilization.get(0).getDistinctClients());
+    }
+
+    @Test
+    public void utilizationRebuildShouldMatchIncrementalState() {
+
+        saveLoan(1L, 2L, LocalDate.of(2024, 1, 25), LocalDate.of(2024, 2, 3));
+        saveLoan(4L, 1L, LocalDate.of(2024, 3, 30), LocalDate.of(2024, 4, 2));
+
+        LoanDto modified = loanDto(2L, 2L, LocalDate.of(2024, 1, 16), LocalDate.of(2024, 1, 18));
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/2", HttpMethod.PUT, new HttpEntity<>(modified), Void.class);
+
+        LoanUtilizationReport report = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/stats/utilization/rebuild", null, LoanUtilizationReport.class);
+
+        assertEquals(5, report.getLoans());
+        assertEquals(0, report.getMismatches());
+        assertFalse(report.isRepaired());
+    }
+
+    @Test
+    public void overdueScanShouldFlagLoansEndedBeforeToday() {
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setGameId(1L);
+        searchDto.setPageable(new PageableRequest(0, 5));
+
+        // La página queda en caché antes de marcar los préstamos
+        ResponseEntity<ResponsePage<LoanDto>> page = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+        assertFalse(page.getBody().getContent().get(0).isOverdue());
+
+        LoanOverdueStats stats = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/overdue/scan", null, LoanOverdueStats.class);
+
+        assertEquals(3, stats.getLastRunFlagged());
+        assertEquals(0, stats.getPending());
+        assertEquals(0, stats.getLagDays());
+        assertTrue(findLoansOfGame(1L).get(0).isOverdue());
+
+        page = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage);
+        assertTrue(page.getBody().getContent().get(0).isOverdue());
+
+        stats = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/overdue/scan", null, LoanOverdueStats.class);
+
+        assertEquals(0, stats.getLastRunFlagged());
+        assertEquals(2, stats.getRuns());
+        assertEquals(3, stats.getFlagged());
+    }
+
+    @Test
+    public void overdueScanShouldContinueAcrossChunks() {
+
+        LoanOverdueStats stats = overdueScanner.scan(1);
+
+        assertEquals(3, stats.getLastRunFlagged());
+        assertEquals(4, stats.getLastRunChunks());
+        assertEquals(0, stats.getPending());
+    }
+
+    @Test
+    public void saveShouldClearOverdueFlag() {
+
+        overdueScanner.scan();
+
+        LocalDate today = LocalDate.now();
+        LoanDto dto = loanDto(1L, 1L, today, today.plusDays(3));
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/1", HttpMethod.PUT, new HttpEntity<>(dto), Void.class);
+
+        assertFalse(findLoansOfGame(1L).get(0).isOverdue());
+
+        LoanOverdueStats stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/overdue/stats", LoanOverdueStats.class);
+
+        assertEquals(1, stats.getRuns());
+        assertEquals(3, stats.getFlagged());
+    }
+
+    @Test
+    public void validatorStatsShouldCountRejectionsPerValidator() {
+
+        saveLoan(1L, 2L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 18));
+        saveLoan(4L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 20));
+
+        List<LoanValidatorStats> stats = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/validators", HttpMethod.GET, null, new ParameterizedTypeReference<List<LoanValidatorStats>>() {
+        }).getBody();
+
+        assertEquals(6, stats.size());
+        assertEquals("LoanDateOrderValidator", stats.get(0).getName());
+        assertEquals(2, stats.get(0).getInvocations());
+        assertEquals("LoanDurationValidator", stats.get(1).getName());
+        assertEquals(1, stats.get(1).getRejections());
+        assertEquals("LoanArchiveValidator", stats.get(2).getName());
+        assertEquals(1, stats.get(2).getInvocations());
+        assertEquals(0, stats.get(2).getRejections());
+        assertEquals("GameAvailabilityValidator", stats.get(3).getName());
+        assertEquals(1, stats.get(3).getInvocations());
+        assertEquals(1, stats.get(3).getRejections());
+        assertEquals(0, stats.get(4).getInvocations());
+        assertEquals("LoanHoldValidator", stats.get(5).getName());
+    }
+
+    @Test
+    public void journalFingerprintShouldMatchDatabaseAfterChanges() {
+
+        saveLoan(4L, 4L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+        restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/2", HttpMethod.DELETE, null, Void.class);
+
+        assertEquals(LoanJournal.Fingerprint.of(loanRepository.findAllPeriods()), journal.databaseFingerprint());
+
+        LoanJournalStats stats = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/journal", LoanJournalStats.class);
+        assertFalse(stats.isEnabled());
+
+        ResponseEntity<?> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/journal/snapshot", HttpMethod.POST, null, Void.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void archiveShouldMoveEndedLoansAndKeepThemSearchable() {
+
+        LoanArchiveStats stats = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/archive?before=2024-02-01", null, LoanArchiveStats.class);
+
+        assertEquals(2, stats.getLastRunArchived());
+        assertEquals(LocalDate.of(2024, 1, 25), stats.getArchivedUntil());
+        assertEquals(1, stats.getHotLoans());
+        assertEquals(2, stats.getArchivedLoans());
+
+        LoanSearchDto searchDto = new LoanSearchDto();
+        searchDto.setPageable(new PageableRequest(0, 5));
+        ResponsePage<LoanDto> page = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage).getBody();
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(1L, 2L, 3L), page.getContent().stream().map(LoanDto::getId).toList());
+
+        searchDto.setDate(LocalDate.of(2024, 1, 16));
+        page = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage).getBody();
+
+        assertEquals(2, page.getTotalElements());
+
+        searchDto.setDate(LocalDate.of(2024, 2, 5));
+        page = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.POST, new HttpEntity<>(searchDto), responseTypePage).getBody();
+
+        assertEquals(List.of(3L), page.getContent().stream().map(LoanDto::getId).toList());
+    }
+
+    @Test
+    public void archiveShouldContinueAcrossChunksAndKeepUtilization() {
+
+        List<String> before = findUtilization("2024-01", "2024-02", null).stream().map(u -> u.getGameId() + " " + u.getMonth() + " " + u.getLoanedDays() + " " + u.getLoanCount()).toList();
+
+        LoanArchiveStats stats = archiver.archive(LocalDate.of(2024, 3, 1), 1);
+
+        assertEquals(3, stats.getLastRunArchived());
+        assertEquals(4, stats.getLastRunChunks());
+
+        LoanUtilizationReport report = restTemplate.postForObject(LOCALHOST + port + SERVICE_PATH + "/stats/utilization/rebuild", null, LoanUtilizationReport.class);
+
+        assertEquals(0, report.getMismatches());
+        assertEquals(before, findUtilization("2024-01", "2024-02", null).stream().map(u -> u.getGameId() + " " + u.getMonth() + " " + u.getLoanedDays() + " " + u.getLoanCount()).toList());
+    }
+
+    @Test
+    public void saveStartingOnOrBeforeArchivedLoansShouldFail() throws Exception {
+
+        archiver.archive(LocalDate.of(2024, 2, 1));
+
+        ResponseEntity<?> response = saveLoan(4L, 4L, LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 22));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        response = saveLoan(4L, 4L, LocalDate.of(2024, 1, 26), LocalDate.of(2024, 1, 28));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void archiveAfterHorizonShouldFail() {
+
+        ResponseEntity<String> response = restTemplate.postForEntity(LOCALHOST + port + SERVICE_PATH + "/archive?before=" + LocalDate.now().plusDays(1), null, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(3, restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/archive", LoanArchiveStats.class).getHotLoans());
+    }
+
+    @Test
+    public void exportShouldIncludeArchivedLoans() throws Exception {
+
+        archiver.archive(LocalDate.of(2024, 1, 21));
+
+        String[] lines = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/export?format=csv", String.class).split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].startsWith("1,"));
+        assertTrue(lines[2].startsWith("2,"));
+        assertTrue(lines[3].startsWith("3,"));
+
+        lines = restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/export?format=csv&from=2024-01-22", String.class).split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("2,"));
+    }
+
+    @Test
+    public void findKeysetPageReachingArchiveShouldFail() throws Exception {
+
+        archiver.archive(LocalDate.of(2024, 2, 1));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>("{\"pageable\":{\"pageSize\":10}}", headers), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        response = restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>("{\"date\":\"2024-02-05\",\"pageable\":{\"pageSize\":10}}", headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private ResultCacheStats findPageCacheStats() {
+
+        return restTemplate.getForObject(LOCALHOST + port + SERVICE_PATH + "/cache", ResultCacheStats.class);
+    }
+
+    private List<LoanDto> findLoansOfGame(Long gameId) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String body = "{\"gameId\":" + gameId + ",\"pageable\":{\"pageSize\":10}}";
+
+        return restTemplate.exchange(LOCALHOST + port + SERVICE_PATH + "/keyset", HttpMethod.POST, new HttpEntity<>(body, headers), new ParameterizedTypeReference<KeysetPage<LoanDto>>() {
+        }).getBody().getContent();
+    }
+
+    private List<GameUtilizationDto> findUtilization(String from, String to, Long gameId) {
+
+        String url = LOCALHOST + port + SERVICE_PATH + "/stats/utilization?from=" + from + "&to=" + to + (gameId != null ? "&gameId=" + gameId : "");
+
+        return restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<GameUtilizationDto>>() {
+        }).getBody();
+    }
+
+    private LoanDto loanDto(Long gameId, Long clientId, LocalDate startDate, LocalDate endDate) {
+
+        LoanDto dto = new LoanDto();
+        dto.setGame(new com.ccsw.tutorial.game.model.GameDto());
+        dto.getGame().setId(gameId);
+        dto.setClient(new com.ccsw.tutorial.client.model.ClientDto());
+        dto.getClient().setId(clientId);
+        dto.setStartDate(startDate);
+        dto.setEndDate(endDate);
+
+        return dto;
+    }
+
+    private ResponseEntity<?> saveLoan(Long gameId, Long clientId, LocalDate startDate, LocalDate endDate) {
+
+        return restTemplate.exchange(LOCALHOST + port + SERVICE_PATH, HttpMethod.PUT, new HttpEntity<>(loanDto(gameId, clientId, startDate, endDate)), Void.class);
+    }
 }
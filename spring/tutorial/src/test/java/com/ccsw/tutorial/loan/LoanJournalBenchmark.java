@@ -0,0 +1,156 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mide el arranque en frío a partir del diario de préstamos: lectura del snapshot,
+ * reproducción de los segmentos posteriores y reconstrucción de los índices en
+ * memoria. Por defecto con 10M de préstamos, que necesitan un heap de unos 8 GB. No
+ * se ejecuta con el resto de tests:
+ * mvn test -Dtest=LoanJournalBenchmark -DargLine=-Xmx8g [-Dloan.journal.benchmark.loans=1000000]
+ */
+public class LoanJournalBenchmark {
+
+    private static final int LOANS = Integer.getInteger("loan.journal.benchmark.loans", 10_000_000);
+
+    // Cambios posteriores al último snapshot: un 10% de modificaciones y un 1% de borrados
+    private static final int UPDATES = LOANS / 10;
+
+    private static final int REMOVES = LOANS / 100;
+
+    private static final int GAMES = 20_000;
+
+    private static final int CLIENTS = 100_000;
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final LocalDate ORIGIN = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void coldStartRebuild() throws Exception {
+
+        long start = System.nanoTime();
+        LoanJournalFormat.writeSnapshot(this.dir, 0, new Generated());
+        writeSegments();
+        long written = System.nanoTime() - start;
+
+        System.gc();
+
+        start = System.nanoTime();
+        LoanJournal.Replay replay = new LoanJournal(true, this.dir.toString(), SEGMENT_BYTES, false).replay(LoanJournalFormat.segments(this.dir));
+        long replayed = System.nanoTime() - start;
+
+        assertEquals(LOANS - REMOVES, replay.loans().size());
+        assertEquals(UPDATES + REMOVES, replay.records());
+
+        Collection<LoanPeriod> loans = replay.loans().values();
+
+        start = System.nanoTime();
+        LoanJournal.Fingerprint.of(loans);
+        long fingerprint = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        new LoanAvailabilityIndex().rebuild(loans);
+        new ClientOccupancyEngine().rebuild(loans);
+        new GameAvailabilityCalendar().rebuild(loans);
+        long rebuilt = System.nanoTime() - start;
+
+        long bytes = 0;
+        for (Path file : LoanJournalFormat.snapshots(this.dir)) {
+            bytes += Files.size(file);
+        }
+        long snapshotBytes = bytes;
+        for (Path file : LoanJournalFormat.segments(this.dir)) {
+            bytes += Files.size(file);
+        }
+
+        System.out.printf("%nArranque en frío con %,d préstamos (%,d registros tras el snapshot)%n", LOANS, UPDATES + REMOVES);
+        System.out.printf("%-40s %,12d MB%n", "Snapshot", snapshotBytes / 1024 / 1024);
+        System.out.printf("%-40s %,12d MB%n", "Snapshot + segmentos", bytes / 1024 / 1024);
+        System.out.printf("%-40s %,12d ms%n", "Escritura (preparación)", written / 1_000_000);
+        System.out.printf("%-40s %,12d ms%n", "Snapshot + reproducción", replayed / 1_000_000);
+        System.out.printf("%-40s %,12d ms%n", "Huella para comparar con la BBDD", fingerprint / 1_000_000);
+        System.out.printf("%-40s %,12d ms%n", "Índices de juego, cliente y calendario", rebuilt / 1_000_000);
+        System.out.printf("%-40s %,12d ms%n", "Total", (replayed + fingerprint + rebuilt) / 1_000_000);
+    }
+
+    private void writeSegments() throws Exception {
+
+        byte[] scratch = new byte[LoanJournalFormat.RECORD_BYTES];
+        long seq = 1;
+        MappedByteBuffer segment = LoanJournalFormat.createSegment(this.dir, seq, SEGMENT_BYTES);
+
+        for (int i = 0; i < UPDATES + REMOVES; i++) {
+            if (segment.remaining() < LoanJournalFormat.RECORD_BYTES) {
+                segment.force();
+                segment = LoanJournalFormat.createSegment(this.dir, seq, SEGMENT_BYTES);
+            }
+
+            // Las modificaciones retrasan un día préstamos repartidos por toda la tabla y los borrados quitan los primeros
+            if (i < UPDATES) {
+                long id = (long) i * 10 % LOANS + 1;
+                LoanPeriod current = period(id);
+                LoanPeriod moved = new LoanPeriod(current.getId(), current.getGameId(), current.getClientId(), current.getStartDate().plusDays(1), current.getEndDate().plusDays(1));
+                LoanJournalFormat.writeRecord(segment, LoanJournalFormat.PUT, seq++, id, moved, scratch);
+            } else {
+                long id = (long) (i - UPDATES) * 10 + 5;
+                LoanJournalFormat.writeRecord(segment, LoanJournalFormat.REMOVE, seq++, id, null, scratch);
+            }
+        }
+
+        segment.force();
+    }
+
+    private static LoanPeriod period(long id) {
+
+        long n = id - 1;
+        LocalDate start = ORIGIN.plusDays(n / GAMES * 10 % 5000);
+
+        return new LoanPeriod(id, n % GAMES + 1, n % CLIENTS + 1, start, start.plusDays(7));
+    }
+
+    /**
+     * Préstamos generados al recorrerlos, para escribir el snapshot sin tenerlos todos en memoria
+     */
+    private static class Generated extends AbstractCollection<LoanPeriod> {
+
+        @Override
+        public Iterator<LoanPeriod> iterator() {
+
+            return new Iterator<>() {
+
+                private long next = 1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next <= LOANS;
+                }
+
+                @Override
+                public LoanPeriod next() {
+                    return period(this.next++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return LOANS;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanJournalStats;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanJournalTest {
+
+    private static final int SEGMENT_BYTES = LoanJournalFormat.SEGMENT_HEADER_BYTES + 50 * LoanJournalFormat.RECORD_BYTES;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void firstRecoverShouldLoadDatabaseAndStartJournal() {
+
+        List<LoanPeriod> persisted = List.of(period(1L, 1L, 1L, 10), period(2L, 2L, 2L, 15));
+        databaseHas(persisted);
+        when(loanRepository.findAllPeriods()).thenReturn(persisted);
+
+        LoanJournal journal = journal();
+        Collection<LoanPeriod> recovered = journal.recover();
+
+        assertEquals(persisted, recovered);
+        LoanJournalStats stats = journal.stats();
+        assertEquals("database", stats.getRecoverySource());
+        assertEquals(1, stats.getSegments());
+        assertFalse(stats.isFailed());
+    }
+
+    @Test
+    public void recoverShouldReplaySnapshotAndSegmentsAcrossRestarts() {
+
+        Map<Long, LoanPeriod> expected = new HashMap<>();
+        LoanJournal journal = startEmpty();
+
+        // Más registros de los que caben en un segmento para forzar el cambio de segmento
+        for (long id = 1; id <= 120; id++) {
+            put(journal, expected, period(id, id % 6 + 1, id % 4 + 1, (int) id));
+        }
+        put(journal, expected, period(5L, 2L, 3L, 200));
+        remove(journal, expected, 7L);
+        journal.close();
+
+        databaseHas(expected.values());
+        LoanJournal restarted = journal();
+        Collection<LoanPeriod> recovered = restarted.recover();
+
+        assertSameLoans(expected.values(), recovered);
+        LoanJournalStats stats = restarted.stats();
+        assertEquals("journal", stats.getRecoverySource());
+        assertEquals(122, stats.getReplayedRecords());
+        assertEquals(122, stats.getLastSeq());
+        assertFalse(stats.isTornTail());
+        verify(loanRepository, never()).findAllPeriods();
+    }
+
+    @Test
+    public void snapshotShouldCompactSealedSegments() throws Exception {
+
+        Map<Long, LoanPeriod> expected = new HashMap<>();
+        LoanJournal journal = startEmpty();
+
+        for (long id = 1; id <= 120; id++) {
+            put(journal, expected, period(id, id % 6 + 1, id % 4 + 1, (int) id));
+        }
+        LoanJournalStats stats = journal.snapshot();
+
+        assertEquals(1, stats.getSegments());
+        assertEquals(120, stats.getLastSnapshotSeq());
+        assertEquals(120, stats.getLastSnapshotLoans());
+        assertEquals(List.of(LoanJournalFormat.snapshotPath(dir, 120)), LoanJournalFormat.snapshots(dir));
+
+        remove(journal, expected, 1L);
+        journal.close();
+
+        databaseHas(expected.values());
+        LoanJournal restarted = journal();
+
+        assertSameLoans(expected.values(), restarted.recover());
+        assertEquals(1, restarted.stats().getReplayedRecords());
+    }
+
+    @Test
+    public void recoverShouldIgnoreTornTailRecord() throws Exception {
+
+        Map<Long, LoanPeriod> expected = new HashMap<>();
+        LoanJournal journal = startEmpty();
+
+        put(journal, expected, period(1L, 1L, 1L, 10));
+        put(journal, expected, period(2L, 2L, 2L, 10));
+        journal.onLoanChange(new LoanChangeEvent(null, period(3L, 3L, 3L, 10)));
+        journal.close();
+
+        // El último registro queda a medias, como si el proceso hubiera muerto al escribirlo
+        try (RandomAccessFile file = new RandomAccessFile(LoanJournalFormat.segmentPath(dir, 1).toFile(), "rw")) {
+            file.seek(LoanJournalFormat.SEGMENT_HEADER_BYTES + 2L * LoanJournalFormat.RECORD_BYTES + 20);
+            file.write(new byte[] { 1, 2, 3, 4 });
+        }
+
+        databaseHas(expected.values());
+        LoanJournal restarted = journal();
+
+        assertSameLoans(expected.values(), restarted.recover());
+        assertTrue(restarted.stats().isTornTail());
+        assertEquals(2, restarted.stats().getLastSeq());
+    }
+
+    @Test
+    public void recoverShouldFallBackToDatabaseWhenJournalDoesNotMatch() {
+
+        Map<Long, LoanPeriod> journaled = new HashMap<>();
+        LoanJournal journal = startEmpty();
+        put(journal, journaled, period(1L, 1L, 1L, 10));
+        journal.close();
+
+        // La BBDD tiene un préstamo que no llegó al diario
+        List<LoanPeriod> persisted = List.of(period(1L, 1L, 1L, 10), period(2L, 2L, 2L, 20));
+        databaseHas(persisted);
+        when(loanRepository.findAllPeriods()).thenReturn(persisted);
+
+        LoanJournal restarted = journal();
+
+        assertEquals(persisted, restarted.recover());
+        assertEquals("database", restarted.stats().getRecoverySource());
+        assertEquals(1, restarted.stats().getSegments());
+    }
+
+    @Test
+    public void inspectorShouldDescribeSnapshotsAndSegments() throws Exception {
+
+        Map<Long, LoanPeriod> expected = new HashMap<>();
+        LoanJournal journal = startEmpty();
+        put(journal, expected, period(1L, 1L, 1L, 10));
+        remove(journal, expected, 1L);
+        journal.close();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean ok = LoanJournalInspector.inspect(dir, true, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        String report = out.toString(StandardCharsets.UTF_8);
+        assertTrue(ok);
+        assertTrue(report.contains("seq=1..2  put=1  remove=1"));
+        assertTrue(report.contains("2 REMOVE loan=1"));
+        assertTrue(report.contains("Última secuencia: 2"));
+    }
+
+    private LoanJournal journal() {
+
+        LoanJournal journal = new LoanJournal(true, dir.toString(), SEGMENT_BYTES, false);
+        journal.loanRepository = loanRepository;
+        journal.jdbcTemplate = jdbcTemplate;
+
+        return journal;
+    }
+
+    private LoanJournal startEmpty() {
+
+        databaseHas(new ArrayList<>());
+        LoanJournal journal = journal();
+        journal.recover();
+
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void databaseHas(Collection<LoanPeriod> loans) {
+
+        when(jdbcTemplate.queryForObject(eq(LoanJournal.FINGERPRINT), any(RowMapper.class))).thenReturn(LoanJournal.Fingerprint.of(new ArrayList<>(loans)));
+    }
+
+    private static void put(LoanJournal journal, Map<Long, LoanPeriod> expected, LoanPeriod period) {
+
+        journal.onLoanChange(new LoanChangeEvent(expected.get(period.getId()), period));
+        expected.put(period.getId(), period);
+    }
+
+    private static void remove(LoanJournal journal, Map<Long, LoanPeriod> expected, Long id) {
+
+        journal.onLoanChange(new LoanChangeEvent(expected.remove(id), null));
+    }
+
+    private static LoanPeriod period(Long id, Long gameId, Long clientId, int day) {
+
+        LocalDate start = LocalDate.of(2024, 1, 1).plusDays(day);
+
+        return new LoanPeriod(id, gameId, clientId, start, start.plusDays(5));
+    }
+
+    private static void assertSameLoans(Collection<LoanPeriod> expected, Collection<LoanPeriod> actual) {
+
+        List<LoanPeriod> left = expected.stream().sorted(Comparator.comparing(LoanPeriod::getId)).toList();
+        List<LoanPeriod> right = actual.stream().sorted(Comparator.comparing(LoanPeriod::getId)).toList();
+
+        assertEquals(left.size(), right.size());
+        for (int i = 0; i < left.size(); i++) {
+            assertTrue(left.get(i).sameAs(right.get(i)), "Préstamo distinto: " + left.get(i).getId());
+        }
+    }
+}
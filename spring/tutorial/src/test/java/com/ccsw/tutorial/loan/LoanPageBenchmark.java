@@ -0,0 +1,122 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.common.pagination.PageableRequest;
+import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara la página de 1.000 préstamos cargando entidades y mapeando con ModelMapper
+ * frente a la proyección a constructor. No se ejecuta con el resto de tests:
+ * mvn test -Dtest=LoanPageBenchmark
+ */
+@SpringBootTest
+@DirtiesContext
+public class LoanPageBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final int WARMUP = 20;
+
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ModelMapper mapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void seed() {
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            LocalDate start = LocalDate.of(2030, 1, 1).plusDays(i * 3L);
+            rows.add(new Object[] { i % 6 + 1, i % 5 + 1, Date.valueOf(start), Date.valueOf(start.plusDays(2)) });
+        }
+
+        this.jdbcTemplate.batchUpdate("INSERT INTO loan(game_id, client_id, start_date, end_date) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    public void compareEntityMappingWithProjection() throws Exception {
+
+        LoanSearchDto search = new LoanSearchDto();
+        search.setPageable(new PageableRequest(0, ROWS));
+
+        Supplier<List<?>> entities = () -> this.transactionTemplate.execute(status -> {
+            Page<Loan> page = this.loanRepository.findAll(Specification.unrestricted(), PageRequest.of(0, ROWS));
+            return page.getContent().stream().map(e -> this.mapper.map(e, LoanDto.class)).collect(Collectors.toList());
+        });
+        Supplier<List<?>> projection = () -> this.transactionTemplate.execute(status -> this.loanService.findPage(search).getContent());
+
+        // Ambos caminos deben producir exactamente el mismo JSON
+        assertEquals(this.objectMapper.writeValueAsString(entities.get()), this.objectMapper.writeValueAsString(projection.get()));
+
+        long[] before = measure(entities);
+        long[] after = measure(projection);
+
+        System.out.printf("%nPágina de %d préstamos, media de %d iteraciones%n", ROWS, ITERATIONS);
+        System.out.printf("%-32s %12s %16s%n", "", "latencia (us)", "heap (KB)");
+        System.out.printf("%-32s %12d %16d%n", "Entidades + ModelMapper", before[0], before[1]);
+        System.out.printf("%-32s %12d %16d%n", "Proyección " + LoanListDto.class.getSimpleName(), after[0], after[1]);
+    }
+
+    private long[] measure(Supplier<List<?>> page) {
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP; i++) {
+            page.get();
+        }
+
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            assertEquals(ROWS, page.get().size());
+
+            nanos += System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - allocated;
+        }
+
+        return new long[] { nanos / ITERATIONS / 1000, bytes / ITERATIONS / 1024 };
+    }
+}
@@ -0,0 +1,52 @@
+package com.ccsw.tutorial.loan;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que las sentencias JDBC de los préstamos usan los índices de
+ * schema.sql. Se explican las mismas constantes que ejecutan los componentes.
+ */
+@SpringBootTest
+public class LoanSqlIndexIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void overlappingLoansValidationShouldUseGameAndClientDatesIndexes() {
+
+        assertUsesIndex(LoanValidationChain.OVERLAPPING, "IX_LOAN_GAME_DATES");
+        assertUsesIndex(LoanValidationChain.OVERLAPPING, "IX_LOAN_CLIENT_DATES");
+    }
+
+    @Test
+    public void availabilityCheckByGamesShouldUseGameDatesIndex() {
+
+        assertUsesIndex(String.format(LoanAvailabilityChecker.OVERLAPPING_GAMES, "?, ?"), "IX_LOAN_GAME_DATES");
+    }
+
+    @Test
+    public void availabilityCheckByClientsShouldUseClientDatesIndex() {
+
+        assertUsesIndex(String.format(LoanAvailabilityChecker.OVERLAPPING_CLIENTS, "?, ?"), "IX_LOAN_CLIENT_DATES");
+    }
+
+    @Test
+    public void overdueScanShouldUseOverdueEndDateIndex() {
+
+        assertUsesIndex(LoanOverdueScanner.SELECT_NEXT_CHUNK, "IX_LOAN_OVERDUE_END_DATE");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+
+        // Sin parámetros: H2 explica el plan que usará para cualquier valor
+        String plan = this.jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertTrue(plan.toUpperCase().contains(index), "Se esperaba el índice " + index + " en el plan:\n" + plan);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ccsw.tutorial.loan;
+
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanStateRecoveryTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private LoanJournal journal;
+
+    private LoanStateRecovery recovery;
+
+    @BeforeEach
+    public void setUp() {
+
+        recovery = new LoanStateRecovery();
+        recovery.loanRepository = loanRepository;
+        recovery.journal = journal;
+        recovery.availabilityIndex = new LoanAvailabilityIndex();
+        recovery.occupancyEngine = new ClientOccupancyEngine();
+        recovery.availabilityCalendar = new GameAvailabilityCalendar();
+    }
+
+    @Test
+    public void loanCommittedDuringReadShouldSurviveRecovery() {
+
+        LoanPeriod stored = new LoanPeriod(1L, 1L, 1L, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 12));
+        LoanPeriod committed = new LoanPeriod(2L, 1L, 1L, LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 21));
+
+        // El préstamo 2 se confirma después de leer los préstamos y antes de reconstruir los índices
+        when(journal.isEnabled()).thenReturn(false);
+        when(loanRepository.findAllPeriods()).thenAnswer(invocation -> {
+            LoanChangeEvent event = new LoanChangeEvent(null, committed);
+            recovery.availabilityIndex.onLoanChange(event);
+            recovery.occupancyEngine.onLoanChange(event);
+            recovery.availabilityCalendar.onLoanChange(event);
+
+            return List.of(stored);
+        });
+
+        recovery.recover();
+
+        assertTrue(recovery.availabilityIndex.isGameLoaned(1L, LocalDate.of(2024, 1, 21), LocalDate.of(2024, 1, 22), null));
+        assertEquals(1, recovery.occupancyEngine.maxConcurrentLoans(1L, LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 20), null));
+        assertEquals(2, recovery.availabilityIndex.snapshotOf(1L).size());
+    }
+}
@@ -8,18 +8,25 @@ import com.ccsw.tutorial.game.GameService;
 import com.ccsw.tutorial.game.model.Game;
 import com.ccsw.tutorial.game.model.GameDto;
 import com.ccsw.tutorial.loan.model.Loan;
+import com.ccsw.tutorial.loan.model.LoanChangeEvent;
 import com.ccsw.tutorial.loan.model.LoanDto;
+import com.ccsw.tutorial.loan.model.LoanListDto;
+import com.ccsw.tutorial.loan.model.LoanPeriod;
 import com.ccsw.tutorial.loan.model.LoanSearchDto;
+import com.ccsw.tutorial.loan.model.LoanValidatorStats;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -28,6 +35,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,25 +50,91 @@ public class LoanTest {
     @Mock
     private ClientService clientService;
 
+    @Mock
+    private LoanAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ClientOccupancyEngine occupancyEngine;
+
+    @Mock
+    private LoanBookingLocks bookingLocks;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LoanArchiveRepository archiveRepository;
+
+    @Mock
+    private LoanArchiver archiver;
+
+    @Mock
+    private LoanHolds holds;
+
     @InjectMocks
     private LoanServiceImpl loanService;
 
+    @BeforeEach
+    public void setUp() {
+
+        GameAvailabilityValidator gameValidator = new GameAvailabilityValidator();
+        gameValidator.availabilityIndex = availabilityIndex;
+        ClientLoanLimitValidator clientValidator = new ClientLoanLimitValidator();
+        clientValidator.occupancyEngine = occupancyEngine;
+
+        // Desordenados a propósito: la cadena los ordena por coste
+        LoanValidationChain chain = new LoanValidationChain(List.of(clientValidator, gameValidator, new LoanDurationValidator(), new LoanDateOrderValidator()));
+        chain.jdbcTemplate = jdbcTemplate;
+        chain.bookingLocks = bookingLocks;
+        loanService.validationChain = chain;
+        loanService.pageCache = new LoanPageCache(100);
+
+        lenient().when(availabilityIndex.isReady()).thenReturn(true);
+        lenient().when(occupancyEngine.isReady()).thenReturn(true);
+    }
+
     @Test
     public void findPageShouldReturnPagedLoans() {
 
         LoanSearchDto dto = new LoanSearchDto();
         dto.setPageable(new PageableRequest(0, 5));
 
-        List<Loan> loans = new ArrayList<>();
-        loans.add(mock(Loan.class));
-        Page<Loan> page = new PageImpl<>(loans);
+        List<LoanListDto> loans = new ArrayList<>();
+        loans.add(new LoanListDto(1L, 1L, "On Mars", "14", 1L, "Eurogames", 2L, "Vital Lacerda", "PT", 1L, "Juan Pérez", LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20), false));
 
-        when(loanRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(loanRepository.findList(any(Specification.class), any(Sort.class), eq(0L), eq(5))).thenReturn(loans);
 
-        Page<Loan> result = loanService.findPage(dto);
+        Page<LoanListDto> result = loanService.findPage(dto);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
+        verify(loanRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    public void findPageReachingArchiveShouldMergeHotAndArchivedLoans() {
+
+        LoanSearchDto dto = new LoanSearchDto();
+        dto.setPageable(new PageableRequest(0, 2));
+
+        LoanListDto hot = new LoanListDto(3L, 1L, "On Mars", "14", 1L, "Eurogames", 2L, "Vital Lacerda", "PT", 1L, "Juan Pérez", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 10), false);
+        LoanListDto first = new LoanListDto(1L, 1L, "On Mars", "14", 1L, "Eurogames", 2L, "Vital Lacerda", "PT", 1L, "Juan Pérez", LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20), false);
+        LoanListDto second = new LoanListDto(2L, 1L, "On Mars", "14", 1L, "Eurogames", 2L, "Vital Lacerda", "PT", 1L, "Juan Pérez", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 25), false);
+
+        when(archiver.archivedUntil()).thenReturn(LocalDate.of(2024, 1, 25));
+        when(loanRepository.findList(any(Specification.class), any(Sort.class), eq(0L), eq(2))).thenReturn(List.of(hot));
+        when(archiveRepository.findList(any(Specification.class), any(Sort.class), eq(0L), eq(2))).thenReturn(List.of(first, second));
+        when(loanRepository.count(any(Specification.class))).thenReturn(1L);
+        when(archiveRepository.count(any(Specification.class))).thenReturn(2L);
+
+        Page<LoanListDto> result = loanService.findPage(dto);
+
+        assertEquals(List.of(1L, 2L), result.getContent().stream().map(LoanListDto::id).toList());
+        assertEquals(3, result.getTotalElements());
     }
 
     @Test
@@ -108,10 +182,7 @@ public class LoanTest {
         clientDto.setId(1L);
         dto.setClient(clientDto);
 
-        List<Loan> existingLoans = new ArrayList<>();
-        existingLoans.add(mock(Loan.class));
-
-        when(loanRepository.findGameLoansInDateRange(any(), any(), any(), any())).thenReturn(existingLoans);
+        when(availabilityIndex.isGameLoaned(1L, dto.getStartDate(), dto.getEndDate(), null)).thenReturn(true);
 
         Exception exception = assertThrows(Exception.class, () -> {
             loanService.save(null, dto);
@@ -136,13 +207,7 @@ public class LoanTest {
         clientDto.setId(1L);
         dto.setClient(clientDto);
 
-        List<Loan> gameLoans = new ArrayList<>();
-        List<Loan> clientLoans = new ArrayList<>();
-        clientLoans.add(mock(Loan.class));
-        clientLoans.add(mock(Loan.class));
-
-        when(loanRepository.findGameLoansInDateRange(any(), any(), any(), any())).thenReturn(gameLoans);
-        when(loanRepository.findClientLoansInDateRange(any(), any(), any(), any())).thenReturn(clientLoans);
+        when(occupancyEngine.maxConcurrentLoans(1L, dto.getStartDate(), dto.getEndDate(), null)).thenReturn(2);
 
         Exception exception = assertThrows(Exception.class, () -> {
             loanService.save(null, dto);
@@ -170,12 +235,8 @@ public class LoanTest {
         Game game = mock(Game.class);
         Client client = mock(Client.class);
 
-        List<Loan> gameLoans = new ArrayList<>();
-        List<Loan> clientLoans = new ArrayList<>();
-        clientLoans.add(mock(Loan.class)); // Solo 1 préstamo existente
-
-        when(loanRepository.findGameLoansInDateRange(any(), any(), any(), any())).thenReturn(gameLoans);
-        when(loanRepository.findClientLoansInDateRange(any(), any(), any(), any())).thenReturn(clientLoans);
+        // Solo 1 préstamo existente
+        when(occupancyEngine.maxConcurrentLoans(1L, dto.getStartDate(), dto.getEndDate(), null)).thenReturn(1);
         when(gameService.get(1L)).thenReturn(game);
         when(clientService.get(1L)).thenReturn(client);
 
@@ -205,8 +266,6 @@ public class LoanTest {
         Game game = mock(Game.class);
         Client client = mock(Client.class);
 
-        when(loanRepository.findGameLoansInDateRange(any(), any(), any(), any())).thenReturn(new ArrayList<>());
-        when(loanRepository.findClientLoansInDateRange(any(), any(), any(), any())).thenReturn(new ArrayList<>());
         when(gameService.get(1L)).thenReturn(game);
         when(clientService.get(1L)).thenReturn(client);
 
@@ -214,22 +273,36 @@ public class LoanTest {
 
         loanService.save(null, dto);
 
+        verify(bookingLocks).acquire(List.of(1L), List.of(1L));
         verify(loanRepository).save(loanCaptor.capture());
         assertEquals(game, loanCaptor.getValue().getGame());
         assertEquals(client, loanCaptor.getValue().getClient());
+
+        ArgumentCaptor<LoanChangeEvent> eventCaptor = ArgumentCaptor.forClass(LoanChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertNull(eventCaptor.getValue().getPrevious());
+        assertEquals(dto.getStartDate(), eventCaptor.getValue().getCurrent().getStartDate());
     }
 
     @Test
     public void deleteExistingLoanShouldDelete() throws Exception {
 
         Long loanId = 1L;
-        Loan loan = mock(Loan.class);
+        Loan loan = new Loan();
+        loan.setId(loanId);
+        loan.setGame(mock(Game.class));
+        loan.setClient(mock(Client.class));
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(loan));
 
         loanService.delete(loanId);
 
         verify(loanRepository).deleteById(loanId);
+
+        ArgumentCaptor<LoanChangeEvent> eventCaptor = ArgumentCaptor.forClass(LoanChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(loanId, eventCaptor.getValue().getPrevious().getId());
+        assertNull(eventCaptor.getValue().getCurrent());
     }
 
     @Test
@@ -246,4 +319,113 @@ public class LoanTest {
         assertTrue(exception.getMessage().contains("No existe el préstamo"));
         verify(loanRepository, never()).deleteById(any());
     }
+
+    @Test
+    public void saveWithEndDateBeforeStartDateShouldNotRunStoredLoanValidators() throws Exception {
+
+        LoanDto dto = new LoanDto();
+        dto.setStartDate(LocalDate.of(2024, 1, 10));
+        dto.setEndDate(LocalDate.of(2024, 1, 5));
+
+        assertThrows(Exception.class, () -> loanService.save(null, dto));
+
+        List<LoanValidatorStats> stats = loanService.getValidatorStats();
+
+        assertEquals(List.of("LoanDateOrderValidator", "LoanDurationValidator", "GameAvailabilityValidator", "ClientLoanLimitValidator"), stats.stream().map(LoanValidatorStats::getName).toList());
+        assertEquals(1, stats.get(0).getRejections());
+        assertEquals(0, stats.get(1).getInvocations());
+        assertEquals(0, stats.get(2).getInvocations());
+        verify(bookingLocks, never()).acquire(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void saveWithIndexesNotReadyShouldLoadOverlappingLoansOnce() throws Exception {
+
+        LoanDto dto = new LoanDto();
+        dto.setStartDate(LocalDate.of(2024, 1, 1));
+        dto.setEndDate(LocalDate.of(2024, 1, 10));
+
+        GameDto gameDto = new GameDto();
+        gameDto.setId(1L);
+        dto.setGame(gameDto);
+
+        ClientDto clientDto = new ClientDto();
+        clientDto.setId(1L);
+        dto.setClient(clientDto);
+
+        when(availabilityIndex.isReady()).thenReturn(false);
+        when(occupancyEngine.isReady()).thenReturn(false);
+
+        // Dos préstamos del cliente con otros juegos el 5 de enero
+        List<LoanPeriod> overlapping = List.of(new LoanPeriod(7L, 2L, 1L, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)), new LoanPeriod(8L, 3L, 1L, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 5)));
+        when(jdbcTemplate.query(eq(LoanValidationChain.OVERLAPPING), any(RowMapper.class), any(Object[].class))).thenReturn(overlapping);
+
+        Exception exception = assertThrows(Exception.class, () -> loanService.save(null, dto));
+
+        assertTrue(exception.getMessage().contains("El cliente ya tiene 2 juegos prestados en ese periodo de fechas"));
+        verify(jdbcTemplate, times(1)).query(eq(LoanValidationChain.OVERLAPPING), any(RowMapper.class), any(Object[].class));
+        verify(loanRepository, never()).save(any());
+    }
+
+    @Test
+    public void saveWithDatabaseLocksShouldCheckStoredLoansInDatabase() throws Exception {
+
+        LoanDto dto = new LoanDto();
+        dto.setStartDate(LocalDate.of(2024, 1, 1));
+        dto.setEndDate(LocalDate.of(2024, 1, 10));
+
+        GameDto gameDto = new GameDto();
+        gameDto.setId(1L);
+        dto.setGame(gameDto);
+
+        ClientDto clientDto = new ClientDto();
+        clientDto.setId(1L);
+        dto.setClient(clientDto);
+
+        // Otra instancia ha prestado el juego: el índice de esta no lo sabe
+        when(bookingLocks.isDatabaseLocks()).thenReturn(true);
+        List<LoanPeriod> overlapping = List.of(new LoanPeriod(9L, 1L, 2L, LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12)));
+        when(jdbcTemplate.query(eq(LoanValidationChain.OVERLAPPING), any(RowMapper.class), any(Object[].class))).thenReturn(overlapping);
+
+        Exception exception = assertThrows(Exception.class, () -> loanService.save(null, dto));
+
+        assertTrue(exception.getMessage().contains("El juego ya está prestado en ese periodo de fechas"));
+        verify(availabilityIndex, never()).isGameLoaned(any(), any(), any(), any());
+        verify(loanRepository, never()).save(any());
+    }
+
+    @Test
+    public void findPageShouldBeServedFromCacheOnRepeat() {
+
+        LoanSearchDto dto = new LoanSearchDto();
+        dto.setClientId(1L);
+        dto.setPageable(new PageableRequest(0, 5));
+
+        when(loanRepository.findList(any(Specification.class), any(Sort.class), eq(0L), eq(5))).thenReturn(new ArrayList<>());
+
+        loanService.findPage(dto);
+        loanService.findPage(dto);
+
+        verify(loanRepository, times(1)).findList(any(Specification.class), any(Sort.class), eq(0L), eq(5));
+        assertEquals(1, loanService.getPageCacheStats().getHits());
+    }
+
+    @Test
+    public void findPageReadDuringWriteShouldNotBeCached() {
+
+        LoanSearchDto dto = new LoanSearchDto();
+        dto.setPageable(new PageableRequest(0, 5));
+
+        // Una escritura empieza mientras se lee la página: el resultado no debe guardarse
+        when(loanRepository.findList(any(Specification.class), any(Sort.class), eq(0L), eq(5))).thenAnswer(invocation -> {
+            loanService.pageCache.beginWrite();
+            return new ArrayList<>();
+        });
+
+        loanService.findPage(dto);
+
+        assertEquals(0, loanService.getPageCacheStats().getSize());
+        assertEquals(1, loanService.getPageCacheStats().getDiscarded());
+    }
 }
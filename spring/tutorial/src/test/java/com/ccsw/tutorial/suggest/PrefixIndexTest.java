@@ -0,0 +1,70 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    public void setUp() {
+
+        index = new PrefixIndex();
+        index.rebuild(Map.of(1L, "On Mars", 2L, "Aventureros al tren", 3L, "1920: Wall Street", 4L, "Barrage", 5L, "Los viajes de Marco Polo", 6L, "Azul"));
+    }
+
+    @Test
+    public void findShouldMatchPrefixOfAnyWord() {
+
+        assertEquals(5L, index.find("polo", 10).get(0).id());
+        assertEquals(3L, index.find("wall st", 10).get(0).id());
+        assertTrue(index.find("ars", 10).isEmpty());
+    }
+
+    @Test
+    public void findShouldIgnoreCaseAndAccents() {
+
+        assertEquals(new SuggestionDto(2L, "Aventureros al tren"), index.find("AVÉNT", 10).get(0));
+    }
+
+    @Test
+    public void findShouldStopAtLimitWithoutRepeatingIds() {
+
+        index.put(7L, "Marco Polo Marco");
+
+        assertEquals(2, index.find("marco", 10).size());
+        assertEquals(1, index.find("marco", 1).size());
+        assertEquals(1, index.find("marco", 10).stream().filter(e -> e.id() == 7L).count());
+    }
+
+    @Test
+    public void putShouldReplacePreviousLabel() {
+
+        index.put(6L, "Azul: Pabellón de verano");
+
+        assertEquals("Azul: Pabellón de verano", index.find("pabe", 10).get(0).label());
+        assertEquals(1, index.find("azul", 10).size());
+        assertEquals(6, index.size());
+
+        index.put(6L, "Sagrada");
+
+        assertTrue(index.find("azul", 10).isEmpty());
+        assertEquals(6L, index.find("sag", 10).get(0).id());
+    }
+
+    @Test
+    public void removeShouldDropAllKeys() {
+
+        index.remove(5L);
+
+        assertTrue(index.find("polo", 10).isEmpty());
+        assertTrue(index.find("los", 10).isEmpty());
+        assertEquals(5, index.size());
+    }
+}
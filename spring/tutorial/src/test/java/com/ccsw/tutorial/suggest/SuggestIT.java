@@ -0,0 +1,79 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.author.model.AuthorDto;
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SuggestIT {
+
+    public static final String LOCALHOST = "http://localhost:";
+    public static final String SERVICE_PATH = "/suggest";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    ParameterizedTypeReference<List<SuggestionDto>> responseType = new ParameterizedTypeReference<List<SuggestionDto>>() {
+    };
+
+    private String getUrl(String type, String prefix) {
+
+        return LOCALHOST + port + SERVICE_PATH + "?type=" + type + "&prefix=" + prefix;
+    }
+
+    @Test
+    public void suggestGamesShouldReturnIdAndTitle() {
+
+        ResponseEntity<List<SuggestionDto>> response = restTemplate.exchange(getUrl("game", "av"), HttpMethod.GET, null, responseType);
+
+        assertEquals(List.of(new SuggestionDto(2L, "Aventureros al tren")), response.getBody());
+    }
+
+    @Test
+    public void suggestClientsShouldMatchSurname() {
+
+        ResponseEntity<List<SuggestionDto>> response = restTemplate.exchange(getUrl("client", "garc"), HttpMethod.GET, null, responseType);
+
+        assertEquals(List.of(2L), response.getBody().stream().map(SuggestionDto::id).toList());
+    }
+
+    @Test
+    public void modifiedAuthorShouldBeSuggestedWithNewName() {
+
+        AuthorDto author = new AuthorDto();
+        author.setName("Zacarías Moon");
+        author.setNationality("US");
+        restTemplate.exchange(LOCALHOST + port + "/author/1", HttpMethod.PUT, new HttpEntity<>(author), Void.class);
+
+        ResponseEntity<List<SuggestionDto>> response = restTemplate.exchange(getUrl("author", "zac"), HttpMethod.GET, null, responseType);
+
+        assertEquals(List.of(new SuggestionDto(1L, "Zacarías Moon")), response.getBody());
+        assertEquals(0, restTemplate.exchange(getUrl("author", "alan"), HttpMethod.GET, null, responseType).getBody().size());
+    }
+
+    @Test
+    public void suggestWithNotExistsTypeShouldReturnBadRequest() {
+
+        ResponseEntity<String> response = restTemplate.exchange(getUrl("loan", "a"), HttpMethod.GET, null, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
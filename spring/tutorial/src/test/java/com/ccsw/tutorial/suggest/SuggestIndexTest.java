@@ -0,0 +1,78 @@
+package com.ccsw.tutorial.suggest;
+
+import com.ccsw.tutorial.author.AuthorRepository;
+import com.ccsw.tutorial.client.ClientRepository;
+import com.ccsw.tutorial.common.event.CatalogChangeEvent;
+import com.ccsw.tutorial.game.GameRepository;
+import com.ccsw.tutorial.game.model.Game;
+import com.ccsw.tutorial.game.model.GameTitle;
+import com.ccsw.tutorial.suggest.model.SuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SuggestIndexTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    private SuggestIndex index;
+
+    @BeforeEach
+    public void setUp() {
+
+        index = new SuggestIndex();
+        index.gameRepository = gameRepository;
+        index.authorRepository = authorRepository;
+        index.clientRepository = clientRepository;
+
+        when(authorRepository.findAll()).thenReturn(List.of());
+        when(clientRepository.findAll()).thenReturn(List.of());
+    }
+
+    @Test
+    public void changeDuringRebuildShouldSurviveStaleRead() {
+
+        // La lectura de la reconstrucción es anterior al alta del juego 8 y al borrado del 1
+        when(gameRepository.findAllTitles()).thenAnswer(invocation -> {
+            when(gameRepository.findTitle(8L)).thenReturn(new GameTitle(8L, "Carcassonne"));
+            index.onCatalogChange(new CatalogChangeEvent(Game.class, 8L));
+            when(gameRepository.findTitle(1L)).thenReturn(null);
+            index.onCatalogChange(new CatalogChangeEvent(Game.class, 1L));
+
+            return List.of(new GameTitle(1L, "On Mars"), new GameTitle(2L, "Aventureros al tren"));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(8L), index.find(SuggestType.GAME, "carc", 10).stream().map(SuggestionDto::id).toList());
+        assertTrue(index.find(SuggestType.GAME, "mars", 10).isEmpty());
+        assertEquals(List.of(2L), index.find(SuggestType.GAME, "aven", 10).stream().map(SuggestionDto::id).toList());
+    }
+
+    @Test
+    public void initializeShouldReadDatabaseOnlyOnce() {
+
+        when(gameRepository.findAllTitles()).thenReturn(List.of(new GameTitle(1L, "On Mars")));
+
+        index.initialize();
+        index.initialize();
+
+        assertTrue(index.isReady());
+        verify(gameRepository, times(1)).findAllTitles();
+    }
+}